@@ -0,0 +1,195 @@
+/*
+ * CsvReportSink.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import net.sf.portecle.crypto.CertificateSummary;
+import net.sf.portecle.crypto.KeyPairUtil;
+import net.sf.portecle.crypto.KeyStoreType;
+
+/**
+ * Keystore report sink writing RFC 4180 CSV for machine consumption: a header row followed by one row per certificate.
+ * Entries without certificates get a single row with empty certificate columns. Column names follow the keystore report
+ * DTD, dates are in ISO 8601 format in UTC.
+ */
+class CsvReportSink
+    implements KeyStoreReportSink
+{
+	/** Column names */
+	private static final String[] COLUMNS = { "alias", "creation_date", "type", "certificate", "version", "subject",
+	    "issuer", "serial_number", "valid_from", "valid_until", "public_key_algorithm", "public_key_size",
+	    "signature_algorithm", "md5_fingerprint", "sha1_fingerprint", "sha256_fingerprint" };
+
+	/** Record separator */
+	private static final String CRLF = "\r\n";
+
+	/** Writer to write to */
+	private final Writer m_out;
+
+	/** Date format */
+	private final DateFormat m_dateFormat;
+
+	/** Values of the row being written */
+	private final String[] m_row = new String[COLUMNS.length];
+
+	/**
+	 * Construct a CsvReportSink writing UTF-8 to a stream.
+	 * 
+	 * @param out Stream to write to; not closed by the sink
+	 */
+	public CsvReportSink(OutputStream out)
+	{
+		this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Construct a CsvReportSink.
+	 * 
+	 * @param out Writer to write to; not closed by the sink
+	 */
+	public CsvReportSink(Writer out)
+	{
+		m_out = out;
+		m_dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.ROOT);
+		m_dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+	}
+
+	@Override
+	public void startReport(KeyStoreType ksType, String sProvider, int iEntries)
+	    throws IOException
+	{
+		writeRow(COLUMNS);
+	}
+
+	@Override
+	public void entry(KeyStoreReport.Entry entry)
+	    throws IOException
+	{
+		m_row[0] = entry.getAlias();
+		m_row[1] = formatDate(entry.getCreationDate());
+		m_row[2] = entry.getType().getName();
+
+		int iChainLen = entry.getCertificateCount();
+		if (iChainLen == 0)
+		{
+			for (int i = 3; i < m_row.length; i++)
+			{
+				m_row[i] = null;
+			}
+			writeRow(m_row);
+			return;
+		}
+
+		for (int iCnt = 0; iCnt < iChainLen; iCnt++)
+		{
+			CertificateSummary summary = entry.getCertificate(iCnt);
+			int iKeySize = summary.getKeySize();
+
+			m_row[3] = String.valueOf(iCnt + 1);
+			m_row[4] = String.valueOf(summary.getVersion());
+			m_row[5] = summary.getSubject();
+			m_row[6] = summary.getIssuer();
+			m_row[7] = summary.getSerialNumber();
+			m_row[8] = formatDate(summary.getNotBefore());
+			m_row[9] = formatDate(summary.getNotAfter());
+			m_row[10] = summary.getKeyAlgorithm();
+			m_row[11] = (iKeySize == KeyPairUtil.UNKNOWN_KEY_SIZE) ? null : String.valueOf(iKeySize);
+			m_row[12] = summary.getSignatureAlgorithm();
+			m_row[13] = summary.getMd5Fingerprint();
+			m_row[14] = summary.getSha1Fingerprint();
+			m_row[15] = summary.getSha256Fingerprint();
+			writeRow(m_row);
+		}
+	}
+
+	@Override
+	public void endReport()
+	    throws IOException
+	{
+		m_out.flush();
+	}
+
+	/**
+	 * Format a date.
+	 * 
+	 * @param date The date, may be null
+	 * @return The formatted date, null if the date is null
+	 */
+	private String formatDate(Date date)
+	{
+		return (date == null) ? null : m_dateFormat.format(date);
+	}
+
+	/**
+	 * Write a row, quoting values containing separators, quotes or line breaks.
+	 * 
+	 * @param values The values; null values are written as empty
+	 * @throws IOException If writing failed
+	 */
+	private void writeRow(String[] values)
+	    throws IOException
+	{
+		for (int i = 0; i < values.length; i++)
+		{
+			if (i != 0)
+			{
+				m_out.write(',');
+			}
+
+			String sValue = values[i];
+			if (sValue == null)
+			{
+				continue;
+			}
+
+			boolean bQuote = false;
+			for (int j = 0; j < sValue.length() && !bQuote; j++)
+			{
+				char c = sValue.charAt(j);
+				bQuote = (c == ',' || c == '"' || c == '\r' || c == '\n');
+			}
+
+			if (bQuote)
+			{
+				m_out.write('"');
+				m_out.write(sValue.replace("\"", "\"\""));
+				m_out.write('"');
+			}
+			else
+			{
+				m_out.write(sValue);
+			}
+		}
+		m_out.write(CRLF);
+	}
+}
@@ -32,49 +32,43 @@ import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.StringSelection;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringWriter;
-import java.security.GeneralSecurityException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.security.KeyStore;
-import java.security.cert.Certificate;
-import java.security.cert.X509Certificate;
-import java.text.DateFormat;
 import java.text.MessageFormat;
-import java.util.Date;
 import java.util.Enumeration;
-import java.util.Properties;
+import java.util.concurrent.CancellationException;
 
 import javax.swing.JButton;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTree;
 import javax.swing.ScrollPaneConstants;
+import javax.swing.SwingUtilities;
 import javax.swing.ToolTipManager;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
 
 import net.sf.portecle.crypto.CryptoException;
-import net.sf.portecle.crypto.DigestType;
-import net.sf.portecle.crypto.DigestUtil;
-import net.sf.portecle.crypto.KeyPairUtil;
-import net.sf.portecle.crypto.KeyStoreType;
-import net.sf.portecle.crypto.X509CertUtil;
+import net.sf.portecle.gui.BackgroundTask;
+import net.sf.portecle.gui.FileExtFilter;
 import net.sf.portecle.gui.error.DThrowable;
 
 /**
@@ -83,41 +77,24 @@ import net.sf.portecle.gui.error.DThrowable;
 class DKeyStoreReport
     extends PortecleJDialog
 {
-	/** Transformer factory for XML output */
-	private static final TransformerFactory TF_FACTORY = TransformerFactory.newInstance();
+	/** Size of the output buffer for reports saved to files */
+	private static final int BUFFER_SIZE = 64 * 1024;
 
-	static
-	{
-		try
-		{
-			// XSLTC in J2SE 5 (why oh why doesn't it grok the "normal"
-			// transformer properties... :()
-			TF_FACTORY.setAttribute("indent-number", "2");
-		}
-		catch (IllegalArgumentException e)
-		{
-			// Ignore.
-		}
-	}
+	/** Keystores with at most this many entries have their report tree fully expanded when shown */
+	private static final int AUTO_EXPAND_ENTRIES = 32;
 
-	/** Transformer properties for XML output */
-	private static final Properties TF_PROPS = new Properties();
+	/** Number of entries expanded at a time by the expand all action */
+	private static final int EXPAND_BATCH_SIZE = 64;
 
-	static
-	{
-		try (InputStream in = DKeyStoreReport.class.getResourceAsStream("keystore-report-xml.properties"))
-		{
-			TF_PROPS.load(in);
-		}
-		catch (IOException e)
-		{
-			throw new ExceptionInInitializerError(e);
-		}
-	}
+	/** Keystores with more than this many entries ask for confirmation before their report is copied */
+	private static final int COPY_WARN_ENTRIES = 1000;
 
 	/** Stores keystore to report on */
 	private final KeyStore m_keystore;
 
+	/** Keystore report tree */
+	private JTree m_jtrReport;
+
 	/**
 	 * Creates new DKeyStoreReport dialog.
 	 * 
@@ -127,19 +104,30 @@ class DKeyStoreReport
 	 */
 	public DKeyStoreReport(JFrame parent, KeyStore keystore)
 	    throws CryptoException
+	{
+		this(parent, keystore, createReportNodes(keystore));
+	}
+
+	/**
+	 * Creates new DKeyStoreReport dialog with a pre-generated report tree.
+	 * 
+	 * @param parent Parent window
+	 * @param keystore Keystore to display report on
+	 * @param reportNodes Report tree, see {@link #createReportNodes(KeyStore)}
+	 */
+	public DKeyStoreReport(JFrame parent, KeyStore keystore, DefaultMutableTreeNode reportNodes)
 	{
 		super(parent, true);
 		m_keystore = keystore;
-		initComponents();
+		initComponents(reportNodes);
 	}
 
 	/**
 	 * Initialize the dialog's GUI components.
 	 * 
-	 * @throws CryptoException A crypto related problem was encountered generating the keystore report
+	 * @param reportNodes Report tree
 	 */
-	private void initComponents()
-	    throws CryptoException
+	private void initComponents(DefaultMutableTreeNode reportNodes)
 	{
 		// Buttons
 		JPanel jpButtons = new JPanel(new FlowLayout(FlowLayout.CENTER));
@@ -176,25 +164,81 @@ class DKeyStoreReport
 
 		jpButtons.add(jbCopyXml);
 
+		JButton jbSave = new JButton(RB.getString("DKeyStoreReport.jbSave.text"));
+		jbSave.setMnemonic(RB.getString("DKeyStoreReport.jbSave.mnemonic").charAt(0));
+		jbSave.setToolTipText(RB.getString("DKeyStoreReport.jbSave.tooltip"));
+		jbSave.addActionListener(new ActionListener()
+		{
+			@Override
+			public void actionPerformed(ActionEvent evt)
+			{
+				savePressed();
+			}
+		});
+
+		jpButtons.add(jbSave);
+
+		JButton jbExpandAll = new JButton(RB.getString("DKeyStoreReport.jbExpandAll.text"));
+		jbExpandAll.setMnemonic(RB.getString("DKeyStoreReport.jbExpandAll.mnemonic").charAt(0));
+		jbExpandAll.setToolTipText(RB.getString("DKeyStoreReport.jbExpandAll.tooltip"));
+		jbExpandAll.addActionListener(new ActionListener()
+		{
+			@Override
+			public void actionPerformed(ActionEvent evt)
+			{
+				expandAllPressed();
+			}
+		});
+
+		jpButtons.add(jbExpandAll);
+
 		// Keystore report
 		JPanel jpReport = new JPanel(new BorderLayout());
 		jpReport.setBorder(new EmptyBorder(5, 5, 5, 5));
 
 		// Load tree with keystore report
-		JTree jtrReport = new JTree(createReportNodes());
+		m_jtrReport = new JTree(reportNodes);
 		// Top accommodate node icons with spare space (they are 16 pixels tall)
-		jtrReport.setRowHeight(18);
-		jtrReport.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
+		m_jtrReport.setRowHeight(18);
+		// Fixed row height allows the tree to skip measuring every row of big reports
+		m_jtrReport.setLargeModel(true);
+		m_jtrReport.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
 		// Allow tool tips in tree
-		ToolTipManager.sharedInstance().registerComponent(jtrReport);
+		ToolTipManager.sharedInstance().registerComponent(m_jtrReport);
 		// Custom tree node renderer
-		jtrReport.setCellRenderer(new ReportTreeCellRend());
+		m_jtrReport.setCellRenderer(new ReportTreeCellRend());
+		// Create the nodes of entries when they are first expanded
+		m_jtrReport.addTreeWillExpandListener(new TreeWillExpandListener()
+		{
+			@Override
+			public void treeWillExpand(TreeExpansionEvent evt)
+			{
+				Object node = evt.getPath().getLastPathComponent();
+				if (node instanceof TreeReportSink.EntryNode)
+				{
+					((TreeReportSink.EntryNode) node).populate();
+				}
+			}
 
-		// Expand all nodes in tree
-		TreeNode topNode = (TreeNode) jtrReport.getModel().getRoot();
-		expandTree(jtrReport, new TreePath(topNode));
+			@Override
+			public void treeWillCollapse(TreeExpansionEvent evt)
+			{
+				// Nothing to do
+			}
+		});
+
+		// Expand all nodes of small trees, only the top node of big ones
+		TreeNode topNode = (TreeNode) m_jtrReport.getModel().getRoot();
+		if (topNode.getChildCount() <= AUTO_EXPAND_ENTRIES)
+		{
+			expandTree(m_jtrReport, new TreePath(topNode));
+		}
+		else
+		{
+			m_jtrReport.expandPath(new TreePath(topNode));
+		}
 
-		JScrollPane jspReport = new JScrollPane(jtrReport, ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS,
+		JScrollPane jspReport = new JScrollPane(m_jtrReport, ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS,
 		    ScrollPaneConstants.HORIZONTAL_SCROLLBAR_ALWAYS);
 		jspReport.setPreferredSize(new Dimension(350, 200));
 		jpReport.add(jspReport, BorderLayout.CENTER);
@@ -220,582 +264,231 @@ class DKeyStoreReport
 	 */
 	private void expandTree(JTree tree, TreePath parent)
 	{
-		// Traverse children expending nodes
+		// Expand the node first, its children may only be created when it is expanded
 		TreeNode node = (TreeNode) parent.getLastPathComponent();
-		if (node.getChildCount() >= 0)
+		if (node.isLeaf())
+		{
+			return;
+		}
+		tree.expandPath(parent);
+
+		// Traverse children expanding nodes
+		for (Enumeration<?> en = node.children(); en.hasMoreElements();)
 		{
-			for (Enumeration<?> en = node.children(); en.hasMoreElements();)
+			TreeNode subNode = (TreeNode) en.nextElement();
+			expandTree(tree, parent.pathByAddingChild(subNode));
+		}
+	}
+
+	/**
+	 * Expand all nodes of the report tree. Entries are expanded a batch at a time on the event dispatch thread, driven
+	 * by a background task so that the user can cancel expanding a big tree; nodes expanded until then stay expanded.
+	 */
+	private void expandAllPressed()
+	{
+		final TreeNode topNode = (TreeNode) m_jtrReport.getModel().getRoot();
+		final TreePath topPath = new TreePath(topNode);
+		final int iEntries = topNode.getChildCount();
+
+		BackgroundTask<Void> task =
+		    new BackgroundTask<Void>(this, null, RB.getString("DKeyStoreReport.ExpandingAll.message"))
+		{
+			@Override
+			protected Void doInBackground()
+			    throws InterruptedException, InvocationTargetException
 			{
-				TreeNode subNode = (TreeNode) en.nextElement();
-				TreePath path = parent.pathByAddingChild(subNode);
-				expandTree(tree, path);
+				for (int iStart = 0; iStart < iEntries && !isCancelled(); iStart += EXPAND_BATCH_SIZE)
+				{
+					final int iFrom = iStart;
+					final int iTo = Math.min(iEntries, iStart + EXPAND_BATCH_SIZE);
+					SwingUtilities.invokeAndWait(new Runnable()
+					{
+						@Override
+						public void run()
+						{
+							for (int i = iFrom; i < iTo; i++)
+							{
+								expandTree(m_jtrReport, topPath.pathByAddingChild(topNode.getChildAt(i)));
+							}
+						}
+					});
+					setProgress(iTo * 100 / iEntries);
+				}
+				return null;
 			}
-		}
+		};
 
-		tree.expandPath(parent);
+		m_jtrReport.expandPath(topPath);
+		task.runAndShowErrors();
 	}
 
 	/**
-	 * Copy the keystore report to the clipboard.
+	 * Copy the keystore report to the clipboard. The report is generated in the background; as all of it has to be held
+	 * in memory, copying the report of a big keystore is only done after confirmation.
 	 * 
 	 * @param bXml Copy as XML?
 	 */
-	private void copyPressed(boolean bXml)
+	private void copyPressed(final boolean bXml)
 	{
-		try
+		int iEntries = ((TreeNode) m_jtrReport.getModel().getRoot()).getChildCount();
+		if (iEntries > COPY_WARN_ENTRIES)
 		{
-			// Get report...
-			String sKeyStoreReport = null;
-
-			if (!bXml)
+			String sMessage = MessageFormat.format(RB.getString("DKeyStoreReport.CopyBig.message"), iEntries);
+			int iSelected = JOptionPane.showConfirmDialog(this, sMessage, getTitle(), JOptionPane.YES_NO_OPTION);
+			if (iSelected != JOptionPane.YES_OPTION)
 			{
-				// ...plain
-				sKeyStoreReport = getKeyStoreReport();
+				return;
 			}
-			else
+		}
+
+		BackgroundTask<String> task =
+		    new BackgroundTask<String>(this, null, RB.getString("DKeyStoreReport.Copying.message"))
+		{
+			@Override
+			protected String doInBackground()
+			    throws CryptoException, IOException
 			{
-				// ...as XML
-				sKeyStoreReport = getKeyStoreReportXml();
+				// Get report, plain or as XML
+				StringWriter report = new StringWriter();
+				new KeyStoreReport(m_keystore).write(bXml ? new XmlReportSink(report) : new TextReportSink(report));
+				return report.toString();
 			}
+		};
 
+		String sReport = task.runAndShowErrors();
+		if (sReport != null)
+		{
 			// Copy to clipboard
 			Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
-			StringSelection copy = new StringSelection(sKeyStoreReport);
+			StringSelection copy = new StringSelection(sReport);
 			clipboard.setContents(copy, copy);
 		}
-		catch (CryptoException | ParserConfigurationException | TransformerException ex)
-		{
-			DThrowable.showAndWait(this, null, ex);
-		}
 	}
 
 	/**
-	 * Get the KeyStoreReport as XML.
-	 * 
-	 * @return Keystore report in XML
-	 * @throws CryptoException A crypto related problem was encountered generating the keystore report
-	 * @throws ParserConfigurationException There was a serious problem creating the XML report
-	 * @throws TransformerException There was a serious problem creating the XML report
+	 * Save the keystore report to a file. The format is chosen by the file's extension, or by the selected file filter
+	 * if the extension is not recognized. The report is written in the background one entry at a time, so memory use
+	 * does not depend on the size of the keystore; a partially written file is removed if the user cancels.
 	 */
-	private String getKeyStoreReportXml()
-	    throws CryptoException, ParserConfigurationException, TransformerException
+	private void savePressed()
 	{
-		StringWriter xml = new StringWriter();
-		Transformer tr = TF_FACTORY.newTransformer();
-		tr.setOutputProperties(TF_PROPS);
-		tr.transform(new DOMSource(generateDocument()), new StreamResult(xml));
-		return xml.toString();
-	}
+		JFileChooser chooser = FileChooserFactory.getReportFileChooser(null);
+		chooser.setDialogTitle(RB.getString("DKeyStoreReport.Save.Title"));
+		chooser.setMultiSelectionEnabled(false);
 
-	/**
-	 * Get the KeyStoreReport as plain text.
-	 * 
-	 * @return Keystore report
-	 * @throws CryptoException A crypto related problem was encountered generating the keystore report
-	 */
-	private String getKeyStoreReport()
-	    throws CryptoException
-	{
-		try
+		int iRtnValue = chooser.showDialog(this, RB.getString("DKeyStoreReport.Save.button"));
+		if (iRtnValue != JFileChooser.APPROVE_OPTION)
 		{
-			// Buffer to hold report
-			StringBuilder sbReport = new StringBuilder(2000);
-
-			// General keystore information...
-
-			// Keystore type
-			KeyStoreType ksType = KeyStoreType.valueOfType(m_keystore.getType());
-			sbReport.append(MessageFormat.format(RB.getString("DKeyStoreReport.report.type"), ksType.getTypeName()));
-			sbReport.append("\n");
-
-			// Keystore provider
-			sbReport.append(MessageFormat.format(RB.getString("DKeyStoreReport.report.provider"),
-			    m_keystore.getProvider().getName()));
-			sbReport.append("\n");
-
-			// Keystore size (entries)
-			sbReport.append(MessageFormat.format(RB.getString("DKeyStoreReport.report.entries"), m_keystore.size()));
-			sbReport.append("\n\n");
-
-			Enumeration<String> aliases = m_keystore.aliases();
+			return;
+		}
 
-			// Get information on each keystore entry
-			while (aliases.hasMoreElements())
+		File fSelected = chooser.getSelectedFile();
+		String sName = fSelected.getName();
+		int iDot = sName.lastIndexOf('.');
+		KeyStoreReport.Format format =
+		    (iDot > 0) ? KeyStoreReport.Format.valueOfExtension(sName.substring(iDot + 1)) : null;
+		if (format == null)
+		{
+			format = KeyStoreReport.Format.XML;
+			if (chooser.getFileFilter() instanceof FileExtFilter)
 			{
-				// Alias
-				String sAlias = aliases.nextElement();
-				sbReport.append(MessageFormat.format(RB.getString("DKeyStoreReport.report.alias"), sAlias));
-				sbReport.append("\n");
-
-				// Creation date
-
-				if (ksType.isEntryCreationDateUseful())
+				KeyStoreReport.Format filterFormat = KeyStoreReport.Format.valueOfExtension(
+				    ((FileExtFilter) chooser.getFileFilter()).getDefaultExtension());
+				if (filterFormat != null)
 				{
-					Date dCreation = m_keystore.getCreationDate(sAlias);
-
-					// Include time zone
-					String sCreation =
-					    DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.LONG).format(dCreation);
-					sbReport.append(MessageFormat.format(RB.getString("DKeyStoreReport.report.creation"), sCreation));
-					sbReport.append("\n");
-				}
-
-				Certificate[] certChain = null;
-
-				// Get entry type and certificates
-				if (m_keystore.isKeyEntry(sAlias))
-				{
-					certChain = m_keystore.getCertificateChain(sAlias);
-
-					if (certChain == null || certChain.length == 0)
-					{
-						sbReport.append(RB.getString("DKeyStoreReport.report.key"));
-						sbReport.append("\n");
-					}
-					else
-					{
-						sbReport.append(RB.getString("DKeyStoreReport.report.keypair"));
-						sbReport.append("\n");
-					}
-				}
-				else
-				{
-					sbReport.append(RB.getString("DKeyStoreReport.report.trustcert"));
-					sbReport.append("\n");
-
-					Certificate cert = m_keystore.getCertificate(sAlias);
-					if (cert != null)
-					{
-						certChain = new Certificate[] { cert };
-					}
-				}
-
-				// Get information on each certificate in an entry
-				if (certChain == null || certChain.length == 0)
-				{
-					// Zero certificates
-					sbReport.append(MessageFormat.format(RB.getString("DKeyStoreReport.report.certs"), 0));
-					sbReport.append("\n\n");
-				}
-				else
-				{
-					X509Certificate[] x509CertChain = X509CertUtil.convertCertificates(certChain);
-
-					// One or more certificates
-					int iChainLen = x509CertChain.length;
-					sbReport.append(MessageFormat.format(RB.getString("DKeyStoreReport.report.certs"), iChainLen));
-					sbReport.append("\n\n");
-
-					for (int iCnt = 0; iCnt < iChainLen; iCnt++)
-					{
-						// Get information on an individual certificate
-						sbReport.append(
-						    MessageFormat.format(RB.getString("DKeyStoreReport.report.cert"), iCnt + 1, iChainLen));
-						sbReport.append("\n");
-
-						X509Certificate x509Cert = x509CertChain[iCnt];
-
-						// Version
-						sbReport.append(MessageFormat.format(RB.getString("DKeyStoreReport.report.version"),
-						    x509Cert.getVersion()));
-						sbReport.append("\n");
-
-						// Subject
-						sbReport.append(MessageFormat.format(RB.getString("DKeyStoreReport.report.subject"),
-						    x509Cert.getSubjectDN()));
-						sbReport.append("\n");
-
-						// Issuer
-						sbReport.append(MessageFormat.format(RB.getString("DKeyStoreReport.report.issuer"),
-						    x509Cert.getIssuerDN()));
-						sbReport.append("\n");
-
-						// Serial Number
-						StringBuilder sSerialNumber = StringUtil.toHex(x509Cert.getSerialNumber(), 4, " ");
-						sbReport.append(
-						    MessageFormat.format(RB.getString("DKeyStoreReport.report.serial"), sSerialNumber));
-						sbReport.append("\n");
-
-						// Valid From
-						Date dValidFrom = x509Cert.getNotBefore();
-						String sValidFrom =
-						    DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM).format(dValidFrom);
-						sbReport.append(
-						    MessageFormat.format(RB.getString("DKeyStoreReport.report.validfrom"), sValidFrom));
-						sbReport.append("\n");
-
-						// Valid Until
-						Date dValidTo = x509Cert.getNotAfter();
-						String sValidTo =
-						    DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM).format(dValidTo);
-						sbReport.append(
-						    MessageFormat.format(RB.getString("DKeyStoreReport.report.validuntil"), sValidTo));
-						sbReport.append("\n");
-
-						// Public Key (algorithm and key size)
-						int iKeySize = KeyPairUtil.getKeyLength(x509Cert.getPublicKey());
-						String sKeyAlg = x509Cert.getPublicKey().getAlgorithm();
-						String fmtKey = (iKeySize == KeyPairUtil.UNKNOWN_KEY_SIZE)
-						    ? "DKeyStoreReport.report.pubkeynosize" : "DKeyStoreReport.report.pubkey";
-						sbReport.append(MessageFormat.format(RB.getString(fmtKey), sKeyAlg, iKeySize));
-						sbReport.append("\n");
-
-						// Signature Algorithm
-						sbReport.append(MessageFormat.format(RB.getString("DKeyStoreReport.report.sigalg"),
-						    x509Cert.getSigAlgName()));
-						sbReport.append("\n");
-
-						byte[] bCert = x509Cert.getEncoded();
-
-						// SHA-1 fingerprint
-						sbReport.append(MessageFormat.format(RB.getString("DKeyStoreReport.report.sha1"),
-						    DigestUtil.getMessageDigest(bCert, DigestType.SHA1)));
-						sbReport.append("\n");
-
-						// MD5 fingerprint
-						sbReport.append(MessageFormat.format(RB.getString("DKeyStoreReport.report.md5"),
-						    DigestUtil.getMessageDigest(bCert, DigestType.MD5)));
-						sbReport.append("\n");
-
-						if (iCnt + 1 < iChainLen)
-						{
-							sbReport.append("\n");
-						}
-					}
-
-					if (aliases.hasMoreElements())
-					{
-						sbReport.append("\n");
-					}
+					format = filterFormat;
 				}
 			}
-
-			// Return the report
-			return sbReport.toString();
+			fSelected = new File(fSelected.getParentFile(), sName + "." + format.getExtension());
 		}
-		catch (GeneralSecurityException ex)
+
+		final File fReportFile = fSelected;
+		final KeyStoreReport.Format reportFormat = format;
+
+		if (fReportFile.isFile())
 		{
-			throw new CryptoException(RB.getString("DKeyStoreReport.NoGenerateReport.exception.message"), ex);
+			String sMessage =
+			    MessageFormat.format(RB.getString("DKeyStoreReport.OverWriteFile.message"), fReportFile.getName());
+			int iSelected = JOptionPane.showConfirmDialog(this, sMessage, getTitle(), JOptionPane.YES_NO_OPTION);
+			if (iSelected != JOptionPane.YES_OPTION)
+			{
+				return;
+			}
 		}
-	}
 
-	/**
-	 * Generate the keystore report as an XML Document.
-	 * 
-	 * @return The KeyStiore report as an XML Document
-	 * @throws CryptoException A crypto related problem was encountered generating the keystore report
-	 * @throws ParserConfigurationException There was a serious problem creating the XML report
-	 */
-	private Document generateDocument()
-	    throws CryptoException, ParserConfigurationException
-	{
-		try
+		BackgroundTask<Void> task =
+		    new BackgroundTask<Void>(this, null, RB.getString("DKeyStoreReport.Saving.message"))
 		{
-			// Create a new document object
-			DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-			DocumentBuilder docBuilder = docBuilderFactory.newDocumentBuilder();
-			Document xmlDoc = docBuilder.newDocument();
-
-			// General keystore information
-			KeyStoreType ksType = KeyStoreType.valueOfType(m_keystore.getType());
-			String sProvider = m_keystore.getProvider().getName();
-
-			Element keystoreElement = xmlDoc.createElement("keystore");
-			keystoreElement.setAttribute("type", ksType.getTypeName());
-			keystoreElement.setAttribute("provider", sProvider);
-			xmlDoc.appendChild(keystoreElement);
-
-			Enumeration<String> aliases = m_keystore.aliases();
-
-			// Get information on each keystore entry
-			while (aliases.hasMoreElements())
+			@Override
+			protected Void doInBackground()
+			    throws CryptoException, IOException
 			{
-				String sAlias = aliases.nextElement();
-
-				String sCreation = null;
-				if (ksType.isEntryCreationDateUseful())
+				// If opening fails the file is untouched; once it succeeds the file has been created or truncated
+				FileChannel channel = FileChannel.open(fReportFile.toPath(), StandardOpenOption.WRITE,
+				    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+				boolean bComplete = false;
+				try
 				{
-					Date dCreation = m_keystore.getCreationDate(sAlias);
-					sCreation = DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM).format(dCreation);
-				}
-
-				String sEntryType = null;
-				Certificate[] certChain = null;
-
-				// Get entry type and certificates
-				if (m_keystore.isKeyEntry(sAlias))
-				{
-					certChain = m_keystore.getCertificateChain(sAlias);
-
-					if (certChain == null || certChain.length == 0)
+					try (OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE))
 					{
-						sEntryType = "Key";
-					}
-					else
-					{
-						sEntryType = "KeyPair";
+						new KeyStoreReport(m_keystore).write(reportFormat.newSink(out));
 					}
+					bComplete = true;
 				}
-				else
+				finally
 				{
-					sEntryType = "TrustedCertificate";
-					Certificate cert = m_keystore.getCertificate(sAlias);
-					if (cert != null)
+					if (!bComplete)
 					{
-						certChain = new Certificate[] { cert };
-					}
-				}
-
-				Element entryElement = xmlDoc.createElement("entry");
-				entryElement.setAttribute("alias", sAlias);
-
-				if (sCreation != null)
-				{
-					entryElement.setAttribute("creation_date", sCreation);
-				}
-
-				entryElement.setAttribute("type", sEntryType);
-				keystoreElement.appendChild(entryElement);
-
-				// Get information on each certificate in an entry
-				if (certChain != null)
-				{
-					X509Certificate[] x509CertChain = X509CertUtil.convertCertificates(certChain);
-
-					int iChainLen = x509CertChain.length;
-
-					for (int iCnt = 0; iCnt < iChainLen; iCnt++)
-					{
-						X509Certificate x509Cert = x509CertChain[iCnt];
-
-						Element certificateElement = xmlDoc.createElement("certificate");
-						entryElement.appendChild(certificateElement);
-
-						// Get information on an individual certificate
-
-						// Version
-						Element versionNumberElement = xmlDoc.createElement("version");
-						certificateElement.appendChild(versionNumberElement);
-						versionNumberElement.appendChild(xmlDoc.createTextNode("" + x509Cert.getVersion()));
-
-						// Subject
-						Element subjectElement = xmlDoc.createElement("subject");
-						certificateElement.appendChild(subjectElement);
-						subjectElement.appendChild(xmlDoc.createTextNode(x509Cert.getSubjectDN().toString()));
-
-						// Issuer
-						Element issuerElement = xmlDoc.createElement("issuer");
-						certificateElement.appendChild(issuerElement);
-						issuerElement.appendChild(xmlDoc.createTextNode(x509Cert.getIssuerDN().toString()));
-
-						// Serial Number
-						Element serialNumberElement = xmlDoc.createElement("serial_number");
-						certificateElement.appendChild(serialNumberElement);
-						serialNumberElement.appendChild(
-						    xmlDoc.createTextNode(StringUtil.toHex(x509Cert.getSerialNumber(), 4, " ").toString()));
-
-						// Valid From
-						Date dValidFrom = x509Cert.getNotBefore();
-						String sValidFrom =
-						    DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM).format(dValidFrom);
-
-						Element validFromElement = xmlDoc.createElement("valid_from");
-						certificateElement.appendChild(validFromElement);
-						validFromElement.appendChild(xmlDoc.createTextNode(sValidFrom));
-
-						// Valid Until
-						Date dValidTo = x509Cert.getNotAfter();
-						String sValidTo =
-						    DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM).format(dValidTo);
-
-						Element validUntilElement = xmlDoc.createElement("valid_until");
-						certificateElement.appendChild(validUntilElement);
-						validUntilElement.appendChild(xmlDoc.createTextNode(sValidTo));
-
-						// Public Key (algorithm and key size)
-						int iKeySize = KeyPairUtil.getKeyLength(x509Cert.getPublicKey());
-						String sKeyAlg = x509Cert.getPublicKey().getAlgorithm();
-						if (iKeySize != KeyPairUtil.UNKNOWN_KEY_SIZE)
-						{
-							sKeyAlg = MessageFormat.format(RB.getString("DKeyStoreReport.KeyAlg"), sKeyAlg, iKeySize);
-						}
-
-						Element publicKeyAlgElement = xmlDoc.createElement("public_key_algorithm");
-						certificateElement.appendChild(publicKeyAlgElement);
-						publicKeyAlgElement.appendChild(xmlDoc.createTextNode(sKeyAlg));
-
-						// Signature Algorithm
-						Element signatureAlgElement = xmlDoc.createElement("signature_algorithm");
-						certificateElement.appendChild(signatureAlgElement);
-						signatureAlgElement.appendChild(xmlDoc.createTextNode(x509Cert.getSigAlgName()));
-
-						// Fingerprints
-						byte[] bCert = x509Cert.getEncoded();
-
-						Element sha1FingerprintElement = xmlDoc.createElement("sha1_fingerprint");
-						certificateElement.appendChild(sha1FingerprintElement);
-						sha1FingerprintElement.appendChild(
-						    xmlDoc.createTextNode(DigestUtil.getMessageDigest(bCert, DigestType.SHA1)));
-
-						Element md5FingerprintElement = xmlDoc.createElement("md5_fingerprint");
-						certificateElement.appendChild(md5FingerprintElement);
-						md5FingerprintElement.appendChild(
-						    xmlDoc.createTextNode(DigestUtil.getMessageDigest(bCert, DigestType.MD5)));
+						// Do not leave a partial report behind
+						channel.close();
+						fReportFile.delete();
 					}
 				}
+				return null;
 			}
+		};
 
-			return xmlDoc;
+		try
+		{
+			task.runAndWait();
 		}
-		catch (GeneralSecurityException ex)
+		catch (CancellationException ex)
 		{
-			throw new CryptoException(RB.getString("DKeyStoreReport.NoGenerateReport.exception.message"), ex);
+			// Cancelled by user, the task removes the partial file
+		}
+		catch (FileNotFoundException | NoSuchFileException ex)
+		{
+			String sMessage =
+			    MessageFormat.format(RB.getString("DKeyStoreReport.NoWriteFile.message"), fReportFile.getName());
+			JOptionPane.showMessageDialog(this, sMessage, getTitle(), JOptionPane.WARNING_MESSAGE);
+		}
+		catch (Exception ex)
+		{
+			DThrowable.showAndWait(this, null, ex);
 		}
 	}
 
 	/**
-	 * Create tree node with keystore report.
+	 * Create tree node with keystore report. Does not touch any GUI components, so this may be called outside the event
+	 * dispatch thread.
 	 * 
+	 * @param keystore Keystore to report on
 	 * @throws CryptoException A crypto related problem was encountered creating the tree node
 	 * @return The tree node
 	 */
-	private DefaultMutableTreeNode createReportNodes()
+	public static DefaultMutableTreeNode createReportNodes(KeyStore keystore)
 	    throws CryptoException
 	{
+		TreeReportSink sink = new TreeReportSink();
 		try
 		{
-			// Keystore type
-			KeyStoreType ksType = KeyStoreType.valueOfType(m_keystore.getType());
-
-			// Keystore provider
-			String sProvider = m_keystore.getProvider().getName();
-
-			// Top node
-			DefaultMutableTreeNode topNode = new DefaultMutableTreeNode(
-			    MessageFormat.format(RB.getString("DKeyStoreReport.TopNodeName"), ksType.getTypeName(), sProvider));
-
-			// One sub-node per entry
-			Enumeration<String> aliases = m_keystore.aliases();
-
-			// Get information on each keystore entry
-			while (aliases.hasMoreElements())
-			{
-				// Entry alias
-				String sAlias = aliases.nextElement();
-
-				Certificate[] certChain = null;
-				DefaultMutableTreeNode entryNode = null;
-
-				// Entry type
-				if (m_keystore.isKeyEntry(sAlias))
-				{
-					certChain = m_keystore.getCertificateChain(sAlias);
-
-					if (certChain == null || certChain.length == 0)
-					{
-						entryNode = new DefaultMutableTreeNode(ReportTreeCellRend.Entry.getKeyInstance(sAlias));
-					}
-					else
-					{
-						entryNode = new DefaultMutableTreeNode(ReportTreeCellRend.Entry.getKeyPairInstance(sAlias));
-					}
-				}
-				else
-				{
-					entryNode =
-					    new DefaultMutableTreeNode(ReportTreeCellRend.Entry.getTrustedCertificateInstance(sAlias));
-
-					Certificate cert = m_keystore.getCertificate(sAlias);
-					if (cert != null)
-					{
-						certChain = new Certificate[] { cert };
-					}
-				}
-
-				topNode.add(entryNode);
-
-				// Creation date, if applicable
-				if (ksType.isEntryCreationDateUseful())
-				{
-					Date dCreation = m_keystore.getCreationDate(sAlias);
-					String sCreation =
-					    DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM).format(dCreation);
-					entryNode.add(new DefaultMutableTreeNode(sCreation));
-				}
-
-				// One or more certificates?
-				if (certChain != null && certChain.length != 0)
-				{
-					DefaultMutableTreeNode certsNode =
-					    new DefaultMutableTreeNode(RB.getString("DKeyStoreReport.Certificates"));
-					entryNode.add(certsNode);
-
-					// Get information on each certificate in entry
-					X509Certificate[] x509CertChain = X509CertUtil.convertCertificates(certChain);
-
-					int iChainLen = x509CertChain.length;
-
-					for (int iCnt = 0; iCnt < iChainLen; iCnt++)
-					{
-						DefaultMutableTreeNode certNode = new DefaultMutableTreeNode(
-						    MessageFormat.format(RB.getString("DKeyStoreReport.Certificate"), iCnt + 1, iChainLen));
-						certsNode.add(certNode);
-
-						X509Certificate x509Cert = x509CertChain[iCnt];
-
-						// Version
-						certNode.add(new DefaultMutableTreeNode("" + x509Cert.getVersion()));
-
-						// Subject
-						certNode.add(new DefaultMutableTreeNode(x509Cert.getSubjectDN()));
-
-						// Issuer
-						certNode.add(new DefaultMutableTreeNode(x509Cert.getIssuerDN()));
-
-						// Serial Number
-						StringBuilder sSerialNumber = StringUtil.toHex(x509Cert.getSerialNumber(), 4, " ");
-						certNode.add(new DefaultMutableTreeNode(sSerialNumber));
-
-						// Valid From
-						Date dValidFrom = x509Cert.getNotBefore();
-						String sValidFrom =
-						    DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM).format(dValidFrom);
-						certNode.add(new DefaultMutableTreeNode(sValidFrom));
-
-						// Valid Until
-						Date dValidTo = x509Cert.getNotAfter();
-						String sValidTo =
-						    DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM).format(dValidTo);
-						certNode.add(new DefaultMutableTreeNode(sValidTo));
-
-						// Public Key (algorithm and key size)
-						int iKeySize = KeyPairUtil.getKeyLength(x509Cert.getPublicKey());
-						String sKeyAlg = x509Cert.getPublicKey().getAlgorithm();
-						if (iKeySize != KeyPairUtil.UNKNOWN_KEY_SIZE)
-						{
-							sKeyAlg = MessageFormat.format(RB.getString("DKeyStoreReport.KeyAlg"), sKeyAlg, iKeySize);
-						}
-						certNode.add(new DefaultMutableTreeNode(sKeyAlg));
-
-						// Signature Algorithm
-						certNode.add(new DefaultMutableTreeNode(x509Cert.getSigAlgName()));
-
-						byte[] bCert = x509Cert.getEncoded();
-
-						// SHA-1 fingerprint
-						certNode.add(new DefaultMutableTreeNode(DigestUtil.getMessageDigest(bCert, DigestType.SHA1)));
-
-						// MD5 fingerprint
-						certNode.add(new DefaultMutableTreeNode(DigestUtil.getMessageDigest(bCert, DigestType.MD5)));
-					}
-				}
-			}
-
-			return topNode;
+			new KeyStoreReport(keystore).write(sink);
 		}
-		catch (GeneralSecurityException ex)
+		catch (IOException ex)
 		{
+			// Building the tree does no I/O, but interruption is reported as such
 			throw new CryptoException(RB.getString("DKeyStoreReport.NoGenerateReport.exception.message"), ex);
 		}
+		return sink.getTopNode();
 	}
 }
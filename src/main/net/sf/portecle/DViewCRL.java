@@ -35,14 +35,11 @@ import java.awt.Window;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.FileNotFoundException;
-import java.math.BigInteger;
-import java.security.cert.X509CRL;
-import java.security.cert.X509CRLEntry;
+import java.io.IOException;
 import java.text.DateFormat;
 import java.text.MessageFormat;
-import java.util.Collections;
 import java.util.Date;
-import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 import javax.swing.JButton;
 import javax.swing.JLabel;
@@ -61,9 +58,15 @@ import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import javax.swing.table.TableColumn;
 
+import net.sf.portecle.crypto.CryptoException;
+import net.sf.portecle.crypto.EncodedExtensions;
+import net.sf.portecle.crypto.RevocationIndex;
+import net.sf.portecle.crypto.X509CRLInfo;
 import net.sf.portecle.crypto.X509CertUtil;
+import net.sf.portecle.gui.BackgroundTask;
 import net.sf.portecle.gui.SwingHelper;
 import net.sf.portecle.gui.error.DThrowable;
+import net.sf.portecle.gui.statusbar.StatusBar;
 
 /**
  * Modal dialog to display the details of a Certificate Revocation List (CRL).
@@ -96,7 +99,10 @@ final class DViewCRL
 	private JButton m_jbCrlEntryExtensions;
 
 	/** Stores CRL to display */
-	private final X509CRL m_crl;
+	private final X509CRLInfo m_crl;
+
+	/** Index of the CRL's revoked certificates */
+	private final RevocationIndex m_revocationIndex;
 
 	/**
 	 * Creates new DViewCRL dialog.
@@ -105,10 +111,11 @@ final class DViewCRL
 	 * @param sTitle The dialog title
 	 * @param crl CRL to display
 	 */
-	private DViewCRL(Window parent, String sTitle, X509CRL crl)
+	private DViewCRL(Window parent, String sTitle, X509CRLInfo crl)
 	{
 		super(parent, sTitle, true);
 		m_crl = crl;
+		m_revocationIndex = crl.getRevocationIndex();
 		initComponents();
 	}
 
@@ -118,15 +125,31 @@ final class DViewCRL
 	 * @param parent Parent window
 	 * @param url URL, URI or file to load CRL from
 	 */
-	public static boolean showAndWait(Window parent, Object url)
+	public static boolean showAndWait(Window parent, final Object url)
 	{
 		String title = MessageFormat.format(RB.getString("FPortecle.CrlDetails.Title"), url);
 
+		// Load the CRL in the background, it may be large or come from a slow server
+		StatusBar statusBar = (parent instanceof StatusBar) ? (StatusBar) parent : null;
+		BackgroundTask<X509CRLInfo> task = new BackgroundTask<X509CRLInfo>(parent, statusBar,
+		    MessageFormat.format(RB.getString("FPortecle.LoadingCrl.statusbar"), url))
+		{
+			@Override
+			protected X509CRLInfo doInBackground()
+			    throws CryptoException, IOException
+			{
+				return X509CertUtil.readCRL(NetUtil.toURL(url), null);
+			}
+		};
+
 		DViewCRL dialog;
 		try
 		{
-			X509CRL crl = X509CertUtil.loadCRL(NetUtil.toURL(url));
-			dialog = new DViewCRL(parent, title, crl);
+			dialog = new DViewCRL(parent, title, task.runAndWait());
+		}
+		catch (CancellationException ex)
+		{
+			return false;
 		}
 		catch (FileNotFoundException ex)
 		{
@@ -253,6 +276,7 @@ final class DViewCRL
 		// Revoked certificates table
 
 		// Create the table using the appropriate table model
+		// Rows are created on demand from the revocation index so huge CRLs load quickly
 		RevokedCertsTableModel rcModel = new RevokedCertsTableModel();
 
 		m_jtRevokedCerts = new JTable(rcModel);
@@ -293,7 +317,7 @@ final class DViewCRL
 		});
 
 		// Make the table sortable
-		m_jtRevokedCerts.setAutoCreateRowSorter(true);
+		m_jtRevokedCerts.setRowSorter(new RevokedCertsRowSorter(rcModel));
 		// ...and sort it by serial number by default
 		m_jtRevokedCerts.getRowSorter().toggleSortOrder(0);
 
@@ -398,7 +422,7 @@ final class DViewCRL
 		m_jtfVersion.setCaretPosition(0);
 
 		// Issuer
-		m_jtfIssuer.setText(m_crl.getIssuerDN().toString());
+		m_jtfIssuer.setText(m_crl.getIssuerX500Principal().toString());
 		m_jtfIssuer.setCaretPosition(0);
 
 		// Effective Date (include time zone)
@@ -448,30 +472,11 @@ final class DViewCRL
 		m_jtfSignatureAlgorithm.setCaretPosition(0);
 
 		// Enable/disable extensions button
-		Set<String> critExts = m_crl.getCriticalExtensionOIDs();
-		Set<String> nonCritExts = m_crl.getNonCriticalExtensionOIDs();
-
-		if ((critExts != null && !critExts.isEmpty()) || (nonCritExts != null && !nonCritExts.isEmpty()))
-		{
-			// Extensions
-			m_jbCrlExtensions.setEnabled(true);
-		}
-		else
-		{
-			// No extensions
-			m_jbCrlExtensions.setEnabled(false);
-		}
+		m_jbCrlExtensions.setEnabled(!m_crl.getExtensions().isEmpty());
 
 		// Populate Revoked Certificates table
-		Set<? extends X509CRLEntry> revokedCertsSet = m_crl.getRevokedCertificates();
-		if (revokedCertsSet == null)
-		{
-			revokedCertsSet = Collections.emptySet();
-		}
-
-		X509CRLEntry[] revokedCerts = revokedCertsSet.toArray(new X509CRLEntry[revokedCertsSet.size()]);
 		RevokedCertsTableModel revokedCertsTableModel = (RevokedCertsTableModel) m_jtRevokedCerts.getModel();
-		revokedCertsTableModel.load(revokedCerts);
+		revokedCertsTableModel.load(m_revocationIndex);
 
 		// Select first CRL
 		if (revokedCertsTableModel.getRowCount() > 0)
@@ -494,23 +499,10 @@ final class DViewCRL
 			// TODO: probably no longer necessary?
 			if (listSelectionModel.getMinSelectionIndex() == listSelectionModel.getMaxSelectionIndex())
 			{
-				// Get serial number of entry
-				int iRow = listSelectionModel.getMinSelectionIndex();
-				BigInteger serialNumber = (BigInteger) m_jtRevokedCerts.getValueAt(iRow, 0);
-
-				// Find CRL entry using serial number
-				Set<? extends X509CRLEntry> revokedCertsSet = m_crl.getRevokedCertificates();
-				X509CRLEntry x509CrlEntry = null;
-				for (X509CRLEntry entry : revokedCertsSet)
-				{
-					if (serialNumber.equals(entry.getSerialNumber()))
-					{
-						x509CrlEntry = entry;
-						break;
-					}
-				}
+				// Get index of entry
+				int iRow = m_jtRevokedCerts.convertRowIndexToModel(listSelectionModel.getMinSelectionIndex());
 
-				if (x509CrlEntry != null && x509CrlEntry.hasExtensions())
+				if (m_revocationIndex.hasExtensions(iRow))
 				{
 					m_jbCrlEntryExtensions.setEnabled(true);
 					return;
@@ -528,7 +520,7 @@ final class DViewCRL
 	private void crlExtensionsPressed()
 	{
 		DViewExtensions dViewExtensions =
-		    new DViewExtensions(this, RB.getString("DViewCRL.Extensions.Title"), true, m_crl);
+		    new DViewExtensions(this, RB.getString("DViewCRL.Extensions.Title"), true, m_crl.getExtensions());
 		dViewExtensions.setLocationRelativeTo(this);
 		SwingHelper.showAndWait(dViewExtensions);
 	}
@@ -546,26 +538,24 @@ final class DViewCRL
 			// TODO: probably no longer necessary?
 			if (listSelectionModel.getMinSelectionIndex() == listSelectionModel.getMaxSelectionIndex())
 			{
-				// Get serial number of entry
-				int iRow = listSelectionModel.getMinSelectionIndex();
-				BigInteger serialNumber = (BigInteger) m_jtRevokedCerts.getValueAt(iRow, 0);
-
-				// Find CRL entry using serial number
-				Set<? extends X509CRLEntry> revokedCertsSet = m_crl.getRevokedCertificates();
-				X509CRLEntry x509CrlEntry = null;
-				for (X509CRLEntry entry : revokedCertsSet)
+				// Get index of entry
+				int iRow = m_jtRevokedCerts.convertRowIndexToModel(listSelectionModel.getMinSelectionIndex());
+
+				EncodedExtensions extensions;
+				try
 				{
-					if (serialNumber.equals(entry.getSerialNumber()))
-					{
-						x509CrlEntry = entry;
-						break;
-					}
+					extensions = m_revocationIndex.getExtensions(iRow);
+				}
+				catch (IOException ex)
+				{
+					DThrowable.showAndWait(this, null, ex);
+					return;
 				}
 
-				if (x509CrlEntry != null && x509CrlEntry.hasExtensions())
+				if (extensions != null && !extensions.isEmpty())
 				{
 					DViewExtensions dViewExtensions =
-					    new DViewExtensions(this, RB.getString("DViewCRL.EntryExtensions.Title"), true, x509CrlEntry);
+					    new DViewExtensions(this, RB.getString("DViewCRL.EntryExtensions.Title"), true, extensions);
 					dViewExtensions.setLocationRelativeTo(this);
 					SwingHelper.showAndWait(dViewExtensions);
 				}
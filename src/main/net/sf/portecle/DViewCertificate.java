@@ -35,13 +35,11 @@ import java.awt.Window;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
-import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.text.DateFormat;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.Set;
 
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
@@ -54,9 +52,8 @@ import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.EtchedBorder;
 
+import net.sf.portecle.crypto.CertificateSummary;
 import net.sf.portecle.crypto.CryptoException;
-import net.sf.portecle.crypto.DigestType;
-import net.sf.portecle.crypto.DigestUtil;
 import net.sf.portecle.crypto.KeyPairUtil;
 import net.sf.portecle.crypto.SignatureType;
 import net.sf.portecle.crypto.X509CertUtil;
@@ -574,14 +571,15 @@ class DViewCertificate
 			m_jbRight.setEnabled(false);
 		}
 
-		// Get the certificate
+		// Get the certificate and its details
 		X509Certificate cert = m_certs[m_iSelCert];
+		CertificateSummary summary = CertificateSummary.getInstance(cert);
 
 		// Has the certificate [not yet become valid/expired]
 		Date currentDate = new Date();
 
-		Date startDate = cert.getNotBefore();
-		Date endDate = cert.getNotAfter();
+		Date startDate = summary.getNotBefore();
+		Date endDate = summary.getNotAfter();
 
 		boolean bNotYetValid = currentDate.before(startDate);
 		boolean bNoLongerValid = currentDate.after(endDate);
@@ -589,19 +587,19 @@ class DViewCertificate
 		// Populate the fields:
 
 		// Version
-		m_jtfVersion.setText(Integer.toString(cert.getVersion()));
+		m_jtfVersion.setText(Integer.toString(summary.getVersion()));
 		m_jtfVersion.setCaretPosition(0);
 
 		// Subject
-		m_jtfSubject.setText(cert.getSubjectDN().toString());
+		m_jtfSubject.setText(summary.getSubject());
 		m_jtfSubject.setCaretPosition(0);
 
 		// Issuer
-		m_jtfIssuer.setText(cert.getIssuerDN().toString());
+		m_jtfIssuer.setText(summary.getIssuer());
 		m_jtfIssuer.setCaretPosition(0);
 
 		// Serial Number
-		m_jtfSerialNumber.setText(StringUtil.toHex(cert.getSerialNumber(), 4, " ").toString());
+		m_jtfSerialNumber.setText(summary.getSerialNumber());
 		m_jtfSerialNumber.setCaretPosition(0);
 
 		// Valid From (include timezone)
@@ -635,8 +633,8 @@ class DViewCertificate
 		m_jtfValidUntil.setCaretPosition(0);
 
 		// Public Key (algorithm and key size)
-		int iKeySize = KeyPairUtil.getKeyLength(cert.getPublicKey());
-		m_jtfPublicKey.setText(cert.getPublicKey().getAlgorithm());
+		int iKeySize = summary.getKeySize();
+		m_jtfPublicKey.setText(summary.getKeyAlgorithm());
 
 		if (iKeySize != KeyPairUtil.UNKNOWN_KEY_SIZE)
 		{
@@ -646,40 +644,18 @@ class DViewCertificate
 		m_jtfPublicKey.setCaretPosition(0);
 
 		// Signature Algorithm
-		String sigAlgName = SignatureType.toString(cert.getSigAlgName());
+		String sigAlgName = SignatureType.toString(summary.getSignatureAlgorithm());
 		m_jtfSignatureAlgorithm.setText(sigAlgName);
 		m_jtfSignatureAlgorithm.setCaretPosition(0);
 
 		// Fingerprints
-		byte[] bCert;
-		try
-		{
-			bCert = cert.getEncoded();
-		}
-		catch (CertificateEncodingException ex)
-		{
-			throw new CryptoException(RB.getString("DViewCertificate.NoGetEncodedCert.exception.message"), ex);
-		}
-
-		m_jtfMD5Fingerprint.setText(DigestUtil.getMessageDigest(bCert, DigestType.MD5));
+		m_jtfMD5Fingerprint.setText(summary.getMd5Fingerprint());
 		m_jtfMD5Fingerprint.setCaretPosition(0);
-		m_jtfSHA1Fingerprint.setText(DigestUtil.getMessageDigest(bCert, DigestType.SHA1));
+		m_jtfSHA1Fingerprint.setText(summary.getSha1Fingerprint());
 		m_jtfSHA1Fingerprint.setCaretPosition(0);
 
 		// Enable/disable extensions button
-		Set<String> critExts = cert.getCriticalExtensionOIDs();
-		Set<String> nonCritExts = cert.getNonCriticalExtensionOIDs();
-
-		if ((critExts != null && !critExts.isEmpty()) || (nonCritExts != null && !nonCritExts.isEmpty()))
-		{
-			// Extensions
-			m_jbExtensions.setEnabled(true);
-		}
-		else
-		{
-			// No extensions
-			m_jbExtensions.setEnabled(false);
-		}
+		m_jbExtensions.setEnabled(summary.hasExtensions());
 
 		// SSL/TLS connection details
 		m_jtfProtocol.setText(m_connectionProtocol);
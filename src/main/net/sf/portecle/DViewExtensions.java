@@ -30,11 +30,17 @@ import java.awt.Dimension;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
 import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.security.cert.X509Extension;
 import java.text.MessageFormat;
+import java.text.ParseException;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.JButton;
 import javax.swing.JEditorPane;
@@ -45,6 +51,7 @@ import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.ListSelectionModel;
 import javax.swing.ScrollPaneConstants;
+import javax.swing.SwingWorker;
 import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.EtchedBorder;
@@ -58,10 +65,13 @@ import javax.swing.text.AttributeSet;
 import javax.swing.text.Element;
 import javax.swing.text.html.HTML;
 
+import net.sf.portecle.crypto.ExtensionValueCache;
 import net.sf.portecle.crypto.OidComparator;
 import net.sf.portecle.crypto.X509Ext;
 import net.sf.portecle.crypto.X509Ext.LinkClass;
 import net.sf.portecle.gui.DesktopUtil;
+import net.sf.portecle.gui.SwingHelper;
+import net.sf.portecle.gui.crypto.DViewBytes;
 import net.sf.portecle.gui.error.DThrowable;
 
 /**
@@ -76,9 +86,18 @@ class DViewExtensions
 	/** Extension value text area */
 	private JEditorPane m_jtaExtensionValue;
 
+	/** Size in bytes above which extension values are not decoded for the Extension Value text area */
+	private static final int MAX_DECODED_VALUE_SIZE = 64 * 1024;
+
+	/** View Bytes button */
+	private JButton m_jbViewBytes;
+
 	/** Extensions to display */
 	private final X509Extension m_extensions;
 
+	/** Worker decoding the value of the selected extension, null if none */
+	private SwingWorker<String, Void> m_valueWorker;
+
 	/**
 	 * Creates new DViewExtensions dialog.
 	 * 
@@ -325,11 +344,25 @@ class DViewExtensions
 		jpExtensions.add(jpExtensionsTable);
 		jpExtensions.add(jpExtensionValue);
 
-		// OK button
+		// OK and View Bytes buttons
 		JPanel jpOK = new JPanel(new FlowLayout(FlowLayout.CENTER));
 		final JButton jbOK = getOkButton(true);
 		jpOK.add(jbOK);
 
+		m_jbViewBytes = new JButton(RB.getString("DViewExtensions.jbViewBytes.text"));
+		m_jbViewBytes.setMnemonic(RB.getString("DViewExtensions.jbViewBytes.mnemonic").charAt(0));
+		m_jbViewBytes.setToolTipText(RB.getString("DViewExtensions.jbViewBytes.tooltip"));
+		m_jbViewBytes.setEnabled(false);
+		m_jbViewBytes.addActionListener(new ActionListener()
+		{
+			@Override
+			public void actionPerformed(ActionEvent evt)
+			{
+				viewBytesPressed();
+			}
+		});
+		jpOK.add(m_jbViewBytes);
+
 		// Populate table with extensions
 		extensionsTableModel.load(m_extensions);
 
@@ -352,42 +385,148 @@ class DViewExtensions
 
 	/**
 	 * Update the value of the Extension Value text area depending on whether or not an extension has been selected in
-	 * the table.
+	 * the table. Values not decoded yet are decoded on a background thread; decoded values are cached in
+	 * {@link ExtensionValueCache}.
 	 */
 	private void updateExtensionValue()
 	{
+		// Forget about any value still being decoded for a previous selection
+		if (m_valueWorker != null)
+		{
+			m_valueWorker.cancel(false);
+			m_valueWorker = null;
+		}
+
 		int iSelectedRow = m_jtExtensions.getSelectedRow();
 
 		if (iSelectedRow == -1)
 		{
 			// No extension selected - clear text area
 			m_jtaExtensionValue.setText("");
+			m_jbViewBytes.setEnabled(false);
+			return;
 		}
-		else
-		{
-			// Extension selected - get value for extension
-			String sOid = m_jtExtensions.getValueAt(iSelectedRow, 2).toString();
+		m_jbViewBytes.setEnabled(true);
 
-			byte[] bValue = m_extensions.getExtensionValue(sOid);
+		// Extension selected - get value for extension
+		final X509Ext ext = getSelectedExtension();
 
-			// Don't care about criticality
-			X509Ext ext = new X509Ext(sOid, bValue, false);
+		// Laying out very large values would hang the dialog; they can be browsed with View Bytes instead
+		int iSize = getOctets(ext).remaining();
+		if (iSize > MAX_DECODED_VALUE_SIZE)
+		{
+			setExtensionValue(MessageFormat.format(RB.getString("DViewExtensions.ValueTooLarge.message"), iSize));
+			return;
+		}
 
-			final String HEADER = "<html><head><style type=\"text/css\">ul { list-style-type: none; margin: 0; }\n" +
-			    "li ul { margin-left: 10px; }\n</style></head><body>";
-			final String FOOTER = "</body></html>";
+		String sValue = ExtensionValueCache.getCachedStringValue(ext);
+		if (sValue != null)
+		{
+			setExtensionValue(sValue);
+			return;
+		}
 
-			try
+		m_jtaExtensionValue.setText("");
+		m_valueWorker = new SwingWorker<String, Void>()
+		{
+			@Override
+			protected String doInBackground()
+			    throws IOException, ParseException
 			{
-				m_jtaExtensionValue.setText(HEADER + ext.getStringValue() + FOOTER);
+				return ExtensionValueCache.getStringValue(ext);
 			}
-			// Don't like this but *anything* could go wrong in there
-			catch (Exception ex)
+
+			@Override
+			protected void done()
 			{
-				m_jtaExtensionValue.setText("");
-				DThrowable.showAndWait(this, null, ex);
+				if (isCancelled() || m_valueWorker != this)
+				{
+					return;
+				}
+				m_valueWorker = null;
+
+				try
+				{
+					setExtensionValue(get());
+				}
+				catch (InterruptedException ex)
+				{
+					// Not waiting, done() is only called once the value is available
+					Thread.currentThread().interrupt();
+				}
+				// Don't like this but *anything* could go wrong in there
+				catch (ExecutionException ex)
+				{
+					DThrowable.showAndWait(DViewExtensions.this, null, ex.getCause());
+				}
 			}
-			m_jtaExtensionValue.setCaretPosition(0);
+		};
+		m_valueWorker.execute();
+	}
+
+	/**
+	 * View Bytes button pressed or otherwise activated.
+	 */
+	private void viewBytesPressed()
+	{
+		X509Ext ext = getSelectedExtension();
+		if (ext == null)
+		{
+			return;
+		}
+
+		DViewBytes dViewBytes = new DViewBytes(this,
+		    MessageFormat.format(RB.getString("DViewExtensions.ViewBytes.Title"), ext.getName()), getOctets(ext));
+		dViewBytes.setLocationRelativeTo(this);
+		SwingHelper.showAndWait(dViewBytes);
+	}
+
+	/**
+	 * Get the selected extension.
+	 * 
+	 * @return The selected extension, null if none
+	 */
+	private X509Ext getSelectedExtension()
+	{
+		int iSelectedRow = m_jtExtensions.getSelectedRow();
+		if (iSelectedRow == -1)
+		{
+			return null;
+		}
+		return ((ExtensionsTableModel) m_jtExtensions.getModel()).getExtension(
+		    m_jtExtensions.convertRowIndexToModel(iSelectedRow));
+	}
+
+	/**
+	 * Get the contents of an extension value, or the whole value if it is not an octet string as it should be.
+	 * 
+	 * @param ext The extension
+	 * @return The extension value
+	 */
+	private static ByteBuffer getOctets(X509Ext ext)
+	{
+		try
+		{
+			return ext.getOctets();
+		}
+		catch (IOException ex)
+		{
+			return ByteBuffer.wrap(ext.getValue());
 		}
 	}
+
+	/**
+	 * Show an extension value in the Extension Value text area.
+	 * 
+	 * @param sValue The extension value as a string
+	 */
+	private void setExtensionValue(String sValue)
+	{
+		final String HEADER = "<html><head><style type=\"text/css\">ul { list-style-type: none; margin: 0; }\n" +
+		    "li ul { margin-left: 10px; }\n</style></head><body>";
+		final String FOOTER = "</body></html>";
+
+		m_jtaExtensionValue.setText(HEADER + sValue + FOOTER);
+		m_jtaExtensionValue.setCaretPosition(0);
+	}
 }
@@ -46,12 +46,16 @@ class ExtensionsTableModel
 	/** Holds the table data */
 	private Object[][] m_data;
 
+	/** The extensions of the rows */
+	private X509Ext[] m_extensions;
+
 	/**
 	 * Construct a new ExtensionsTableModel.
 	 */
 	public ExtensionsTableModel()
 	{
 		m_data = new Object[0][getColumnCount()];
+		m_extensions = new X509Ext[0];
 	}
 
 	/**
@@ -67,6 +71,7 @@ class ExtensionsTableModel
 
 		// Create one table row for each extension
 		m_data = new Object[critExts.size() + nonCritExts.size()][getColumnCount()];
+		m_extensions = new X509Ext[m_data.length];
 
 		// Load rows
 		int iCnt = 0;
@@ -98,6 +103,8 @@ class ExtensionsTableModel
 	 */
 	private void loadRow(X509Ext extension, int iRow)
 	{
+		m_extensions[iRow] = extension;
+
 		int col = 0;
 
 		// Populate the Critical columnsExtname
@@ -110,6 +117,17 @@ class ExtensionsTableModel
 		m_data[iRow][col++] = extension.getOid();
 	}
 
+	/**
+	 * Get the extension at the given row position.
+	 * 
+	 * @param iRow The row position
+	 * @return The extension
+	 */
+	public X509Ext getExtension(int iRow)
+	{
+		return m_extensions[iRow];
+	}
+
 	/**
 	 * Get the number of columns in the table.
 	 * 
@@ -24,8 +24,6 @@
 package net.sf.portecle;
 
 import java.awt.BorderLayout;
-import java.awt.Component;
-import java.awt.Cursor;
 import java.awt.Dimension;
 import java.awt.Image;
 import java.awt.Point;
@@ -50,25 +48,41 @@ import java.net.MalformedURLException;
 import java.net.Socket;
 import java.net.URI;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.KeyPair;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.security.MessageDigest;
 import java.security.PrivateKey;
 import java.security.Provider;
 import java.security.PublicKey;
 import java.security.SecureRandom;
 import java.security.Security;
 import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
@@ -79,10 +93,12 @@ import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.X509TrustManager;
+import javax.security.auth.x500.X500Principal;
 import javax.swing.Action;
 import javax.swing.DefaultCellEditor;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JComponent;
 import javax.swing.JDialog;
 import javax.swing.JFileChooser;
@@ -97,9 +113,11 @@ import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.JSeparator;
 import javax.swing.JTable;
+import javax.swing.JTextField;
 import javax.swing.JToolBar;
 import javax.swing.KeyStroke;
 import javax.swing.ListSelectionModel;
+import javax.swing.RowFilter;
 import javax.swing.LookAndFeel;
 import javax.swing.ScrollPaneConstants;
 import javax.swing.SwingConstants;
@@ -111,10 +129,15 @@ import javax.swing.WindowConstants;
 import javax.swing.border.BevelBorder;
 import javax.swing.border.CompoundBorder;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
 import javax.swing.table.TableCellEditor;
 import javax.swing.table.TableColumn;
+import javax.swing.table.TableColumnModel;
+import javax.swing.table.TableRowSorter;
+import javax.swing.tree.DefaultMutableTreeNode;
 
 import org.bouncycastle.openssl.PEMEncryptor;
 import org.bouncycastle.openssl.PEMParser;
@@ -123,12 +146,26 @@ import org.bouncycastle.openssl.jcajce.JcaPEMWriter;
 import org.bouncycastle.openssl.jcajce.JcePEMEncryptorBuilder;
 import org.bouncycastle.pkcs.PKCS10CertificationRequest;
 
+import net.sf.portecle.crypto.CertificateIndex;
+import net.sf.portecle.crypto.CrlIssuerKeys;
 import net.sf.portecle.crypto.CryptoException;
+import net.sf.portecle.crypto.DigestUtil;
 import net.sf.portecle.crypto.KeyPairType;
+import net.sf.portecle.crypto.KeyStoreFileState;
+import net.sf.portecle.crypto.KeyStoreFormatDetector;
+import net.sf.portecle.crypto.KeyStoreProber;
+import net.sf.portecle.crypto.KeyStoreSearchIndex;
+import net.sf.portecle.crypto.KeyStoreSnapshot;
 import net.sf.portecle.crypto.KeyStoreType;
 import net.sf.portecle.crypto.KeyStoreUtil;
 import net.sf.portecle.crypto.ProviderUtil;
+import net.sf.portecle.crypto.RevocationChecker;
+import net.sf.portecle.crypto.RevocationStatus;
+import net.sf.portecle.crypto.SignatureVerificationCache;
+import net.sf.portecle.crypto.TrustIndex;
+import net.sf.portecle.crypto.X509CRLInfo;
 import net.sf.portecle.crypto.X509CertUtil;
+import net.sf.portecle.gui.BackgroundTask;
 import net.sf.portecle.gui.DesktopUtil;
 import net.sf.portecle.gui.JMenuItemRecentFile;
 import net.sf.portecle.gui.JMenuRecentFiles;
@@ -206,6 +243,15 @@ public class FPortecle
 	/** KeystoreWrapper object containing the current keystore */
 	private KeyStoreWrapper m_keyStoreWrap;
 
+	/** Index of trusted certificates for establishing trust, kept up to date with registered entry changes */
+	private TrustIndex m_trustIndex;
+
+	/** Keystore wrapper modification count when the trust index was built or last updated */
+	private int m_iTrustIndexModCount;
+
+	/** Index of trusted certificates in the CA certificates keystore */
+	private CertificateIndex m_caCertsIndex;
+
 	/** The PRNG, cached for performance reasons */
 	private SecureRandom m_rnd;
 
@@ -258,6 +304,9 @@ public class FPortecle
 	/** GKR menu item in Change Keystore Type menu */
 	private JMenuItem m_jmiChangeKeyStoreTypeGkr;
 
+	/** Check Revocation menu item of Tools menu */
+	private JMenuItem m_jmiCheckRevocation;
+
 	// //////////////////////////////////////////////////////////
 	// Pop-up menu controls
 	// //////////////////////////////////////////////////////////
@@ -284,6 +333,24 @@ public class FPortecle
 	/** Keystore entries table */
 	private KeyStoreTable m_jtKeyStore;
 
+	/** Keystore entries table columns by model index, including hidden ones */
+	private TableColumn[] m_keyStoreTableColumns;
+
+	/** Keystore table header pop-up menu for choosing the certificate details columns to show */
+	private JPopupMenu m_jpmTableColumns;
+
+	/** Revocation status column item of the keystore table header pop-up menu */
+	private JCheckBoxMenuItem m_jcbmiRevocationStatusColumn;
+
+	/** Keystore entries table filter text field */
+	private JTextField m_jtfFilter;
+
+	/** Is filtering the keystore entries table queued to be done? */
+	private boolean m_bFilterPending;
+
+	/** Background worker building the search index for filtering, null if none is running */
+	private SwingWorker<KeyStoreSearchIndex, Void> m_searchIndexWorker;
+
 	// //////////////////////////////////////////////////////////
 	// Status bar controls
 	// //////////////////////////////////////////////////////////
@@ -679,6 +746,21 @@ public class FPortecle
 		    new StatusBarChangeHandler((String) m_keyStoreReportAction.getValue(Action.LONG_DESCRIPTION), this));
 		jmTools.add(jmiKeyStoreReport);
 
+		m_jmiCheckRevocation = new JMenuItem(RB.getString("FPortecle.m_jmiCheckRevocation.text"),
+		    RB.getString("FPortecle.m_jmiCheckRevocation.mnemonic").charAt(0));
+		m_jmiCheckRevocation.setEnabled(false);
+		jmTools.add(m_jmiCheckRevocation);
+		m_jmiCheckRevocation.addActionListener(new ActionListener()
+		{
+			@Override
+			protected void act()
+			{
+				checkRevocation();
+			}
+		});
+		m_jmiCheckRevocation.addChangeListener(
+		    new StatusBarChangeHandler(RB.getString("FPortecle.m_jmiCheckRevocation.statusbar"), this));
+
 		jmTools.addSeparator();
 
 		JMenuItem jmiOptions = new JMenuItem(RB.getString("FPortecle.jmiOptions.text"),
@@ -1218,10 +1300,16 @@ public class FPortecle
 			aliasCol.setPreferredWidth(iAliasWidth);
 		}
 
-		// Make the table sortable
-		m_jtKeyStore.setAutoCreateRowSorter(true);
+		// Show only the certificate details columns chosen earlier; computing their values takes time
+		initTableColumns();
+
+		// Make the table sortable, by certificate details only once they are available
+		KeyStoreTableRowSorter sorter = new KeyStoreTableRowSorter(ksModel);
+		m_jtKeyStore.setRowSorter(sorter);
 		// ...and sort it by alias by default
-		m_jtKeyStore.getRowSorter().toggleSortOrder(1);
+		sorter.toggleSortOrder(1);
+		// ...keeping rows updated in place by single entry changes in order
+		sorter.setSortsOnUpdates(true);
 
 		// Get usual double click edit start out of the way - we want double click to show the
 		// entry, even in editable columns. In-place edit can be invoked with F2.
@@ -1254,6 +1342,38 @@ public class FPortecle
 		}
 
 		m_jpKeyStoreTable.add(jspKeyStoreTable, BorderLayout.CENTER);
+
+		// Filter field above the table, filtering as the user types
+		JLabel jlFilter = new JLabel(RB.getString("FPortecle.jlFilter.text"));
+		m_jtfFilter = new JTextField();
+		m_jtfFilter.setToolTipText(RB.getString("FPortecle.m_jtfFilter.tooltip"));
+		m_jtfFilter.setEnabled(false);
+		jlFilter.setLabelFor(m_jtfFilter);
+		m_jtfFilter.getDocument().addDocumentListener(new DocumentListener()
+		{
+			@Override
+			public void insertUpdate(DocumentEvent evt)
+			{
+				queueFilterKeyStoreTable();
+			}
+
+			@Override
+			public void removeUpdate(DocumentEvent evt)
+			{
+				queueFilterKeyStoreTable();
+			}
+
+			@Override
+			public void changedUpdate(DocumentEvent evt)
+			{
+				queueFilterKeyStoreTable();
+			}
+		});
+
+		JPanel jpFilter = new JPanel(new BorderLayout(5, 5));
+		jpFilter.add(jlFilter, BorderLayout.WEST);
+		jpFilter.add(m_jtfFilter, BorderLayout.CENTER);
+		m_jpKeyStoreTable.add(jpFilter, BorderLayout.NORTH);
 		m_jpKeyStoreTable.setBorder(new EmptyBorder(3, 3, 3, 3));
 
 		// Add mouse listeners to show pop-up menus when table entries are clicked upon; maybeShowPopup for
@@ -1283,6 +1403,140 @@ public class FPortecle
 		getContentPane().add(m_jpKeyStoreTable, BorderLayout.CENTER);
 	}
 
+	/**
+	 * Initialize the keystore table's certificate details columns: hide the ones not chosen in the application
+	 * preferences, and add a pop-up menu to the table header for choosing them.
+	 */
+	private void initTableColumns()
+	{
+		TableColumnModel columnModel = m_jtKeyStore.getColumnModel();
+		m_keyStoreTableColumns = new TableColumn[columnModel.getColumnCount()];
+		for (int iCnt = 0; iCnt < m_keyStoreTableColumns.length; iCnt++)
+		{
+			m_keyStoreTableColumns[iCnt] = columnModel.getColumn(iCnt);
+		}
+
+		// Visible certificate details columns are stored as a comma separated list of model indexes
+		HashSet<Integer> visible = new HashSet<>();
+		for (String sCol : PREFS.get(RB.getString("AppPrefs.TableColumns"), "").split(","))
+		{
+			try
+			{
+				visible.add(Integer.valueOf(sCol.trim()));
+			}
+			catch (NumberFormatException e)
+			{
+				// Ignore
+			}
+		}
+
+		m_jpmTableColumns = new JPopupMenu();
+		KeyStoreTableModel ksModel = getKeyStoreTableModel();
+		for (int iCnt = KeyStoreTableModel.BASE_COLUMN_COUNT; iCnt < m_keyStoreTableColumns.length; iCnt++)
+		{
+			final int iCol = iCnt;
+			final JCheckBoxMenuItem jcbmiColumn = new JCheckBoxMenuItem(ksModel.getColumnName(iCol));
+			jcbmiColumn.setSelected(visible.contains(iCol));
+			jcbmiColumn.addActionListener(new ActionListener()
+			{
+				@Override
+				protected void act()
+				{
+					setTableColumnVisible(iCol, jcbmiColumn.isSelected());
+				}
+			});
+			m_jpmTableColumns.add(jcbmiColumn);
+			if (iCol == KeyStoreTableModel.REVOCATION_STATUS_COLUMN)
+			{
+				m_jcbmiRevocationStatusColumn = jcbmiColumn;
+			}
+
+			if (!jcbmiColumn.isSelected())
+			{
+				columnModel.removeColumn(m_keyStoreTableColumns[iCol]);
+			}
+		}
+
+		// maybeShowPopup for both mousePressed and mouseReleased for cross-platform compatibility
+		m_jtKeyStore.getTableHeader().addMouseListener(new MouseAdapter()
+		{
+			@Override
+			public void mousePressed(MouseEvent evt)
+			{
+				maybeShowTableColumnsPopup(evt);
+			}
+
+			@Override
+			public void mouseReleased(MouseEvent evt)
+			{
+				maybeShowTableColumnsPopup(evt);
+			}
+		});
+	}
+
+	/**
+	 * Show the keystore table columns pop-up menu if the originating mouse event is a pop-up trigger.
+	 * 
+	 * @param evt The mouse event
+	 */
+	private void maybeShowTableColumnsPopup(MouseEvent evt)
+	{
+		if (evt.isPopupTrigger())
+		{
+			m_jpmTableColumns.show(evt.getComponent(), evt.getX(), evt.getY());
+		}
+	}
+
+	/**
+	 * Show or hide a keystore table column, keeping visible columns in model order.
+	 * 
+	 * @param iCol The column's model index
+	 * @param bVisible True to show the column, false to hide it
+	 */
+	private void setTableColumnVisible(int iCol, boolean bVisible)
+	{
+		TableColumnModel columnModel = m_jtKeyStore.getColumnModel();
+		TableColumn column = m_keyStoreTableColumns[iCol];
+
+		if (!bVisible)
+		{
+			columnModel.removeColumn(column);
+			return;
+		}
+
+		int iViewCol = 0;
+		while (iViewCol < columnModel.getColumnCount() && columnModel.getColumn(iViewCol).getModelIndex() < iCol)
+		{
+			iViewCol++;
+		}
+		columnModel.addColumn(column);
+		columnModel.moveColumn(columnModel.getColumnCount() - 1, iViewCol);
+	}
+
+	/**
+	 * Get the visible keystore table certificate details columns for storing in the application preferences.
+	 * 
+	 * @return Comma separated list of the columns' model indexes
+	 */
+	private String getVisibleTableColumns()
+	{
+		StringBuilder sb = new StringBuilder();
+		TableColumnModel columnModel = m_jtKeyStore.getColumnModel();
+		for (int iCnt = 0; iCnt < columnModel.getColumnCount(); iCnt++)
+		{
+			int iCol = columnModel.getColumn(iCnt).getModelIndex();
+			if (iCol >= KeyStoreTableModel.BASE_COLUMN_COUNT)
+			{
+				if (sb.length() != 0)
+				{
+					sb.append(',');
+				}
+				sb.append(iCol);
+			}
+		}
+		return sb.toString();
+	}
+
 	/**
 	 * Initialize FPortecle frame's status bar GUI components.
 	 */
@@ -1747,9 +2001,9 @@ public class FPortecle
 			// Store the new one
 			keyStore.setKeyEntry(sAlias, keyPair.getPrivate(), cPassword, new X509Certificate[] { certificate });
 			m_keyStoreWrap.setEntryPassword(sAlias, cPassword);
-			m_keyStoreWrap.setChanged(true);
+			entryAdded(sAlias);
 		}
-		catch (KeyStoreException ex)
+		catch (CryptoException | KeyStoreException ex)
 		{
 			DThrowable.showAndWait(this, null, ex);
 			return false;
@@ -1757,7 +2011,7 @@ public class FPortecle
 
 		// Update the frame's components and title
 		selectedAlias = sAlias;
-		updateControls();
+		updateControls(false);
 		updateTitle();
 
 		// Display success message
@@ -1879,45 +2133,21 @@ public class FPortecle
 
 		try
 		{
-			// Load the keystore - try to open as each of the allowed types in turn until successful
-			KeyStore openedKeyStore = null;
-
-			// Types
-			KeyStoreType[] keyStoreTypes = KeyStoreUtil.getAvailableTypes();
-
-			// Exceptions
-			CryptoException[] cexs = new CryptoException[keyStoreTypes.length];
-
-			// Tried types
-			StringBuilder tried = new StringBuilder();
-
-			for (int iCnt = 0; iCnt < keyStoreTypes.length; iCnt++)
-			{
-				tried.append(", ").append(keyStoreTypes[iCnt].toString());
-				try
-				{
-					openedKeyStore = KeyStoreUtil.loadKeyStore(fKeyStore, cPassword, keyStoreTypes[iCnt]);
-					break; // Success
-				}
-				catch (CryptoException cex)
-				{
-					cexs[iCnt] = cex;
-				}
-			}
+			// Load the keystore in the background - try to open as each of the types matching the file header
+			// concurrently, the first one in order that succeeds wins
+			KeyStoreProber prober = probeKeyStore(fKeyStore, cPassword);
+			KeyStore openedKeyStore = prober.getKeyStore();
 
 			if (openedKeyStore == null)
 			{
 				// None of the types worked - show each of the errors?
-				if (tried.length() > 2)
-				{
-					tried.delete(0, 2); // Chop leading ", "
-				}
 				int iSelected = SwingHelper.showConfirmDialog(this,
-				    MessageFormat.format(RB.getString("FPortecle.NoOpenKeyStoreFile.message"), fKeyStore, tried),
+				    MessageFormat.format(RB.getString("FPortecle.NoOpenKeyStoreFile.message"), fKeyStore,
+				        getTriedTypes(prober)),
 				    RB.getString("FPortecle.OpenKeyStoreFile.Title"));
 				if (iSelected == JOptionPane.YES_OPTION)
 				{
-					for (CryptoException cex : cexs)
+					for (CryptoException cex : prober.getExceptions())
 					{
 						DThrowable.showAndWait(this, null, cex);
 					}
@@ -1928,6 +2158,7 @@ public class FPortecle
 
 			// Create a keystore wrapper for the keystore
 			m_keyStoreWrap = new KeyStoreWrapper(openedKeyStore, fKeyStore, cPassword);
+			m_keyStoreWrap.setFileState(prober.getSnapshot().getFileState());
 
 			// Update the frame's components and title
 			selectedAlias = null;
@@ -1939,6 +2170,10 @@ public class FPortecle
 
 			return true;
 		}
+		catch (CancellationException ex)
+		{
+			return false;
+		}
 		catch (FileNotFoundException ex)
 		{
 			JOptionPane.showMessageDialog(this,
@@ -1953,6 +2188,57 @@ public class FPortecle
 		}
 	}
 
+	/**
+	 * Load a keystore file in the background, trying the types matching its header.
+	 * 
+	 * @param fKeyStore The keystore file
+	 * @param cPassword The keystore password
+	 * @return The prober used for loading, containing the keystore if loading succeeded
+	 * @throws CancellationException If the user cancelled loading
+	 * @throws Exception If the file could not be read
+	 */
+	private KeyStoreProber probeKeyStore(final File fKeyStore, final char[] cPassword)
+	    throws Exception
+	{
+		BackgroundTask<KeyStoreProber> task = new BackgroundTask<KeyStoreProber>(this, this,
+		    MessageFormat.format(RB.getString("FPortecle.OpeningKeyStore.statusbar"), fKeyStore.getName()))
+		{
+			@Override
+			protected KeyStoreProber doInBackground()
+			    throws Exception
+			{
+				// Read the file only once for all types
+				KeyStoreSnapshot snapshot = KeyStoreSnapshot.read(fKeyStore);
+
+				KeyStoreProber prober =
+				    new KeyStoreProber(snapshot, cPassword, KeyStoreFormatDetector.getCandidateTypes(snapshot));
+				prober.probe();
+				return prober;
+			}
+		};
+		return task.runAndWait();
+	}
+
+	/**
+	 * Get comma separated names of the keystore types tried by a prober.
+	 * 
+	 * @param prober The prober
+	 * @return The tried types
+	 */
+	private static String getTriedTypes(KeyStoreProber prober)
+	{
+		StringBuilder tried = new StringBuilder();
+		for (KeyStoreType keyStoreType : prober.getTypes())
+		{
+			if (tried.length() != 0)
+			{
+				tried.append(", ");
+			}
+			tried.append(keyStoreType.toString());
+		}
+		return tried.toString();
+	}
+
 	/**
 	 * Open a PKCS #11 keystore.
 	 * 
@@ -2063,14 +2349,29 @@ public class FPortecle
 			}
 		}
 
+		// Has someone else changed the file since we loaded or saved it?
+		KeyStoreFileState fileState = m_keyStoreWrap.getFileState();
+		if (fileState != null && fileState.getFile().equals(fSaveFile) && fileState.isChangedOnDisk())
+		{
+			String sMessage = MessageFormat.format(RB.getString("FPortecle.ChangedOnDisk.message"), fSaveFile.getName());
+			int iSelected = JOptionPane.showConfirmDialog(this, sMessage, RB.getString("FPortecle.SaveKeyStore.Title"),
+			    JOptionPane.YES_NO_OPTION);
+			if (iSelected != JOptionPane.YES_OPTION)
+			{
+				return false;
+			}
+		}
+
 		try
 		{
-			// Do the save
-			m_keyStoreWrap.setKeyStore(KeyStoreUtil.saveKeyStore(m_keyStoreWrap.getKeyStore(), fSaveFile, cPassword));
+			// Do the save in the background
+			SaveKeyStoreTask task = new SaveKeyStoreTask(m_keyStoreWrap.getKeyStore(), fSaveFile, cPassword);
+			m_keyStoreWrap.setKeyStore(task.runAndWait());
 
 			// Update the keystore wrapper
 			m_keyStoreWrap.setPassword(cPassword);
 			m_keyStoreWrap.setKeyStoreFile(fSaveFile);
+			m_keyStoreWrap.setFileState(task.getFileState());
 			m_keyStoreWrap.setChanged(false);
 
 			// Update the frame's components and title
@@ -2163,13 +2464,14 @@ public class FPortecle
 					return false;
 				}
 
-				// Save the keystore to file
-				m_keyStoreWrap.setKeyStore(
-				    KeyStoreUtil.saveKeyStore(m_keyStoreWrap.getKeyStore(), fSaveFile, cPassword));
+				// Save the keystore to file in the background
+				SaveKeyStoreTask task = new SaveKeyStoreTask(m_keyStoreWrap.getKeyStore(), fSaveFile, cPassword);
+				m_keyStoreWrap.setKeyStore(task.runAndWait());
 
 				// Update the keystore wrapper
 				m_keyStoreWrap.setPassword(cPassword);
 				m_keyStoreWrap.setKeyStoreFile(fSaveFile);
+				m_keyStoreWrap.setFileState(task.getFileState());
 				m_keyStoreWrap.setChanged(false);
 
 				// Update the frame's components and title
@@ -2344,102 +2646,92 @@ public class FPortecle
 		}
 
 		// TODO: options from user
-		boolean bVerifyCerts = false;
-		int timeOut = 10000;
+		final boolean bVerifyCerts = false;
+		final int timeOut = 10000;
 
-		// Get the certificates received from the connection
-		X509Certificate[] certs = null;
-		String protocol = null;
-		String cipherSuite = null;
-		SSLSocket ss = null;
-		Socket socket = null;
-
-		try
+		// Get the certificates received from the connection; protocol and cipher suite go to sessionInfo
+		final InetSocketAddress address = ia;
+		final String[] sessionInfo = new String[2];
+		BackgroundTask<X509Certificate[]> task = new BackgroundTask<X509Certificate[]>(this, this,
+		    MessageFormat.format(RB.getString("FPortecle.ConnectingSSL.statusbar"),
+		        ia.getHostString() + ":" + ia.getPort()))
 		{
-
-			SSLSocketFactory sf;
-			if (bVerifyCerts)
-			{
-				sf = (SSLSocketFactory) SSLSocketFactory.getDefault();
-			}
-			else
+			@Override
+			protected X509Certificate[] doInBackground()
+			    throws GeneralSecurityException, IOException
 			{
-				// @@@TODO: cache all this?
-				SSLContext sc = SSLContext.getInstance("SSL");
-				X509TrustManager[] tm = { new X509TrustManager()
+				SSLSocketFactory sf;
+				if (bVerifyCerts)
+				{
+					sf = (SSLSocketFactory) SSLSocketFactory.getDefault();
+				}
+				else
 				{
-					@Override
-					public void checkClientTrusted(X509Certificate[] chain, String authType)
+					// @@@TODO: cache all this?
+					SSLContext sc = SSLContext.getInstance("SSL");
+					X509TrustManager[] tm = { new X509TrustManager()
 					{
-						// Trust anything
-					}
+						@Override
+						public void checkClientTrusted(X509Certificate[] chain, String authType)
+						{
+							// Trust anything
+						}
 
-					@Override
-					public void checkServerTrusted(X509Certificate[] chain, String authType)
-					{
-						// Trust anything
-					}
+						@Override
+						public void checkServerTrusted(X509Certificate[] chain, String authType)
+						{
+							// Trust anything
+						}
+
+						@Override
+						public X509Certificate[] getAcceptedIssuers()
+						{
+							return new X509Certificate[0];
+						}
+					} };
+					sc.init(null, tm, getSecureRandom());
+					sf = sc.getSocketFactory();
+				}
+
+				// Go through a regular SocketFactory in order to be able to:
+				// - control connection timeouts before connecting, and
+				// - be able to use a host(String), port based method; otherwise apparently no SNI
 
-					@Override
-					public X509Certificate[] getAcceptedIssuers()
+				try (Socket socket = SocketFactory.getDefault().createSocket())
+				{
+					socket.setSoTimeout(timeOut);
+					socket.connect(address, timeOut);
+					try (SSLSocket ss =
+					    (SSLSocket) sf.createSocket(socket, address.getHostString(), address.getPort(), false))
 					{
-						return new X509Certificate[0];
+						SSLSession sess = ss.getSession();
+						// TODO: fails with GNU Classpath: http://gcc.gnu.org/bugzilla/show_bug.cgi?id=29692
+						X509Certificate[] certs = (X509Certificate[]) sess.getPeerCertificates();
+						sessionInfo[0] = sess.getProtocol();
+						sessionInfo[1] = sess.getCipherSuite();
+						sess.invalidate();
+						return certs;
 					}
-				} };
-				if (m_rnd == null)
-				{
-					m_rnd = new SecureRandom();
 				}
-				sc.init(null, tm, m_rnd);
-				sf = sc.getSocketFactory();
 			}
+		};
 
-			// Go through a regular SocketFactory in order to be able to:
-			// - control connection timeouts before connecting, and
-			// - be able to use a host(String), port based method; otherwise apparently no SNI
-
-			socket = SocketFactory.getDefault().createSocket();
-			socket.setSoTimeout(timeOut);
-			socket.connect(ia, timeOut);
-			ss = (SSLSocket) sf.createSocket(socket, ia.getHostString(), ia.getPort(), false);
-
-			SSLSession sess = ss.getSession();
-			// TODO: fails with GNU Classpath: http://gcc.gnu.org/bugzilla/show_bug.cgi?id=29692
-			certs = (X509Certificate[]) sess.getPeerCertificates();
-			protocol = sess.getProtocol();
-			cipherSuite = sess.getCipherSuite();
-			sess.invalidate();
+		X509Certificate[] certs;
+		try
+		{
+			certs = task.runAndWait();
 		}
-		catch (Exception e)
+		catch (CancellationException e)
 		{
-			DThrowable.showAndWait(this, null, e);
 			return false;
 		}
-		finally
+		catch (Exception e)
 		{
-			if (ss != null && !ss.isClosed())
-			{
-				try
-				{
-					ss.close();
-				}
-				catch (IOException e)
-				{
-					DThrowable.showAndWait(this, null, e);
-				}
-			}
-			if (socket != null && !socket.isClosed())
-			{
-				try
-				{
-					socket.close();
-				}
-				catch (IOException e)
-				{
-					DThrowable.showAndWait(this, null, e);
-				}
-			}
+			DThrowable.showAndWait(this, null, e);
+			return false;
 		}
+		String protocol = sessionInfo[0];
+		String cipherSuite = sessionInfo[1];
 
 		// Check what we got
 
@@ -2583,81 +2875,217 @@ public class FPortecle
 	}
 
 	/**
-	 * Let the user choose a certificate to examine from a SSL connection.
-	 * 
-	 * @return The chosen inet address or null if none was chosen
+	 * Log how many certificate signature verifications were answered from the signature verification cache so far.
 	 */
-	private InetSocketAddress chooseExamineCertSSL()
+	private static void logSignatureCacheUse()
 	{
-		DGetHostPort d = new DGetHostPort(this, RB.getString("FPortecle.ExamineCertificateSSL.Title"), null);
-		d.setLocationRelativeTo(this);
-		SwingHelper.showAndWait(d);
-		return d.getHostPort();
+		if (LOG.isLoggable(Level.FINE))
+		{
+			LOG.log(Level.FINE, "Signature verification cache: {0} hits, {1} misses",
+			    new Object[] { SignatureVerificationCache.getHitCount(), SignatureVerificationCache.getMissCount() });
+		}
 	}
 
 	/**
-	 * Let the user choose a CSR file to examine.
+	 * Get the trust index for the CA certificates keystore (if in use) and the current keystore. The index is reused
+	 * until either keystore is replaced; entry changes registered with {@link #entryAdded(String)},
+	 * {@link #entryRemoved(String)} and {@link #entryRenamed(String, String)} update it, other changes to the current
+	 * keystore cause it to be rebuilt. The CA certificates keystore must have been loaded if it is in use.
 	 * 
-	 * @return The chosen file or null if none was chosen
+	 * @return The trust index
+	 * @throws CryptoException If a problem is encountered building the index
 	 */
-	private File chooseExamineCSRFile()
+	private TrustIndex getTrustIndex()
+	    throws CryptoException
 	{
-		JFileChooser chooser = FileChooserFactory.getCsrFileChooser(null);
-
-		File fLastDir = m_lastDir.getLastDir();
-		if (fLastDir != null)
-		{
-			chooser.setCurrentDirectory(fLastDir);
-		}
-
-		chooser.setDialogTitle(RB.getString("FPortecle.ExamineCsr.Title"));
-		chooser.setMultiSelectionEnabled(false);
-
-		int iRtnValue = chooser.showDialog(this, RB.getString("FPortecle.ExamineCsr.button"));
-		if (iRtnValue == JFileChooser.APPROVE_OPTION)
+		if (!isTrustIndexCurrent())
 		{
-			return chooser.getSelectedFile();
+			m_trustIndex = new TrustIndex(getTrustKeyStores());
+			m_iTrustIndexModCount = m_keyStoreWrap.getModificationCount();
 		}
-		return null;
+		return m_trustIndex;
 	}
 
 	/**
-	 * Let the user choose a CRL file to examine.
+	 * Get the keystores trust is established against.
 	 * 
-	 * @return The chosen file or null if none was chosen
+	 * @return The CA certificates keystore (if in use) and the current keystore
 	 */
-	private File chooseExamineCRLFile()
+	private KeyStore[] getTrustKeyStores()
 	{
-		JFileChooser chooser = FileChooserFactory.getCrlFileChooser();
-
-		File fLastDir = m_lastDir.getLastDir();
-		if (fLastDir != null)
-		{
-			chooser.setCurrentDirectory(fLastDir);
-		}
-
-		chooser.setDialogTitle(RB.getString("FPortecle.ExamineCrl.Title"));
-		chooser.setMultiSelectionEnabled(false);
-
-		int iRtnValue = chooser.showDialog(this, RB.getString("FPortecle.ExamineCrl.button"));
-		if (iRtnValue == JFileChooser.APPROVE_OPTION)
+		// Establish against CA certificates keystore and current keystore
+		if (m_bUseCaCerts)
 		{
-			return chooser.getSelectedFile();
+			return new KeyStore[] { m_caCertsKeyStore, m_keyStoreWrap.getKeyStore() };
 		}
-		return null;
+		// Establish against current keystore only
+		return new KeyStore[] { m_keyStoreWrap.getKeyStore() };
 	}
 
 	/**
-	 * Let the user choose a trusted certificate file to import.
+	 * Is the trust index up to date with the keystores trust is established against?
 	 * 
-	 * @return The chosen file or null if none was chosen
+	 * @return True if the index has been built for the keystores and the current keystore has not changed since,
+	 *         false otherwise
 	 */
-	private File chooseTrustCertFile()
+	private boolean isTrustIndexCurrent()
+	{
+		return m_trustIndex != null && m_trustIndex.isFor(getTrustKeyStores()) &&
+		    m_iTrustIndexModCount == m_keyStoreWrap.getModificationCount();
+	}
+
+	/**
+	 * Update the trust index for changed entries of the current keystore, if it was up to date before the change.
+	 * 
+	 * @param bWasCurrent Was the trust index up to date before the change? See {@link #isTrustIndexCurrent()}
+	 * @param aliases The aliases of the changed entries
+	 * @throws CryptoException If a problem is encountered updating the index
+	 */
+	private void updateTrustIndex(boolean bWasCurrent, String... aliases)
+	    throws CryptoException
+	{
+		if (bWasCurrent)
+		{
+			for (String sAlias : aliases)
+			{
+				m_trustIndex.update(m_keyStoreWrap.getKeyStore(), sAlias);
+			}
+			m_iTrustIndexModCount = m_keyStoreWrap.getModificationCount();
+		}
+	}
+
+	/**
+	 * Get the certificate index for the CA certificates keystore, which must have been loaded.
+	 * 
+	 * @return The certificate index
+	 * @throws CryptoException If a problem is encountered building the index
+	 */
+	private CertificateIndex getCaCertsIndex()
+	    throws CryptoException
+	{
+		if (m_caCertsIndex == null || !m_caCertsIndex.isFor(m_caCertsKeyStore))
+		{
+			m_caCertsIndex = new CertificateIndex(m_caCertsKeyStore);
+		}
+		return m_caCertsIndex;
+	}
+
+	/**
+	 * Get the PRNG, creating it on first use. May be called from background tasks.
+	 * 
+	 * @return The PRNG
+	 */
+	private synchronized SecureRandom getSecureRandom()
+	{
+		if (m_rnd == null)
+		{
+			m_rnd = new SecureRandom();
+		}
+		return m_rnd;
+	}
+
+	/**
+	 * Let the user choose a certificate to examine from a SSL connection.
+	 * 
+	 * @return The chosen inet address or null if none was chosen
+	 */
+	private InetSocketAddress chooseExamineCertSSL()
+	{
+		DGetHostPort d = new DGetHostPort(this, RB.getString("FPortecle.ExamineCertificateSSL.Title"), null);
+		d.setLocationRelativeTo(this);
+		SwingHelper.showAndWait(d);
+		return d.getHostPort();
+	}
+
+	/**
+	 * Let the user choose a CSR file to examine.
+	 * 
+	 * @return The chosen file or null if none was chosen
+	 */
+	private File chooseExamineCSRFile()
+	{
+		JFileChooser chooser = FileChooserFactory.getCsrFileChooser(null);
+
+		File fLastDir = m_lastDir.getLastDir();
+		if (fLastDir != null)
+		{
+			chooser.setCurrentDirectory(fLastDir);
+		}
+
+		chooser.setDialogTitle(RB.getString("FPortecle.ExamineCsr.Title"));
+		chooser.setMultiSelectionEnabled(false);
+
+		int iRtnValue = chooser.showDialog(this, RB.getString("FPortecle.ExamineCsr.button"));
+		if (iRtnValue == JFileChooser.APPROVE_OPTION)
+		{
+			return chooser.getSelectedFile();
+		}
+		return null;
+	}
+
+	/**
+	 * Let the user choose a CRL file to examine.
+	 * 
+	 * @return The chosen file or null if none was chosen
+	 */
+	private File chooseExamineCRLFile()
+	{
+		JFileChooser chooser = FileChooserFactory.getCrlFileChooser();
+
+		File fLastDir = m_lastDir.getLastDir();
+		if (fLastDir != null)
+		{
+			chooser.setCurrentDirectory(fLastDir);
+		}
+
+		chooser.setDialogTitle(RB.getString("FPortecle.ExamineCrl.Title"));
+		chooser.setMultiSelectionEnabled(false);
+
+		int iRtnValue = chooser.showDialog(this, RB.getString("FPortecle.ExamineCrl.button"));
+		if (iRtnValue == JFileChooser.APPROVE_OPTION)
+		{
+			return chooser.getSelectedFile();
+		}
+		return null;
+	}
+
+	/**
+	 * Let the user choose CRL files to check the keystore entries against.
+	 * 
+	 * @return The chosen files or null if none were chosen
+	 */
+	private File[] chooseCheckRevocationCRLFiles()
+	{
+		JFileChooser chooser = FileChooserFactory.getCrlFileChooser();
+
+		File fLastDir = m_lastDir.getLastDir();
+		if (fLastDir != null)
+		{
+			chooser.setCurrentDirectory(fLastDir);
+		}
+
+		chooser.setDialogTitle(RB.getString("FPortecle.CheckRevocation.Title"));
+		chooser.setMultiSelectionEnabled(true);
+
+		int iRtnValue = chooser.showDialog(this, RB.getString("FPortecle.CheckRevocation.button"));
+		if (iRtnValue == JFileChooser.APPROVE_OPTION && chooser.getSelectedFiles().length != 0)
+		{
+			return chooser.getSelectedFiles();
+		}
+		return null;
+	}
+
+	/**
+	 * Let the user choose trusted certificate files or directories to import.
+	 * 
+	 * @return The chosen files or null if none were chosen
+	 */
+	private File[] chooseTrustCertFiles()
 	{
 		assert m_keyStoreWrap != null;
 		assert m_keyStoreWrap.getKeyStore() != null;
 
-		JFileChooser chooser = FileChooserFactory.getX509FileChooser(null);
+		JFileChooser chooser = FileChooserFactory.getCertFileChooser();
 
 		File fLastDir = m_lastDir.getLastDir();
 		if (fLastDir != null)
@@ -2666,12 +3094,14 @@ public class FPortecle
 		}
 
 		chooser.setDialogTitle(RB.getString("FPortecle.ImportTrustCert.Title"));
-		chooser.setMultiSelectionEnabled(false);
+		chooser.setMultiSelectionEnabled(true);
+		chooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
 
 		int iRtnValue = chooser.showDialog(this, RB.getString("FPortecle.ImportTrustCert.button"));
 		if (iRtnValue == JFileChooser.APPROVE_OPTION)
 		{
-			return chooser.getSelectedFile();
+			File[] fFiles = chooser.getSelectedFiles();
+			return (fFiles.length == 0) ? null : fFiles;
 		}
 		return null;
 	}
@@ -2845,7 +3275,8 @@ public class FPortecle
 		try
 		{
 			// Order the new certificates into a chain...
-			certs = X509CertUtil.orderX509CertChain(certs);
+			ArrayList<X509Certificate> leftOut = new ArrayList<>();
+			certs = X509CertUtil.orderX509CertChain(certs, leftOut);
 
 			// ...and those that exist in the entry already
 			X509Certificate[] oldCerts =
@@ -2859,6 +3290,20 @@ public class FPortecle
 				return false;
 			}
 
+			// Tell the user about the certificates that are not part of the chain and will not be imported
+			if (!leftOut.isEmpty())
+			{
+				StringBuilder sbLeftOut = new StringBuilder();
+				for (X509Certificate cert : leftOut)
+				{
+					sbLeftOut.append('\n').append(cert.getSubjectX500Principal());
+				}
+				JOptionPane.showMessageDialog(this,
+				    MessageFormat.format(RB.getString("FPortecle.CaReplyCertsNotInChain.message"), leftOut.size(),
+				        sbLeftOut),
+				    RB.getString("FPortecle.ImportCaReply.Title"), JOptionPane.WARNING_MESSAGE);
+			}
+
 			// If the CA certificates keystore is to be used and it has yet to be loaded then do so
 			if (m_bUseCaCerts && m_caCertsKeyStore == null)
 			{
@@ -2884,12 +3329,12 @@ public class FPortecle
 
 				if (m_bUseCaCerts) // Match against CA certificates keystore
 				{
-					sMatchAlias = X509CertUtil.matchCertificate(m_caCertsKeyStore, rootCert);
+					sMatchAlias = getCaCertsIndex().findAlias(rootCert);
 				}
 
 				if (sMatchAlias == null) // Match against current keystore
 				{
-					sMatchAlias = X509CertUtil.matchCertificate(keyStore, rootCert);
+					sMatchAlias = m_keyStoreWrap.getCertificateIndex().findAlias(rootCert);
 				}
 
 				// No match
@@ -2924,20 +3369,8 @@ public class FPortecle
 			// ending with a root CA self-signed certificate
 			else
 			{
-				KeyStore[] compKeyStores = null;
-
-				// Establish against CA certificates keystore and current keystore
-				if (m_bUseCaCerts)
-				{
-					compKeyStores = new KeyStore[] { m_caCertsKeyStore, keyStore };
-				}
-				else
-				// Establish against current keystore only
-				{
-					compKeyStores = new KeyStore[] { keyStore };
-				}
-
-				X509Certificate[] trustChain = X509CertUtil.establishTrust(compKeyStores, certs[0]);
+				// Establish against CA certificates keystore (if in use) and current keystore
+				X509Certificate[] trustChain = getTrustIndex().establishTrust(certs[0]);
 
 				if (trustChain == null)
 				{
@@ -3093,14 +3526,21 @@ public class FPortecle
 		assert m_keyStoreWrap != null;
 		assert m_keyStoreWrap.getKeyStore() != null;
 
-		// Let the user choose a file for the trusted certificate
-		File fCertFile = chooseTrustCertFile();
-		if (fCertFile == null)
+		// Let the user choose files for the trusted certificates
+		File[] fCertFiles = chooseTrustCertFiles();
+		if (fCertFiles == null)
 		{
 			return false;
 		}
 
+		// Several files or a directory - import in bulk
+		if (fCertFiles.length > 1 || fCertFiles[0].isDirectory())
+		{
+			return importTrustedCerts(fCertFiles);
+		}
+
 		// Load the certificate(s)
+		File fCertFile = fCertFiles[0];
 		X509Certificate[] certs = openCert(fCertFile);
 
 		if (certs == null || certs.length == 0)
@@ -3110,10 +3550,8 @@ public class FPortecle
 
 		if (certs.length > 1)
 		{
-			// Cannot import more than one certificate
-			JOptionPane.showMessageDialog(this, RB.getString("FPortecle.NoMultipleTrustCertImport.message"),
-			    RB.getString("FPortecle.ImportTrustCert.Title"), JOptionPane.ERROR_MESSAGE);
-			return false;
+			// More than one certificate in the file - import in bulk
+			return importTrustedCerts(fCertFiles);
 		}
 
 		X509Certificate trustCert = certs[0];
@@ -3124,7 +3562,7 @@ public class FPortecle
 			KeyStore keyStore = m_keyStoreWrap.getKeyStore();
 
 			// Certificate already exists in the keystore
-			String sMatchAlias = X509CertUtil.matchCertificate(keyStore, trustCert);
+			String sMatchAlias = m_keyStoreWrap.getCertificateIndex().findAlias(trustCert);
 			if (sMatchAlias != null)
 			{
 				int iSelected = JOptionPane.showConfirmDialog(this,
@@ -3149,20 +3587,7 @@ public class FPortecle
 
 			// If we cannot establish trust for the certificate against the CA certificates keystore or the
 			// current keystore then, display the certificate to the user for confirmation
-			KeyStore[] compKeyStores = null;
-
-			// Establish against CA certificates keystore and current keystore
-			if (m_bUseCaCerts)
-			{
-				compKeyStores = new KeyStore[] { m_caCertsKeyStore, keyStore };
-			}
-			else
-			// Establish against current keystore only
-			{
-				compKeyStores = new KeyStore[] { keyStore };
-			}
-
-			if (X509CertUtil.establishTrust(compKeyStores, trustCert) == null)
+			if (getTrustIndex().establishTrust(trustCert) == null)
 			{
 				// Tell the user what is happening
 				JOptionPane.showMessageDialog(this, RB.getString("FPortecle.NoTrustPathCertConfirm.message"),
@@ -3200,12 +3625,12 @@ public class FPortecle
 			// Import the trusted certificate
 			keyStore.setCertificateEntry(sAlias, trustCert);
 
-			// Update the keystore wrapper
-			m_keyStoreWrap.setChanged(true);
+			// Update the keystore wrapper and the entries table
+			entryAdded(sAlias);
 
 			// Update the frame's components and title
 			selectedAlias = sAlias;
-			updateControls();
+			updateControls(false);
 			updateTitle();
 
 			m_lastDir.updateLastDir(fCertFile);
@@ -3223,6 +3648,114 @@ public class FPortecle
 		}
 	}
 
+	/**
+	 * Import all certificates found in the supplied files and directories as trusted certificates. The files are
+	 * loaded in parallel, certificates already in the keystore or found more than once are skipped, and trust is
+	 * checked for all of them before asking the user once whether to import those that could not be trusted.
+	 * 
+	 * @param fCertFiles The certificate files and directories
+	 * @return True if the import is successful, false otherwise
+	 */
+	private boolean importTrustedCerts(File[] fCertFiles)
+	{
+		LoadTrustCertsTask task;
+		try
+		{
+			// If the CA certificates keystore is to be used and it has yet to be loaded then do so
+			if (m_bUseCaCerts && m_caCertsKeyStore == null)
+			{
+				m_caCertsKeyStore = openCaCertsKeyStore();
+				if (m_caCertsKeyStore == null)
+				{
+					// Failed to load CA certificates keystore
+					return false;
+				}
+			}
+
+			task = new LoadTrustCertsTask(fCertFiles, m_keyStoreWrap.getCertificateIndex(), getTrustIndex());
+			task.runAndWait();
+			logSignatureCacheUse();
+		}
+		catch (CancellationException ex)
+		{
+			return false;
+		}
+		catch (Exception ex)
+		{
+			DThrowable.showAndWait(this, null, ex);
+			return false;
+		}
+
+		m_lastDir.updateLastDir(fCertFiles[0]);
+
+		ArrayList<X509Certificate> certs = task.getCertificates();
+		if (certs.isEmpty())
+		{
+			JOptionPane.showMessageDialog(this,
+			    MessageFormat.format(RB.getString("FPortecle.NoNewTrustCerts.message"), task.getDuplicateCount(),
+			        task.getUnreadableCount()),
+			    RB.getString("FPortecle.ImportTrustCert.Title"), JOptionPane.WARNING_MESSAGE);
+			showFailures(task.getFailures(), "FPortecle.NoLoadCertFiles.message",
+			    RB.getString("FPortecle.ImportTrustCert.Title"));
+			return false;
+		}
+
+		// Ask once what to do with the certificates trust could not be established for
+		Set<X509Certificate> untrusted = task.getUntrustedCertificates();
+		if (!untrusted.isEmpty())
+		{
+			int iSelected = JOptionPane.showConfirmDialog(this,
+			    MessageFormat.format(RB.getString("FPortecle.NoTrustPathCertsConfirm.message"), untrusted.size(),
+			        certs.size()),
+			    RB.getString("FPortecle.ImportTrustCert.Title"), JOptionPane.YES_NO_CANCEL_OPTION);
+			if (iSelected == JOptionPane.NO_OPTION)
+			{
+				certs.removeAll(untrusted);
+			}
+			else if (iSelected != JOptionPane.YES_OPTION)
+			{
+				return false;
+			}
+		}
+
+		// Insert all certificates, refreshing the frame's components once at the end
+		KeyStore keyStore = m_keyStoreWrap.getKeyStore();
+		int iImported = 0;
+		try
+		{
+			for (X509Certificate cert : certs)
+			{
+				String sAlias =
+				    KeyStoreUtil.findUnusedAlias(keyStore, X509CertUtil.getCertificateAlias(cert).toLowerCase());
+				keyStore.setCertificateEntry(sAlias, cert);
+				m_keyStoreWrap.entryAdded(sAlias);
+				if (iImported++ == 0)
+				{
+					selectedAlias = sAlias;
+				}
+			}
+		}
+		catch (CryptoException | KeyStoreException ex)
+		{
+			DThrowable.showAndWait(this, null, ex);
+		}
+
+		if (iImported != 0)
+		{
+			updateControls();
+			updateTitle();
+		}
+
+		JOptionPane.showMessageDialog(this,
+		    MessageFormat.format(RB.getString("FPortecle.ImportTrustCertsSuccessful.message"), iImported,
+		        task.getDuplicateCount(), task.getUnreadableCount()),
+		    RB.getString("FPortecle.ImportTrustCert.Title"), JOptionPane.INFORMATION_MESSAGE);
+		showFailures(task.getFailures(), "FPortecle.NoLoadCertFiles.message",
+		    RB.getString("FPortecle.ImportTrustCert.Title"));
+
+		return iImported != 0;
+	}
+
 	/**
 	 * Let the user import a key pair a PKCS #12 keystore or a PEM bundle.
 	 * 
@@ -3384,11 +3917,11 @@ public class FPortecle
 			// Place the private key and certificate chain into the keystore and update the keystore wrapper
 			keyStore.setKeyEntry(sAlias, privateKey, cPassword, certs);
 			m_keyStoreWrap.setEntryPassword(sAlias, cPassword);
-			m_keyStoreWrap.setChanged(true);
+			entryAdded(sAlias);
 
 			// Update the frame's components and title
 			selectedAlias = sAlias;
-			updateControls();
+			updateControls(false);
 			updateTitle();
 
 			// Display success message
@@ -3423,47 +3956,21 @@ public class FPortecle
 
 		try
 		{
-			// Load the CA certificates keystore - try to open as each of the allowed types in turn until
-			// successful
-			KeyStore caCertsKeyStore = null;
-
-			// Types
-			KeyStoreType[] keyStoreTypes = KeyStoreUtil.getAvailableTypes();
-
-			// Exceptions
-			CryptoException[] cexs = new CryptoException[keyStoreTypes.length];
-
-			// Tried types
-			StringBuilder tried = new StringBuilder();
-
-			for (int iCnt = 0; iCnt < keyStoreTypes.length; iCnt++)
-			{
-				tried.append(", ").append(keyStoreTypes[iCnt].toString());
-				try
-				{
-					caCertsKeyStore = KeyStoreUtil.loadKeyStore(m_fCaCertsFile, cPassword, keyStoreTypes[iCnt]);
-					break; // Success
-				}
-				catch (CryptoException cex)
-				{
-					cexs[iCnt] = cex;
-				}
-			}
+			// Load the CA certificates keystore in the background - try to open as each of the types matching the
+			// file header concurrently, the first one in order that succeeds wins
+			KeyStoreProber prober = probeKeyStore(m_fCaCertsFile, cPassword);
+			KeyStore caCertsKeyStore = prober.getKeyStore();
 
 			if (caCertsKeyStore == null)
 			{
 				// None of the types worked - show each of the errors?
-				if (tried.length() > 2)
-				{
-					tried.delete(0, 2); // Chop leading ", "
-				}
 				int iSelected = SwingHelper.showConfirmDialog(this,
 				    MessageFormat.format(RB.getString("FPortecle.NoOpenCaCertsKeyStore.message"), m_fCaCertsFile,
-				        tried),
+				        getTriedTypes(prober)),
 				    RB.getString("FPortecle.OpenCaCertsKeyStore.Title"));
 				if (iSelected == JOptionPane.YES_OPTION)
 				{
-					for (CryptoException cex : cexs)
+					for (CryptoException cex : prober.getExceptions())
 					{
 						DThrowable.showAndWait(this, null, cex);
 					}
@@ -3474,6 +3981,10 @@ public class FPortecle
 
 			return caCertsKeyStore;
 		}
+		catch (CancellationException ex)
+		{
+			return null;
+		}
 		catch (FileNotFoundException ex)
 		{
 			JOptionPane.showMessageDialog(this,
@@ -3674,12 +4185,9 @@ public class FPortecle
 		try
 		{
 			// Get current keystore and type
-			KeyStore currentKeyStore = m_keyStoreWrap.getKeyStore();
+			final KeyStore currentKeyStore = m_keyStoreWrap.getKeyStore();
 			KeyStoreType currentType = m_keyStoreWrap.getKeyStoreType();
 
-			// Create empty keystore of new type
-			KeyStore newKeyStore = KeyStoreUtil.createKeyStore(keyStoreType);
-
 			// Flag used to tell if we have warned the user about default key pair entry passwords for
 			// keystores changed to types that don't support entry passwords
 			boolean bWarnPasswordUnsupported = false;
@@ -3688,8 +4196,17 @@ public class FPortecle
 			// change
 			boolean bWarnNoChangeKey = false;
 
-			// For every entry in the current keystore transfer it to the new one - get key/key pair entry
-			// passwords from the wrapper and if not present there from the user
+			// Aliases of the entries to transfer, in order
+			final ArrayList<String> transferAliases = new ArrayList<>();
+
+			// Passwords of key pair entries to transfer in the current keystore...
+			final HashMap<String, char[]> currentPasswords = new HashMap<>();
+
+			// ...and in the new one
+			final HashMap<String, char[]> newPasswords = new HashMap<>();
+
+			// For every entry in the current keystore find out whether to transfer it to the new one - get key
+			// pair entry passwords from the wrapper and if not present there from the user
 			for (Enumeration<String> aliases = currentKeyStore.aliases(); aliases.hasMoreElements();)
 			{
 				// Entry alias
@@ -3698,21 +4215,7 @@ public class FPortecle
 				// Trusted certificate entry
 				if (currentKeyStore.isCertificateEntry(sAlias))
 				{
-					// Check and ask about alias overwriting issues
-					if (newKeyStore.containsAlias(sAlias))
-					{
-						int iSelected =
-						    JOptionPane.showConfirmDialog(this, RB.getString("FPortecle.WarnOverwriteAlias.message"),
-						        RB.getString("FPortecle.ChangeKeyStoreType.Title"), JOptionPane.YES_NO_OPTION);
-						if (iSelected != JOptionPane.YES_OPTION)
-						{
-							continue;
-						}
-					}
-
-					// Get trusted certificate and place it in the new keystore
-					Certificate trustedCertificate = currentKeyStore.getCertificate(sAlias);
-					newKeyStore.setCertificateEntry(sAlias, trustedCertificate);
+					transferAliases.add(sAlias);
 				}
 				// Key or Key pair entry
 				else if (currentKeyStore.isKeyEntry(sAlias))
@@ -3761,8 +4264,8 @@ public class FPortecle
 						}
 					}
 
-					// Use password to get key pair
-					Key key = currentKeyStore.getKey(sAlias, cPassword);
+					transferAliases.add(sAlias);
+					currentPasswords.put(sAlias, cPassword);
 
 					// The current keystore type does not support entry passwords so the password will be set
 					// to the "dummy value" password
@@ -3784,34 +4287,82 @@ public class FPortecle
 						cPassword = KeyStoreUtil.DUMMY_PASSWORD;
 					}
 
-					// Check and ask about alias overwriting issues
-					if (newKeyStore.containsAlias(sAlias))
-					{
-						int iSelected =
-						    JOptionPane.showConfirmDialog(this, RB.getString("FPortecle.WarnOverwriteAlias.message"),
-						        RB.getString("FPortecle.ChangeKeyStoreType.Title"), JOptionPane.YES_NO_OPTION);
-						if (iSelected != JOptionPane.YES_OPTION)
-						{
-							continue;
-						}
-					}
-
-					// Put key and (possibly null) certificate chain in new keystore
-					newKeyStore.setKeyEntry(sAlias, key, cPassword, certificateChain);
-
-					// Update wrapper with password
-					m_keyStoreWrap.setEntryPassword(sAlias, cPassword);
+					newPasswords.put(sAlias, cPassword);
 				}
 			}
 
-			// Successful change of type - put new keystore into wrapper
-			m_keyStoreWrap.setKeyStore(newKeyStore);
-			File oldFile = m_keyStoreWrap.getKeyStoreFile();
-			if (oldFile != null)
+			// Aliases of the key pair entries actually transferred
+			final HashSet<String> transferredKeyPairs = new HashSet<>();
+
+			// Transfer the entries to a new keystore in the background
+			final KeyStoreType newType = keyStoreType;
+			BackgroundTask<KeyStore> task = new BackgroundTask<KeyStore>(this, this,
+			    MessageFormat.format(RB.getString("FPortecle.ChangingKeyStoreType.statusbar"), keyStoreType))
 			{
-				Set<String> oldExts = m_keyStoreWrap.getKeyStoreType().getFilenameExtensions();
-				Set<String> newExts = keyStoreType.getFilenameExtensions();
-				if (oldExts.isEmpty() || newExts.isEmpty())
+				@Override
+				protected KeyStore doInBackground()
+				    throws Exception
+				{
+					// Create empty keystore of new type
+					KeyStore newKeyStore = KeyStoreUtil.createKeyStore(newType);
+
+					for (int iCnt = 0; iCnt < transferAliases.size(); iCnt++)
+					{
+						if (isCancelled())
+						{
+							return null;
+						}
+						setProgress(iCnt * 100 / transferAliases.size());
+
+						String sAlias = transferAliases.get(iCnt);
+
+						// Check and ask about alias overwriting issues
+						if (newKeyStore.containsAlias(sAlias))
+						{
+							int iSelected = showConfirmDialog(RB.getString("FPortecle.WarnOverwriteAlias.message"),
+							    RB.getString("FPortecle.ChangeKeyStoreType.Title"));
+							if (iSelected != JOptionPane.YES_OPTION)
+							{
+								continue;
+							}
+						}
+
+						char[] cCurrentPassword = currentPasswords.get(sAlias);
+						if (cCurrentPassword == null)
+						{
+							// Get trusted certificate and place it in the new keystore
+							Certificate trustedCertificate = currentKeyStore.getCertificate(sAlias);
+							newKeyStore.setCertificateEntry(sAlias, trustedCertificate);
+						}
+						else
+						{
+							// Use password to get key pair, put key and certificate chain in new keystore
+							Key key = currentKeyStore.getKey(sAlias, cCurrentPassword);
+							newKeyStore.setKeyEntry(sAlias, key, newPasswords.get(sAlias),
+							    currentKeyStore.getCertificateChain(sAlias));
+							transferredKeyPairs.add(sAlias);
+						}
+					}
+
+					return newKeyStore;
+				}
+			};
+			KeyStore newKeyStore = task.runAndWait();
+
+			// Update wrapper with passwords
+			for (String sAlias : transferredKeyPairs)
+			{
+				m_keyStoreWrap.setEntryPassword(sAlias, newPasswords.get(sAlias));
+			}
+
+			// Successful change of type - put new keystore into wrapper
+			m_keyStoreWrap.setKeyStore(newKeyStore);
+			File oldFile = m_keyStoreWrap.getKeyStoreFile();
+			if (oldFile != null)
+			{
+				Set<String> oldExts = m_keyStoreWrap.getKeyStoreType().getFilenameExtensions();
+				Set<String> newExts = keyStoreType.getFilenameExtensions();
+				if (oldExts.isEmpty() || newExts.isEmpty())
 				{
 					m_keyStoreWrap.setKeyStoreFile(null);
 				}
@@ -3844,6 +4395,10 @@ public class FPortecle
 			    RB.getString("FPortecle.ChangeKeyStoreType.Title"), JOptionPane.INFORMATION_MESSAGE);
 			return true;
 		}
+		catch (CancellationException ex)
+		{
+			return false;
+		}
 		catch (Exception ex)
 		{
 			DThrowable.showAndWait(this, null, ex);
@@ -5048,11 +5603,11 @@ public class FPortecle
 
 			// Update the keystore wrapper
 			m_keyStoreWrap.setEntryPassword(sAlias, cNewPassword);
-			m_keyStoreWrap.setChanged(true);
+			entryAdded(sAlias);
 
 			// ...and update the frame's components and title
 			selectedAlias = sAlias;
-			updateControls();
+			updateControls(false);
 			updateTitle();
 
 			// Display success message
@@ -5108,12 +5663,12 @@ public class FPortecle
 			// Create new entry
 			keyStore.setCertificateEntry(sAlias, cert);
 
-			// Update the keystore wrapper
-			m_keyStoreWrap.setChanged(true);
+			// Update the keystore wrapper and the entries table
+			entryAdded(sAlias);
 
 			// ...and update the frame's components and title
 			selectedAlias = sAlias;
-			updateControls();
+			updateControls(false);
 			updateTitle();
 
 			// Display success message
@@ -5139,18 +5694,162 @@ public class FPortecle
 		assert m_keyStoreWrap != null;
 		assert m_keyStoreWrap.getKeyStore() != null;
 
+		final KeyStore keyStore = m_keyStoreWrap.getKeyStore();
+
 		try
 		{
-			DKeyStoreReport dKeyStoreReport = new DKeyStoreReport(this, m_keyStoreWrap.getKeyStore());
+			// Generate the report in the background
+			BackgroundTask<DefaultMutableTreeNode> task = new BackgroundTask<DefaultMutableTreeNode>(this, this,
+			    RB.getString("FPortecle.GeneratingReport.statusbar"))
+			{
+				@Override
+				protected DefaultMutableTreeNode doInBackground()
+				    throws CryptoException
+				{
+					return DKeyStoreReport.createReportNodes(keyStore);
+				}
+			};
+
+			DKeyStoreReport dKeyStoreReport = new DKeyStoreReport(this, keyStore, task.runAndWait());
 			dKeyStoreReport.setLocationRelativeTo(this);
 			SwingHelper.showAndWait(dKeyStoreReport);
 			return true;
 		}
+		catch (CancellationException ex)
+		{
+			return false;
+		}
+		catch (Exception ex)
+		{
+			DThrowable.showAndWait(this, null, ex);
+			return false;
+		}
+	}
+
+	/**
+	 * Check the certificates of all entries in the currently loaded keystore against CRLs, loaded either from files the
+	 * user chooses or from the CRL distribution points of the certificates, and show the results in the revocation
+	 * status column of the keystore table.
+	 * 
+	 * @return True if the check was done, false otherwise
+	 */
+	private boolean checkRevocation()
+	{
+		assert m_keyStoreWrap != null;
+		assert m_keyStoreWrap.getKeyStore() != null;
+
+		String[] options = { RB.getString("FPortecle.CheckRevocation.files.option"),
+		    RB.getString("FPortecle.CheckRevocation.distributionPoints.option") };
+		int iSelected = JOptionPane.showOptionDialog(this, RB.getString("FPortecle.CheckRevocation.source.message"),
+		    RB.getString("FPortecle.CheckRevocation.Title"), JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE,
+		    null, options, options[0]);
+		if (iSelected == JOptionPane.CLOSED_OPTION)
+		{
+			return false;
+		}
+
+		File[] fCrlFiles = null;
+		if (iSelected == 0)
+		{
+			fCrlFiles = chooseCheckRevocationCRLFiles();
+			if (fCrlFiles == null)
+			{
+				return false;
+			}
+		}
+
+		CheckRevocationTask task;
+		try
+		{
+			// CRL issuer keys are looked up from the CA certificates keystore too if it is to be used
+			if (m_bUseCaCerts && m_caCertsKeyStore == null)
+			{
+				m_caCertsKeyStore = openCaCertsKeyStore();
+				if (m_caCertsKeyStore == null)
+				{
+					// Failed to load CA certificates keystore
+					return false;
+				}
+			}
+
+			task = new CheckRevocationTask(m_keyStoreWrap.getKeyStore(), fCrlFiles, getTrustIndex());
+			task.runAndWait();
+			logSignatureCacheUse();
+		}
+		catch (CancellationException ex)
+		{
+			return false;
+		}
 		catch (Exception ex)
 		{
 			DThrowable.showAndWait(this, null, ex);
 			return false;
 		}
+
+		if (fCrlFiles != null)
+		{
+			m_lastDir.updateLastDir(fCrlFiles[0]);
+		}
+
+		HashMap<String, RevocationStatus> statuses = task.getStatuses();
+		getKeyStoreTableModel().setRevocationStatuses(statuses);
+
+		// Show the revocation status column if it is hidden
+		int iCol = KeyStoreTableModel.REVOCATION_STATUS_COLUMN;
+		if (m_jtKeyStore.convertColumnIndexToView(iCol) == -1)
+		{
+			m_jcbmiRevocationStatusColumn.setSelected(true);
+			setTableColumnVisible(iCol, true);
+		}
+
+		int iRevoked = 0;
+		int iUnknown = 0;
+		for (RevocationStatus status : statuses.values())
+		{
+			if (status == RevocationStatus.UNKNOWN)
+			{
+				iUnknown++;
+			}
+			else if (status != RevocationStatus.GOOD)
+			{
+				iRevoked++;
+			}
+		}
+
+		JOptionPane.showMessageDialog(this,
+		    MessageFormat.format(RB.getString("FPortecle.RevocationChecked.message"), statuses.size(),
+		        task.getCrlCount(), iRevoked, iUnknown),
+		    RB.getString("FPortecle.CheckRevocation.Title"),
+		    (iRevoked == 0) ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+
+		// Offer to show why the CRLs that could not be used failed
+		showFailures(task.getFailures(), "FPortecle.NoLoadCrls.message",
+		    RB.getString("FPortecle.CheckRevocation.Title"));
+		return true;
+	}
+
+	/**
+	 * If there are failures, ask the user whether to see them and show them one by one if so.
+	 * 
+	 * @param failures The failures
+	 * @param sMessageKey Resource key of the question, taking the number of failures as its argument
+	 * @param sTitle The dialog title
+	 */
+	private void showFailures(List<Exception> failures, String sMessageKey, String sTitle)
+	{
+		if (failures.isEmpty())
+		{
+			return;
+		}
+		int iShowErrors = SwingHelper.showConfirmDialog(this,
+		    MessageFormat.format(RB.getString(sMessageKey), failures.size()), sTitle);
+		if (iShowErrors == JOptionPane.YES_OPTION)
+		{
+			for (Exception ex : failures)
+			{
+				DThrowable.showAndWait(this, null, ex);
+			}
+		}
 	}
 
 	/**
@@ -5231,14 +5930,16 @@ public class FPortecle
 
 		try
 		{
+			// The alias as stored, for updating the wrapper and the entries table once the entry is gone
+			String sStoredAlias = getStoredAlias(sAlias);
+
 			// Delete the entry
 			keyStore.deleteEntry(sAlias);
 
-			// Update the keystore wrapper
-			m_keyStoreWrap.removeEntryPassword(sAlias);
-			m_keyStoreWrap.setChanged(true);
+			// Update the keystore wrapper and the entries table
+			entryRemoved(sStoredAlias);
 		}
-		catch (KeyStoreException ex)
+		catch (CryptoException | KeyStoreException ex)
 		{
 			DThrowable.showAndWait(this, null, ex);
 			return false;
@@ -5246,7 +5947,7 @@ public class FPortecle
 
 		// Update the frame's components and title
 		selectedAlias = null;
-		updateControls();
+		updateControls(false);
 		updateTitle();
 
 		return true;
@@ -5369,12 +6070,14 @@ public class FPortecle
 				keyStore.setCertificateEntry(newAlias, cert);
 			}
 
+			// The old alias as stored, for updating the wrapper and the entries table once the entry is gone
+			String sStoredOldAlias = getStoredAlias(oldAlias);
+
 			// Delete the old entry
 			keyStore.deleteEntry(oldAlias);
 
-			// Update the keystore wrapper
-			m_keyStoreWrap.removeEntryPassword(oldAlias);
-			m_keyStoreWrap.setChanged(true);
+			// Update the keystore wrapper and the entries table
+			entryRenamed(sStoredOldAlias, newAlias);
 		}
 		catch (Exception ex)
 		{
@@ -5384,7 +6087,7 @@ public class FPortecle
 
 		// Update the frame's components and title
 		selectedAlias = newAlias;
-		updateControls();
+		updateControls(false);
 		updateTitle();
 
 		return true;
@@ -5395,6 +6098,19 @@ public class FPortecle
 	 * disable save tool bar button).
 	 */
 	private void updateControls()
+	{
+		updateControls(true);
+	}
+
+	/**
+	 * Update the application's controls dependent on the state of its keystore (e.g. if changes to keystore are saved
+	 * disable save tool bar button).
+	 * 
+	 * @param bReloadTable Whether to reload the keystore entries table; not needed if the changes to the keystore have
+	 *            been registered with {@link #entryAdded(String)}, {@link #entryRemoved(String)} or
+	 *            {@link #entryRenamed(String, String)}
+	 */
+	private void updateControls(boolean bReloadTable)
 	{
 		// keystore must have been loaded
 		assert m_keyStoreWrap != null;
@@ -5408,6 +6124,7 @@ public class FPortecle
 		m_importKeyPairAction.setEnabled(true);
 		m_setKeyStorePassAction.setEnabled(true);
 		m_keyStoreReportAction.setEnabled(true);
+		m_jmiCheckRevocation.setEnabled(true);
 
 		// Show default status bar display
 		setDefaultStatusBarText();
@@ -5416,14 +6133,18 @@ public class FPortecle
 		KeyStore keyStore = m_keyStoreWrap.getKeyStore();
 		KeyStoreType ksType = m_keyStoreWrap.getKeyStoreType();
 
-		try
+		if (bReloadTable)
 		{
-			// Update keystore entries table
-			((KeyStoreTableModel) m_jtKeyStore.getModel()).load(keyStore);
-		}
-		catch (KeyStoreException ex)
-		{
-			DThrowable.showAndWait(this, null, ex);
+			try
+			{
+				// Update keystore entries table; the details of the new entries are yet to be computed
+				((KeyStoreTableRowSorter) m_jtKeyStore.getRowSorter()).clearDetailsSortKeys();
+				getKeyStoreTableModel().load(keyStore);
+			}
+			catch (KeyStoreException ex)
+			{
+				DThrowable.showAndWait(this, null, ex);
+			}
 		}
 
 		// Enable entry password changing only for applicable keystore types
@@ -5475,120 +6196,360 @@ public class FPortecle
 				// Nothing
 		}
 
+		// Re-apply the filter, changed entries may match it or not; have the search index ready for filtering
+		m_jtfFilter.setEnabled(true);
+		filterKeyStoreTable();
+		if (bReloadTable)
+		{
+			buildSearchIndex();
+		}
+
 		m_jtKeyStore.clearSelection();
 		if (selectedAlias != null)
 		{
-			for (int i = 0, len = m_jtKeyStore.getRowCount(); i < len; i++)
+			int iRow = getKeyStoreTableModel().getRow(selectedAlias);
+			if (iRow >= 0)
 			{
-				if (selectedAlias.equals(m_jtKeyStore.getValueAt(i, 1)))
-				{
-					m_jtKeyStore.setRowSelectionInterval(i, i);
-					break;
-				}
+				iRow = m_jtKeyStore.convertRowIndexToView(iRow);
+			}
+			// Not in view if filtered out
+			if (iRow >= 0)
+			{
+				m_jtKeyStore.setRowSelectionInterval(iRow, iRow);
+				m_jtKeyStore.scrollRectToVisible(m_jtKeyStore.getCellRect(iRow, 0, true));
 			}
 		}
 	}
 
 	/**
-	 * Update the application's controls dependent on the state of its keystore.
+	 * Filter the keystore entries table once the current event has been handled. Document listeners are notified while
+	 * the document is locked, so the filter field's listener must not filter, let alone wait for anything, itself;
+	 * several changes queued before the table is filtered are filtered for once.
 	 */
-	private void updateTitle()
+	private void queueFilterKeyStoreTable()
 	{
-		// Application name
-		String sAppName = RB.getString("FPortecle.Title");
-
-		// No keystore loaded so just display the application name
-		if (m_keyStoreWrap == null)
+		if (m_bFilterPending)
 		{
-			setTitle(sAppName);
+			return;
 		}
-		else
+		m_bFilterPending = true;
+		SwingUtilities.invokeLater(new Runnable()
 		{
-			File fKeyStore = m_keyStoreWrap.getKeyStoreFile();
-
-			if (fKeyStore == null)
-			{
-				// A newly created keystore is loaded - display Untitled string and application name
-				setTitle(MessageFormat.format("[{0}] - {1}", RB.getString("FPortecle.Untitled"), sAppName));
-			}
-			else
+			@Override
+			public void run()
 			{
-				// Keystore loaded - display keystore file path, "modified" indicator, and application name
-				String modInd = m_keyStoreWrap.isChanged() ? RB.getString("FPortecle.Modified") : "";
-				setTitle(MessageFormat.format("{0}{1} - {2}", fKeyStore, modInd, sAppName));
+				m_bFilterPending = false;
+				filterKeyStoreTable();
 			}
-		}
+		});
 	}
 
 	/**
-	 * Display the supplied text in the status bar.
-	 * 
-	 * @param sStatus Text to display
+	 * Filter the keystore entries table according to the text in the filter field. If the search index is not up to
+	 * date, entries are filtered by their alias until it has been built in the background, after which the table is
+	 * filtered again.
 	 */
-	@Override
-	public void setStatusBarText(String sStatus)
+	private void filterKeyStoreTable()
 	{
-		m_jlStatusBar.setText(sStatus);
-	}
+		@SuppressWarnings("unchecked")
+		TableRowSorter<KeyStoreTableModel> sorter = (TableRowSorter<KeyStoreTableModel>) m_jtKeyStore.getRowSorter();
 
-	/**
-	 * Set the text in the staus bar to reflect the status of the currently loaded keystore.
-	 */
-	@Override
-	public void setDefaultStatusBarText()
-	{
-		// No keystore loaded...
-		if (m_keyStoreWrap == null)
+		String sFilter = m_jtfFilter.getText().trim();
+		if (sFilter.isEmpty() || m_keyStoreWrap == null)
 		{
-			setStatusBarText(RB.getString("FPortecle.noKeyStore.statusbar"));
+			sorter.setRowFilter(null);
+			return;
 		}
-		// keystore loaded...
-		else
+
+		if (!m_keyStoreWrap.isSearchIndexCurrent())
 		{
-			// Get the keystore and display information on its type and size
-			KeyStore ksLoaded = m_keyStoreWrap.getKeyStore();
+			buildSearchIndex();
 
-			int iSize;
-			try
+			final String sAliasFilter = sFilter.toLowerCase(Locale.ENGLISH);
+			sorter.setRowFilter(new RowFilter<KeyStoreTableModel, Integer>()
 			{
-				iSize = ksLoaded.size();
-			}
-			catch (KeyStoreException ex)
-			{
-				setStatusBarText("");
-				DThrowable.showAndWait(this, null, ex);
-				return;
-			}
+				@Override
+				public boolean include(Entry<? extends KeyStoreTableModel, ? extends Integer> entry)
+				{
+					String sAlias = entry.getModel().getAlias(entry.getIdentifier());
+					return sAlias.toLowerCase(Locale.ENGLISH).contains(sAliasFilter);
+				}
+			});
+			return;
+		}
 
-			String sType = KeyStoreType.valueOfType(ksLoaded.getType()).toString();
-			String sProv = ksLoaded.getProvider().getName();
+		final Set<String> matches;
+		try
+		{
+			matches = m_keyStoreWrap.getSearchIndex().search(sFilter);
+		}
+		catch (CryptoException ex)
+		{
+			// Cannot happen, the index is up to date
+			throw new IllegalStateException(ex);
+		}
 
-			if (iSize == 1)
-			{
-				setStatusBarText(MessageFormat.format(RB.getString("FPortecle.entry.statusbar"), sType, sProv));
-			}
-			else
+		sorter.setRowFilter(new RowFilter<KeyStoreTableModel, Integer>()
+		{
+			@Override
+			public boolean include(Entry<? extends KeyStoreTableModel, ? extends Integer> entry)
 			{
-				setStatusBarText(
-				    MessageFormat.format(RB.getString("FPortecle.entries.statusbar"), sType, sProv, iSize));
+				return matches.contains(entry.getModel().getAlias(entry.getIdentifier()));
 			}
-		}
+		});
 	}
 
 	/**
-	 * Save the application preferences.
+	 * Build the search index of the currently loaded keystore in the background, unless it is up to date or already
+	 * being built. The table is filtered again when the index is ready; if the keystore changed while the index was
+	 * being built, it is built again.
 	 */
-	private void saveAppPrefs()
+	private void buildSearchIndex()
 	{
-		try
+		if (m_keyStoreWrap == null || m_keyStoreWrap.isSearchIndexCurrent() || m_searchIndexWorker != null)
 		{
-			// The size of the keystore table panel - determines the size of the main frame
-			PREFS.putInt(RB.getString("AppPrefs.TableWidth"), m_jpKeyStoreTable.getWidth());
-			PREFS.putInt(RB.getString("AppPrefs.TableHeight"), m_jpKeyStoreTable.getHeight());
+			return;
+		}
 
-			// The size of the keystore table's alias column - determines the size of all of the table's
-			// columns
-			PREFS.putInt(RB.getString("AppPrefs.AliasWidth"), m_jtKeyStore.getColumnModel().getColumn(1).getWidth());
+		final KeyStoreWrapper keyStoreWrap = m_keyStoreWrap;
+		final KeyStore keyStore = keyStoreWrap.getKeyStore();
+		final int iModCount = keyStoreWrap.getModificationCount();
+		m_searchIndexWorker = new SwingWorker<KeyStoreSearchIndex, Void>()
+		{
+			@Override
+			protected KeyStoreSearchIndex doInBackground()
+			    throws CryptoException
+			{
+				return new KeyStoreSearchIndex(keyStore);
+			}
+
+			@Override
+			protected void done()
+			{
+				m_searchIndexWorker = null;
+				if (keyStoreWrap != m_keyStoreWrap)
+				{
+					// Another keystore has been loaded meanwhile
+					buildSearchIndex();
+					return;
+				}
+				try
+				{
+					if (!keyStoreWrap.setSearchIndex(get(), iModCount))
+					{
+						// The keystore changed meanwhile
+						buildSearchIndex();
+						return;
+					}
+				}
+				catch (InterruptedException | ExecutionException ex)
+				{
+					// Changes made meanwhile may have caused the failure, try again if there were any
+					if (keyStoreWrap.getModificationCount() != iModCount)
+					{
+						buildSearchIndex();
+					}
+					else
+					{
+						DThrowable.showAndWait(FPortecle.this, null,
+						    (ex instanceof ExecutionException) ? ex.getCause() : ex);
+					}
+					return;
+				}
+				filterKeyStoreTable();
+			}
+		};
+		m_searchIndexWorker.execute();
+	}
+
+	/**
+	 * Get the keystore entries table model.
+	 * 
+	 * @return The table model
+	 */
+	private KeyStoreTableModel getKeyStoreTableModel()
+	{
+		return (KeyStoreTableModel) m_jtKeyStore.getModel();
+	}
+
+	/**
+	 * Get an alias of the current keystore as the keystore stores it. Aliases of entries in the entries table are
+	 * looked up from it, others from the keystore, see {@link KeyStoreUtil#getStoredAlias}.
+	 * 
+	 * @param sAlias The alias, in any case
+	 * @return The alias as stored, the given alias if the keystore does not contain it
+	 * @throws KeyStoreException If a problem is encountered accessing the keystore
+	 */
+	private String getStoredAlias(String sAlias)
+	    throws KeyStoreException
+	{
+		if (getKeyStoreTableModel().getRow(sAlias) != -1)
+		{
+			return sAlias;
+		}
+		String sStoredAlias = KeyStoreUtil.getStoredAlias(m_keyStoreWrap.getKeyStore(), sAlias);
+		return (sStoredAlias == null) ? sAlias : sStoredAlias;
+	}
+
+	/**
+	 * Register that an entry has been added to the keystore or replaced in it, updating the keystore wrapper and the
+	 * entries table.
+	 * 
+	 * @param sAlias The entry's alias
+	 * @throws CryptoException If a problem is encountered updating the keystore wrapper
+	 * @throws KeyStoreException If a problem is encountered accessing the entry
+	 */
+	private void entryAdded(String sAlias)
+	    throws CryptoException, KeyStoreException
+	{
+		// Track the entry by its alias as stored, in case the keystore's aliases are not case sensitive
+		KeyStore keyStore = m_keyStoreWrap.getKeyStore();
+		String sStoredAlias = getStoredAlias(sAlias);
+		boolean bTrustIndexCurrent = isTrustIndexCurrent();
+		m_keyStoreWrap.entryAdded(sStoredAlias);
+		updateTrustIndex(bTrustIndexCurrent, sStoredAlias);
+		getKeyStoreTableModel().entryAdded(keyStore, sStoredAlias);
+	}
+
+	/**
+	 * Register that an entry has been removed from the keystore, updating the keystore wrapper and the entries table.
+	 * 
+	 * @param sAlias The entry's alias as the keystore stored it, see {@link KeyStoreUtil#getStoredAlias}
+	 * @throws CryptoException If a problem is encountered updating the keystore wrapper
+	 */
+	private void entryRemoved(String sAlias)
+	    throws CryptoException
+	{
+		boolean bTrustIndexCurrent = isTrustIndexCurrent();
+		m_keyStoreWrap.removeEntryPassword(sAlias);
+		m_keyStoreWrap.entryRemoved(sAlias);
+		updateTrustIndex(bTrustIndexCurrent, sAlias);
+		getKeyStoreTableModel().entryRemoved(sAlias);
+	}
+
+	/**
+	 * Register that an entry in the keystore has been renamed, updating the keystore wrapper and the entries table.
+	 * 
+	 * @param sOldAlias The entry's old alias as the keystore stored it, see {@link KeyStoreUtil#getStoredAlias}
+	 * @param sNewAlias The entry's new alias
+	 * @throws CryptoException If a problem is encountered updating the keystore wrapper
+	 * @throws KeyStoreException If a problem is encountered accessing the entry
+	 */
+	private void entryRenamed(String sOldAlias, String sNewAlias)
+	    throws CryptoException, KeyStoreException
+	{
+		KeyStore keyStore = m_keyStoreWrap.getKeyStore();
+		String sStoredNewAlias = getStoredAlias(sNewAlias);
+		boolean bTrustIndexCurrent = isTrustIndexCurrent();
+		m_keyStoreWrap.removeEntryPassword(sOldAlias);
+		m_keyStoreWrap.entryRenamed(sOldAlias, sStoredNewAlias);
+		updateTrustIndex(bTrustIndexCurrent, sOldAlias, sStoredNewAlias);
+		getKeyStoreTableModel().entryRenamed(keyStore, sOldAlias, sStoredNewAlias);
+	}
+
+	/**
+	 * Update the application's controls dependent on the state of its keystore.
+	 */
+	private void updateTitle()
+	{
+		// Application name
+		String sAppName = RB.getString("FPortecle.Title");
+
+		// No keystore loaded so just display the application name
+		if (m_keyStoreWrap == null)
+		{
+			setTitle(sAppName);
+		}
+		else
+		{
+			File fKeyStore = m_keyStoreWrap.getKeyStoreFile();
+
+			if (fKeyStore == null)
+			{
+				// A newly created keystore is loaded - display Untitled string and application name
+				setTitle(MessageFormat.format("[{0}] - {1}", RB.getString("FPortecle.Untitled"), sAppName));
+			}
+			else
+			{
+				// Keystore loaded - display keystore file path, "modified" indicator, and application name
+				String modInd = m_keyStoreWrap.isChanged() ? RB.getString("FPortecle.Modified") : "";
+				setTitle(MessageFormat.format("{0}{1} - {2}", fKeyStore, modInd, sAppName));
+			}
+		}
+	}
+
+	/**
+	 * Display the supplied text in the status bar.
+	 * 
+	 * @param sStatus Text to display
+	 */
+	@Override
+	public void setStatusBarText(String sStatus)
+	{
+		m_jlStatusBar.setText(sStatus);
+	}
+
+	/**
+	 * Set the text in the staus bar to reflect the status of the currently loaded keystore.
+	 */
+	@Override
+	public void setDefaultStatusBarText()
+	{
+		// No keystore loaded...
+		if (m_keyStoreWrap == null)
+		{
+			setStatusBarText(RB.getString("FPortecle.noKeyStore.statusbar"));
+		}
+		// keystore loaded...
+		else
+		{
+			// Get the keystore and display information on its type and size
+			KeyStore ksLoaded = m_keyStoreWrap.getKeyStore();
+
+			int iSize;
+			try
+			{
+				iSize = ksLoaded.size();
+			}
+			catch (KeyStoreException ex)
+			{
+				setStatusBarText("");
+				DThrowable.showAndWait(this, null, ex);
+				return;
+			}
+
+			String sType = KeyStoreType.valueOfType(ksLoaded.getType()).toString();
+			String sProv = ksLoaded.getProvider().getName();
+
+			if (iSize == 1)
+			{
+				setStatusBarText(MessageFormat.format(RB.getString("FPortecle.entry.statusbar"), sType, sProv));
+			}
+			else
+			{
+				setStatusBarText(
+				    MessageFormat.format(RB.getString("FPortecle.entries.statusbar"), sType, sProv, iSize));
+			}
+		}
+	}
+
+	/**
+	 * Save the application preferences.
+	 */
+	private void saveAppPrefs()
+	{
+		try
+		{
+			// The size of the keystore table panel - determines the size of the main frame
+			PREFS.putInt(RB.getString("AppPrefs.TableWidth"), m_jpKeyStoreTable.getWidth());
+			PREFS.putInt(RB.getString("AppPrefs.TableHeight"), m_jpKeyStoreTable.getHeight());
+
+			// The size of the keystore table's alias column - determines the size of all of the table's
+			// columns
+			PREFS.putInt(RB.getString("AppPrefs.AliasWidth"), m_jtKeyStore.getColumnModel().getColumn(1).getWidth());
+
+			// The certificate details columns shown in the keystore table
+			PREFS.put(RB.getString("AppPrefs.TableColumns"), getVisibleTableColumns());
 
 			// Application's position on the desktop
 			PREFS.putInt(RB.getString("AppPrefs.XPos"), this.getX());
@@ -5709,16 +6670,7 @@ public class FPortecle
 	 */
 	private void setCursorBusy()
 	{
-		// Block all mouse events using glass pane
-		Component glassPane = getRootPane().getGlassPane();
-		glassPane.addMouseListener(new MouseAdapter()
-		{
-			// Nothing
-		});
-		glassPane.setVisible(true);
-
-		// Set cursor to busy
-		glassPane.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+		SwingHelper.setCursorBusy(this);
 	}
 
 	/**
@@ -5726,12 +6678,7 @@ public class FPortecle
 	 */
 	private void setCursorFree()
 	{
-		// Accept mouse events
-		Component glassPane = getRootPane().getGlassPane();
-		glassPane.setVisible(false);
-
-		// Revert cursor to default
-		glassPane.setCursor(Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR));
+		SwingHelper.setCursorFree(this);
 	}
 
 	/**
@@ -6296,6 +7243,579 @@ public class FPortecle
 		}
 	}
 
+	/**
+	 * Background task loading certificates for a bulk trusted certificate import.
+	 */
+	private class LoadTrustCertsTask
+	    extends BackgroundTask<Void>
+	{
+		/** The files and directories to load */
+		private final File[] m_fFiles;
+
+		/** Index of the certificates already in the keystore */
+		private final CertificateIndex m_certIndex;
+
+		/** Index to establish trust with */
+		private final TrustIndex m_trustIndex;
+
+		/** New certificates, in the order found */
+		private final ArrayList<X509Certificate> m_certs = new ArrayList<>();
+
+		/** New certificates trust could not be established for */
+		private final HashSet<X509Certificate> m_untrusted = new HashSet<>();
+
+		/** Number of certificates skipped as already in the keystore or found earlier */
+		private int m_iDuplicates;
+
+		/** Why the files no certificates could be loaded from failed, in the order found */
+		private final ArrayList<Exception> m_failures = new ArrayList<>();
+
+		/**
+		 * Construct a LoadTrustCertsTask.
+		 * 
+		 * @param fFiles The files and directories to load
+		 * @param certIndex Index of the certificates already in the keystore
+		 * @param trustIndex Index to establish trust with
+		 */
+		LoadTrustCertsTask(File[] fFiles, CertificateIndex certIndex, TrustIndex trustIndex)
+		{
+			super(FPortecle.this, FPortecle.this, RB.getString("FPortecle.LoadingTrustCerts.statusbar"));
+			m_fFiles = fFiles;
+			m_certIndex = certIndex;
+			m_trustIndex = trustIndex;
+		}
+
+		@Override
+		protected Void doInBackground()
+		    throws CryptoException, InterruptedException, CertificateEncodingException
+		{
+			// Collect the files, looking into directories for certificate files
+			ArrayList<File> files = new ArrayList<>();
+			for (File file : m_fFiles)
+			{
+				addFiles(file, files);
+			}
+
+			// Parse the files in parallel, but collect the results in order
+			int iThreads = Math.max(1, Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+			ExecutorService executor = Executors.newFixedThreadPool(iThreads, new ThreadFactory()
+			{
+				@Override
+				public Thread newThread(Runnable r)
+				{
+					Thread thread = new Thread(r, "LoadTrustCertsTask");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			try
+			{
+				ArrayList<Future<X509Certificate[]>> futures = new ArrayList<>(files.size());
+				for (final File file : files)
+				{
+					futures.add(executor.submit(new Callable<X509Certificate[]>()
+					{
+						@Override
+						public X509Certificate[] call()
+						    throws CryptoException
+						{
+							ArrayList<Exception> exceptions = new ArrayList<>();
+							X509Certificate[] certs = null;
+							try
+							{
+								certs = X509CertUtil.loadCertificates(file.toURI().toURL(), exceptions);
+							}
+							catch (IOException ex)
+							{
+								exceptions.add(ex);
+							}
+							if (certs != null && certs.length != 0)
+							{
+								return certs;
+							}
+
+							// Report the first attempt's failure, keeping the others along
+							CryptoException cex = new CryptoException(
+							    MessageFormat.format(RB.getString("FPortecle.NoLoadCertFile.message"), file),
+							    exceptions.isEmpty() ? null : exceptions.get(0));
+							for (int j = 1; j < exceptions.size(); j++)
+							{
+								cex.addSuppressed(exceptions.get(j));
+							}
+							throw cex;
+						}
+					}));
+				}
+
+				HashSet<ByteBuffer> seen = new HashSet<>();
+				for (int i = 0; i < futures.size(); i++)
+				{
+					X509Certificate[] certs;
+					try
+					{
+						certs = futures.get(i).get();
+					}
+					catch (ExecutionException ex)
+					{
+						certs = null;
+						m_failures.add(ex.getCause() instanceof CryptoException ? (CryptoException) ex.getCause()
+						    : new CryptoException(MessageFormat.format(
+						        RB.getString("FPortecle.NoLoadCertFile.message"), files.get(i)), ex.getCause()));
+					}
+					if (certs != null)
+					{
+						for (X509Certificate cert : certs)
+						{
+							// Skip certificates already in the keystore or in an earlier file
+							if (!seen.add(ByteBuffer.wrap(DigestUtil.getSha256Digest(cert.getEncoded()))) ||
+							    m_certIndex.findAlias(cert) != null)
+							{
+								m_iDuplicates++;
+							}
+							else
+							{
+								m_certs.add(cert);
+							}
+						}
+					}
+					setProgress((i + 1) * 50 / futures.size());
+				}
+			}
+			finally
+			{
+				executor.shutdownNow();
+			}
+
+			// Check trust for all of them. Certificates trusted so far become trusted issuers for the rest, as if they
+			// had been imported one by one, so run over the remaining ones until no more become trusted.
+			TrustIndex trustIndex = new TrustIndex(m_trustIndex);
+			ArrayList<X509Certificate> pending = new ArrayList<>(m_certs);
+			boolean bTrustedMore = !pending.isEmpty();
+			while (bTrustedMore)
+			{
+				bTrustedMore = false;
+				for (Iterator<X509Certificate> it = pending.iterator(); it.hasNext();)
+				{
+					X509Certificate cert = it.next();
+					if (trustIndex.establishTrust(cert) != null)
+					{
+						trustIndex.addTrustedCertificate(cert);
+						it.remove();
+						bTrustedMore = true;
+					}
+				}
+				setProgress(100 - pending.size() * 50 / m_certs.size());
+			}
+			m_untrusted.addAll(pending);
+
+			return null;
+		}
+
+		/**
+		 * Add a file, or the certificate files in a directory and its subdirectories, to a list.
+		 * 
+		 * @param file The file or directory
+		 * @param files The list to add to
+		 */
+		private void addFiles(File file, ArrayList<File> files)
+		{
+			if (!file.isDirectory())
+			{
+				files.add(file);
+				return;
+			}
+
+			File[] children = file.listFiles();
+			if (children == null)
+			{
+				return;
+			}
+			Arrays.sort(children);
+			for (File child : children)
+			{
+				if (child.isDirectory())
+				{
+					addFiles(child, files);
+				}
+				else
+				{
+					String fileName = child.getName().toLowerCase(Locale.ENGLISH);
+					for (String ext : FileChooserFactory.CERT_EXTS)
+					{
+						if (fileName.endsWith("." + ext))
+						{
+							files.add(child);
+							break;
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Get the new certificates.
+		 * 
+		 * @return The certificates, in the order found
+		 */
+		public ArrayList<X509Certificate> getCertificates()
+		{
+			return m_certs;
+		}
+
+		/**
+		 * Get the new certificates trust could not be established for.
+		 * 
+		 * @return The certificates
+		 */
+		public Set<X509Certificate> getUntrustedCertificates()
+		{
+			return m_untrusted;
+		}
+
+		/**
+		 * Get the number of certificates skipped as duplicates.
+		 * 
+		 * @return The number of duplicates
+		 */
+		public int getDuplicateCount()
+		{
+			return m_iDuplicates;
+		}
+
+		/**
+		 * Get the number of files no certificates could be loaded from.
+		 * 
+		 * @return The number of files
+		 */
+		public int getUnreadableCount()
+		{
+			return m_failures.size();
+		}
+
+		/**
+		 * Get why the files no certificates could be loaded from failed.
+		 * 
+		 * @return The failures, one per file
+		 */
+		public ArrayList<Exception> getFailures()
+		{
+			return m_failures;
+		}
+	}
+
+	/**
+	 * Background task checking the certificates of all keystore entries against CRLs. The CRLs are loaded in parallel
+	 * and indexed once by issuer, after which the entries' chains are checked against the index in parallel.
+	 */
+	private class CheckRevocationTask
+	    extends BackgroundTask<Void>
+	{
+		/** The keystore */
+		private final KeyStore m_keyStore;
+
+		/** The CRL files, null to load the CRLs from the certificates' CRL distribution points */
+		private final File[] m_fCrlFiles;
+
+		/** Index to find the issuers of certificates not in a chain with their issuer with */
+		private final TrustIndex m_trustIndex;
+
+		/** Revocation statuses by alias */
+		private final HashMap<String, RevocationStatus> m_statuses = new HashMap<>();
+
+		/** Number of CRLs loaded */
+		private int m_iCrls;
+
+		/** Reasons of the CRLs that could not be loaded or verified */
+		private final ArrayList<Exception> m_failures = new ArrayList<>();
+
+		/**
+		 * Construct a CheckRevocationTask.
+		 * 
+		 * @param keyStore The keystore
+		 * @param fCrlFiles The CRL files, null to load the CRLs from the certificates' CRL distribution points
+		 * @param trustIndex Index to find the issuers of certificates not in a chain with their issuer with
+		 */
+		CheckRevocationTask(KeyStore keyStore, File[] fCrlFiles, TrustIndex trustIndex)
+		{
+			super(FPortecle.this, FPortecle.this, RB.getString("FPortecle.CheckingRevocation.statusbar"));
+			m_keyStore = keyStore;
+			m_fCrlFiles = fCrlFiles;
+			m_trustIndex = trustIndex;
+		}
+
+		@Override
+		protected Void doInBackground()
+		    throws KeyStoreException, CryptoException, InterruptedException
+		{
+			// Collect the entries' certificate chains
+			ArrayList<String> aliases = new ArrayList<>();
+			ArrayList<X509Certificate[]> chains = new ArrayList<>();
+			for (Enumeration<String> en = m_keyStore.aliases(); en.hasMoreElements();)
+			{
+				String sAlias = en.nextElement();
+				X509Certificate[] chain;
+				if (m_keyStore.isKeyEntry(sAlias))
+				{
+					chain = toX509Chain(m_keyStore.getCertificateChain(sAlias));
+				}
+				else
+				{
+					chain = toX509Chain(new Certificate[] { m_keyStore.getCertificate(sAlias) });
+				}
+				if (chain != null)
+				{
+					aliases.add(sAlias);
+					chains.add(chain);
+				}
+			}
+
+			// Collect the CRL locations, each distribution point only once
+			LinkedHashSet<String> locations = new LinkedHashSet<>();
+			if (m_fCrlFiles != null)
+			{
+				for (File file : m_fCrlFiles)
+				{
+					locations.add(file.toURI().toString());
+				}
+			}
+			else
+			{
+				for (X509Certificate[] chain : chains)
+				{
+					for (X509Certificate cert : chain)
+					{
+						locations.addAll(X509CertUtil.getCrlDistributionPointUris(cert));
+					}
+				}
+			}
+
+			// CRLs are only accepted if signed by the key of a known issuer certificate
+			final CrlIssuerKeys issuerKeys = getIssuerKeys(chains);
+
+			// Load the CRLs in parallel
+			ArrayList<X509CRLInfo> crls = new ArrayList<>(locations.size());
+			int iThreads = Math.max(1, Math.min(locations.size(), Runtime.getRuntime().availableProcessors()));
+			ExecutorService executor = Executors.newFixedThreadPool(iThreads, new ThreadFactory()
+			{
+				@Override
+				public Thread newThread(Runnable r)
+				{
+					Thread thread = new Thread(r, "CheckRevocationTask");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			try
+			{
+				ArrayList<Future<X509CRLInfo>> futures = new ArrayList<>(locations.size());
+				for (final String sLocation : locations)
+				{
+					futures.add(executor.submit(new Callable<X509CRLInfo>()
+					{
+						@Override
+						public X509CRLInfo call()
+						    throws CryptoException, IOException
+						{
+							return X509CertUtil.readVerifiedCRL(new URL(sLocation), issuerKeys);
+						}
+					}));
+				}
+
+				Iterator<String> itLocations = locations.iterator();
+				for (int i = 0; i < futures.size(); i++)
+				{
+					String sLocation = itLocations.next();
+					try
+					{
+						crls.add(futures.get(i).get());
+					}
+					catch (ExecutionException ex)
+					{
+						m_failures.add(new CryptoException(
+						    MessageFormat.format(RB.getString("FPortecle.NoLoadCrlUrl.message"), sLocation),
+						    ex.getCause()));
+					}
+					setProgress((i + 1) * 90 / futures.size());
+				}
+			}
+			finally
+			{
+				executor.shutdownNow();
+			}
+			m_iCrls = crls.size();
+
+			// Check all chains against the CRLs at once
+			RevocationStatus[] statuses = new RevocationChecker(crls, new Date()).check(chains);
+			for (int i = 0; i < statuses.length; i++)
+			{
+				m_statuses.put(aliases.get(i), statuses[i]);
+			}
+			setProgress(100);
+
+			return null;
+		}
+
+		/**
+		 * Get the candidate issuer certificates of the certificates in chains. Issuers found through the trust index
+		 * are preferred; the next certificate in a chain, or the certificate itself if it is self-issued, is only used
+		 * when the trust index knows no issuer of that name.
+		 * 
+		 * @param chains The chains
+		 * @return The candidate issuer certificates
+		 * @throws CryptoException If there is a problem establishing trust
+		 */
+		private CrlIssuerKeys getIssuerKeys(ArrayList<X509Certificate[]> chains)
+		    throws CryptoException
+		{
+			CrlIssuerKeys issuerKeys = new CrlIssuerKeys();
+			HashSet<X509Certificate> seen = new HashSet<>();
+			for (X509Certificate[] chain : chains)
+			{
+				for (int i = 0; i < chain.length; i++)
+				{
+					if (!seen.add(chain[i]))
+					{
+						continue;
+					}
+
+					X509Certificate[] trustChain = m_trustIndex.establishTrust(chain[i]);
+					if (trustChain != null)
+					{
+						issuerKeys.add(trustChain[1], true);
+					}
+
+					X500Principal issuer = chain[i].getIssuerX500Principal();
+					if (i + 1 < chain.length && chain[i + 1].getSubjectX500Principal().equals(issuer))
+					{
+						issuerKeys.add(chain[i + 1], false);
+					}
+					else if (chain[i].getSubjectX500Principal().equals(issuer))
+					{
+						issuerKeys.add(chain[i], false);
+					}
+				}
+			}
+			return issuerKeys;
+		}
+
+		/**
+		 * Get a certificate chain as X.509 certificates.
+		 * 
+		 * @param chain The chain
+		 * @return The X.509 certificates, null if the chain is empty or not all of them are X.509 certificates
+		 */
+		private X509Certificate[] toX509Chain(Certificate[] chain)
+		{
+			if (chain == null || chain.length == 0)
+			{
+				return null;
+			}
+			X509Certificate[] x509Chain = new X509Certificate[chain.length];
+			for (int i = 0; i < chain.length; i++)
+			{
+				if (!(chain[i] instanceof X509Certificate))
+				{
+					return null;
+				}
+				x509Chain[i] = (X509Certificate) chain[i];
+			}
+			return x509Chain;
+		}
+
+		/**
+		 * Get the revocation statuses.
+		 * 
+		 * @return The statuses by alias
+		 */
+		public HashMap<String, RevocationStatus> getStatuses()
+		{
+			return m_statuses;
+		}
+
+		/**
+		 * Get the number of CRLs loaded.
+		 * 
+		 * @return The number of CRLs
+		 */
+		public int getCrlCount()
+		{
+			return m_iCrls;
+		}
+
+		/**
+		 * Get the reasons of the CRLs that could not be loaded or verified.
+		 * 
+		 * @return The reasons, one for each CRL
+		 */
+		public ArrayList<Exception> getFailures()
+		{
+			return m_failures;
+		}
+	}
+
+	/**
+	 * Background task saving a keystore to a file.
+	 */
+	private class SaveKeyStoreTask
+	    extends BackgroundTask<KeyStore>
+	{
+		/** The keystore to save */
+		private final KeyStore m_keyStore;
+
+		/** The file to save to */
+		private final File m_fKeyStore;
+
+		/** The password to protect the keystore with */
+		private final char[] m_cPassword;
+
+		/** State of the saved file */
+		private KeyStoreFileState m_fileState;
+
+		/**
+		 * Construct a SaveKeyStoreTask.
+		 * 
+		 * @param keyStore The keystore to save
+		 * @param fKeyStore The file to save to
+		 * @param cPassword The password to protect the keystore with
+		 */
+		private SaveKeyStoreTask(KeyStore keyStore, File fKeyStore, char[] cPassword)
+		{
+			super(FPortecle.this, FPortecle.this,
+			    MessageFormat.format(RB.getString("FPortecle.SavingKeyStore.statusbar"), fKeyStore.getName()));
+			m_keyStore = keyStore;
+			m_fKeyStore = fKeyStore;
+			m_cPassword = cPassword;
+		}
+
+		@Override
+		protected KeyStore doInBackground()
+		    throws Exception
+		{
+			// Digest the file while writing it for detecting later changes made by others
+			MessageDigest digest = KeyStoreFileState.newDigest();
+			KeyStore saved = KeyStoreUtil.saveKeyStore(m_keyStore, m_fKeyStore, m_cPassword, digest);
+			m_fileState = new KeyStoreFileState(m_fKeyStore, digest.digest());
+
+			return saved;
+		}
+
+		@Override
+		public boolean isCancellable()
+		{
+			return false;
+		}
+
+		/**
+		 * Get the state of the saved file.
+		 * 
+		 * @return The file state
+		 */
+		private KeyStoreFileState getFileState()
+		{
+			return m_fileState;
+		}
+	}
+
 	private class KeyStoreTable
 	    extends JTable
 	{
@@ -73,6 +73,9 @@ import net.sf.portecle.gui.FileExtFilter;
 	/** File extensions for certificate revocation list files */
 	/* package private */static final String[] CRL_EXTS = { "crl" };
 
+	/** Keystore report file extensions, default first */
+	private static final String[] REPORT_EXTS = { "xml", "txt", "json", "csv" };
+
 	/** Description for X.509 certificate files */
 	private static final String X509_FILE_DESC =
 	    MessageFormat.format(RB.getString("FileChooseFactory.X509Files"), toWildcards(X509_EXTS));
@@ -109,6 +112,13 @@ import net.sf.portecle.gui.FileExtFilter;
 	private static final String CRL_FILE_DESC =
 	    MessageFormat.format(RB.getString("FileChooseFactory.CrlFiles"), toWildcards(CRL_EXTS));
 
+	/** Descriptions for keystore report files, in the same order as the extensions */
+	private static final String[] REPORT_FILE_DESCS = {
+	    MessageFormat.format(RB.getString("FileChooseFactory.XmlFiles"), toWildcards(new String[] { REPORT_EXTS[0] })),
+	    MessageFormat.format(RB.getString("FileChooseFactory.TextFiles"), toWildcards(new String[] { REPORT_EXTS[1] })),
+	    MessageFormat.format(RB.getString("FileChooseFactory.JsonFiles"), toWildcards(new String[] { REPORT_EXTS[2] })),
+	    MessageFormat.format(RB.getString("FileChooseFactory.CsvFiles"), toWildcards(new String[] { REPORT_EXTS[3] })) };
+
 	/** Description for certificate files */
 	private static final String CERT_FILE_DESC =
 	    MessageFormat.format(RB.getString("FileChooseFactory.CertificateFiles"), toWildcards(CERT_EXTS));
@@ -355,6 +365,31 @@ import net.sf.portecle.gui.FileExtFilter;
 		return chooser;
 	}
 
+	/**
+	 * Get a JFileChooser with filters for each keystore report file format, XML selected.
+	 * 
+	 * @param basename default filename (without extension)
+	 * @return JFileChooser object
+	 */
+	public static JFileChooser getReportFileChooser(String basename)
+	{
+		JFileChooser chooser = new JFileChooser();
+		FileExtFilter xmlFilter = null;
+		for (int i = 0; i < REPORT_EXTS.length; i++)
+		{
+			FileExtFilter extFilter = new FileExtFilter(REPORT_EXTS[i], REPORT_FILE_DESCS[i]);
+			chooser.addChoosableFileFilter(extFilter);
+			if (xmlFilter == null)
+			{
+				xmlFilter = extFilter;
+			}
+		}
+		chooser.setFileFilter(xmlFilter);
+		chooser.setSelectedFile(getDefaultFile(basename, REPORT_EXTS[0]));
+		chooser.setFileView(new PortecleFileView());
+		return chooser;
+	}
+
 	/**
 	 * Gets a default file based on the base name and extension, filtering uncomfortable characters.
 	 * 
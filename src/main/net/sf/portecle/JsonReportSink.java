@@ -0,0 +1,227 @@
+/*
+ * JsonReportSink.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import net.sf.portecle.crypto.CertificateSummary;
+import net.sf.portecle.crypto.KeyPairUtil;
+import net.sf.portecle.crypto.KeyStoreType;
+
+/**
+ * Keystore report sink writing JSON for machine consumption. Member names follow the keystore report DTD; dates are
+ * in ISO 8601 format in UTC, key sizes are numbers (null if unknown), and SHA-256 fingerprints are included. Each entry
+ * is written out as soon as it is received.
+ */
+class JsonReportSink
+    implements KeyStoreReportSink
+{
+	/** Hex digits for escaping control characters */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/** Writer to write to */
+	private final Writer m_out;
+
+	/** Date format */
+	private final DateFormat m_dateFormat;
+
+	/** Have entries been written already? */
+	private boolean m_bEntriesWritten;
+
+	/**
+	 * Construct a JsonReportSink writing UTF-8 to a stream.
+	 * 
+	 * @param out Stream to write to; not closed by the sink
+	 */
+	public JsonReportSink(OutputStream out)
+	{
+		this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Construct a JsonReportSink.
+	 * 
+	 * @param out Writer to write to; not closed by the sink
+	 */
+	public JsonReportSink(Writer out)
+	{
+		m_out = out;
+		m_dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.ROOT);
+		m_dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+	}
+
+	@Override
+	public void startReport(KeyStoreType ksType, String sProvider, int iEntries)
+	    throws IOException
+	{
+		m_out.write("{\n  \"type\": ");
+		writeString(ksType.getTypeName());
+		m_out.write(",\n  \"provider\": ");
+		writeString(sProvider);
+		m_out.write(",\n  \"entries\": [");
+	}
+
+	@Override
+	public void entry(KeyStoreReport.Entry entry)
+	    throws IOException
+	{
+		m_out.write(m_bEntriesWritten ? ",\n    {" : "\n    {");
+		m_bEntriesWritten = true;
+
+		m_out.write("\n      \"alias\": ");
+		writeString(entry.getAlias());
+		m_out.write(",\n      \"creation_date\": ");
+		writeDate(entry.getCreationDate());
+		m_out.write(",\n      \"type\": ");
+		writeString(entry.getType().getName());
+		m_out.write(",\n      \"certificates\": [");
+
+		int iChainLen = entry.getCertificateCount();
+		for (int iCnt = 0; iCnt < iChainLen; iCnt++)
+		{
+			CertificateSummary summary = entry.getCertificate(iCnt);
+
+			m_out.write(iCnt == 0 ? "\n        {" : ",\n        {");
+			m_out.write("\n          \"version\": ");
+			m_out.write(String.valueOf(summary.getVersion()));
+			m_out.write(",\n          \"subject\": ");
+			writeString(summary.getSubject());
+			m_out.write(",\n          \"issuer\": ");
+			writeString(summary.getIssuer());
+			m_out.write(",\n          \"serial_number\": ");
+			writeString(summary.getSerialNumber());
+			m_out.write(",\n          \"valid_from\": ");
+			writeDate(summary.getNotBefore());
+			m_out.write(",\n          \"valid_until\": ");
+			writeDate(summary.getNotAfter());
+			m_out.write(",\n          \"public_key_algorithm\": ");
+			writeString(summary.getKeyAlgorithm());
+			m_out.write(",\n          \"public_key_size\": ");
+			int iKeySize = summary.getKeySize();
+			m_out.write(iKeySize == KeyPairUtil.UNKNOWN_KEY_SIZE ? "null" : String.valueOf(iKeySize));
+			m_out.write(",\n          \"signature_algorithm\": ");
+			writeString(summary.getSignatureAlgorithm());
+			m_out.write(",\n          \"md5_fingerprint\": ");
+			writeString(summary.getMd5Fingerprint());
+			m_out.write(",\n          \"sha1_fingerprint\": ");
+			writeString(summary.getSha1Fingerprint());
+			m_out.write(",\n          \"sha256_fingerprint\": ");
+			writeString(summary.getSha256Fingerprint());
+			m_out.write("\n        }");
+		}
+
+		m_out.write(iChainLen == 0 ? "]\n    }" : "\n      ]\n    }");
+	}
+
+	@Override
+	public void endReport()
+	    throws IOException
+	{
+		m_out.write(m_bEntriesWritten ? "\n  ]\n}\n" : "]\n}\n");
+		m_out.flush();
+	}
+
+	/**
+	 * Write a date as a JSON string.
+	 * 
+	 * @param date The date, may be null
+	 * @throws IOException If writing failed
+	 */
+	private void writeDate(Date date)
+	    throws IOException
+	{
+		if (date == null)
+		{
+			m_out.write("null");
+		}
+		else
+		{
+			writeString(m_dateFormat.format(date));
+		}
+	}
+
+	/**
+	 * Write a JSON string, escaping as necessary.
+	 * 
+	 * @param sValue The string, may be null
+	 * @throws IOException If writing failed
+	 */
+	private void writeString(String sValue)
+	    throws IOException
+	{
+		if (sValue == null)
+		{
+			m_out.write("null");
+			return;
+		}
+
+		m_out.write('"');
+		int iStart = 0;
+		int iLen = sValue.length();
+		for (int i = 0; i < iLen; i++)
+		{
+			char c = sValue.charAt(i);
+			if (c >= 0x20 && c != '"' && c != '\\')
+			{
+				continue;
+			}
+
+			// Write the run of plain characters, then the escape
+			m_out.write(sValue, iStart, i - iStart);
+			iStart = i + 1;
+			switch (c)
+			{
+				case '"':
+					m_out.write("\\\"");
+					break;
+				case '\\':
+					m_out.write("\\\\");
+					break;
+				case '\n':
+					m_out.write("\\n");
+					break;
+				case '\r':
+					m_out.write("\\r");
+					break;
+				case '\t':
+					m_out.write("\\t");
+					break;
+				default:
+					m_out.write("\\u00");
+					m_out.write(HEX_DIGITS[c >> 4]);
+					m_out.write(HEX_DIGITS[c & 0xF]);
+			}
+		}
+		m_out.write(sValue, iStart, iLen - iStart);
+		m_out.write('"');
+	}
+}
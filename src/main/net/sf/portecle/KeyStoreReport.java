@@ -0,0 +1,492 @@
+/*
+ * KeyStoreReport.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle;
+
+import static net.sf.portecle.FPortecle.RB;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import net.sf.portecle.crypto.CertificateSummary;
+import net.sf.portecle.crypto.CryptoException;
+import net.sf.portecle.crypto.KeyStoreType;
+import net.sf.portecle.crypto.X509CertUtil;
+
+/**
+ * Keystore report engine. The keystore is walked once, producing an {@link Entry} record per keystore entry, and the
+ * records are fed to any number of {@link KeyStoreReportSink}s which format them as text, XML, JSON, CSV or a Swing
+ * tree. The per entry work is spread over the available processors; sinks still receive the entries one at a time, in
+ * alias order.
+ */
+final class KeyStoreReport
+{
+	/**
+	 * Report output formats that can be written to a stream.
+	 */
+	enum Format
+	{
+		/** Plain text */
+		TEXT("txt"),
+		/** XML conforming to the keystore report DTD */
+		XML("xml"),
+		/** JSON */
+		JSON("json"),
+		/** CSV, one row per certificate */
+		CSV("csv");
+
+		/** Filename extension */
+		private final String m_sExtension;
+
+		/**
+		 * Construct a Format.
+		 * 
+		 * @param sExtension Filename extension
+		 */
+		private Format(String sExtension)
+		{
+			m_sExtension = sExtension;
+		}
+
+		/**
+		 * Get the filename extension of the format.
+		 * 
+		 * @return The extension
+		 */
+		public String getExtension()
+		{
+			return m_sExtension;
+		}
+
+		/**
+		 * Get the format for a filename extension.
+		 * 
+		 * @param sExtension The extension, case insensitive
+		 * @return The format, null if none matches
+		 */
+		public static Format valueOfExtension(String sExtension)
+		{
+			for (Format format : values())
+			{
+				if (format.m_sExtension.equalsIgnoreCase(sExtension))
+				{
+					return format;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Create a sink writing a report in this format.
+		 * 
+		 * @param out Stream to write to; not closed by the sink
+		 * @return The sink
+		 * @throws IOException If the sink could not be created
+		 */
+		public KeyStoreReportSink newSink(OutputStream out)
+		    throws IOException
+		{
+			switch (this)
+			{
+				case TEXT:
+					return new TextReportSink(out);
+				case XML:
+					return new XmlReportSink(out);
+				case JSON:
+					return new JsonReportSink(out);
+				case CSV:
+					return new CsvReportSink(out);
+				default:
+					throw new AssertionError(this);
+			}
+		}
+	}
+
+	/**
+	 * Keystore entry types.
+	 */
+	enum EntryType
+	{
+		/** Key without certificates */
+		KEY("Key"),
+		/** Key with certificate chain */
+		KEY_PAIR("KeyPair"),
+		/** Trusted certificate */
+		TRUSTED_CERTIFICATE("TrustedCertificate");
+
+		/** Name of the type in the keystore report DTD */
+		private final String m_sName;
+
+		/**
+		 * Construct an EntryType.
+		 * 
+		 * @param sName Name of the type in the keystore report DTD
+		 */
+		private EntryType(String sName)
+		{
+			m_sName = sName;
+		}
+
+		/**
+		 * Get the name of the type as used in the keystore report DTD.
+		 * 
+		 * @return The name
+		 */
+		public String getName()
+		{
+			return m_sName;
+		}
+	}
+
+	/**
+	 * Report record of a keystore entry.
+	 */
+	static final class Entry
+	{
+		/** Alias */
+		private final String m_sAlias;
+
+		/** Creation date, null if not useful for the keystore type */
+		private final Date m_dCreation;
+
+		/** Entry type */
+		private final EntryType m_type;
+
+		/** Certificate chain read from the keystore, null once summarized */
+		private Certificate[] m_chain;
+
+		/** Certificate summaries, in chain order; null until summarized */
+		private CertificateSummary[] m_certs;
+
+		/** Problem summarizing the certificates, null if none */
+		private CryptoException m_error;
+
+		/**
+		 * Construct an Entry.
+		 * 
+		 * @param sAlias Alias
+		 * @param dCreation Creation date, null if not useful for the keystore type
+		 * @param type Entry type
+		 * @param chain Certificate chain, null if none
+		 */
+		private Entry(String sAlias, Date dCreation, EntryType type, Certificate[] chain)
+		{
+			m_sAlias = sAlias;
+			m_dCreation = dCreation;
+			m_type = type;
+			m_chain = (chain == null) ? new Certificate[0] : chain;
+		}
+
+		/**
+		 * Summarize the certificates of the entry. This is the expensive part of report generation: certificates are
+		 * converted, encoded and digested. May be called on any thread; a problem is recorded rather than thrown so
+		 * that it can be reported in entry order.
+		 */
+		private void summarize()
+		{
+			try
+			{
+				X509Certificate[] x509CertChain = X509CertUtil.convertCertificates(m_chain);
+				CertificateSummary[] certs = new CertificateSummary[x509CertChain.length];
+				for (int iCnt = 0; iCnt < x509CertChain.length; iCnt++)
+				{
+					certs[iCnt] = CertificateSummary.getInstance(x509CertChain[iCnt]);
+				}
+				m_certs = certs;
+			}
+			catch (CryptoException ex)
+			{
+				m_error = ex;
+			}
+			m_chain = null;
+		}
+
+		/**
+		 * Get the alias of the entry.
+		 * 
+		 * @return The alias
+		 */
+		public String getAlias()
+		{
+			return m_sAlias;
+		}
+
+		/**
+		 * Get the creation date of the entry.
+		 * 
+		 * @return The creation date, null if not useful for the keystore type
+		 */
+		public Date getCreationDate()
+		{
+			return m_dCreation == null ? null : new Date(m_dCreation.getTime());
+		}
+
+		/**
+		 * Get the type of the entry.
+		 * 
+		 * @return The type
+		 */
+		public EntryType getType()
+		{
+			return m_type;
+		}
+
+		/**
+		 * Get the number of certificates in the entry.
+		 * 
+		 * @return The number of certificates
+		 */
+		public int getCertificateCount()
+		{
+			return m_certs.length;
+		}
+
+		/**
+		 * Get a certificate of the entry.
+		 * 
+		 * @param iIndex Index of the certificate in the chain
+		 * @return The certificate summary
+		 */
+		public CertificateSummary getCertificate(int iIndex)
+		{
+			return m_certs[iIndex];
+		}
+	}
+
+	/** Default number of threads summarizing entries; the "portecle.report.parallelism" system property if set */
+	private static final int DEFAULT_PARALLELISM =
+	    Integer.getInteger("portecle.report.parallelism", Runtime.getRuntime().availableProcessors());
+
+	/** Number of entries read from the keystore and summarized before they are fed to the sinks */
+	private static final int BATCH_SIZE = 1024;
+
+	/** Entries a single summarizing task handles without splitting further */
+	private static final int SPLIT_THRESHOLD = 16;
+
+	/** Keystore to report on */
+	private final KeyStore m_keystore;
+
+	/** Number of threads summarizing entries */
+	private final int m_iParallelism;
+
+	/**
+	 * Construct a KeyStoreReport summarizing entries with the default parallelism, the number of available processors.
+	 * 
+	 * @param keystore Keystore to report on
+	 */
+	public KeyStoreReport(KeyStore keystore)
+	{
+		this(keystore, DEFAULT_PARALLELISM);
+	}
+
+	/**
+	 * Construct a KeyStoreReport.
+	 * 
+	 * @param keystore Keystore to report on
+	 * @param iParallelism Number of threads summarizing entries; 1 to do everything on the calling thread
+	 */
+	public KeyStoreReport(KeyStore keystore, int iParallelism)
+	{
+		m_keystore = keystore;
+		m_iParallelism = Math.max(1, iParallelism);
+	}
+
+	/**
+	 * Walk the keystore once and feed the entries to the given sinks, in keystore alias order. Entries are read from
+	 * the keystore on the calling thread in batches; the certificates of each batch are summarized on a fork/join pool
+	 * and the batch is then fed to the sinks in order. Checks for interruption between batches.
+	 * 
+	 * @param sinks The sinks
+	 * @throws CryptoException A crypto related problem was encountered generating the keystore report
+	 * @throws InterruptedIOException If the current thread was interrupted
+	 * @throws IOException If a sink failed to write the report
+	 */
+	public void write(KeyStoreReportSink... sinks)
+	    throws CryptoException, IOException
+	{
+		ForkJoinPool pool = null;
+		try
+		{
+			KeyStoreType ksType = KeyStoreType.valueOfType(m_keystore.getType());
+			String sProvider = m_keystore.getProvider().getName();
+			int iEntries = m_keystore.size();
+
+			if (m_iParallelism > 1 && iEntries > SPLIT_THRESHOLD)
+			{
+				pool = new ForkJoinPool(m_iParallelism);
+			}
+
+			for (KeyStoreReportSink sink : sinks)
+			{
+				sink.startReport(ksType, sProvider, iEntries);
+			}
+
+			// Keystores are not guaranteed to be safe for concurrent access, so entries are read on this thread
+			Enumeration<String> aliases = m_keystore.aliases();
+			Entry[] batch = new Entry[Math.min(BATCH_SIZE, Math.max(1, iEntries))];
+			while (aliases.hasMoreElements())
+			{
+				if (Thread.currentThread().isInterrupted())
+				{
+					throw new InterruptedIOException();
+				}
+
+				int iCount = 0;
+				while (iCount < batch.length && aliases.hasMoreElements())
+				{
+					batch[iCount++] = readEntry(ksType, aliases.nextElement());
+				}
+
+				if (pool == null)
+				{
+					for (int i = 0; i < iCount; i++)
+					{
+						batch[i].summarize();
+					}
+				}
+				else
+				{
+					pool.invoke(new SummarizeTask(batch, 0, iCount));
+				}
+
+				for (int i = 0; i < iCount; i++)
+				{
+					Entry entry = batch[i];
+					batch[i] = null;
+					if (entry.m_error != null)
+					{
+						throw entry.m_error;
+					}
+					for (KeyStoreReportSink sink : sinks)
+					{
+						sink.entry(entry);
+					}
+				}
+			}
+
+			for (KeyStoreReportSink sink : sinks)
+			{
+				sink.endReport();
+			}
+		}
+		catch (GeneralSecurityException ex)
+		{
+			throw new CryptoException(RB.getString("DKeyStoreReport.NoGenerateReport.exception.message"), ex);
+		}
+		finally
+		{
+			if (pool != null)
+			{
+				pool.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * Read a keystore entry. The certificates are left to be summarized.
+	 * 
+	 * @param ksType Keystore type
+	 * @param sAlias Entry alias
+	 * @return The report record
+	 * @throws GeneralSecurityException If the entry could not be read from the keystore
+	 */
+	private Entry readEntry(KeyStoreType ksType, String sAlias)
+	    throws GeneralSecurityException
+	{
+		Date dCreation = ksType.isEntryCreationDateUseful() ? m_keystore.getCreationDate(sAlias) : null;
+
+		EntryType type;
+		Certificate[] certChain = null;
+
+		if (m_keystore.isKeyEntry(sAlias))
+		{
+			certChain = m_keystore.getCertificateChain(sAlias);
+			type = (certChain == null || certChain.length == 0) ? EntryType.KEY : EntryType.KEY_PAIR;
+		}
+		else
+		{
+			type = EntryType.TRUSTED_CERTIFICATE;
+			Certificate cert = m_keystore.getCertificate(sAlias);
+			if (cert != null)
+			{
+				certChain = new Certificate[] { cert };
+			}
+		}
+
+		return new Entry(sAlias, dCreation, type, certChain);
+	}
+
+	/**
+	 * Fork/join task summarizing a range of entries, splitting the range in halves until it is small.
+	 */
+	private static final class SummarizeTask
+	    extends RecursiveAction
+	{
+		/** The entries */
+		private final Entry[] m_entries;
+
+		/** Start of the range, inclusive */
+		private final int m_iFrom;
+
+		/** End of the range, exclusive */
+		private final int m_iTo;
+
+		/**
+		 * Construct a SummarizeTask.
+		 * 
+		 * @param entries The entries
+		 * @param iFrom Start of the range, inclusive
+		 * @param iTo End of the range, exclusive
+		 */
+		private SummarizeTask(Entry[] entries, int iFrom, int iTo)
+		{
+			m_entries = entries;
+			m_iFrom = iFrom;
+			m_iTo = iTo;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (m_iTo - m_iFrom <= SPLIT_THRESHOLD)
+			{
+				for (int i = m_iFrom; i < m_iTo; i++)
+				{
+					m_entries[i].summarize();
+				}
+			}
+			else
+			{
+				int iMid = (m_iFrom + m_iTo) >>> 1;
+				invokeAll(new SummarizeTask(m_entries, m_iFrom, iMid), new SummarizeTask(m_entries, iMid, m_iTo));
+			}
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * KeyStoreReportSink.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle;
+
+import java.io.IOException;
+
+import net.sf.portecle.crypto.KeyStoreType;
+
+/**
+ * Receiver of keystore report records from {@link KeyStoreReport}. A sink is used for a single report: first
+ * {@link #startReport} is called, then {@link #entry} for each keystore entry in order, and finally
+ * {@link #endReport}. Sinks are only called from one thread at a time.
+ */
+interface KeyStoreReportSink
+{
+	/**
+	 * Start the report.
+	 * 
+	 * @param ksType Keystore type
+	 * @param sProvider Keystore provider name
+	 * @param iEntries Number of entries in the keystore
+	 * @throws IOException If writing the report failed
+	 */
+	void startReport(KeyStoreType ksType, String sProvider, int iEntries)
+	    throws IOException;
+
+	/**
+	 * Add a keystore entry to the report.
+	 * 
+	 * @param entry The entry
+	 * @throws IOException If writing the report failed
+	 */
+	void entry(KeyStoreReport.Entry entry)
+	    throws IOException;
+
+	/**
+	 * End the report, flushing any buffered output.
+	 * 
+	 * @throws IOException If writing the report failed
+	 */
+	void endReport()
+	    throws IOException;
+}
@@ -58,8 +58,11 @@ class KeyStoreTableCellRend
 		JLabel cell =
 		    (JLabel) super.getTableCellRendererComponent(jtKeyStore, value, bIsSelected, bHasFocus, iRow, iCol);
 
+		KeyStoreTableModel model = (KeyStoreTableModel) jtKeyStore.getModel();
+		int iModelCol = jtKeyStore.convertColumnIndexToModel(iCol);
+
 		// Entry column - display an icon representing the type and tool tip text
-		if (iCol == 0)
+		if (iModelCol == 0)
 		{
 			ImageIcon icon = null;
 
@@ -85,27 +88,30 @@ class KeyStoreTableCellRend
 			cell.setVerticalAlignment(CENTER);
 			cell.setHorizontalAlignment(CENTER);
 		}
-		// Last Modified column - format date (if date supplied)
-		else if (iCol == 2)
+		// Certificate details column whose value is still being computed - display placeholder
+		else if (value == null && KeyStoreTableModel.isDetailsColumn(iModelCol) &&
+		    model.isDetailsPending(jtKeyStore.convertRowIndexToModel(iRow)))
 		{
-			if (value != null)
-			{
-				if (value instanceof Date)
-				{
-					// Include time zone
-					cell.setText(
-					    DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.LONG).format((Date) value));
-				}
-				else
-				{
-					cell.setText(value.toString());
-				}
-			}
+			cell.setText(RB.getString("KeyStoreTableCellRend.Pending.text"));
+			cell.setToolTipText(null);
+			cell.setIcon(null);
+			cell.setHorizontalAlignment(LEFT);
 		}
-		// Alias column - just use alias text
+		// Other columns - format dates (if date supplied), otherwise just use the text
 		else
 		{
-			cell.setText(value.toString());
+			if (value instanceof Date)
+			{
+				// Include time zone
+				cell.setText(DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.LONG).format((Date) value));
+			}
+			else
+			{
+				cell.setText((value == null) ? "" : value.toString());
+			}
+			cell.setToolTipText(null);
+			cell.setIcon(null);
+			cell.setHorizontalAlignment(LEFT);
 		}
 
 		cell.setBorder(new EmptyBorder(0, 5, 0, 5));
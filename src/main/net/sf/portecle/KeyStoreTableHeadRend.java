@@ -39,6 +39,11 @@ import javax.swing.table.DefaultTableCellRenderer;
 class KeyStoreTableHeadRend
     extends DefaultTableCellRenderer
 {
+	/** Tool tip text resource key parts, by model column */
+	private static final String[] TOOLTIP_KEYS = { "TypeColumn", "AliasColumn", "LastModifiedDateColumn",
+	    "SubjectCnColumn", "IssuerColumn", "NotAfterColumn", "KeyAlgorithmColumn", "KeySizeColumn",
+	    "SignatureAlgorithmColumn", "Sha256FingerprintColumn", "RevocationStatusColumn" };
+
 	/**
 	 * Returns the rendered header cell for the supplied value and column.
 	 * 
@@ -58,7 +63,8 @@ class KeyStoreTableHeadRend
 		JLabel header = (JLabel) jtKeyStore.getColumnModel().getColumn(iCol).getHeaderRenderer();
 
 		// The entry type header contains an icon
-		if (iCol == 0)
+		int iModelCol = jtKeyStore.convertColumnIndexToModel(iCol);
+		if (iModelCol == 0)
 		{
 			header.setText("");
 			ImageIcon icon =
@@ -66,24 +72,14 @@ class KeyStoreTableHeadRend
 			header.setIcon(icon);
 			header.setHorizontalAlignment(CENTER);
 			header.setVerticalAlignment(CENTER);
-
-			header.setToolTipText(RB.getString("KeyStoreTableHeadRend.TypeColumn.tooltip"));
 		}
 		// The other headers contain text
 		else
 		{
 			header.setText((String) value);
 			header.setHorizontalAlignment(LEFT);
-
-			if (iCol == 1)
-			{
-				header.setToolTipText(RB.getString("KeyStoreTableHeadRend.AliasColumn.tooltip"));
-			}
-			else
-			{
-				header.setToolTipText(RB.getString("KeyStoreTableHeadRend.LastModifiedDateColumn.tooltip"));
-			}
 		}
+		header.setToolTipText(RB.getString("KeyStoreTableHeadRend." + TOOLTIP_KEYS[iModelCol] + ".tooltip"));
 
 		header.setBorder(new CompoundBorder(new BevelBorder(BevelBorder.RAISED), new EmptyBorder(0, 5, 0, 5)));
 
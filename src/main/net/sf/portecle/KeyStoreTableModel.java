@@ -24,23 +24,69 @@ package net.sf.portecle;
 
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import javax.swing.SwingUtilities;
 import javax.swing.table.AbstractTableModel;
 
+import net.sf.portecle.crypto.CertificateSummary;
+import net.sf.portecle.crypto.CryptoException;
+import net.sf.portecle.crypto.KeyPairUtil;
 import net.sf.portecle.crypto.KeyStoreType;
+import net.sf.portecle.crypto.RevocationStatus;
+import net.sf.portecle.crypto.SignatureType;
 
 /**
- * The table model used to display a keystore's entries sorted by alias name.
+ * The table model used to display a keystore's entries sorted by alias name. Besides reloading the whole keystore,
+ * the model can be updated one entry at a time, firing row level events so that sorting and selection are kept.
+ * <p>
+ * Columns after the first {@link #BASE_COLUMN_COUNT} ones hold certificate details. They are computed on a background
+ * thread the first time they are asked for, ie. when rows are scrolled into view, and cached per alias; until then
+ * their value is null and {@link #isDetailsPending(int)} returns true. The details of all entries can be requested at
+ * once with {@link #requestAllDetails()}, eg. for sorting by them.
+ * </p>
+ * <p>
+ * The last column, {@link #REVOCATION_STATUS_COLUMN}, holds the results of the latest revocation check; it is empty
+ * for entries that have not been checked.
+ * </p>
  */
 class KeyStoreTableModel
     extends AbstractTableModel
 {
+	/** Logger */
+	private static final Logger LOG = Logger.getLogger(KeyStoreTableModel.class.getName());
+
+	/** Number of columns not holding certificate details */
+	public static final int BASE_COLUMN_COUNT = 3;
+
+	/** The revocation status column, following the certificate details columns */
+	public static final int REVOCATION_STATUS_COLUMN = 10;
+
+	/** Maximum number of computed rows to publish to the table at once */
+	private static final int DETAILS_BATCH_SIZE = 64;
+
 	/** Column names */
 	private static final String[] COLUMN_NAMES = { FPortecle.RB.getString("KeyStoreTableModel.TypeColumn"),
 	    FPortecle.RB.getString("KeyStoreTableModel.AliasColumn"),
-	    FPortecle.RB.getString("KeyStoreTableModel.LastModifiedDateColumn") };
+	    FPortecle.RB.getString("KeyStoreTableModel.LastModifiedDateColumn"),
+	    FPortecle.RB.getString("KeyStoreTableModel.SubjectCnColumn"),
+	    FPortecle.RB.getString("KeyStoreTableModel.IssuerColumn"),
+	    FPortecle.RB.getString("KeyStoreTableModel.NotAfterColumn"),
+	    FPortecle.RB.getString("KeyStoreTableModel.KeyAlgorithmColumn"),
+	    FPortecle.RB.getString("KeyStoreTableModel.KeySizeColumn"),
+	    FPortecle.RB.getString("KeyStoreTableModel.SignatureAlgorithmColumn"),
+	    FPortecle.RB.getString("KeyStoreTableModel.Sha256FingerprintColumn"),
+	    FPortecle.RB.getString("KeyStoreTableModel.RevocationStatusColumn") };
 
 	/** Value to place in the type column for a key pair entry */
 	public static final String KEY_PAIR_ENTRY = FPortecle.RB.getString("KeyStoreTableModel.KeyPairEntry");
@@ -52,10 +98,32 @@ class KeyStoreTableModel
 	public static final String KEY_ENTRY = FPortecle.RB.getString("KeyStoreTableModel.KeyEntry");
 
 	/** Column classes */
-	private static final Class<?>[] COLUMN_CLASSES = { String.class, String.class, Date.class };
+	private static final Class<?>[] COLUMN_CLASSES = { String.class, String.class, Date.class, String.class,
+	    String.class, Date.class, String.class, Integer.class, String.class, String.class, String.class };
+
+	/** Holds the table data, one row per entry in no particular order */
+	private final ArrayList<Object[]> m_data = new ArrayList<>();
+
+	/** Row indexes by alias */
+	private final HashMap<String, Integer> m_rows = new HashMap<>();
+
+	/** Computed certificate details by alias */
+	private final HashMap<String, Object[]> m_details = new HashMap<>();
 
-	/** Holds the table data */
-	private Object[][] m_data;
+	/** Revocation statuses by alias */
+	private final HashMap<String, RevocationStatus> m_revocationStatuses = new HashMap<>();
+
+	/** Outstanding certificate details requests by alias; a request no longer here is stale */
+	private final HashMap<String, DetailsRequest> m_requests = new HashMap<>();
+
+	/** Certificate details requests waiting for the background thread, most recently requested last */
+	private final LinkedBlockingDeque<DetailsRequest> m_queue = new LinkedBlockingDeque<>();
+
+	/** Background thread computing certificate details, started on first use */
+	private Thread m_detailsThread;
+
+	/** The keystore the model was loaded from */
+	private KeyStore m_keyStore;
 
 	/** Parent Portecle object */
 	private final FPortecle portecle;
@@ -65,7 +133,6 @@ class KeyStoreTableModel
 	 */
 	public KeyStoreTableModel(FPortecle portecle)
 	{
-		m_data = new Object[0][getColumnCount()];
 		this.portecle = portecle;
 	}
 
@@ -78,47 +145,390 @@ class KeyStoreTableModel
 	public void load(KeyStore keyStore)
 	    throws KeyStoreException
 	{
-		// Does the keystore support creation dates?
-		boolean cdSupport = KeyStoreType.valueOfType(keyStore.getType()).isEntryCreationDateUseful();
+		m_data.clear();
+		m_rows.clear();
+		m_details.clear();
+		m_revocationStatuses.clear();
+		m_requests.clear();
+		m_queue.clear();
+		m_keyStore = keyStore;
 
-		// Create one table row for each keystore entry
-		m_data = new Object[keyStore.size()][getColumnCount()];
+		// Stop computing details of the previous keystore; a new worker is started on demand
+		if (m_detailsThread != null)
+		{
+			m_detailsThread.interrupt();
+			m_detailsThread = null;
+		}
+		m_data.ensureCapacity(keyStore.size());
 
 		// Iterate through the aliases, retrieving the keystore entries and populating the table model
-		int iCnt = 0;
 		for (Enumeration<String> en = keyStore.aliases(); en.hasMoreElements();)
 		{
 			String sAlias = en.nextElement();
+			m_rows.put(sAlias, m_data.size());
+			m_data.add(createRow(keyStore, sAlias));
+		}
 
-			// Populate the type column - it is set with an integer but a custom cell renderer will cause a
-			// suitable icon to be displayed
-			if (keyStore.isCertificateEntry(sAlias))
-			{
-				m_data[iCnt][0] = TRUST_CERT_ENTRY;
-			}
-			else if (keyStore.isKeyEntry(sAlias) && keyStore.getCertificateChain(sAlias) != null &&
-			    keyStore.getCertificateChain(sAlias).length != 0)
-			{
-				m_data[iCnt][0] = KEY_PAIR_ENTRY;
-			}
-			else
+		fireTableDataChanged();
+	}
+
+	/**
+	 * Update the model after an entry has been added to the keystore or replaced in it.
+	 * 
+	 * @param keyStore The keystore
+	 * @param sAlias The entry's alias
+	 * @throws KeyStoreException A problem is encountered accessing the entry
+	 */
+	public void entryAdded(KeyStore keyStore, String sAlias)
+	    throws KeyStoreException
+	{
+		forgetDetails(sAlias);
+		Integer iRow = m_rows.get(sAlias);
+		if (iRow != null)
+		{
+			m_data.set(iRow, createRow(keyStore, sAlias));
+			fireTableRowsUpdated(iRow, iRow);
+		}
+		else
+		{
+			int iNewRow = m_data.size();
+			m_rows.put(sAlias, iNewRow);
+			m_data.add(createRow(keyStore, sAlias));
+			fireTableRowsInserted(iNewRow, iNewRow);
+		}
+	}
+
+	/**
+	 * Update the model after an entry has been removed from the keystore.
+	 * 
+	 * @param sAlias The entry's alias
+	 */
+	public void entryRemoved(String sAlias)
+	{
+		forgetDetails(sAlias);
+		Integer iRow = m_rows.remove(sAlias);
+		if (iRow == null)
+		{
+			return;
+		}
+
+		// Move the last row into the place of the removed one so that no other rows need renumbering
+		int iLastRow = m_data.size() - 1;
+		Object[] lastRow = m_data.remove(iLastRow);
+		if (iRow != iLastRow)
+		{
+			m_data.set(iRow, lastRow);
+			m_rows.put((String) lastRow[1], iRow);
+		}
+		fireTableRowsDeleted(iLastRow, iLastRow);
+		if (iRow != iLastRow)
+		{
+			fireTableRowsUpdated(iRow, iRow);
+		}
+	}
+
+	/**
+	 * Update the model after an entry in the keystore has been renamed.
+	 * 
+	 * @param keyStore The keystore
+	 * @param sOldAlias The entry's old alias
+	 * @param sNewAlias The entry's new alias
+	 * @throws KeyStoreException A problem is encountered accessing the entry
+	 */
+	public void entryRenamed(KeyStore keyStore, String sOldAlias, String sNewAlias)
+	    throws KeyStoreException
+	{
+		// An entry previously under the new alias was overwritten
+		if (!sNewAlias.equals(sOldAlias))
+		{
+			entryRemoved(sNewAlias);
+		}
+
+		Integer iRow = m_rows.remove(sOldAlias);
+		if (iRow == null)
+		{
+			entryAdded(keyStore, sNewAlias);
+			return;
+		}
+		m_rows.put(sNewAlias, iRow);
+		m_data.set(iRow, createRow(keyStore, sNewAlias));
+
+		// Same entry, same certificate - keep the details computed so far
+		Object[] details = m_details.remove(sOldAlias);
+		if (details != null)
+		{
+			m_details.put(sNewAlias, details);
+		}
+		RevocationStatus status = m_revocationStatuses.remove(sOldAlias);
+		if (status != null)
+		{
+			m_revocationStatuses.put(sNewAlias, status);
+		}
+		forgetDetails(sOldAlias);
+		fireTableRowsUpdated(iRow, iRow);
+	}
+
+	/**
+	 * Get the row of an entry.
+	 * 
+	 * @param sAlias The entry's alias
+	 * @return The row index in the model, -1 if there is no such entry
+	 */
+	public int getRow(String sAlias)
+	{
+		Integer iRow = m_rows.get(sAlias);
+		return (iRow == null) ? -1 : iRow;
+	}
+
+	/**
+	 * Get the alias of a row.
+	 * 
+	 * @param iRow The row index in the model
+	 * @return The entry's alias
+	 */
+	public String getAlias(int iRow)
+	{
+		return (String) m_data.get(iRow)[1];
+	}
+
+	/**
+	 * Set the results of a revocation check, replacing those of any earlier check.
+	 * 
+	 * @param statuses Revocation statuses by alias; entries not included have not been checked
+	 */
+	public void setRevocationStatuses(Map<String, RevocationStatus> statuses)
+	{
+		m_revocationStatuses.clear();
+		m_revocationStatuses.putAll(statuses);
+		if (!m_data.isEmpty())
+		{
+			fireTableRowsUpdated(0, m_data.size() - 1);
+		}
+	}
+
+	/**
+	 * Is the certificate details of a row still being computed?
+	 * 
+	 * @param iRow The row index in the model
+	 * @return True if the details are not available yet, false otherwise
+	 */
+	public boolean isDetailsPending(int iRow)
+	{
+		return !m_details.containsKey(m_data.get(iRow)[1]);
+	}
+
+	/**
+	 * Have the certificate details of all rows been computed?
+	 * 
+	 * @return True if the details of all rows are available, false otherwise
+	 */
+	public boolean isDetailsLoaded()
+	{
+		return m_details.size() == m_data.size();
+	}
+
+	/**
+	 * Request the certificate details of all rows to be computed, unless they are available or requested already.
+	 */
+	public void requestAllDetails()
+	{
+		for (Object[] row : m_data)
+		{
+			getDetail((String) row[1], BASE_COLUMN_COUNT);
+		}
+	}
+
+	/**
+	 * Does a column hold certificate details?
+	 * 
+	 * @param iCol The column position
+	 * @return True if the column holds certificate details, false otherwise
+	 */
+	public static boolean isDetailsColumn(int iCol)
+	{
+		return iCol >= BASE_COLUMN_COUNT && iCol != REVOCATION_STATUS_COLUMN;
+	}
+
+	/**
+	 * Get a certificate details cell value, requesting the details to be computed if they are not available yet.
+	 * 
+	 * @param sAlias The entry's alias
+	 * @param iCol The column position
+	 * @return The cell value, null if not available yet
+	 */
+	private Object getDetail(String sAlias, int iCol)
+	{
+		Object[] details = m_details.get(sAlias);
+		if (details != null)
+		{
+			return details[iCol - BASE_COLUMN_COUNT];
+		}
+
+		// Already requested?
+		if (m_requests.containsKey(sAlias))
+		{
+			return null;
+		}
+
+		Certificate cert;
+		try
+		{
+			cert = m_keyStore.getCertificate(sAlias);
+		}
+		catch (KeyStoreException ex)
+		{
+			LOG.log(Level.WARNING, "Could not get certificate of " + sAlias, ex);
+			cert = null;
+		}
+
+		if (cert == null)
+		{
+			// Nothing to compute
+			m_details.put(sAlias, new Object[REVOCATION_STATUS_COLUMN - BASE_COLUMN_COUNT]);
+			return null;
+		}
+
+		DetailsRequest request = new DetailsRequest(sAlias, cert);
+		m_requests.put(sAlias, request);
+		m_queue.addLast(request);
+		if (m_detailsThread == null)
+		{
+			m_detailsThread = new Thread(new DetailsWorker(), "KeyStoreTableModel");
+			m_detailsThread.setDaemon(true);
+			m_detailsThread.start();
+		}
+		return null;
+	}
+
+	/**
+	 * Forget the certificate details of an entry and any outstanding request to compute them.
+	 * 
+	 * @param sAlias The entry's alias
+	 */
+	private void forgetDetails(String sAlias)
+	{
+		m_details.remove(sAlias);
+		m_revocationStatuses.remove(sAlias);
+		DetailsRequest request = m_requests.remove(sAlias);
+		if (request != null)
+		{
+			m_queue.remove(request);
+		}
+	}
+
+	/**
+	 * Store computed certificate details and update the affected rows. Results of stale requests are ignored.
+	 * 
+	 * @param requests The completed requests
+	 */
+	private void detailsComputed(ArrayList<DetailsRequest> requests)
+	{
+		int iFirstRow = Integer.MAX_VALUE;
+		int iLastRow = -1;
+
+		for (DetailsRequest request : requests)
+		{
+			if (m_requests.get(request.m_sAlias) != request)
 			{
-				m_data[iCnt][0] = KEY_ENTRY;
+				continue;
 			}
+			m_requests.remove(request.m_sAlias);
+			m_details.put(request.m_sAlias, request.m_details);
 
-			// Populate the alias column
-			m_data[iCnt][1] = sAlias;
+			int iRow = m_rows.get(request.m_sAlias);
+			iFirstRow = Math.min(iFirstRow, iRow);
+			iLastRow = Math.max(iLastRow, iRow);
+		}
+
+		// One event for the whole batch so that a sorted table is resorted only once
+		if (iLastRow != -1)
+		{
+			fireTableRowsUpdated(iFirstRow, iLastRow);
+		}
+	}
+
+	/**
+	 * Compute the details of a certificate.
+	 * 
+	 * @param cert The certificate
+	 * @return The details, in the order of the certificate details columns
+	 */
+	private static Object[] computeDetails(Certificate cert)
+	{
+		Object[] details = new Object[REVOCATION_STATUS_COLUMN - BASE_COLUMN_COUNT];
 
-			// Populate the modified date column
-			if (cdSupport)
+		if (!(cert instanceof X509Certificate))
+		{
+			PublicKey pubKey = cert.getPublicKey();
+			details[3] = pubKey.getAlgorithm();
+			int iKeySize = KeyPairUtil.getKeyLength(pubKey);
+			if (iKeySize != KeyPairUtil.UNKNOWN_KEY_SIZE)
 			{
-				m_data[iCnt][2] = keyStore.getCreationDate(sAlias);
+				details[4] = iKeySize;
 			}
+			return details;
+		}
 
-			iCnt++;
+		CertificateSummary summary;
+		try
+		{
+			summary = CertificateSummary.getInstance((X509Certificate) cert);
+		}
+		catch (CryptoException ex)
+		{
+			LOG.log(Level.FINE, "Could not summarize certificate", ex);
+			return details;
 		}
 
-		fireTableDataChanged();
+		details[0] = summary.getSubjectCommonName();
+		details[1] = summary.getIssuer();
+		details[2] = summary.getNotAfter();
+		details[3] = summary.getKeyAlgorithm();
+		if (summary.getKeySize() != KeyPairUtil.UNKNOWN_KEY_SIZE)
+		{
+			details[4] = summary.getKeySize();
+		}
+		details[5] = SignatureType.toString(summary.getSignatureAlgorithm());
+		details[6] = summary.getSha256Fingerprint();
+
+		return details;
+	}
+
+	/**
+	 * Create a table row for a keystore entry.
+	 * 
+	 * @param keyStore The keystore
+	 * @param sAlias The entry's alias
+	 * @return The row
+	 * @throws KeyStoreException A problem is encountered accessing the entry
+	 */
+	private Object[] createRow(KeyStore keyStore, String sAlias)
+	    throws KeyStoreException
+	{
+		Object[] row = new Object[BASE_COLUMN_COUNT];
+
+		// Populate the type column - it is set with an integer but a custom cell renderer will cause a
+		// suitable icon to be displayed
+		if (keyStore.isCertificateEntry(sAlias))
+		{
+			row[0] = TRUST_CERT_ENTRY;
+		}
+		else
+		{
+			Certificate[] chain = keyStore.isKeyEntry(sAlias) ? keyStore.getCertificateChain(sAlias) : null;
+			row[0] = (chain != null && chain.length != 0) ? KEY_PAIR_ENTRY : KEY_ENTRY;
+		}
+
+		// Populate the alias column
+		row[1] = sAlias;
+
+		// Populate the modified date column if the keystore supports creation dates
+		if (KeyStoreType.valueOfType(keyStore.getType()).isEntryCreationDateUseful())
+		{
+			row[2] = keyStore.getCreationDate(sAlias);
+		}
+
+		return row;
 	}
 
 	/**
@@ -140,7 +550,7 @@ class KeyStoreTableModel
 	@Override
 	public int getRowCount()
 	{
-		return m_data.length;
+		return m_data.size();
 	}
 
 	/**
@@ -165,7 +575,17 @@ class KeyStoreTableModel
 	@Override
 	public Object getValueAt(int iRow, int iCol)
 	{
-		return m_data[iRow][iCol];
+		Object[] row = m_data.get(iRow);
+		if (iCol < BASE_COLUMN_COUNT)
+		{
+			return row[iCol];
+		}
+		if (iCol == REVOCATION_STATUS_COLUMN)
+		{
+			RevocationStatus status = m_revocationStatuses.get(row[1]);
+			return (status == null) ? null : FPortecle.RB.getString("KeyStoreTableModel.RevocationStatus." + status);
+		}
+		return getDetail((String) row[1], iCol);
 	}
 
 	@Override
@@ -173,7 +593,7 @@ class KeyStoreTableModel
 	{
 		if (isCellEditable(rowIndex, columnIndex))
 		{
-			portecle.renameEntry(m_data[rowIndex][columnIndex].toString(), value.toString(), true);
+			portecle.renameEntry(m_data.get(rowIndex)[columnIndex].toString(), value.toString(), true);
 		}
 	}
 
@@ -207,6 +627,80 @@ class KeyStoreTableModel
 		// Key-only entries are not renameable - we do a remove-store operation but the KeyStore API won't
 		// allow us to store a PrivateKey without associated certificate chain.
 		// TODO: Maybe it'd work for other Key types? Need testing material.
-		return !KEY_ENTRY.equals(m_data[iRow][0]);
+		return !KEY_ENTRY.equals(m_data.get(iRow)[0]);
+	}
+
+	/**
+	 * A request to compute the details of an entry's certificate.
+	 */
+	private static class DetailsRequest
+	{
+		/** The entry's alias */
+		private final String m_sAlias;
+
+		/** The entry's certificate */
+		private final Certificate m_cert;
+
+		/** The computed details */
+		private Object[] m_details;
+
+		/**
+		 * Construct a DetailsRequest.
+		 * 
+		 * @param sAlias The entry's alias
+		 * @param cert The entry's certificate
+		 */
+		private DetailsRequest(String sAlias, Certificate cert)
+		{
+			m_sAlias = sAlias;
+			m_cert = cert;
+		}
+	}
+
+	/**
+	 * Computes requested certificate details in the background, most recently requested first, and publishes them to
+	 * the model in the event dispatch thread in batches. Stops when interrupted.
+	 */
+	private class DetailsWorker
+	    implements Runnable
+	{
+		@Override
+		public void run()
+		{
+			while (true)
+			{
+				final ArrayList<DetailsRequest> batch = new ArrayList<>(DETAILS_BATCH_SIZE);
+				try
+				{
+					batch.add(m_queue.takeLast());
+				}
+				catch (InterruptedException e)
+				{
+					return;
+				}
+
+				DetailsRequest request = batch.get(0);
+				while (request != null)
+				{
+					request.m_details = computeDetails(request.m_cert);
+					// Once interrupted, leave the remaining requests to the worker replacing this one
+					request = (batch.size() < DETAILS_BATCH_SIZE && !Thread.currentThread().isInterrupted())
+					    ? m_queue.pollLast() : null;
+					if (request != null)
+					{
+						batch.add(request);
+					}
+				}
+
+				SwingUtilities.invokeLater(new Runnable()
+				{
+					@Override
+					public void run()
+					{
+						detailsComputed(batch);
+					}
+				});
+			}
+		}
 	}
 }
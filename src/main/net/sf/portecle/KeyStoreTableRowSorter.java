@@ -0,0 +1,113 @@
+/*
+ * KeyStoreTableRowSorter.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.table.TableRowSorter;
+
+/**
+ * Row sorter for the keystore table of FPortecle. Certificate details columns are sortable only once the details of
+ * all rows have been computed, as sorting asks for the value of every row. Asking to sort by such a column before that
+ * requests the missing details and sorts when they are available.
+ */
+class KeyStoreTableRowSorter
+    extends TableRowSorter<KeyStoreTableModel>
+{
+	/** Certificate details column to sort by once the details are available, -1 for none */
+	private int m_iPendingSortColumn = -1;
+
+	/**
+	 * Construct a KeyStoreTableRowSorter.
+	 * 
+	 * @param model The table model
+	 */
+	KeyStoreTableRowSorter(KeyStoreTableModel model)
+	{
+		super(model);
+	}
+
+	@Override
+	public boolean isSortable(int iCol)
+	{
+		return super.isSortable(iCol) &&
+		    (!KeyStoreTableModel.isDetailsColumn(iCol) || getModel().isDetailsLoaded());
+	}
+
+	@Override
+	public void toggleSortOrder(int iCol)
+	{
+		m_iPendingSortColumn = -1;
+		if (super.isSortable(iCol) && !isSortable(iCol))
+		{
+			getModel().requestAllDetails();
+			if (!isSortable(iCol))
+			{
+				m_iPendingSortColumn = iCol;
+				return;
+			}
+		}
+		super.toggleSortOrder(iCol);
+	}
+
+	@Override
+	public void rowsUpdated(int iFirstRow, int iEndRow)
+	{
+		super.rowsUpdated(iFirstRow, iEndRow);
+
+		// Sort by the column asked for earlier if its values are now available
+		final int iCol = m_iPendingSortColumn;
+		if (iCol != -1 && isSortable(iCol))
+		{
+			m_iPendingSortColumn = -1;
+			SwingUtilities.invokeLater(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					toggleSortOrder(iCol);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Stop sorting by certificate details columns and forget any pending request to do so, sorting by alias instead.
+	 * To be called before loading a new keystore into the model, as the details of its entries are not available.
+	 */
+	public void clearDetailsSortKeys()
+	{
+		m_iPendingSortColumn = -1;
+		List<? extends SortKey> sortKeys = getSortKeys();
+		for (SortKey sortKey : sortKeys)
+		{
+			if (KeyStoreTableModel.isDetailsColumn(sortKey.getColumn()))
+			{
+				setSortKeys(Collections.singletonList(new SortKey(1, SortOrder.ASCENDING)));
+				return;
+			}
+		}
+	}
+}
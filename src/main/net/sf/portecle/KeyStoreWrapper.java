@@ -26,6 +26,10 @@ import java.io.File;
 import java.security.KeyStore;
 import java.util.HashMap;
 
+import net.sf.portecle.crypto.CertificateIndex;
+import net.sf.portecle.crypto.CryptoException;
+import net.sf.portecle.crypto.KeyStoreSearchIndex;
+import net.sf.portecle.crypto.KeyStoreFileState;
 import net.sf.portecle.crypto.KeyStoreType;
 
 /**
@@ -49,11 +53,29 @@ class KeyStoreWrapper
 	/** File the keystore was loaded from/saved to */
 	private File m_fKeyStore;
 
+	/** State of the keystore file as last loaded/saved */
+	private KeyStoreFileState m_fileState;
+
 	/**
 	 * Indicator as to whether or not the keystore has been altered since its last save
 	 */
 	private boolean m_bChanged;
 
+	/** Number of times the keystore has been changed */
+	private int m_iModCount;
+
+	/** Index of the keystore's trusted certificate entries, null if not built yet */
+	private CertificateIndex m_certIndex;
+
+	/** Change count the certificate index is up to date with */
+	private int m_iCertIndexModCount;
+
+	/** Search index of the keystore's entries, null if not built yet */
+	private KeyStoreSearchIndex m_searchIndex;
+
+	/** Change count the search index is up to date with */
+	private int m_iSearchIndexModCount;
+
 	/**
 	 * Construct a new KeyStoreWrapper for the supplied keystore.
 	 * 
@@ -130,6 +152,26 @@ class KeyStoreWrapper
 		m_fKeyStore = fKeyStore;
 	}
 
+	/**
+	 * Get the state of the keystore file as last loaded or saved.
+	 * 
+	 * @return The file state or null if none is set
+	 */
+	public KeyStoreFileState getFileState()
+	{
+		return m_fileState;
+	}
+
+	/**
+	 * Set the state of the keystore file in the wrapper.
+	 * 
+	 * @param fileState The file state
+	 */
+	public void setFileState(KeyStoreFileState fileState)
+	{
+		m_fileState = fileState;
+	}
+
 	/**
 	 * Get the keystore.
 	 * 
@@ -189,6 +231,10 @@ class KeyStoreWrapper
 	public void setChanged(boolean bChanged)
 	{
 		m_bChanged = bChanged;
+		if (bChanged)
+		{
+			m_iModCount++;
+		}
 	}
 
 	/**
@@ -200,4 +246,161 @@ class KeyStoreWrapper
 	{
 		return m_bChanged;
 	}
+
+	/**
+	 * Get the number of times the keystore has been registered as changed. Unlike {@link #isChanged()}, the count is
+	 * not reset by saving.
+	 * 
+	 * @return The change count
+	 */
+	public int getModificationCount()
+	{
+		return m_iModCount;
+	}
+
+	/**
+	 * Get the index of the keystore's trusted certificate entries. The index is built on first use and rebuilt after
+	 * changes not registered with {@link #entryAdded(String)}, {@link #entryRemoved(String)} or
+	 * {@link #entryRenamed(String, String)}.
+	 * 
+	 * @return The certificate index
+	 * @throws CryptoException If a problem is encountered building the index
+	 */
+	public CertificateIndex getCertificateIndex()
+	    throws CryptoException
+	{
+		if (!isCertificateIndexCurrent())
+		{
+			m_certIndex = new CertificateIndex(m_keyStore);
+			m_iCertIndexModCount = m_iModCount;
+		}
+		return m_certIndex;
+	}
+
+	/**
+	 * Get the search index of the keystore's entries. The index is built on first use and rebuilt after changes not
+	 * registered with {@link #entryAdded(String)}, {@link #entryRemoved(String)} or
+	 * {@link #entryRenamed(String, String)}.
+	 * 
+	 * @return The search index
+	 * @throws CryptoException If a problem is encountered building the index
+	 */
+	public KeyStoreSearchIndex getSearchIndex()
+	    throws CryptoException
+	{
+		if (!isSearchIndexCurrent())
+		{
+			m_searchIndex = new KeyStoreSearchIndex(m_keyStore);
+			m_iSearchIndexModCount = m_iModCount;
+		}
+		return m_searchIndex;
+	}
+
+	/**
+	 * Set a search index of the keystore's entries built elsewhere, for example in the background. The index is only
+	 * taken into use if the keystore has not changed since the index building started.
+	 * 
+	 * @param searchIndex The search index
+	 * @param iModCount The modification count of the keystore when the index building started, see
+	 *            {@link #getModificationCount()}
+	 * @return True if the index was taken into use, false if it is out of date
+	 */
+	public boolean setSearchIndex(KeyStoreSearchIndex searchIndex, int iModCount)
+	{
+		if (!searchIndex.isFor(m_keyStore) || iModCount != m_iModCount)
+		{
+			return false;
+		}
+		m_searchIndex = searchIndex;
+		m_iSearchIndexModCount = iModCount;
+		return true;
+	}
+
+	/**
+	 * Register with the wrapper that an entry has been added to the keystore, or replaced.
+	 * 
+	 * @param sAlias The entry's alias
+	 * @throws CryptoException If a problem is encountered updating the indexes
+	 */
+	public void entryAdded(String sAlias)
+	    throws CryptoException
+	{
+		entriesChanged(sAlias);
+	}
+
+	/**
+	 * Register with the wrapper that an entry has been removed from the keystore.
+	 * 
+	 * @param sAlias The entry's alias
+	 * @throws CryptoException If a problem is encountered updating the indexes
+	 */
+	public void entryRemoved(String sAlias)
+	    throws CryptoException
+	{
+		entriesChanged(sAlias);
+	}
+
+	/**
+	 * Register with the wrapper that an entry in the keystore has been renamed.
+	 * 
+	 * @param sOldAlias The entry's old alias
+	 * @param sNewAlias The entry's new alias
+	 * @throws CryptoException If a problem is encountered updating the indexes
+	 */
+	public void entryRenamed(String sOldAlias, String sNewAlias)
+	    throws CryptoException
+	{
+		entriesChanged(sOldAlias, sNewAlias);
+	}
+
+	/**
+	 * Mark the keystore changed, and update the indexes for the given aliases if they were up to date.
+	 * 
+	 * @param aliases The aliases of the changed entries
+	 * @throws CryptoException If a problem is encountered updating the indexes
+	 */
+	private void entriesChanged(String... aliases)
+	    throws CryptoException
+	{
+		boolean bIndexCurrent = isCertificateIndexCurrent();
+		boolean bSearchIndexCurrent = isSearchIndexCurrent();
+		setChanged(true);
+		if (bIndexCurrent)
+		{
+			for (String sAlias : aliases)
+			{
+				m_certIndex.update(sAlias);
+			}
+			m_iCertIndexModCount = m_iModCount;
+		}
+		if (bSearchIndexCurrent)
+		{
+			for (String sAlias : aliases)
+			{
+				m_searchIndex.update(sAlias);
+			}
+			m_iSearchIndexModCount = m_iModCount;
+		}
+	}
+
+	/**
+	 * Is the certificate index up to date with the keystore?
+	 * 
+	 * @return True if the index has been built for the keystore and it has not changed since, false otherwise
+	 */
+	private boolean isCertificateIndexCurrent()
+	{
+		return m_certIndex != null && m_certIndex.isFor(m_keyStore) && m_iCertIndexModCount == m_iModCount;
+	}
+
+	/**
+	 * Is the search index up to date with the keystore? If it is, {@link #getSearchIndex()} returns without building
+	 * the index.
+	 * 
+	 * @return True if the index has been built for the keystore and it has not changed since, false otherwise
+	 */
+	public boolean isSearchIndexCurrent()
+	{
+		return m_searchIndex != null && m_searchIndex.isFor(m_keyStore) && m_iSearchIndexModCount == m_iModCount;
+	}
 }
@@ -0,0 +1,243 @@
+/*
+ * RevokedCertsRowSorter.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+
+import net.sf.portecle.crypto.RevocationIndex;
+
+/**
+ * Row sorter of the RevokedCerts table of DViewCRL. Unlike a {@link javax.swing.table.TableRowSorter}, it neither
+ * creates an object per row nor compares cell values: serial number order is the model order, and revocation date
+ * order is a permutation computed once from the {@link RevocationIndex}. Sorts by one column at a time.
+ */
+class RevokedCertsRowSorter
+    extends RowSorter<RevokedCertsTableModel>
+{
+	/** The model */
+	private final RevokedCertsTableModel m_model;
+
+	/** The sort keys, empty or one key */
+	private List<SortKey> m_sortKeys = Collections.emptyList();
+
+	/** Model indexes in revocation date order, null if not computed yet */
+	private int[] m_dateOrder;
+
+	/** Positions of model indexes in m_dateOrder, null if not computed yet */
+	private int[] m_dateOrderPositions;
+
+	/**
+	 * Construct a new RevokedCertsRowSorter.
+	 * 
+	 * @param model The model
+	 */
+	public RevokedCertsRowSorter(RevokedCertsTableModel model)
+	{
+		m_model = model;
+	}
+
+	@Override
+	public RevokedCertsTableModel getModel()
+	{
+		return m_model;
+	}
+
+	@Override
+	public void toggleSortOrder(int iColumn)
+	{
+		SortOrder order = SortOrder.ASCENDING;
+		if (!m_sortKeys.isEmpty() && m_sortKeys.get(0).getColumn() == iColumn &&
+		    m_sortKeys.get(0).getSortOrder() == SortOrder.ASCENDING)
+		{
+			order = SortOrder.DESCENDING;
+		}
+		setSortKeys(Collections.singletonList(new SortKey(iColumn, order)));
+	}
+
+	@Override
+	public void setSortKeys(List<? extends SortKey> keys)
+	{
+		int[] lastViewToModel = getViewToModel();
+		if (keys == null || keys.isEmpty() || keys.get(0).getSortOrder() == SortOrder.UNSORTED)
+		{
+			m_sortKeys = Collections.emptyList();
+		}
+		else
+		{
+			m_sortKeys = Collections.singletonList(keys.get(0));
+		}
+		fireSortOrderChanged();
+		fireRowSorterChanged(lastViewToModel);
+	}
+
+	@Override
+	public List<? extends SortKey> getSortKeys()
+	{
+		return m_sortKeys;
+	}
+
+	@Override
+	public int convertRowIndexToModel(int iIndex)
+	{
+		int iCount = getModelRowCount();
+		if (iIndex < 0 || iIndex >= iCount)
+		{
+			throw new IndexOutOfBoundsException("Invalid index");
+		}
+		if (isDescending())
+		{
+			iIndex = iCount - 1 - iIndex;
+		}
+		return isDateOrder() ? getDateOrder()[iIndex] : iIndex;
+	}
+
+	@Override
+	public int convertRowIndexToView(int iIndex)
+	{
+		int iCount = getModelRowCount();
+		if (iIndex < 0 || iIndex >= iCount)
+		{
+			throw new IndexOutOfBoundsException("Invalid index");
+		}
+		if (isDateOrder())
+		{
+			if (m_dateOrderPositions == null)
+			{
+				int[] dateOrder = getDateOrder();
+				m_dateOrderPositions = new int[dateOrder.length];
+				for (int i = 0; i < dateOrder.length; i++)
+				{
+					m_dateOrderPositions[dateOrder[i]] = i;
+				}
+			}
+			iIndex = m_dateOrderPositions[iIndex];
+		}
+		return isDescending() ? iCount - 1 - iIndex : iIndex;
+	}
+
+	@Override
+	public int getViewRowCount()
+	{
+		return getModelRowCount();
+	}
+
+	@Override
+	public int getModelRowCount()
+	{
+		return m_model.getRowCount();
+	}
+
+	@Override
+	public void modelStructureChanged()
+	{
+		allRowsChanged();
+	}
+
+	@Override
+	public void allRowsChanged()
+	{
+		m_dateOrder = null;
+		m_dateOrderPositions = null;
+	}
+
+	@Override
+	public void rowsInserted(int iFirstRow, int iEndRow)
+	{
+		allRowsChanged();
+	}
+
+	@Override
+	public void rowsDeleted(int iFirstRow, int iEndRow)
+	{
+		allRowsChanged();
+	}
+
+	@Override
+	public void rowsUpdated(int iFirstRow, int iEndRow)
+	{
+		// Rows are never updated in place
+	}
+
+	@Override
+	public void rowsUpdated(int iFirstRow, int iEndRow, int iColumn)
+	{
+		// Rows are never updated in place
+	}
+
+	/**
+	 * Is the table sorted by revocation date?
+	 * 
+	 * @return True if it is, false if it is sorted by serial number
+	 */
+	private boolean isDateOrder()
+	{
+		return !m_sortKeys.isEmpty() && m_sortKeys.get(0).getColumn() == 1;
+	}
+
+	/**
+	 * Is the table sorted in descending order?
+	 * 
+	 * @return True if it is, false otherwise
+	 */
+	private boolean isDescending()
+	{
+		return !m_sortKeys.isEmpty() && m_sortKeys.get(0).getSortOrder() == SortOrder.DESCENDING;
+	}
+
+	/**
+	 * Get the model indexes in revocation date order, computing them on first call.
+	 * 
+	 * @return The model indexes
+	 */
+	private int[] getDateOrder()
+	{
+		if (m_dateOrder == null)
+		{
+			RevocationIndex index = m_model.getIndex();
+			m_dateOrder = (index == null) ? new int[0] : index.getRevocationTimeOrder();
+		}
+		return m_dateOrder;
+	}
+
+	/**
+	 * Get the current mapping from view to model indexes, for notifying listeners of a change in it.
+	 * 
+	 * @return The mapping, null if it is the identity
+	 */
+	private int[] getViewToModel()
+	{
+		if (!isDateOrder() && !isDescending())
+		{
+			return null;
+		}
+		int[] viewToModel = new int[getModelRowCount()];
+		for (int i = 0; i < viewToModel.length; i++)
+		{
+			viewToModel[i] = convertRowIndexToModel(i);
+		}
+		return viewToModel;
+	}
+}
@@ -23,13 +23,15 @@
 package net.sf.portecle;
 
 import java.math.BigInteger;
-import java.security.cert.X509CRLEntry;
 import java.util.Date;
 
 import javax.swing.table.AbstractTableModel;
 
+import net.sf.portecle.crypto.RevocationIndex;
+
 /**
- * The table model used to display an array of X.509 CRL entries.
+ * The table model used to display the revoked certificates of a CRL. Rows are backed by a {@link RevocationIndex} and
+ * are in serial number order; cell values are created only when requested.
  */
 class RevokedCertsTableModel
     extends AbstractTableModel
@@ -41,43 +43,28 @@ class RevokedCertsTableModel
 	/** Column classes */
 	private static final Class<?>[] COLUMN_CLASSES = { BigInteger.class, Date.class };
 
-	/** Holds the table data */
-	private Object[][] m_data;
+	/** The revoked certificates, null if none loaded */
+	private RevocationIndex m_index;
 
 	/**
-	 * Construct a new RevokedCertsTableModel.
+	 * Load the RevokedCertsTableModel with the revoked certificates of a CRL.
+	 * 
+	 * @param index The revoked certificates
 	 */
-	public RevokedCertsTableModel()
+	public void load(RevocationIndex index)
 	{
-		m_data = new Object[0][getColumnCount()];
+		m_index = index;
+		fireTableDataChanged();
 	}
 
 	/**
-	 * Load the RevokedCertsTableModel with an array of X.509 CRL entries.
+	 * Get the revoked certificates.
 	 * 
-	 * @param revokedCerts The X.509 CRL entries
+	 * @return The revoked certificates, null if none loaded
 	 */
-	public void load(X509CRLEntry[] revokedCerts)
+	public RevocationIndex getIndex()
 	{
-		// Create one table row for each revoked certificate
-		m_data = new Object[revokedCerts.length][getColumnCount()];
-
-		// Iterate through the sorted revoked certificates populating the table model
-		int iCnt = 0;
-		for (X509CRLEntry x509CrlEntry : revokedCerts)
-		{
-			int col = 0;
-
-			// Populate the serial number column
-			m_data[iCnt][col++] = x509CrlEntry.getSerialNumber();
-
-			// Populate the modified date column
-			m_data[iCnt][col++] = x509CrlEntry.getRevocationDate();
-
-			iCnt++;
-		}
-
-		fireTableDataChanged();
+		return m_index;
 	}
 
 	/**
@@ -99,7 +86,7 @@ class RevokedCertsTableModel
 	@Override
 	public int getRowCount()
 	{
-		return m_data.length;
+		return (m_index == null) ? 0 : m_index.size();
 	}
 
 	/**
@@ -124,7 +111,7 @@ class RevokedCertsTableModel
 	@Override
 	public Object getValueAt(int iRow, int iCol)
 	{
-		return m_data[iRow][iCol];
+		return (iCol == 0) ? m_index.getSerialNumber(iRow) : m_index.getRevocationDate(iRow);
 	}
 
 	/**
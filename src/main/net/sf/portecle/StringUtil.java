@@ -33,6 +33,9 @@ import org.bouncycastle.asn1.ASN1Integer;
  */
 public class StringUtil
 {
+	/** Hex digits by value */
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
 	/**
 	 * Convert the supplied object to hex characters sub-divided by spaces every given number of characters, and
 	 * left-padded with zeros to fill group size.
@@ -49,51 +52,58 @@ public class StringUtil
 		{
 			throw new IllegalArgumentException("Group size must be >= 0");
 		}
-		BigInteger bigInt;
-		if (obj instanceof BigInteger)
-		{
-			bigInt = (BigInteger) obj;
-		}
-		else if (obj instanceof byte[])
-		{
-			bigInt = new BigInteger(1, (byte[]) obj);
-		}
-		else if (obj instanceof ASN1Integer)
+
+		// Convert to hex
+		char[] digits;
+		if (obj instanceof byte[])
 		{
-			bigInt = ((ASN1Integer) obj).getValue();
+			// Table driven, keeping leading zero bytes
+			byte[] bytes = (byte[]) obj;
+			digits = new char[bytes.length * 2];
+			for (int i = 0; i < bytes.length; i++)
+			{
+				digits[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+				digits[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xF];
+			}
 		}
 		else
 		{
-			throw new IllegalArgumentException(
-			    "Don't know how to convert " + obj.getClass().getName() + " to a hex string");
+			BigInteger bigInt;
+			if (obj instanceof BigInteger)
+			{
+				bigInt = (BigInteger) obj;
+			}
+			else if (obj instanceof ASN1Integer)
+			{
+				bigInt = ((ASN1Integer) obj).getValue();
+			}
+			else
+			{
+				throw new IllegalArgumentException(
+				    "Don't know how to convert " + obj.getClass().getName() + " to a hex string");
+			}
+			digits = bigInt.toString(16).toUpperCase(Locale.ENGLISH).toCharArray();
 		}
 
-		// Convert to hex
-
-		StringBuilder sb = new StringBuilder(bigInt.toString(16).toUpperCase(Locale.ENGLISH));
-
 		// Left-pad if asked and necessary
-
-		if (groupSize != 0)
+		int iPad = 0;
+		if (groupSize != 0 && digits.length % groupSize != 0)
 		{
-			int len = groupSize - (sb.length() % groupSize);
-			if (len != groupSize)
-			{
-				for (int i = 0; i < len; i++)
-				{
-					sb.insert(0, '0');
-				}
-			}
+			iPad = groupSize - (digits.length % groupSize);
 		}
+		int iLength = iPad + digits.length;
 
-		// Place separator at every groupSize characters
-
-		if (sb.length() > groupSize && !separator.isEmpty())
+		// Place separator at every groupSize characters, appending everything in one go
+		boolean bSeparate = groupSize != 0 && !separator.isEmpty();
+		int iSeparators = bSeparate ? (iLength - 1) / groupSize : 0;
+		StringBuilder sb = new StringBuilder(iLength + iSeparators * separator.length());
+		for (int i = 0; i < iLength; i++)
 		{
-			for (int i = groupSize; i < sb.length(); i += groupSize + separator.length())
+			if (bSeparate && i != 0 && i % groupSize == 0)
 			{
-				sb.insert(i, separator);
+				sb.append(separator);
 			}
+			sb.append((i < iPad) ? '0' : digits[i - iPad]);
 		}
 
 		return sb;
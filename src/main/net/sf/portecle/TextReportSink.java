@@ -0,0 +1,235 @@
+/*
+ * TextReportSink.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle;
+
+import static net.sf.portecle.FPortecle.RB;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.text.MessageFormat;
+
+import net.sf.portecle.crypto.CertificateSummary;
+import net.sf.portecle.crypto.KeyPairUtil;
+import net.sf.portecle.crypto.KeyStoreType;
+
+/**
+ * Keystore report sink writing a human readable plain text report.
+ */
+class TextReportSink
+    implements KeyStoreReportSink
+{
+	/** Writer to write to */
+	private final Writer m_out;
+
+	/** Creation date format, includes time zone */
+	private final DateFormat m_creationFormat = DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.LONG);
+
+	/** Validity date format */
+	private final DateFormat m_validityFormat = DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM);
+
+	/** Keystore type line format; line formats are compiled once per report */
+	private final MessageFormat m_fmtType = getFormat("DKeyStoreReport.report.type");
+
+	/** Keystore provider line format */
+	private final MessageFormat m_fmtProvider = getFormat("DKeyStoreReport.report.provider");
+
+	/** Number of entries line format */
+	private final MessageFormat m_fmtEntries = getFormat("DKeyStoreReport.report.entries");
+
+	/** Entry alias line format */
+	private final MessageFormat m_fmtAlias = getFormat("DKeyStoreReport.report.alias");
+
+	/** Entry creation date line format */
+	private final MessageFormat m_fmtCreation = getFormat("DKeyStoreReport.report.creation");
+
+	/** Number of certificates line format */
+	private final MessageFormat m_fmtCerts = getFormat("DKeyStoreReport.report.certs");
+
+	/** Certificate heading line format */
+	private final MessageFormat m_fmtCert = getFormat("DKeyStoreReport.report.cert");
+
+	/** Certificate version line format */
+	private final MessageFormat m_fmtVersion = getFormat("DKeyStoreReport.report.version");
+
+	/** Certificate subject line format */
+	private final MessageFormat m_fmtSubject = getFormat("DKeyStoreReport.report.subject");
+
+	/** Certificate issuer line format */
+	private final MessageFormat m_fmtIssuer = getFormat("DKeyStoreReport.report.issuer");
+
+	/** Certificate serial number line format */
+	private final MessageFormat m_fmtSerial = getFormat("DKeyStoreReport.report.serial");
+
+	/** Start of validity line format */
+	private final MessageFormat m_fmtValidFrom = getFormat("DKeyStoreReport.report.validfrom");
+
+	/** End of validity line format */
+	private final MessageFormat m_fmtValidUntil = getFormat("DKeyStoreReport.report.validuntil");
+
+	/** Public key with size line format */
+	private final MessageFormat m_fmtPubKey = getFormat("DKeyStoreReport.report.pubkey");
+
+	/** Public key without size line format */
+	private final MessageFormat m_fmtPubKeyNoSize = getFormat("DKeyStoreReport.report.pubkeynosize");
+
+	/** Signature algorithm line format */
+	private final MessageFormat m_fmtSigAlg = getFormat("DKeyStoreReport.report.sigalg");
+
+	/** SHA-1 fingerprint line format */
+	private final MessageFormat m_fmtSha1 = getFormat("DKeyStoreReport.report.sha1");
+
+	/** MD5 fingerprint line format */
+	private final MessageFormat m_fmtMd5 = getFormat("DKeyStoreReport.report.md5");
+
+	/** Was the previous entry's certificate list left without a trailing blank line? */
+	private boolean m_bSeparatorPending;
+
+	/**
+	 * Construct a TextReportSink writing UTF-8 to a stream.
+	 * 
+	 * @param out Stream to write to; not closed by the sink
+	 */
+	public TextReportSink(OutputStream out)
+	{
+		this(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Construct a TextReportSink.
+	 * 
+	 * @param out Writer to write to; not closed by the sink
+	 */
+	public TextReportSink(Writer out)
+	{
+		m_out = out;
+	}
+
+	/**
+	 * Compile a line format.
+	 * 
+	 * @param sKey Resource key of the format pattern
+	 * @return The format
+	 */
+	private static MessageFormat getFormat(String sKey)
+	{
+		return new MessageFormat(RB.getString(sKey));
+	}
+
+	/**
+	 * Write a formatted line.
+	 * 
+	 * @param format The format
+	 * @param args Format arguments
+	 * @throws IOException If writing failed
+	 */
+	private void writeLine(MessageFormat format, Object... args)
+	    throws IOException
+	{
+		m_out.write(format.format(args));
+		m_out.write('\n');
+	}
+
+	@Override
+	public void startReport(KeyStoreType ksType, String sProvider, int iEntries)
+	    throws IOException
+	{
+		writeLine(m_fmtType, ksType.getTypeName());
+		writeLine(m_fmtProvider, sProvider);
+		writeLine(m_fmtEntries, iEntries);
+		m_out.write('\n');
+	}
+
+	@Override
+	public void entry(KeyStoreReport.Entry entry)
+	    throws IOException
+	{
+		if (m_bSeparatorPending)
+		{
+			m_out.write('\n');
+		}
+
+		writeLine(m_fmtAlias, entry.getAlias());
+
+		if (entry.getCreationDate() != null)
+		{
+			writeLine(m_fmtCreation, m_creationFormat.format(entry.getCreationDate()));
+		}
+
+		switch (entry.getType())
+		{
+			case KEY:
+				m_out.write(RB.getString("DKeyStoreReport.report.key"));
+				break;
+			case KEY_PAIR:
+				m_out.write(RB.getString("DKeyStoreReport.report.keypair"));
+				break;
+			default:
+				m_out.write(RB.getString("DKeyStoreReport.report.trustcert"));
+		}
+		m_out.write('\n');
+
+		int iChainLen = entry.getCertificateCount();
+		writeLine(m_fmtCerts, iChainLen);
+		m_out.write('\n');
+
+		for (int iCnt = 0; iCnt < iChainLen; iCnt++)
+		{
+			CertificateSummary summary = entry.getCertificate(iCnt);
+
+			writeLine(m_fmtCert, iCnt + 1, iChainLen);
+			writeLine(m_fmtVersion, summary.getVersion());
+			writeLine(m_fmtSubject, summary.getSubject());
+			writeLine(m_fmtIssuer, summary.getIssuer());
+			writeLine(m_fmtSerial, summary.getSerialNumber());
+			writeLine(m_fmtValidFrom, m_validityFormat.format(summary.getNotBefore()));
+			writeLine(m_fmtValidUntil, m_validityFormat.format(summary.getNotAfter()));
+
+			int iKeySize = summary.getKeySize();
+			writeLine((iKeySize == KeyPairUtil.UNKNOWN_KEY_SIZE) ? m_fmtPubKeyNoSize : m_fmtPubKey,
+			    summary.getKeyAlgorithm(), iKeySize);
+
+			writeLine(m_fmtSigAlg, summary.getSignatureAlgorithm());
+			writeLine(m_fmtSha1, summary.getSha1Fingerprint());
+			writeLine(m_fmtMd5, summary.getMd5Fingerprint());
+
+			if (iCnt + 1 < iChainLen)
+			{
+				m_out.write('\n');
+			}
+		}
+
+		// Entries with certificates are separated from the next one by a blank line
+		m_bSeparatorPending = iChainLen != 0;
+	}
+
+	@Override
+	public void endReport()
+	    throws IOException
+	{
+		m_out.flush();
+	}
+}
@@ -0,0 +1,210 @@
+/*
+ * TreeReportSink.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle;
+
+import static net.sf.portecle.FPortecle.RB;
+
+import java.text.DateFormat;
+import java.text.MessageFormat;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+
+import net.sf.portecle.crypto.CertificateSummary;
+import net.sf.portecle.crypto.KeyPairUtil;
+import net.sf.portecle.crypto.KeyStoreType;
+
+/**
+ * Keystore report sink building the report tree shown in {@link DKeyStoreReport}. Does not touch any GUI components,
+ * so it may be used outside the event dispatch thread. The node layout is what {@link ReportTreeCellRend} expects.
+ * Only the top node and one {@link EntryNode} per entry are created up front; the nodes below an entry are created
+ * when the entry is first expanded.
+ */
+class TreeReportSink
+    implements KeyStoreReportSink
+{
+	/** Date format */
+	private final DateFormat m_dateFormat = DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM);
+
+	/** Public key algorithm and size format */
+	private final MessageFormat m_keyAlgFormat = new MessageFormat(RB.getString("DKeyStoreReport.KeyAlg"));
+
+	/** Certificate node name format */
+	private final MessageFormat m_certFormat = new MessageFormat(RB.getString("DKeyStoreReport.Certificate"));
+
+	/** Top node of the tree, null before the report is started */
+	private DefaultMutableTreeNode m_topNode;
+
+	/**
+	 * Get the report tree.
+	 * 
+	 * @return The top node of the tree, null if the report has not been started
+	 */
+	public DefaultMutableTreeNode getTopNode()
+	{
+		return m_topNode;
+	}
+
+	@Override
+	public void startReport(KeyStoreType ksType, String sProvider, int iEntries)
+	{
+		m_topNode = new DefaultMutableTreeNode(
+		    MessageFormat.format(RB.getString("DKeyStoreReport.TopNodeName"), ksType.getTypeName(), sProvider));
+	}
+
+	@Override
+	public void entry(KeyStoreReport.Entry entry)
+	{
+		m_topNode.add(new EntryNode(entry));
+	}
+
+	/**
+	 * Add the child nodes of an entry: creation date and certificates.
+	 * 
+	 * @param entryNode The entry node
+	 * @param entry The entry
+	 */
+	private void addChildren(DefaultMutableTreeNode entryNode, KeyStoreReport.Entry entry)
+	{
+		// Creation date, if applicable
+		if (entry.getCreationDate() != null)
+		{
+			entryNode.add(new DefaultMutableTreeNode(m_dateFormat.format(entry.getCreationDate())));
+		}
+
+		int iChainLen = entry.getCertificateCount();
+		if (iChainLen == 0)
+		{
+			return;
+		}
+
+		DefaultMutableTreeNode certsNode = new DefaultMutableTreeNode(RB.getString("DKeyStoreReport.Certificates"));
+		entryNode.add(certsNode);
+
+		for (int iCnt = 0; iCnt < iChainLen; iCnt++)
+		{
+			CertificateSummary summary = entry.getCertificate(iCnt);
+
+			DefaultMutableTreeNode certNode =
+			    new DefaultMutableTreeNode(m_certFormat.format(new Object[] { iCnt + 1, iChainLen }));
+			certsNode.add(certNode);
+
+			certNode.add(new DefaultMutableTreeNode(String.valueOf(summary.getVersion())));
+			certNode.add(new DefaultMutableTreeNode(summary.getSubject()));
+			certNode.add(new DefaultMutableTreeNode(summary.getIssuer()));
+			certNode.add(new DefaultMutableTreeNode(summary.getSerialNumber()));
+			certNode.add(new DefaultMutableTreeNode(m_dateFormat.format(summary.getNotBefore())));
+			certNode.add(new DefaultMutableTreeNode(m_dateFormat.format(summary.getNotAfter())));
+
+			int iKeySize = summary.getKeySize();
+			String sKeyAlg = summary.getKeyAlgorithm();
+			if (iKeySize != KeyPairUtil.UNKNOWN_KEY_SIZE)
+			{
+				sKeyAlg = m_keyAlgFormat.format(new Object[] { sKeyAlg, iKeySize });
+			}
+			certNode.add(new DefaultMutableTreeNode(sKeyAlg));
+
+			certNode.add(new DefaultMutableTreeNode(summary.getSignatureAlgorithm()));
+
+			// Fingerprints, in the order the tree cell renderer expects
+			certNode.add(new DefaultMutableTreeNode(summary.getSha1Fingerprint()));
+			certNode.add(new DefaultMutableTreeNode(summary.getMd5Fingerprint()));
+		}
+	}
+
+	@Override
+	public void endReport()
+	{
+		// Nothing to do
+	}
+
+	/**
+	 * Tree node of a keystore entry whose child nodes are created from the entry's certificate summaries only when the
+	 * node is first expanded, see {@link #populate()}. Must only be populated on the event dispatch thread once the tree
+	 * is shown.
+	 */
+	class EntryNode
+	    extends DefaultMutableTreeNode
+	{
+		/** The entry */
+		private final KeyStoreReport.Entry m_entry;
+
+		/** Have the child nodes been created? */
+		private boolean m_bPopulated;
+
+		/**
+		 * Construct an EntryNode.
+		 * 
+		 * @param entry The entry
+		 */
+		private EntryNode(KeyStoreReport.Entry entry)
+		{
+			super(toNodeEntry(entry));
+			m_entry = entry;
+		}
+
+		/**
+		 * Create the child nodes if they have not been created yet.
+		 */
+		public void populate()
+		{
+			if (!m_bPopulated)
+			{
+				m_bPopulated = true;
+				addChildren(this, m_entry);
+			}
+		}
+
+		/**
+		 * Is the node a leaf? Answered from the entry, without creating the child nodes.
+		 * 
+		 * @return True if the entry has neither a creation date nor certificates, false otherwise
+		 */
+		@Override
+		public boolean isLeaf()
+		{
+			if (m_bPopulated)
+			{
+				return super.isLeaf();
+			}
+			return m_entry.getCreationDate() == null && m_entry.getCertificateCount() == 0;
+		}
+	}
+
+	/**
+	 * Get the user object of an entry node, used by the tree cell renderer to pick the entry's icon.
+	 * 
+	 * @param entry The entry
+	 * @return The user object
+	 */
+	private static ReportTreeCellRend.Entry toNodeEntry(KeyStoreReport.Entry entry)
+	{
+		switch (entry.getType())
+		{
+			case KEY:
+				return ReportTreeCellRend.Entry.getKeyInstance(entry.getAlias());
+			case KEY_PAIR:
+				return ReportTreeCellRend.Entry.getKeyPairInstance(entry.getAlias());
+			default:
+				return ReportTreeCellRend.Entry.getTrustedCertificateInstance(entry.getAlias());
+		}
+	}
+}
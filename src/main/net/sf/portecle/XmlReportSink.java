@@ -0,0 +1,234 @@
+/*
+ * XmlReportSink.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle;
+
+import static net.sf.portecle.FPortecle.RB;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.text.DateFormat;
+import java.text.MessageFormat;
+import java.util.Properties;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import net.sf.portecle.crypto.CertificateSummary;
+import net.sf.portecle.crypto.KeyPairUtil;
+import net.sf.portecle.crypto.KeyStoreType;
+
+/**
+ * Keystore report sink writing XML conforming to the keystore report DTD. Each entry is written out as soon as it is
+ * received.
+ */
+class XmlReportSink
+    implements KeyStoreReportSink
+{
+	/** Output factory */
+	private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+	/** Encoding of the output */
+	private static final String ENCODING = "UTF-8";
+
+	/** Document type declaration */
+	private static final String DOCTYPE;
+
+	static
+	{
+		Properties props = new Properties();
+		try (InputStream in = XmlReportSink.class.getResourceAsStream("keystore-report-xml.properties"))
+		{
+			props.load(in);
+		}
+		catch (IOException e)
+		{
+			throw new ExceptionInInitializerError(e);
+		}
+		DOCTYPE = "<!DOCTYPE keystore PUBLIC \"" + props.getProperty("doctype-public") + "\" \"" +
+		    props.getProperty("doctype-system") + "\">";
+	}
+
+	/** XML writer */
+	private final XMLStreamWriter m_xml;
+
+	/** Date format */
+	private final DateFormat m_dateFormat = DateFormat.getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM);
+
+	/** Public key algorithm and size format */
+	private final MessageFormat m_keyAlgFormat = new MessageFormat(RB.getString("DKeyStoreReport.KeyAlg"));
+
+	/**
+	 * Construct an XmlReportSink writing UTF-8 to a stream.
+	 * 
+	 * @param out Stream to write to; not closed by the sink
+	 * @throws IOException If the XML writer could not be created
+	 */
+	public XmlReportSink(OutputStream out)
+	    throws IOException
+	{
+		try
+		{
+			m_xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(out, ENCODING);
+		}
+		catch (XMLStreamException e)
+		{
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Construct an XmlReportSink.
+	 * 
+	 * @param out Writer to write to; not closed by the sink
+	 * @throws IOException If the XML writer could not be created
+	 */
+	public XmlReportSink(Writer out)
+	    throws IOException
+	{
+		try
+		{
+			m_xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(out);
+		}
+		catch (XMLStreamException e)
+		{
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void startReport(KeyStoreType ksType, String sProvider, int iEntries)
+	    throws IOException
+	{
+		try
+		{
+			m_xml.writeStartDocument(ENCODING, "1.0");
+			m_xml.writeCharacters("\n");
+			m_xml.writeDTD(DOCTYPE);
+			m_xml.writeCharacters("\n");
+
+			m_xml.writeStartElement("keystore");
+			m_xml.writeAttribute("type", ksType.getTypeName());
+			m_xml.writeAttribute("provider", sProvider);
+		}
+		catch (XMLStreamException e)
+		{
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void entry(KeyStoreReport.Entry entry)
+	    throws IOException
+	{
+		try
+		{
+			m_xml.writeCharacters("\n  ");
+			m_xml.writeStartElement("entry");
+			m_xml.writeAttribute("alias", entry.getAlias());
+			if (entry.getCreationDate() != null)
+			{
+				m_xml.writeAttribute("creation_date", m_dateFormat.format(entry.getCreationDate()));
+			}
+			m_xml.writeAttribute("type", entry.getType().getName());
+
+			int iChainLen = entry.getCertificateCount();
+			for (int iCnt = 0; iCnt < iChainLen; iCnt++)
+			{
+				CertificateSummary summary = entry.getCertificate(iCnt);
+
+				m_xml.writeCharacters("\n    ");
+				m_xml.writeStartElement("certificate");
+
+				// Elements in the order of the DTD
+				writeTextElement("version", String.valueOf(summary.getVersion()));
+				writeTextElement("subject", summary.getSubject());
+				writeTextElement("issuer", summary.getIssuer());
+				writeTextElement("serial_number", summary.getSerialNumber());
+				writeTextElement("valid_from", m_dateFormat.format(summary.getNotBefore()));
+				writeTextElement("valid_until", m_dateFormat.format(summary.getNotAfter()));
+
+				int iKeySize = summary.getKeySize();
+				String sKeyAlg = summary.getKeyAlgorithm();
+				if (iKeySize != KeyPairUtil.UNKNOWN_KEY_SIZE)
+				{
+					sKeyAlg = m_keyAlgFormat.format(new Object[] { sKeyAlg, iKeySize });
+				}
+				writeTextElement("public_key_algorithm", sKeyAlg);
+
+				writeTextElement("signature_algorithm", summary.getSignatureAlgorithm());
+				writeTextElement("md5_fingerprint", summary.getMd5Fingerprint());
+				writeTextElement("sha1_fingerprint", summary.getSha1Fingerprint());
+
+				m_xml.writeCharacters("\n    ");
+				m_xml.writeEndElement();
+			}
+			if (iChainLen != 0)
+			{
+				m_xml.writeCharacters("\n  ");
+			}
+
+			m_xml.writeEndElement();
+		}
+		catch (XMLStreamException e)
+		{
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void endReport()
+	    throws IOException
+	{
+		try
+		{
+			m_xml.writeCharacters("\n");
+			m_xml.writeEndElement();
+			m_xml.writeCharacters("\n");
+			m_xml.writeEndDocument();
+			m_xml.flush();
+			m_xml.close();
+		}
+		catch (XMLStreamException e)
+		{
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Write an indented certificate detail element containing only text.
+	 * 
+	 * @param sName Element name
+	 * @param sText Element text
+	 * @throws XMLStreamException There was a problem writing the element
+	 */
+	private void writeTextElement(String sName, String sText)
+	    throws XMLStreamException
+	{
+		m_xml.writeCharacters("\n      ");
+		m_xml.writeStartElement(sName);
+		m_xml.writeCharacters(sText);
+		m_xml.writeEndElement();
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * CertificateIndex.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import static net.sf.portecle.FPortecle.RB;
+
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * Index of the trusted certificate entries of a keystore by the SHA-256 digest of their DER encoding, for finding the
+ * entries holding a given certificate without comparing against every entry. The index must be kept up to date with
+ * {@link #update(String)} when entries are added, removed or renamed.
+ */
+public final class CertificateIndex
+{
+	/** The indexed keystore */
+	private final KeyStore m_keyStore;
+
+	/** Aliases of trusted certificate entries by certificate digest */
+	private final HashMap<ByteBuffer, TreeSet<String>> m_aliases = new HashMap<>();
+
+	/** Certificate digests by alias */
+	private final HashMap<String, ByteBuffer> m_digests = new HashMap<>();
+
+	/**
+	 * Construct a CertificateIndex of the trusted certificate entries in the supplied keystore.
+	 * 
+	 * @param keyStore The keystore
+	 * @throws CryptoException If a problem is encountered reading the keystore
+	 */
+	public CertificateIndex(KeyStore keyStore)
+	    throws CryptoException
+	{
+		m_keyStore = keyStore;
+		try
+		{
+			for (Enumeration<String> en = keyStore.aliases(); en.hasMoreElements();)
+			{
+				update(en.nextElement());
+			}
+		}
+		catch (KeyStoreException ex)
+		{
+			throw new CryptoException(RB.getString("NoMatchCertificate.exception.message"), ex);
+		}
+	}
+
+	/**
+	 * Check whether the index was built for the supplied keystore instance.
+	 * 
+	 * @param keyStore The keystore
+	 * @return True if the index is for the keystore, false otherwise
+	 */
+	public boolean isFor(KeyStore keyStore)
+	{
+		return keyStore == m_keyStore;
+	}
+
+	/**
+	 * Get the alias of a trusted certificate entry holding the supplied certificate.
+	 * 
+	 * @param cert The certificate
+	 * @return The alias, alphabetically first if there are several matching entries, or null if there is no match
+	 * @throws CryptoException If there is a problem encoding the certificate
+	 */
+	public String findAlias(Certificate cert)
+	    throws CryptoException
+	{
+		TreeSet<String> aliases = m_aliases.get(getDigest(cert));
+		return (aliases == null) ? null : aliases.first();
+	}
+
+	/**
+	 * Bring the index up to date for an alias after the entry with it was added, removed or replaced. After renaming an
+	 * entry, call this for both the old and the new alias.
+	 * 
+	 * @param sAlias The alias
+	 * @throws CryptoException If a problem is encountered reading the keystore
+	 */
+	public void update(String sAlias)
+	    throws CryptoException
+	{
+		ByteBuffer oldDigest = m_digests.remove(sAlias);
+		if (oldDigest != null)
+		{
+			TreeSet<String> aliases = m_aliases.get(oldDigest);
+			aliases.remove(sAlias);
+			if (aliases.isEmpty())
+			{
+				m_aliases.remove(oldDigest);
+			}
+		}
+
+		try
+		{
+			if (!m_keyStore.isCertificateEntry(sAlias))
+			{
+				return;
+			}
+			ByteBuffer digest = getDigest(m_keyStore.getCertificate(sAlias));
+			m_digests.put(sAlias, digest);
+			TreeSet<String> aliases = m_aliases.get(digest);
+			if (aliases == null)
+			{
+				aliases = new TreeSet<>();
+				m_aliases.put(digest, aliases);
+			}
+			aliases.add(sAlias);
+		}
+		catch (KeyStoreException ex)
+		{
+			throw new CryptoException(RB.getString("NoMatchCertificate.exception.message"), ex);
+		}
+	}
+
+	/**
+	 * Get the digest of a certificate's encoding.
+	 * 
+	 * @param cert The certificate
+	 * @return The digest
+	 * @throws CryptoException If there is a problem encoding the certificate
+	 */
+	private static ByteBuffer getDigest(Certificate cert)
+	    throws CryptoException
+	{
+		try
+		{
+			return ByteBuffer.wrap(DigestUtil.getSha256Digest(cert.getEncoded()));
+		}
+		catch (CertificateEncodingException ex)
+		{
+			throw new CryptoException(RB.getString("NoMatchCertificate.exception.message"), ex);
+		}
+	}
+}
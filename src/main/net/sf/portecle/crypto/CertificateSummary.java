@@ -0,0 +1,309 @@
+/*
+ * CertificateSummary.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import static net.sf.portecle.FPortecle.RB;
+
+import java.security.PublicKey;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import net.sf.portecle.StringUtil;
+
+/**
+ * Immutable summary of the commonly displayed details of an X.509 certificate: names, serial number, validity, key and
+ * signature algorithms and fingerprints. Summaries are computed once per certificate and cached for as long as the
+ * certificate is in use, so that the keystore table, the certificate viewer and the keystore report do not each
+ * encode, hash and format the same certificates again.
+ */
+public final class CertificateSummary
+{
+	/** Cached summaries; weak keys, so summaries go away with their certificates */
+	private static final WeakHashMap<X509Certificate, CertificateSummary> CACHE = new WeakHashMap<>();
+
+	/** Version */
+	private final int m_iVersion;
+
+	/** Subject distinguished name */
+	private final String m_sSubject;
+
+	/** Subject common name, null if none */
+	private final String m_sSubjectCommonName;
+
+	/** Issuer distinguished name */
+	private final String m_sIssuer;
+
+	/** Serial number as hex, grouped by four digits */
+	private final String m_sSerialNumber;
+
+	/** Start of validity period */
+	private final long m_lNotBefore;
+
+	/** End of validity period */
+	private final long m_lNotAfter;
+
+	/** Public key algorithm */
+	private final String m_sKeyAlgorithm;
+
+	/** Public key size, {@link KeyPairUtil#UNKNOWN_KEY_SIZE} if not known */
+	private final int m_iKeySize;
+
+	/** Signature algorithm name */
+	private final String m_sSignatureAlgorithm;
+
+	/** MD5 fingerprint */
+	private final String m_sMd5Fingerprint;
+
+	/** SHA-1 fingerprint */
+	private final String m_sSha1Fingerprint;
+
+	/** SHA-256 fingerprint */
+	private final String m_sSha256Fingerprint;
+
+	/** Does the certificate have extensions? */
+	private final boolean m_bHasExtensions;
+
+	/**
+	 * Construct a CertificateSummary. Private to force use of {@link #getInstance(X509Certificate)}.
+	 * 
+	 * @param cert The certificate
+	 * @throws CryptoException If there was a problem encoding or digesting the certificate
+	 */
+	private CertificateSummary(X509Certificate cert)
+	    throws CryptoException
+	{
+		byte[] bCert;
+		try
+		{
+			bCert = cert.getEncoded();
+		}
+		catch (CertificateEncodingException ex)
+		{
+			throw new CryptoException(RB.getString("NoDerEncode.exception.message"), ex);
+		}
+
+		m_iVersion = cert.getVersion();
+		m_sSubject = cert.getSubjectDN().toString();
+		m_sSubjectCommonName = NameUtil.getCommonName(cert.getSubjectX500Principal());
+		m_sIssuer = cert.getIssuerDN().toString();
+		m_sSerialNumber = StringUtil.toHex(cert.getSerialNumber(), 4, " ").toString();
+		m_lNotBefore = cert.getNotBefore().getTime();
+		m_lNotAfter = cert.getNotAfter().getTime();
+
+		PublicKey pubKey = cert.getPublicKey();
+		m_sKeyAlgorithm = pubKey.getAlgorithm();
+		m_iKeySize = KeyPairUtil.getKeyLength(pubKey);
+		m_sSignatureAlgorithm = cert.getSigAlgName();
+
+		String[] fingerprints = DigestUtil.getMessageDigests(bCert, DigestType.MD5, DigestType.SHA1, DigestType.SHA256);
+		m_sMd5Fingerprint = fingerprints[0];
+		m_sSha1Fingerprint = fingerprints[1];
+		m_sSha256Fingerprint = fingerprints[2];
+
+		Set<String> critExts = cert.getCriticalExtensionOIDs();
+		Set<String> nonCritExts = cert.getNonCriticalExtensionOIDs();
+		m_bHasExtensions =
+		    (critExts != null && !critExts.isEmpty()) || (nonCritExts != null && !nonCritExts.isEmpty());
+	}
+
+	/**
+	 * Get the summary of a certificate, computing it if it has not been computed yet.
+	 * 
+	 * @param cert The certificate
+	 * @return The summary
+	 * @throws CryptoException If there was a problem encoding or digesting the certificate
+	 */
+	public static CertificateSummary getInstance(X509Certificate cert)
+	    throws CryptoException
+	{
+		synchronized (CACHE)
+		{
+			CertificateSummary summary = CACHE.get(cert);
+			if (summary != null)
+			{
+				return summary;
+			}
+		}
+
+		// Computed outside the lock; a concurrent computation for the same certificate just gives an equal summary
+		CertificateSummary summary = new CertificateSummary(cert);
+		synchronized (CACHE)
+		{
+			CACHE.put(cert, summary);
+		}
+		return summary;
+	}
+
+	/**
+	 * Remove all cached summaries.
+	 */
+	public static void clearCache()
+	{
+		synchronized (CACHE)
+		{
+			CACHE.clear();
+		}
+	}
+
+	/**
+	 * Get the certificate's version.
+	 * 
+	 * @return The version
+	 */
+	public int getVersion()
+	{
+		return m_iVersion;
+	}
+
+	/**
+	 * Get the certificate's subject distinguished name.
+	 * 
+	 * @return The subject
+	 */
+	public String getSubject()
+	{
+		return m_sSubject;
+	}
+
+	/**
+	 * Get the common name of the certificate's subject.
+	 * 
+	 * @return The common name, null if not found
+	 */
+	public String getSubjectCommonName()
+	{
+		return m_sSubjectCommonName;
+	}
+
+	/**
+	 * Get the certificate's issuer distinguished name.
+	 * 
+	 * @return The issuer
+	 */
+	public String getIssuer()
+	{
+		return m_sIssuer;
+	}
+
+	/**
+	 * Get the certificate's serial number.
+	 * 
+	 * @return The serial number as hex, grouped by four digits
+	 */
+	public String getSerialNumber()
+	{
+		return m_sSerialNumber;
+	}
+
+	/**
+	 * Get the start of the certificate's validity period.
+	 * 
+	 * @return The date
+	 */
+	public Date getNotBefore()
+	{
+		return new Date(m_lNotBefore);
+	}
+
+	/**
+	 * Get the end of the certificate's validity period.
+	 * 
+	 * @return The date
+	 */
+	public Date getNotAfter()
+	{
+		return new Date(m_lNotAfter);
+	}
+
+	/**
+	 * Get the certificate's public key algorithm.
+	 * 
+	 * @return The algorithm
+	 */
+	public String getKeyAlgorithm()
+	{
+		return m_sKeyAlgorithm;
+	}
+
+	/**
+	 * Get the size of the certificate's public key.
+	 * 
+	 * @return The key size, {@link KeyPairUtil#UNKNOWN_KEY_SIZE} if not known
+	 */
+	public int getKeySize()
+	{
+		return m_iKeySize;
+	}
+
+	/**
+	 * Get the certificate's signature algorithm.
+	 * 
+	 * @return The signature algorithm name
+	 */
+	public String getSignatureAlgorithm()
+	{
+		return m_sSignatureAlgorithm;
+	}
+
+	/**
+	 * Get the certificate's MD5 fingerprint.
+	 * 
+	 * @return The fingerprint, colon separated hex
+	 */
+	public String getMd5Fingerprint()
+	{
+		return m_sMd5Fingerprint;
+	}
+
+	/**
+	 * Get the certificate's SHA-1 fingerprint.
+	 * 
+	 * @return The fingerprint, colon separated hex
+	 */
+	public String getSha1Fingerprint()
+	{
+		return m_sSha1Fingerprint;
+	}
+
+	/**
+	 * Get the certificate's SHA-256 fingerprint.
+	 * 
+	 * @return The fingerprint, colon separated hex
+	 */
+	public String getSha256Fingerprint()
+	{
+		return m_sSha256Fingerprint;
+	}
+
+	/**
+	 * Does the certificate have any extensions?
+	 * 
+	 * @return True if it has critical or non-critical extensions, false otherwise
+	 */
+	public boolean hasExtensions()
+	{
+		return m_bHasExtensions;
+	}
+}
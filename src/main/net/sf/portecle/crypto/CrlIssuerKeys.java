@@ -0,0 +1,107 @@
+/*
+ * CrlIssuerKeys.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import javax.security.auth.x500.X500Principal;
+
+/**
+ * Candidate issuer certificates to verify CRLs with, by issuer. An issuer name may have several certificates, such as
+ * after a key rollover or when an unrelated certificate reuses the name, so all of them are kept. Certificates whose
+ * trust has been validated are preferred: when an issuer has any, the others are not used for it.
+ */
+public final class CrlIssuerKeys
+{
+	/** Validated issuer certificates by issuer, in the order added */
+	private final HashMap<X500Principal, LinkedHashSet<X509Certificate>> m_validated = new HashMap<>();
+
+	/** Other issuer certificates by issuer, in the order added */
+	private final HashMap<X500Principal, LinkedHashSet<X509Certificate>> m_other = new HashMap<>();
+
+	/**
+	 * Add a candidate issuer certificate.
+	 * 
+	 * @param issuerCert The issuer certificate
+	 * @param bValidated Whether trust in the certificate has been validated, eg. through a trust index
+	 */
+	public synchronized void add(X509Certificate issuerCert, boolean bValidated)
+	{
+		X500Principal issuer = issuerCert.getSubjectX500Principal();
+		if (bValidated)
+		{
+			LinkedHashSet<X509Certificate> other = m_other.get(issuer);
+			if (other != null)
+			{
+				other.remove(issuerCert);
+			}
+			get(m_validated, issuer).add(issuerCert);
+		}
+		else
+		{
+			LinkedHashSet<X509Certificate> validated = m_validated.get(issuer);
+			if (validated == null || !validated.contains(issuerCert))
+			{
+				get(m_other, issuer).add(issuerCert);
+			}
+		}
+	}
+
+	/**
+	 * Get the candidate certificates for an issuer: the validated ones if there are any, otherwise the others.
+	 * 
+	 * @param issuer The issuer
+	 * @return The certificates, in the order added; empty if there are none
+	 */
+	synchronized List<X509Certificate> getCandidates(X500Principal issuer)
+	{
+		LinkedHashSet<X509Certificate> candidates = m_validated.get(issuer);
+		if (candidates == null || candidates.isEmpty())
+		{
+			candidates = m_other.get(issuer);
+		}
+		return (candidates == null) ? new ArrayList<X509Certificate>(0) : new ArrayList<>(candidates);
+	}
+
+	/**
+	 * Get the certificates of an issuer in a map, adding an empty set if there are none.
+	 * 
+	 * @param map The map
+	 * @param issuer The issuer
+	 * @return The certificates
+	 */
+	private static LinkedHashSet<X509Certificate> get(HashMap<X500Principal, LinkedHashSet<X509Certificate>> map,
+	    X500Principal issuer)
+	{
+		LinkedHashSet<X509Certificate> certs = map.get(issuer);
+		if (certs == null)
+		{
+			certs = new LinkedHashSet<>();
+			map.put(issuer, certs);
+		}
+		return certs;
+	}
+}
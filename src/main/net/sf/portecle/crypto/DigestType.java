@@ -22,15 +22,35 @@
 package net.sf.portecle.crypto;
 
 /**
- * Digest type. Enum constant names are compatible with JCA standard names.
+ * Digest type.
  * 
  * @see <a href="http://download.oracle.com/javase/6/docs/technotes/guides/security/StandardNames.html">JCA Standard
  *      Names</a>
  */
 public enum DigestType
 {
-    /** MD5 Digest Type */
-	MD5,
+	/** MD5 Digest Type */
+	MD5("MD5"),
 	/** SHA-1 Digest Type */
-	SHA1;
+	SHA1("SHA-1"),
+	/** SHA-256 Digest Type */
+	SHA256("SHA-256");
+
+	/** JCA standard algorithm name */
+	private final String algorithm;
+
+	private DigestType(String algorithm)
+	{
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 * Gets the JCA standard name of the digest algorithm, for use with {@link java.security.MessageDigest}.
+	 * 
+	 * @return the algorithm name
+	 */
+	public String getAlgorithm()
+	{
+		return algorithm;
+	}
 }
@@ -24,15 +24,23 @@ package net.sf.portecle.crypto;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
+import java.util.EnumMap;
 
 import net.sf.portecle.FPortecle;
 import net.sf.portecle.StringUtil;
 
 /**
- * Provides utility methods for the creation of message digests.
+ * Provides utility methods for the creation of message digests. Message digest instances are cached per thread, so
+ * digesting many messages does not look up the algorithm implementations over and over again.
  */
 public final class DigestUtil
 {
+	/** Size of the chunks in which messages are fed to several digests at once */
+	private static final int CHUNK_SIZE = 4096;
+
+	/** Message digest instances of the current thread */
+	private static final ThreadLocal<EnumMap<DigestType, MessageDigest>> DIGESTS = new ThreadLocal<>();
+
 	/**
 	 * Private to prevent construction.
 	 */
@@ -52,23 +60,119 @@ public final class DigestUtil
 	public static String getMessageDigest(byte[] bMessage, DigestType digestType)
 	    throws CryptoException
 	{
-		// Create message digest object using the supplied algorithm
-		MessageDigest messageDigest;
-		try
+		// Create raw message digest
+		byte[] bFingerPrint = getMessageDigest(digestType).digest(bMessage);
+
+		// Return the formatted message digest
+		StringBuilder sb = StringUtil.toHex(bFingerPrint, 2, ":");
+		return sb.toString();
+	}
+
+	/**
+	 * Get several digests of a message as formatted Strings. The message is read once, feeding each chunk of it to all
+	 * of the digests in turn.
+	 * 
+	 * @param bMessage The message to digest
+	 * @param digestTypes The message digest algorithms, each at most once
+	 * @return The message digests, in the same order as the algorithms
+	 * @throws CryptoException If there was a problem generating the message digests
+	 */
+	public static String[] getMessageDigests(byte[] bMessage, DigestType... digestTypes)
+	    throws CryptoException
+	{
+		byte[][] bDigests = getDigests(bMessage, digestTypes);
+		String[] digests = new String[bDigests.length];
+		for (int i = 0; i < bDigests.length; i++)
 		{
-			messageDigest = MessageDigest.getInstance(digestType.name());
+			digests[i] = StringUtil.toHex(bDigests[i], 2, ":").toString();
 		}
-		catch (NoSuchAlgorithmException ex)
+		return digests;
+	}
+
+	/**
+	 * Get several raw digests of a message. The message is read once, feeding each chunk of it to all of the digests
+	 * in turn.
+	 * 
+	 * @param bMessage The message to digest
+	 * @param digestTypes The message digest algorithms, each at most once
+	 * @return The message digests, in the same order as the algorithms
+	 * @throws CryptoException If there was a problem generating the message digests
+	 */
+	public static byte[][] getDigests(byte[] bMessage, DigestType... digestTypes)
+	    throws CryptoException
+	{
+		MessageDigest[] messageDigests = new MessageDigest[digestTypes.length];
+		for (int i = 0; i < digestTypes.length; i++)
 		{
-			throw new CryptoException(
-			    MessageFormat.format(FPortecle.RB.getString("NoCreateDigest.exception.message"), digestType), ex);
+			messageDigests[i] = getMessageDigest(digestTypes[i]);
 		}
 
-		// Create raw message digest
-		byte[] bFingerPrint = messageDigest.digest(bMessage);
+		for (int iOffset = 0; iOffset < bMessage.length; iOffset += CHUNK_SIZE)
+		{
+			int iLength = Math.min(CHUNK_SIZE, bMessage.length - iOffset);
+			for (MessageDigest messageDigest : messageDigests)
+			{
+				messageDigest.update(bMessage, iOffset, iLength);
+			}
+		}
 
-		// Return the formatted message digest
-		StringBuilder sb = StringUtil.toHex(bFingerPrint, 2, ":");
-		return sb.toString();
+		byte[][] bDigests = new byte[digestTypes.length][];
+		for (int i = 0; i < messageDigests.length; i++)
+		{
+			bDigests[i] = messageDigests[i].digest();
+		}
+		return bDigests;
+	}
+
+	/**
+	 * Get the raw SHA-256 digest of a message.
+	 * 
+	 * @param bMessage The message to digest
+	 * @return The message digest
+	 * @throws CryptoException If there was a problem generating the message digest
+	 */
+	public static byte[] getSha256Digest(byte[] bMessage)
+	    throws CryptoException
+	{
+		return getMessageDigest(DigestType.SHA256).digest(bMessage);
+	}
+
+	/**
+	 * Get the current thread's message digest instance for an algorithm, creating it on first use.
+	 * 
+	 * @param digestType The message digest algorithm
+	 * @return The message digest instance, reset
+	 * @throws CryptoException If there was a problem creating the message digest
+	 */
+	private static MessageDigest getMessageDigest(DigestType digestType)
+	    throws CryptoException
+	{
+		EnumMap<DigestType, MessageDigest> digests = DIGESTS.get();
+		if (digests == null)
+		{
+			digests = new EnumMap<>(DigestType.class);
+			DIGESTS.set(digests);
+		}
+
+		MessageDigest messageDigest = digests.get(digestType);
+		if (messageDigest == null)
+		{
+			try
+			{
+				messageDigest = MessageDigest.getInstance(digestType.getAlgorithm());
+			}
+			catch (NoSuchAlgorithmException ex)
+			{
+				throw new CryptoException(
+				    MessageFormat.format(FPortecle.RB.getString("NoCreateDigest.exception.message"),
+				        digestType.getAlgorithm()), ex);
+			}
+			digests.put(digestType, messageDigest);
+		}
+		else
+		{
+			messageDigest.reset();
+		}
+		return messageDigest;
 	}
 }
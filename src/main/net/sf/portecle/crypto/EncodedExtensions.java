@@ -0,0 +1,160 @@
+/*
+ * EncodedExtensions.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import java.io.IOException;
+import java.security.cert.X509Extension;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+
+/**
+ * X.509 extensions decoded from their DER encoding, for showing the extensions of objects that are not kept around as
+ * JCA objects, such as CRLs read with {@link X509CRLReader}.
+ */
+public final class EncodedExtensions
+    implements X509Extension
+{
+	/** The extensions */
+	private final Extensions m_extensions;
+
+	/** OIDs of the critical extensions */
+	private final Set<String> m_critical;
+
+	/** OIDs of the non-critical extensions */
+	private final Set<String> m_nonCritical;
+
+	/**
+	 * Construct a new EncodedExtensions.
+	 * 
+	 * @param extensions The extensions
+	 */
+	public EncodedExtensions(Extensions extensions)
+	{
+		m_extensions = extensions;
+
+		Set<String> critical = new LinkedHashSet<>();
+		Set<String> nonCritical = new LinkedHashSet<>();
+		for (ASN1ObjectIdentifier oid : extensions.getExtensionOIDs())
+		{
+			(extensions.getExtension(oid).isCritical() ? critical : nonCritical).add(oid.getId());
+		}
+		m_critical = Collections.unmodifiableSet(critical);
+		m_nonCritical = Collections.unmodifiableSet(nonCritical);
+	}
+
+	/**
+	 * Construct a new EncodedExtensions from the DER encoding of an Extensions sequence.
+	 * 
+	 * @param bEncoded The encoding
+	 * @throws IOException If the encoding is not valid
+	 */
+	public EncodedExtensions(byte[] bEncoded)
+	    throws IOException
+	{
+		this(toExtensions(bEncoded));
+	}
+
+	/**
+	 * Decode an Extensions sequence.
+	 * 
+	 * @param bEncoded The encoding
+	 * @return The extensions
+	 * @throws IOException If the encoding is not valid
+	 */
+	private static Extensions toExtensions(byte[] bEncoded)
+	    throws IOException
+	{
+		try
+		{
+			return Extensions.getInstance(ASN1Primitive.fromByteArray(bEncoded));
+		}
+		catch (IllegalArgumentException | ClassCastException ex)
+		{
+			throw new IOException(ex.getMessage(), ex);
+		}
+	}
+
+	/**
+	 * Is there at least one extension?
+	 * 
+	 * @return True if there is, false otherwise
+	 */
+	public boolean isEmpty()
+	{
+		return m_critical.isEmpty() && m_nonCritical.isEmpty();
+	}
+
+	@Override
+	public Set<String> getCriticalExtensionOIDs()
+	{
+		return m_critical;
+	}
+
+	@Override
+	public Set<String> getNonCriticalExtensionOIDs()
+	{
+		return m_nonCritical;
+	}
+
+	/**
+	 * Get the DER encoded OCTET STRING holding the value of an extension.
+	 * 
+	 * @param sOid The extension OID
+	 * @return The encoded value, null if the extension is not present
+	 */
+	@Override
+	public byte[] getExtensionValue(String sOid)
+	{
+		Extension ext = m_extensions.getExtension(new ASN1ObjectIdentifier(sOid));
+		if (ext == null)
+		{
+			return null;
+		}
+		try
+		{
+			return ext.getExtnValue().getEncoded();
+		}
+		catch (IOException ex)
+		{
+			// Cannot happen, the value was decoded from its encoding
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Check for unsupported critical extensions. Extensions are only decoded for display, so every critical extension
+	 * counts as unsupported.
+	 * 
+	 * @return True if there are critical extensions, false otherwise
+	 */
+	@Override
+	public boolean hasUnsupportedCriticalExtension()
+	{
+		return !m_critical.isEmpty();
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * ExtensionDecoder.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.Collection;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+
+/**
+ * Decoder of X.509 extension values to strings, used by {@link X509Ext#getStringValue()}.
+ * <p>
+ * Besides the built-in decoders, implementations are loaded with {@link java.util.ServiceLoader}: list the
+ * implementing classes in <code>META-INF/services/net.sf.portecle.crypto.ExtensionDecoder</code> in a JAR on the
+ * class path. A plug-in decoder replaces the built-in one for the OIDs it declares. Implementations must have a public
+ * no-argument constructor and be safe for concurrent use.
+ * </p>
+ */
+public interface ExtensionDecoder
+{
+	/**
+	 * Get the OIDs of the extensions this decoder handles.
+	 * 
+	 * @return The extension OIDs
+	 */
+	Collection<ASN1ObjectIdentifier> getOids();
+
+	/**
+	 * Decode an extension value.
+	 * 
+	 * @param ext The extension
+	 * @param bOctets The contents of the extension value octet string
+	 * @return Extension value as a string; it is shown as HTML, so any text in it must be escaped accordingly
+	 * @throws IOException If the value could not be decoded
+	 * @throws ParseException If a date formatting problem occurs
+	 */
+	String decode(X509Ext ext, byte[] bOctets)
+	    throws IOException, ParseException;
+}
@@ -0,0 +1,164 @@
+/*
+ * ExtensionValueCache.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded least recently used cache of decoded X.509 extension values, shared by all certificate and CRL extension
+ * views. Values are keyed by the extension OID and the SHA-256 digest of the extension value, so identical extensions
+ * of different certificates, such as those of a CA certificate appearing in several chains, are decoded only once.
+ * Only successfully decoded values are cached. The cache is softly referenced so it may be dropped under memory
+ * pressure.
+ */
+public final class ExtensionValueCache
+{
+	/** Maximum number of cached values */
+	private static final int MAX_ENTRIES = 512;
+
+	/** The cache */
+	private static SoftReference<Map<ByteBuffer, String>> s_cache = new SoftReference<>(null);
+
+	/**
+	 * Private to prevent construction.
+	 */
+	private ExtensionValueCache()
+	{
+		// Nothing to do
+	}
+
+	/**
+	 * Remove all cached values.
+	 */
+	public static synchronized void clear()
+	{
+		s_cache = new SoftReference<>(null);
+	}
+
+	/**
+	 * Get the cached string value of an extension, without decoding it.
+	 * 
+	 * @param ext The extension
+	 * @return The extension value as a string, null if not cached
+	 */
+	public static String getCachedStringValue(X509Ext ext)
+	{
+		ByteBuffer key = getKey(ext);
+		return (key == null) ? null : get(key);
+	}
+
+	/**
+	 * Get the string value of an extension, decoding it with {@link X509Ext#getStringValue()} and caching the result
+	 * if it is not cached yet. May be called from any thread.
+	 * 
+	 * @param ext The extension
+	 * @return The extension value as a string
+	 * @throws IOException If an I/O problem occurs
+	 * @throws ParseException If a date formatting problem occurs
+	 */
+	public static String getStringValue(X509Ext ext)
+	    throws IOException, ParseException
+	{
+		ByteBuffer key = getKey(ext);
+		if (key == null)
+		{
+			return ext.getStringValue();
+		}
+
+		String sValue = get(key);
+		if (sValue == null)
+		{
+			// Decode outside the lock; at worst the same value is decoded twice concurrently
+			sValue = ext.getStringValue();
+			put(key, sValue);
+		}
+		return sValue;
+	}
+
+	/**
+	 * Get the cache key for an extension.
+	 * 
+	 * @param ext The extension
+	 * @return The key, null if the value digest could not be generated
+	 */
+	private static ByteBuffer getKey(X509Ext ext)
+	{
+		byte[] bDigest;
+		try
+		{
+			bDigest = DigestUtil.getSha256Digest(ext.getValue());
+		}
+		catch (CryptoException ex)
+		{
+			return null;
+		}
+		byte[] bOid = ext.getOid().getBytes(StandardCharsets.US_ASCII);
+
+		ByteBuffer key = ByteBuffer.allocate(bDigest.length + bOid.length);
+		key.put(bDigest);
+		key.put(bOid);
+		key.flip();
+		return key;
+	}
+
+	/**
+	 * Look up a cached value.
+	 * 
+	 * @param key The cache key
+	 * @return The value, null if not cached
+	 */
+	private static synchronized String get(ByteBuffer key)
+	{
+		Map<ByteBuffer, String> cache = s_cache.get();
+		return (cache == null) ? null : cache.get(key);
+	}
+
+	/**
+	 * Store a value.
+	 * 
+	 * @param key The cache key
+	 * @param sValue The value
+	 */
+	private static synchronized void put(ByteBuffer key, String sValue)
+	{
+		Map<ByteBuffer, String> cache = s_cache.get();
+		if (cache == null)
+		{
+			cache = new LinkedHashMap<ByteBuffer, String>(16, 0.75f, true)
+			{
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<ByteBuffer, String> eldest)
+				{
+					return size() > MAX_ENTRIES;
+				}
+			};
+			s_cache = new SoftReference<>(cache);
+		}
+		cache.put(key, sValue);
+	}
+}
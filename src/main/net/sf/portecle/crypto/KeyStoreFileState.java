@@ -0,0 +1,145 @@
+/*
+ * KeyStoreFileState.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import static net.sf.portecle.FPortecle.RB;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+
+/**
+ * State of a keystore file as last loaded or saved: its size, modification time and SHA-256 digest. Used for
+ * detecting changes made on disk by others without keeping the file's contents around.
+ */
+public final class KeyStoreFileState
+{
+	/** Size of the chunks in which the file is read when digesting it */
+	private static final int CHUNK_SIZE = 8192;
+
+	/** The file */
+	private final File m_file;
+
+	/** Size of the file */
+	private final long m_lSize;
+
+	/** Modification time of the file */
+	private final long m_lLastModified;
+
+	/** SHA-256 digest of the file contents */
+	private final byte[] m_bDigest;
+
+	/**
+	 * Construct a KeyStoreFileState.
+	 * 
+	 * @param file The file
+	 * @param lSize The size of the file
+	 * @param lLastModified The modification time of the file
+	 * @param bDigest The SHA-256 digest of the file contents
+	 */
+	KeyStoreFileState(File file, long lSize, long lLastModified, byte[] bDigest)
+	{
+		m_file = file;
+		m_lSize = lSize;
+		m_lLastModified = lLastModified;
+		m_bDigest = bDigest;
+	}
+
+	/**
+	 * Construct a KeyStoreFileState for a file just written. The size and modification time are taken from the file.
+	 * 
+	 * @param file The file
+	 * @param bDigest The SHA-256 digest of the contents written to the file
+	 */
+	public KeyStoreFileState(File file, byte[] bDigest)
+	{
+		this(file, file.length(), file.lastModified(), bDigest);
+	}
+
+	/**
+	 * Create a new SHA-256 message digest for digesting keystore file contents.
+	 * 
+	 * @return The message digest
+	 * @throws CryptoException If the message digest could not be created
+	 */
+	public static MessageDigest newDigest()
+	    throws CryptoException
+	{
+		try
+		{
+			return MessageDigest.getInstance(DigestType.SHA256.getAlgorithm());
+		}
+		catch (NoSuchAlgorithmException ex)
+		{
+			throw new CryptoException(
+			    MessageFormat.format(RB.getString("NoCreateDigest.exception.message"),
+			        DigestType.SHA256.getAlgorithm()), ex);
+		}
+	}
+
+	/**
+	 * Get the file.
+	 * 
+	 * @return The file
+	 */
+	public File getFile()
+	{
+		return m_file;
+	}
+
+	/**
+	 * Check whether the file has been changed on disk since its state was recorded. A file with the same size but a
+	 * different modification time is digested and compared against the recorded digest to rule out mere touches.
+	 * 
+	 * @return true if the file was changed or removed, false otherwise
+	 */
+	public boolean isChangedOnDisk()
+	{
+		if (!m_file.isFile() || m_file.length() != m_lSize)
+		{
+			return true;
+		}
+		if (m_file.lastModified() == m_lLastModified)
+		{
+			return false;
+		}
+		try (InputStream in = new FileInputStream(m_file))
+		{
+			MessageDigest digest = newDigest();
+			byte[] bBuffer = new byte[CHUNK_SIZE];
+			int iRead;
+			while ((iRead = in.read(bBuffer)) != -1)
+			{
+				digest.update(bBuffer, 0, iRead);
+			}
+			return !MessageDigest.isEqual(m_bDigest, digest.digest());
+		}
+		catch (IOException | CryptoException e)
+		{
+			return true;
+		}
+	}
+}
@@ -0,0 +1,246 @@
+/*
+ * KeyStoreFormatDetector.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Detects keystore types by looking at the first bytes of keystore files, so that loading does not need to try every
+ * available keystore type in turn.
+ */
+public final class KeyStoreFormatDetector
+{
+	/** Number of bytes read from the start of the file for detection */
+	public static final int HEADER_LENGTH = 256;
+
+	/** JKS magic number */
+	private static final int JKS_MAGIC = 0xFEEDFEED;
+
+	/** JCEKS magic number */
+	private static final int JCEKS_MAGIC = 0xCECECECE;
+
+	/** GNU keyring magic number, "GKR" followed by 0x01 */
+	private static final int GKR_MAGIC = 0x474B5201;
+
+	/** Highest known BKS/UBER store version */
+	private static final int BKS_MAX_VERSION = 2;
+
+	/** Highest BKS entry type: null, certificate, key, secret, sealed */
+	private static final int BKS_MAX_ENTRY_TYPE = 4;
+
+	/** Maximum sane BKS/UBER salt length */
+	private static final int BKS_MAX_SALT_LENGTH = 1024;
+
+	/** DER encoding of the PKCS #7 content type OID arc 1.2.840.113549.1.7 */
+	private static final byte[] PKCS7_OID_PREFIX =
+	    { 0x06, 0x09, 0x2A, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xF7, 0x0D, 0x01, 0x07 };
+
+	/** PKCS #7 data content type, last OID component */
+	private static final int PKCS7_DATA = 0x01;
+
+	/** PKCS #7 signedData content type, last OID component */
+	private static final int PKCS7_SIGNED_DATA = 0x02;
+
+	/**
+	 * Private to prevent construction.
+	 */
+	private KeyStoreFormatDetector()
+	{
+		// Nothing to do
+	}
+
+	/**
+	 * Get the keystore types worth trying for the given keystore snapshot, most likely first. If the header is not
+	 * recognized, or none of the matching types is available, all available types are returned.
+	 * 
+	 * @param snapshot The keystore snapshot
+	 * @return Available keystore types to try, in order
+	 */
+	public static KeyStoreType[] getCandidateTypes(KeyStoreSnapshot snapshot)
+	{
+		return getCandidateTypes(snapshot.getHeader(HEADER_LENGTH));
+	}
+
+	/**
+	 * Get the keystore types worth trying for a keystore starting with the given bytes, most likely first. If the
+	 * header is not recognized, or none of the matching types is available, all available types are returned.
+	 * 
+	 * @param header The first bytes of the keystore, at most {@link #HEADER_LENGTH} are examined
+	 * @return Available keystore types to try, in order
+	 */
+	public static KeyStoreType[] getCandidateTypes(byte[] header)
+	{
+		KeyStoreType[] available = KeyStoreUtil.getAvailableTypes();
+		KeyStoreType[] detected = detect(header);
+
+		ArrayList<KeyStoreType> candidates = new ArrayList<>(detected.length);
+		for (KeyStoreType type : detected)
+		{
+			if (Arrays.asList(available).contains(type))
+			{
+				candidates.add(type);
+			}
+		}
+
+		if (candidates.isEmpty())
+		{
+			return available;
+		}
+		return candidates.toArray(new KeyStoreType[candidates.size()]);
+	}
+
+	/**
+	 * Detect the keystore types matching the given header bytes.
+	 * 
+	 * @param header The first bytes of the keystore
+	 * @return Matching keystore types, most likely first; empty if the header is not recognized
+	 */
+	public static KeyStoreType[] detect(byte[] header)
+	{
+		if (header.length < 8)
+		{
+			return new KeyStoreType[0];
+		}
+
+		int iFirst = readInt(header, 0);
+		switch (iFirst)
+		{
+			case JKS_MAGIC:
+				return new KeyStoreType[] { KeyStoreType.JKS, KeyStoreType.CaseExactJKS };
+			case JCEKS_MAGIC:
+				return new KeyStoreType[] { KeyStoreType.JCEKS };
+			case GKR_MAGIC:
+				return new KeyStoreType[] { KeyStoreType.GKR };
+			default:
+				// Fall through
+		}
+
+		if (isPkcs12(header))
+		{
+			return new KeyStoreType[] { KeyStoreType.PKCS12 };
+		}
+
+		// BKS and UBER both start with the store version followed by the salt length
+		if (iFirst >= 0 && iFirst <= BKS_MAX_VERSION)
+		{
+			int iSaltLength = readInt(header, 4);
+			if (iSaltLength > 0 && iSaltLength <= BKS_MAX_SALT_LENGTH)
+			{
+				// BKS entries follow the iteration count in the clear, each starting with an entry type byte;
+				// UBER encrypts everything after it
+				int iEntryPos = 8 + iSaltLength + 4;
+				if (iEntryPos < header.length && (header[iEntryPos] & 0xFF) > BKS_MAX_ENTRY_TYPE)
+				{
+					return new KeyStoreType[] { KeyStoreType.UBER };
+				}
+				if (iFirst == BKS_MAX_VERSION)
+				{
+					return new KeyStoreType[] { KeyStoreType.BKS, KeyStoreType.BKS_V1, KeyStoreType.UBER };
+				}
+				return new KeyStoreType[] { KeyStoreType.BKS_V1, KeyStoreType.BKS, KeyStoreType.UBER };
+			}
+		}
+
+		return new KeyStoreType[0];
+	}
+
+	/**
+	 * Check whether the header looks like a PKCS #12 PFX: a SEQUENCE containing INTEGER version 3 followed by a
+	 * ContentInfo SEQUENCE of type data or signedData.
+	 * 
+	 * @param header The first bytes of the keystore
+	 * @return true if the header looks like PKCS #12, false otherwise
+	 */
+	private static boolean isPkcs12(byte[] header)
+	{
+		int iPos = skipSequenceHeader(header, 0);
+		if (iPos < 0 || iPos + 3 > header.length)
+		{
+			return false;
+		}
+
+		// version INTEGER 3
+		if (header[iPos] != 0x02 || header[iPos + 1] != 0x01 || header[iPos + 2] != 0x03)
+		{
+			return false;
+		}
+
+		iPos = skipSequenceHeader(header, iPos + 3);
+		if (iPos < 0 || iPos + PKCS7_OID_PREFIX.length + 1 > header.length)
+		{
+			return false;
+		}
+
+		for (int i = 0; i < PKCS7_OID_PREFIX.length; i++)
+		{
+			if (header[iPos + i] != PKCS7_OID_PREFIX[i])
+			{
+				return false;
+			}
+		}
+		int iContentType = header[iPos + PKCS7_OID_PREFIX.length];
+		return iContentType == PKCS7_DATA || iContentType == PKCS7_SIGNED_DATA;
+	}
+
+	/**
+	 * Skip a BER/DER SEQUENCE tag and length.
+	 * 
+	 * @param header The bytes
+	 * @param iPos Position of the SEQUENCE tag
+	 * @return Position of the SEQUENCE contents, -1 if there is no valid SEQUENCE header at the position
+	 */
+	private static int skipSequenceHeader(byte[] header, int iPos)
+	{
+		if (iPos + 2 > header.length || header[iPos] != 0x30)
+		{
+			return -1;
+		}
+
+		int iLength = header[iPos + 1] & 0xFF;
+		if (iLength < 0x80 || iLength == 0x80)
+		{
+			// Short form or indefinite length
+			return iPos + 2;
+		}
+
+		int iLengthBytes = iLength & 0x7F;
+		if (iLengthBytes > 4 || iPos + 2 + iLengthBytes > header.length)
+		{
+			return -1;
+		}
+		return iPos + 2 + iLengthBytes;
+	}
+
+	/**
+	 * Read a big endian int.
+	 * 
+	 * @param bytes The bytes
+	 * @param iPos Position to read at
+	 * @return The int
+	 */
+	private static int readInt(byte[] bytes, int iPos)
+	{
+		return ((bytes[iPos] & 0xFF) << 24) | ((bytes[iPos + 1] & 0xFF) << 16) | ((bytes[iPos + 2] & 0xFF) << 8) |
+		    (bytes[iPos + 3] & 0xFF);
+	}
+}
@@ -0,0 +1,282 @@
+/*
+ * KeyStoreProber.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import java.lang.reflect.Method;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads a keystore snapshot trying a number of keystore types concurrently. The result is the same as trying the types
+ * one after another in the given order: the first type in the order that loads successfully wins. Attempts with types
+ * later in the order are cancelled as soon as an earlier one succeeds.
+ */
+public final class KeyStoreProber
+{
+	/** Logger */
+	private static final Logger LOG = Logger.getLogger(KeyStoreProber.class.getName());
+
+	/** Executors.newVirtualThreadPerTaskExecutor() if available in the running JRE */
+	private static final Method NEW_VIRTUAL_THREAD_EXECUTOR;
+
+	static
+	{
+		Method method = null;
+		try
+		{
+			method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		}
+		catch (NoSuchMethodException e)
+		{
+			// Fall back to platform threads
+		}
+		NEW_VIRTUAL_THREAD_EXECUTOR = method;
+	}
+
+	/** The keystore snapshot to load */
+	private final KeyStoreSnapshot m_snapshot;
+
+	/** The keystore password */
+	private final char[] m_cPassword;
+
+	/** Types to try, in order of preference */
+	private final KeyStoreType[] m_types;
+
+	/** Exceptions from the attempts, in the same order as the types; null for successful or cancelled ones */
+	private final CryptoException[] m_exceptions;
+
+	/** The loaded keystore */
+	private KeyStore m_keyStore;
+
+	/**
+	 * Construct a KeyStoreProber.
+	 * 
+	 * @param snapshot The keystore snapshot to load
+	 * @param cPassword The keystore password
+	 * @param types Types to try, in order of preference
+	 */
+	public KeyStoreProber(KeyStoreSnapshot snapshot, char[] cPassword, KeyStoreType[] types)
+	{
+		m_snapshot = snapshot;
+		m_cPassword = cPassword;
+		m_types = types.clone();
+		m_exceptions = new CryptoException[types.length];
+	}
+
+	/**
+	 * Get the keystore snapshot.
+	 * 
+	 * @return The snapshot
+	 */
+	public KeyStoreSnapshot getSnapshot()
+	{
+		return m_snapshot;
+	}
+
+	/**
+	 * Get the keystore loaded by the last call to {@link #probe()}.
+	 * 
+	 * @return The keystore, null if not probed yet or if all types failed
+	 */
+	public KeyStore getKeyStore()
+	{
+		return m_keyStore;
+	}
+
+	/**
+	 * Get the types tried.
+	 * 
+	 * @return The types, in order of preference
+	 */
+	public KeyStoreType[] getTypes()
+	{
+		return m_types.clone();
+	}
+
+	/**
+	 * Get the exceptions from the failed attempts.
+	 * 
+	 * @return The exceptions, in the same order as the types; null for attempts that succeeded or were cancelled
+	 */
+	public CryptoException[] getExceptions()
+	{
+		return m_exceptions.clone();
+	}
+
+	/**
+	 * Try loading the snapshot as each of the types.
+	 * 
+	 * @return The keystore loaded with the most preferred type that succeeded, null if all types failed
+	 * @throws InterruptedException If the calling thread was interrupted while waiting; attempts still in progress are
+	 *             cancelled
+	 */
+	public KeyStore probe()
+	    throws InterruptedException
+	{
+		m_keyStore = doProbe();
+		return m_keyStore;
+	}
+
+	/**
+	 * Try loading the snapshot as each of the types.
+	 * 
+	 * @return The keystore loaded with the most preferred type that succeeded, null if all types failed
+	 * @throws InterruptedException If the calling thread was interrupted while waiting
+	 */
+	private KeyStore doProbe()
+	    throws InterruptedException
+	{
+		if (m_types.length == 0)
+		{
+			return null;
+		}
+		if (m_types.length == 1)
+		{
+			try
+			{
+				return KeyStoreUtil.loadKeyStore(m_snapshot, m_cPassword, m_types[0]);
+			}
+			catch (CryptoException e)
+			{
+				m_exceptions[0] = e;
+				return null;
+			}
+		}
+
+		ExecutorService executor = newExecutor(m_types.length);
+		try
+		{
+			CompletionService<KeyStore> completion = new ExecutorCompletionService<>(executor);
+			HashMap<Future<KeyStore>, Integer> futures = new HashMap<>();
+			for (int i = 0; i < m_types.length; i++)
+			{
+				final KeyStoreType type = m_types[i];
+				futures.put(completion.submit(new Callable<KeyStore>()
+				{
+					@Override
+					public KeyStore call()
+					    throws CryptoException
+					{
+						return KeyStoreUtil.loadKeyStore(m_snapshot, m_cPassword, type);
+					}
+				}), i);
+			}
+
+			// Index of the most preferred successful type so far, and its keystore
+			int iBest = m_types.length;
+			KeyStore best = null;
+
+			// Wait for all attempts preferred over the best one so far
+			int iPending = m_types.length;
+			while (iPending > 0)
+			{
+				Future<KeyStore> future = completion.take();
+				Integer index = futures.remove(future);
+				if (index == null)
+				{
+					// Cancelled earlier
+					continue;
+				}
+				iPending--;
+				int iIndex = index;
+				try
+				{
+					best = future.get();
+					iBest = iIndex;
+
+					// Cancel attempts with less preferred types
+					for (Future<KeyStore> other : new ArrayList<>(futures.keySet()))
+					{
+						if (futures.get(other) > iBest)
+						{
+							other.cancel(true);
+							futures.remove(other);
+							iPending--;
+						}
+					}
+				}
+				catch (ExecutionException e)
+				{
+					Throwable cause = e.getCause();
+					if (cause instanceof CryptoException)
+					{
+						m_exceptions[iIndex] = (CryptoException) cause;
+					}
+					else
+					{
+						m_exceptions[iIndex] = new CryptoException(cause);
+					}
+				}
+			}
+			return best;
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Create an executor for the attempts: one virtual thread per attempt if supported, otherwise a pool of daemon
+	 * threads bounded by the number of available processors.
+	 * 
+	 * @param iTasks Number of attempts
+	 * @return The executor
+	 */
+	private static ExecutorService newExecutor(int iTasks)
+	{
+		if (NEW_VIRTUAL_THREAD_EXECUTOR != null)
+		{
+			try
+			{
+				return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+			}
+			catch (ReflectiveOperationException e)
+			{
+				LOG.log(Level.FINE, "Virtual thread executor not available", e);
+			}
+		}
+
+		int iThreads = Math.max(1, Math.min(iTasks, Runtime.getRuntime().availableProcessors()));
+		return Executors.newFixedThreadPool(iThreads, new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable r)
+			{
+				Thread thread = new Thread(r, "KeyStoreProber");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+}
@@ -0,0 +1,483 @@
+/*
+ * KeyStoreSearchIndex.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import static net.sf.portecle.FPortecle.RB;
+
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateParsingException;
+import java.security.cert.X509Certificate;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.x500.AttributeTypeAndValue;
+import org.bouncycastle.asn1.x500.RDN;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.GeneralName;
+
+/**
+ * Inverted index of the entries of a keystore for searching them as you type. Entries are found by their alias, the
+ * subject and issuer RDN values and DNS subject alternative names of their certificate, and prefixes of the
+ * certificate's serial number and SHA-1 and SHA-256 fingerprints. The index must be kept up to date with
+ * {@link #update(String)} when entries are added, removed or renamed.
+ * <p>
+ * Text is indexed by all of its words, and by everything from each word onwards to the next white space, so that for
+ * example <code>exam</code> and <code>example.com</code> both find <code>www.example.com</code>.
+ * </p>
+ */
+public final class KeyStoreSearchIndex
+{
+	/** Logger */
+	private static final Logger LOG = Logger.getLogger(KeyStoreSearchIndex.class.getName());
+
+	/** Pattern matching white space */
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	/** Pattern matching colon separated hex strings, as fingerprints are displayed */
+	private static final Pattern COLON_HEX = Pattern.compile("\\p{XDigit}{1,2}(:\\p{XDigit}{2})*:?");
+
+	/** The indexed keystore */
+	private final KeyStore m_keyStore;
+
+	/** Entry ids by alias */
+	private final HashMap<String, Integer> m_ids = new HashMap<>();
+
+	/** Aliases by entry id, null for ids no longer in use */
+	private final ArrayList<String> m_aliases = new ArrayList<>();
+
+	/** Indexed terms by entry id, null for ids no longer in use */
+	private final ArrayList<String[]> m_terms = new ArrayList<>();
+
+	/** Entry ids by term, sorted by term for prefix lookups */
+	private final TreeMap<String, Postings> m_postings = new TreeMap<>();
+
+	/**
+	 * Construct a KeyStoreSearchIndex of the entries in the supplied keystore.
+	 * 
+	 * @param keyStore The keystore
+	 * @throws CryptoException If a problem is encountered reading the keystore
+	 */
+	public KeyStoreSearchIndex(KeyStore keyStore)
+	    throws CryptoException
+	{
+		m_keyStore = keyStore;
+		try
+		{
+			for (Enumeration<String> en = keyStore.aliases(); en.hasMoreElements();)
+			{
+				update(en.nextElement());
+			}
+		}
+		catch (KeyStoreException ex)
+		{
+			throw new CryptoException(RB.getString("NoSearchKeyStore.exception.message"), ex);
+		}
+	}
+
+	/**
+	 * Check whether the index was built for the supplied keystore instance.
+	 * 
+	 * @param keyStore The keystore
+	 * @return True if the index is for the keystore, false otherwise
+	 */
+	public boolean isFor(KeyStore keyStore)
+	{
+		return keyStore == m_keyStore;
+	}
+
+	/**
+	 * Find the entries matching a query. The query is split into terms at white space; entries match if each term is
+	 * a prefix of one of their indexed terms. Case is ignored, as are colons in fingerprint-like terms.
+	 * 
+	 * @param sQuery The query
+	 * @return Aliases of the matching entries; all entries if the query contains no terms
+	 */
+	public Set<String> search(String sQuery)
+	{
+		BitSet matches = null;
+		for (String sTerm : WHITESPACE.split(sQuery.trim()))
+		{
+			if (sTerm.isEmpty())
+			{
+				continue;
+			}
+			sTerm = sTerm.toLowerCase(Locale.ENGLISH);
+			if (COLON_HEX.matcher(sTerm).matches())
+			{
+				sTerm = sTerm.replace(":", "");
+			}
+
+			BitSet termMatches = new BitSet(m_aliases.size());
+			for (Postings postings : m_postings.subMap(sTerm, true, sTerm + Character.MAX_VALUE, false).values())
+			{
+				postings.addTo(termMatches);
+			}
+
+			if (matches == null)
+			{
+				matches = termMatches;
+			}
+			else
+			{
+				matches.and(termMatches);
+			}
+			if (matches.isEmpty())
+			{
+				break;
+			}
+		}
+
+		if (matches == null)
+		{
+			// No terms, everything matches
+			matches = new BitSet(m_aliases.size());
+			for (int iId : m_ids.values())
+			{
+				matches.set(iId);
+			}
+		}
+		return new MatchSet(matches);
+	}
+
+	/**
+	 * Bring the index up to date for an alias after the entry with it was added, removed or replaced. After renaming an
+	 * entry, call this for both the old and the new alias.
+	 * 
+	 * @param sAlias The alias
+	 * @throws CryptoException If a problem is encountered reading the keystore
+	 */
+	public void update(String sAlias)
+	    throws CryptoException
+	{
+		Integer id = m_ids.get(sAlias);
+		if (id != null)
+		{
+			for (String sTerm : m_terms.get(id))
+			{
+				Postings postings = m_postings.get(sTerm);
+				postings.remove(id);
+				if (postings.isEmpty())
+				{
+					m_postings.remove(sTerm);
+				}
+			}
+			m_terms.set(id, new String[0]);
+		}
+
+		try
+		{
+			if (!m_keyStore.containsAlias(sAlias))
+			{
+				if (id != null)
+				{
+					m_ids.remove(sAlias);
+					m_aliases.set(id, null);
+					m_terms.set(id, null);
+				}
+				return;
+			}
+
+			if (id == null)
+			{
+				id = m_aliases.size();
+				m_ids.put(sAlias, id);
+				m_aliases.add(sAlias);
+				m_terms.add(null);
+			}
+
+			HashSet<String> terms = new HashSet<>();
+			addTextTerms(terms, sAlias);
+			addCertificateTerms(terms, m_keyStore.getCertificate(sAlias));
+
+			String[] termArray = terms.toArray(new String[terms.size()]);
+			m_terms.set(id, termArray);
+			for (String sTerm : termArray)
+			{
+				Postings postings = m_postings.get(sTerm);
+				if (postings == null)
+				{
+					postings = new Postings();
+					m_postings.put(sTerm, postings);
+				}
+				postings.add(id);
+			}
+		}
+		catch (KeyStoreException ex)
+		{
+			throw new CryptoException(RB.getString("NoSearchKeyStore.exception.message"), ex);
+		}
+	}
+
+	/**
+	 * Add the search terms of a certificate. Parts of the certificate that cannot be decoded are not indexed.
+	 * 
+	 * @param terms The terms to add to
+	 * @param cert The certificate, may be null
+	 */
+	private static void addCertificateTerms(Collection<String> terms, Certificate cert)
+	{
+		if (!(cert instanceof X509Certificate))
+		{
+			return;
+		}
+		X509Certificate x509Cert = (X509Certificate) cert;
+
+		try
+		{
+			CertificateSummary summary = CertificateSummary.getInstance(x509Cert);
+			addHexTerm(terms, summary.getSerialNumber());
+			addHexTerm(terms, summary.getSha1Fingerprint());
+			addHexTerm(terms, summary.getSha256Fingerprint());
+		}
+		catch (CryptoException ex)
+		{
+			LOG.log(Level.FINE, "Could not index certificate serial number and fingerprints", ex);
+		}
+
+		addNameTerms(terms, x509Cert.getSubjectX500Principal());
+		addNameTerms(terms, x509Cert.getIssuerX500Principal());
+
+		try
+		{
+			Collection<List<?>> altNames = x509Cert.getSubjectAlternativeNames();
+			if (altNames != null)
+			{
+				for (List<?> altName : altNames)
+				{
+					if (((Integer) altName.get(0)) == GeneralName.dNSName)
+					{
+						addTextTerms(terms, (String) altName.get(1));
+					}
+				}
+			}
+		}
+		catch (CertificateParsingException ex)
+		{
+			LOG.log(Level.FINE, "Could not index certificate subject alternative names", ex);
+		}
+	}
+
+	/**
+	 * Add the search terms of the RDN values of a distinguished name.
+	 * 
+	 * @param terms The terms to add to
+	 * @param name The distinguished name
+	 */
+	private static void addNameTerms(Collection<String> terms, X500Principal name)
+	{
+		for (RDN rdn : X500Name.getInstance(name.getEncoded()).getRDNs())
+		{
+			for (AttributeTypeAndValue typeAndValue : rdn.getTypesAndValues())
+			{
+				addTextTerms(terms, typeAndValue.getValue().toString());
+			}
+		}
+	}
+
+	/**
+	 * Add the search term of a hex string, such as a fingerprint, ignoring any colons and spaces in it.
+	 * 
+	 * @param terms The terms to add to
+	 * @param sHex The hex string
+	 */
+	private static void addHexTerm(Collection<String> terms, String sHex)
+	{
+		terms.add(sHex.replace(":", "").replace(" ", "").toLowerCase(Locale.ENGLISH));
+	}
+
+	/**
+	 * Add the search terms of a text: every suffix of each white space separated chunk that starts with a letter or
+	 * digit following something else than a letter or digit.
+	 * 
+	 * @param terms The terms to add to
+	 * @param sText The text
+	 */
+	private static void addTextTerms(Collection<String> terms, String sText)
+	{
+		for (String sChunk : WHITESPACE.split(sText.toLowerCase(Locale.ENGLISH)))
+		{
+			boolean bPrevWordChar = false;
+			for (int i = 0; i < sChunk.length(); i++)
+			{
+				boolean bWordChar = Character.isLetterOrDigit(sChunk.charAt(i));
+				if (bWordChar && !bPrevWordChar)
+				{
+					terms.add(sChunk.substring(i));
+				}
+				bPrevWordChar = bWordChar;
+			}
+		}
+	}
+
+	/**
+	 * Entry ids having a term.
+	 */
+	private static final class Postings
+	{
+		/** The ids, in no particular order */
+		private int[] m_ids = new int[2];
+
+		/** Number of ids */
+		private int m_iSize;
+
+		/**
+		 * Add an id.
+		 * 
+		 * @param iId The id
+		 */
+		private void add(int iId)
+		{
+			if (m_iSize == m_ids.length)
+			{
+				int[] ids = new int[m_iSize * 2];
+				System.arraycopy(m_ids, 0, ids, 0, m_iSize);
+				m_ids = ids;
+			}
+			m_ids[m_iSize++] = iId;
+		}
+
+		/**
+		 * Remove an id.
+		 * 
+		 * @param iId The id
+		 */
+		private void remove(int iId)
+		{
+			for (int i = 0; i < m_iSize; i++)
+			{
+				if (m_ids[i] == iId)
+				{
+					m_ids[i] = m_ids[--m_iSize];
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Are there no ids?
+		 * 
+		 * @return True if there are no ids, false otherwise
+		 */
+		private boolean isEmpty()
+		{
+			return m_iSize == 0;
+		}
+
+		/**
+		 * Set the bits of the ids.
+		 * 
+		 * @param bits The bit set to set the bits in
+		 */
+		private void addTo(BitSet bits)
+		{
+			for (int i = 0; i < m_iSize; i++)
+			{
+				bits.set(m_ids[i]);
+			}
+		}
+	}
+
+	/**
+	 * Read only set of matching aliases backed by a bit set of entry ids. Entries updated in the index after the
+	 * search are no longer contained in the set.
+	 */
+	private final class MatchSet
+	    extends AbstractSet<String>
+	{
+		/** Ids of the matching entries */
+		private final BitSet m_matches;
+
+		/**
+		 * Construct a MatchSet.
+		 * 
+		 * @param matches Ids of the matching entries
+		 */
+		private MatchSet(BitSet matches)
+		{
+			m_matches = matches;
+		}
+
+		@Override
+		public boolean contains(Object obj)
+		{
+			Integer id = m_ids.get(obj);
+			return id != null && m_matches.get(id);
+		}
+
+		@Override
+		public int size()
+		{
+			return m_matches.cardinality();
+		}
+
+		@Override
+		public Iterator<String> iterator()
+		{
+			return new Iterator<String>()
+			{
+				private int m_iNext = m_matches.nextSetBit(0);
+
+				@Override
+				public boolean hasNext()
+				{
+					return m_iNext >= 0;
+				}
+
+				@Override
+				public String next()
+				{
+					if (m_iNext < 0)
+					{
+						throw new NoSuchElementException();
+					}
+					String sAlias = m_aliases.get(m_iNext);
+					m_iNext = m_matches.nextSetBit(m_iNext + 1);
+					return sAlias;
+				}
+
+				@Override
+				public void remove()
+				{
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * KeyStoreSnapshot.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * In-memory snapshot of a keystore file. The file is read from disk once; loading attempts with different keystore
+ * types read from the snapshot. The snapshot is meant to be dropped once loading is done; see {@link #getFileState()}
+ * for what to keep for detecting changes made on disk by others.
+ */
+public final class KeyStoreSnapshot
+{
+	/** The file the snapshot was taken of */
+	private final File m_file;
+
+	/** Contents of the file */
+	private final ByteBuffer m_data;
+
+	/** Modification time of the file when the snapshot was taken */
+	private final long m_lLastModified;
+
+	/**
+	 * Construct a KeyStoreSnapshot. Private to prevent construction from outside this class.
+	 * 
+	 * @param file The file
+	 * @param data The file contents
+	 * @param lLastModified The modification time of the file
+	 */
+	private KeyStoreSnapshot(File file, ByteBuffer data, long lLastModified)
+	{
+		m_file = file;
+		m_data = data;
+		m_lLastModified = lLastModified;
+	}
+
+	/**
+	 * Take a snapshot of a file.
+	 * 
+	 * @param file The file
+	 * @return The snapshot
+	 * @throws java.io.FileNotFoundException If the file does not exist, is a directory rather than a regular file, or
+	 *             for some other reason cannot be opened for reading
+	 * @throws IOException An I/O error occurred
+	 */
+	public static KeyStoreSnapshot read(File file)
+	    throws IOException
+	{
+		try (FileInputStream fis = new FileInputStream(file); FileChannel channel = fis.getChannel())
+		{
+			long lLastModified = file.lastModified();
+			long lSize = channel.size();
+			if (lSize > Integer.MAX_VALUE)
+			{
+				throw new IOException("File too large: " + file);
+			}
+			ByteBuffer data = ByteBuffer.allocate((int) lSize);
+			while (data.hasRemaining())
+			{
+				if (channel.read(data) == -1)
+				{
+					throw new EOFException(file.toString());
+				}
+			}
+			data.flip();
+			return new KeyStoreSnapshot(file, data, lLastModified);
+		}
+	}
+
+	/**
+	 * Get the file the snapshot was taken of.
+	 * 
+	 * @return The file
+	 */
+	public File getFile()
+	{
+		return m_file;
+	}
+
+	/**
+	 * Get the size of the snapshot.
+	 * 
+	 * @return The size in bytes
+	 */
+	public int size()
+	{
+		return m_data.limit();
+	}
+
+	/**
+	 * Get the contents of the snapshot.
+	 * 
+	 * @return Read only view of the contents
+	 */
+	public ByteBuffer getData()
+	{
+		return m_data.asReadOnlyBuffer();
+	}
+
+	/**
+	 * Get the first bytes of the snapshot.
+	 * 
+	 * @param iLength Maximum number of bytes to get
+	 * @return The first bytes, fewer than requested if the snapshot is shorter
+	 */
+	public byte[] getHeader(int iLength)
+	{
+		return Arrays.copyOf(m_data.array(), Math.min(iLength, size()));
+	}
+
+	/**
+	 * Get a new input stream reading the contents of the snapshot. The contents are not copied.
+	 * 
+	 * @return The input stream
+	 */
+	public InputStream newInputStream()
+	{
+		return new ByteArrayInputStream(m_data.array(), 0, size());
+	}
+
+	/**
+	 * Get the state of the file as of the snapshot, for detecting changes made on disk by others later on. The state
+	 * does not hold on to the contents.
+	 * 
+	 * @return The file state
+	 * @throws CryptoException If the contents could not be digested
+	 */
+	public KeyStoreFileState getFileState()
+	    throws CryptoException
+	{
+		MessageDigest digest = KeyStoreFileState.newDigest();
+		digest.update(getData());
+		return new KeyStoreFileState(m_file, size(), m_lLastModified, digest.digest());
+	}
+}
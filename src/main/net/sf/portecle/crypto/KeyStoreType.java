@@ -36,23 +36,23 @@ import java.util.Set;
 public enum KeyStoreType
 {
     /** JKS keystore Type */
-	JKS(null, "JKS", true, true, new String[] { "jks" }),
+	JKS(null, "JKS", true, true, false, new String[] { "jks" }),
 	/** PKCS #12 keystore Type */
-	PKCS12(null, "PKCS #12", false, false, new String[] { "p12", "pfx" }),
+	PKCS12(null, "PKCS #12", false, false, false, new String[] { "p12", "pfx" }),
 	/** JCEKS keystore Type */
-	JCEKS(null, "JCEKS", true, true, new String[] { "jceks" }),
+	JCEKS(null, "JCEKS", true, true, false, new String[] { "jceks" }),
 	/** Case sensitive JKS keystore Type */
-	CaseExactJKS(null, "JKS (case sensitive)", true, true, new String[] { "jks" }),
+	CaseExactJKS(null, "JKS (case sensitive)", true, true, true, new String[] { "jks" }),
 	/** BKS keystore Type */
-	BKS(null, "BKS", true, true, new String[] { "bks" }),
+	BKS(null, "BKS", true, true, true, new String[] { "bks" }),
 	/** BKS-V1 keystore Type */
-	BKS_V1("BKS-V1", "BKS-V1", true, true, new String[] { "bks" }),
+	BKS_V1("BKS-V1", "BKS-V1", true, true, true, new String[] { "bks" }),
 	/** UBER keystore Type */
-	UBER(null, "UBER", true, true, new String[] { "ubr" }),
+	UBER(null, "UBER", true, true, true, new String[] { "ubr" }),
 	/** GKR keystore Type */
-	GKR(null, "GKR", true, true, new String[] { "gkr" }),
+	GKR(null, "GKR", true, true, false, new String[] { "gkr" }),
 	/** PKCS #11 keystore Type */
-	PKCS11(null, "PKCS #11", false, true, new String[0]);
+	PKCS11(null, "PKCS #11", false, true, false, new String[0]);
 
 	/** Keystore type name */
 	private final String typeName;
@@ -66,6 +66,9 @@ public enum KeyStoreType
 	/** Whether the keystore supports entry passwords */
 	private final boolean entryPasswordSupported;
 
+	/** Whether the keystore's aliases are case sensitive */
+	private final boolean aliasCaseSensitive;
+
 	/** Associated filename extensions */
 	private final Set<String> filenameExtensions;
 
@@ -76,15 +79,17 @@ public enum KeyStoreType
 	 * @param prettyName
 	 * @param entryCreationDateUseful Whether the keystore's creation dates have useful data
 	 * @param entryPasswordSupported Whether entry passwords are supported
+	 * @param aliasCaseSensitive Whether aliases are case sensitive
 	 * @param filenameExtensions associated filename extensions
 	 */
 	private KeyStoreType(String typeName, String prettyName, boolean entryCreationDateUseful,
-	    boolean entryPasswordSupported, String[] filenameExtensions)
+	    boolean entryPasswordSupported, boolean aliasCaseSensitive, String[] filenameExtensions)
 	{
 		this.typeName = (typeName == null) ? name() : typeName;
 		this.prettyName = prettyName;
 		this.entryCreationDateUseful = entryCreationDateUseful;
 		this.entryPasswordSupported = entryPasswordSupported;
+		this.aliasCaseSensitive = aliasCaseSensitive;
 		switch (filenameExtensions.length)
 		{
 			case 0:
@@ -129,6 +134,17 @@ public enum KeyStoreType
 		return entryPasswordSupported;
 	}
 
+	/**
+	 * Are the keystore type's aliases case sensitive? Keystores with case insensitive aliases may store an alias in a
+	 * different case than it was given in. Types not known to be case sensitive are considered case insensitive.
+	 * 
+	 * @return true if aliases are case sensitive, false otherwise
+	 */
+	public boolean isAliasCaseSensitive()
+	{
+		return aliasCaseSensitive;
+	}
+
 	/**
 	 * Common filename extensions associated with this type.
 	 * 
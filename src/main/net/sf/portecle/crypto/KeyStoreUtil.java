@@ -30,10 +30,15 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.DigestOutputStream;
 import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.security.MessageDigest;
 import java.security.NoSuchProviderException;
 import java.security.Security;
 import java.security.cert.Certificate;
@@ -42,9 +47,11 @@ import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashSet;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.openssl.PEMDecryptorProvider;
@@ -67,7 +74,7 @@ public final class KeyStoreUtil
 	public static final char[] DUMMY_PASSWORD = "password".toCharArray();
 
 	/** Map of available keystore types */
-	private static final HashMap<KeyStoreType, Boolean> AVAILABLE_TYPES = new HashMap<>();
+	private static final ConcurrentHashMap<KeyStoreType, Boolean> AVAILABLE_TYPES = new ConcurrentHashMap<>();
 
 	/**
 	 * Private to prevent construction.
@@ -146,7 +153,9 @@ public final class KeyStoreUtil
 	}
 
 	/**
-	 * Load keystore entries from PEM reader into a new PKCS #12 keystore. The reader is not closed.
+	 * Load keystore entries from PEM reader into a new PKCS #12 keystore. The reader is not closed. PEM objects are
+	 * added to the keystore as they are parsed, and key pairs are matched to certificates by public key instead of
+	 * comparing every key pair against every certificate.
 	 * 
 	 * @param reader reader to read entries from
 	 * @param pwFinder object to get passwords from on demand
@@ -157,9 +166,7 @@ public final class KeyStoreUtil
 	public static KeyStore loadEntries(PEMParser reader, PasswordFinder pwFinder)
 	    throws CertificateException, CryptoException, IOException
 	{
-		LinkedHashSet<KeyPair> keyPairs = new LinkedHashSet<>();
-		LinkedHashSet<Certificate> certs = new LinkedHashSet<>();
-		KeyStore keyStore = createKeyStore(KeyStoreType.PKCS12);
+		PemEntryLoader loader = new PemEntryLoader(createKeyStore(KeyStoreType.PKCS12));
 
 		CertificateFactory cf = CertificateFactory.getInstance(X509CertUtil.X509_CERT_TYPE);
 		JcaPEMKeyConverter keyConverter = new JcaPEMKeyConverter();
@@ -174,75 +181,165 @@ public final class KeyStoreUtil
 			}
 			if (obj instanceof PEMKeyPair)
 			{
-				keyPairs.add(keyConverter.getKeyPair((PEMKeyPair) obj));
+				loader.addKeyPair(keyConverter.getKeyPair((PEMKeyPair) obj));
 			}
 			else if (obj instanceof X509CertificateHolder)
 			{
 				ByteArrayInputStream bais = new ByteArrayInputStream(((X509CertificateHolder) obj).getEncoded());
-				certs.add(cf.generateCertificate(bais));
+				loader.addCertificate(cf.generateCertificate(bais));
 			}
 		}
 
-		// Add key pairs
-		for (KeyPair keyPair : keyPairs)
+		return loader.getKeyStore();
+	}
+
+	/**
+	 * Incrementally adds key pairs and certificates read from PEM to a keystore. Key pairs become key entries with the
+	 * first certificate for their public key, whichever comes first in the input; other certificates become trusted
+	 * certificate entries, replaced by a key entry if their key pair follows later. Key pairs without a certificate
+	 * are dropped.
+	 */
+	private static final class PemEntryLoader
+	{
+		/** The keystore to add entries to */
+		private final KeyStore m_keyStore;
+
+		/** Digests of the certificates seen, for dropping duplicates */
+		private final HashSet<ByteBuffer> m_seenCerts = new HashSet<>();
+
+		/** Key pairs waiting for their certificate, by public key digest */
+		private final HashMap<ByteBuffer, KeyPair> m_pendingKeyPairs = new HashMap<>();
+
+		/** Alias of the first trusted certificate entry added for each public key digest */
+		private final HashMap<ByteBuffer, String> m_trustedByKey = new HashMap<>();
+
+		/**
+		 * Construct a PemEntryLoader.
+		 * 
+		 * @param keyStore The keystore to add entries to
+		 */
+		PemEntryLoader(KeyStore keyStore)
 		{
-			Certificate keyPairCert = null;
-			for (Iterator<Certificate> it = certs.iterator(); it.hasNext();)
+			m_keyStore = keyStore;
+		}
+
+		/**
+		 * Add a key pair.
+		 * 
+		 * @param keyPair The key pair
+		 * @throws CryptoException Problem encountered adding the entry
+		 */
+		void addKeyPair(KeyPair keyPair)
+		    throws CryptoException
+		{
+			ByteBuffer keyDigest = ByteBuffer.wrap(DigestUtil.getSha256Digest(keyPair.getPublic().getEncoded()));
+			try
 			{
-				Certificate cert = it.next();
-				if (cert.getPublicKey().equals(keyPair.getPublic()))
+				// Certificate already added as a trusted certificate entry? Replace it with the key entry.
+				String alias = m_trustedByKey.remove(keyDigest);
+				if (alias != null)
 				{
-					keyPairCert = cert;
-					it.remove();
-					break;
+					Certificate cert = m_keyStore.getCertificate(alias);
+					m_keyStore.deleteEntry(alias);
+					setKeyEntry(keyPair, cert, alias);
+					return;
 				}
 			}
-
-			if (keyPairCert != null)
+			catch (KeyStoreException e)
 			{
-				String alias = "keypair";
-				if (keyPairCert instanceof X509Certificate)
-				{
-					alias = X509CertUtil.getCertificateAlias((X509Certificate) keyPairCert);
-				}
+				throw new CryptoException(e);
+			}
+
+			// Wait for the certificate
+			m_pendingKeyPairs.put(keyDigest, keyPair);
+		}
 
-				KeyStore.PrivateKeyEntry entry =
-				    new KeyStore.PrivateKeyEntry(keyPair.getPrivate(), new Certificate[] { keyPairCert });
-				KeyStore.PasswordProtection prot = new KeyStore.PasswordProtection(DUMMY_PASSWORD);
+		/**
+		 * Add a certificate.
+		 * 
+		 * @param cert The certificate
+		 * @throws CryptoException Problem encountered adding the entry
+		 * @throws CertificateException If the certificate cannot be encoded
+		 */
+		void addCertificate(Certificate cert)
+		    throws CryptoException, CertificateException
+		{
+			if (!m_seenCerts.add(ByteBuffer.wrap(DigestUtil.getSha256Digest(cert.getEncoded()))))
+			{
+				return;
+			}
 
+			ByteBuffer keyDigest = ByteBuffer.wrap(DigestUtil.getSha256Digest(cert.getPublicKey().getEncoded()));
+			KeyPair keyPair = m_pendingKeyPairs.remove(keyDigest);
+			if (keyPair != null)
+			{
 				try
 				{
-					alias = findUnusedAlias(keyStore, alias);
-					keyStore.setEntry(alias, entry, prot);
+					setKeyEntry(keyPair, cert, null);
 				}
 				catch (KeyStoreException e)
 				{
 					throw new CryptoException(e);
 				}
+				return;
 			}
-		}
 
-		// Add remaining certificates as trusted certificate entries
-		for (Certificate cert : certs)
-		{
 			String alias = "certificate";
 			if (cert instanceof X509Certificate)
 			{
 				alias = X509CertUtil.getCertificateAlias((X509Certificate) cert);
 			}
-
-			KeyStore.TrustedCertificateEntry entry = new KeyStore.TrustedCertificateEntry(cert);
 			try
 			{
-				keyStore.setEntry(alias, entry, null);
+				alias = findUnusedAlias(m_keyStore, alias);
+				m_keyStore.setEntry(alias, new KeyStore.TrustedCertificateEntry(cert), null);
 			}
 			catch (KeyStoreException e)
 			{
 				throw new CryptoException(e);
 			}
+
+			if (!m_trustedByKey.containsKey(keyDigest))
+			{
+				m_trustedByKey.put(keyDigest, alias);
+			}
 		}
 
-		return keyStore;
+		/**
+		 * Get the keystore the entries were added to.
+		 * 
+		 * @return The keystore
+		 */
+		KeyStore getKeyStore()
+		{
+			return m_keyStore;
+		}
+
+		/**
+		 * Add a key entry.
+		 * 
+		 * @param keyPair The key pair
+		 * @param cert The certificate for the key pair
+		 * @param alias Alias to use, null to derive one from the certificate
+		 * @throws KeyStoreException Problem encountered adding the entry
+		 */
+		private void setKeyEntry(KeyPair keyPair, Certificate cert, String alias)
+		    throws KeyStoreException
+		{
+			if (alias == null)
+			{
+				alias = "keypair";
+				if (cert instanceof X509Certificate)
+				{
+					alias = X509CertUtil.getCertificateAlias((X509Certificate) cert);
+				}
+				alias = findUnusedAlias(m_keyStore, alias);
+			}
+
+			KeyStore.PrivateKeyEntry entry =
+			    new KeyStore.PrivateKeyEntry(keyPair.getPrivate(), new Certificate[] { cert });
+			m_keyStore.setEntry(alias, entry, new KeyStore.PasswordProtection(DUMMY_PASSWORD));
+		}
 	}
 
 	/**
@@ -332,6 +429,42 @@ public final class KeyStoreUtil
 		return keyStore;
 	}
 
+	/**
+	 * Load a Keystore from a snapshot of a file accessed by a password.
+	 * 
+	 * @param snapshot Snapshot of the file to load keystore from
+	 * @param cPassword Password of the keystore
+	 * @param keyStoreType The type of the keystore to open
+	 * @return The keystore
+	 * @throws CryptoException Problem encountered loading the keystore
+	 */
+	public static KeyStore loadKeyStore(KeyStoreSnapshot snapshot, char[] cPassword, KeyStoreType keyStoreType)
+	    throws CryptoException
+	{
+		KeyStore keyStore = null;
+		try
+		{
+			keyStore = getKeyStoreImpl(keyStoreType);
+		}
+		catch (KeyStoreException ex)
+		{
+			throw new CryptoException(
+			    MessageFormat.format(RB.getString("NoCreateKeystore.exception.message"), keyStoreType), ex);
+		}
+
+		try (InputStream in = snapshot.newInputStream())
+		{
+			keyStore.load(in, cPassword);
+		}
+		catch (GeneralSecurityException | IOException ex)
+		{
+			throw new CryptoException(
+			    MessageFormat.format(RB.getString("NoLoadKeystore.exception.message"), keyStoreType), ex);
+		}
+
+		return keyStore;
+	}
+
 	/**
 	 * Load a PKCS #11 keystore accessed by a password.
 	 * 
@@ -388,9 +521,29 @@ public final class KeyStoreUtil
 	public static KeyStore saveKeyStore(KeyStore keyStore, File fKeyStoreFile, char[] cPassword)
 	    throws CryptoException, IOException
 	{
-		try (FileOutputStream fos = new FileOutputStream(fKeyStoreFile))
+		return saveKeyStore(keyStore, fKeyStoreFile, cPassword, null);
+	}
+
+	/**
+	 * Save a keystore to a file protected by a password, feeding the bytes written to a message digest on the way.
+	 * 
+	 * @param keyStore The keystore
+	 * @param fKeyStoreFile The file to save the keystore to
+	 * @param cPassword The password to protect the keystore with
+	 * @param digest The message digest to update with the bytes written, null for none
+	 * @return the saved keystore ready for further use
+	 * @throws CryptoException Problem encountered saving the keystore
+	 * @throws FileNotFoundException If the keystore file exists but is a directory rather than a regular file, does not
+	 *             exist but cannot be created, or cannot be opened for any other reason
+	 * @throws IOException An I/O error occurred
+	 */
+	public static KeyStore saveKeyStore(KeyStore keyStore, File fKeyStoreFile, char[] cPassword, MessageDigest digest)
+	    throws CryptoException, IOException
+	{
+		try (OutputStream out = (digest == null) ? new FileOutputStream(fKeyStoreFile)
+		    : new DigestOutputStream(new FileOutputStream(fKeyStoreFile), digest))
 		{
-			keyStore.store(fos, cPassword);
+			keyStore.store(out, cPassword);
 		}
 		catch (GeneralSecurityException | IOException ex)
 		{
@@ -416,7 +569,7 @@ public final class KeyStoreUtil
 	 * @return alias that is not in use in the keystore
 	 * @throws KeyStoreException
 	 */
-	private static String findUnusedAlias(KeyStore keyStore, String alias)
+	public static String findUnusedAlias(KeyStore keyStore, String alias)
 	    throws KeyStoreException
 	{
 		if (keyStore.containsAlias(alias))
@@ -430,8 +583,54 @@ public final class KeyStoreUtil
 					alias = nextAlias;
 					break;
 				}
+				i++;
 			}
 		}
 		return alias;
 	}
+
+	/**
+	 * Get an alias as the keystore stores it. Aliases are not case sensitive in many keystore types, such as JKS, and
+	 * such keystores may store an alias in a different case than it was given in. The aliases of the keystore are
+	 * scanned only for such keystore types, and only if the alias is not in lower case: a lower case alias is stored as
+	 * given when it was last used for storing an entry. Look up the aliases of existing entries from a list of known
+	 * stored aliases first where one is available.
+	 * 
+	 * @param keyStore the keystore
+	 * @param alias the alias, in any case
+	 * @return the alias as stored in the keystore, preferring an exact match, or null if the keystore does not contain
+	 *         the alias
+	 * @throws KeyStoreException
+	 */
+	public static String getStoredAlias(KeyStore keyStore, String alias)
+	    throws KeyStoreException
+	{
+		if (!keyStore.containsAlias(alias))
+		{
+			return null;
+		}
+
+		// Case sensitive keystores contain exactly the given alias; case insensitive ones store lower case aliases
+		// as given, whether they keep the case or not
+		if (KeyStoreType.valueOfType(keyStore.getType()).isAliasCaseSensitive() ||
+		    alias.equals(alias.toLowerCase(Locale.ENGLISH)))
+		{
+			return alias;
+		}
+
+		String storedAlias = null;
+		for (Enumeration<String> en = keyStore.aliases(); en.hasMoreElements();)
+		{
+			String candidate = en.nextElement();
+			if (candidate.equals(alias))
+			{
+				return candidate;
+			}
+			if (storedAlias == null && candidate.equalsIgnoreCase(alias))
+			{
+				storedAlias = candidate;
+			}
+		}
+		return storedAlias;
+	}
 }
@@ -0,0 +1,373 @@
+/*
+ * RevocationChecker.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.IssuingDistributionPoint;
+
+/**
+ * Checks certificate chains against a set of CRLs. The revoked certificates of each issuer are looked up in the
+ * {@link RevocationIndex} of its CRL, found by issuer name, so checking a certificate takes a hash lookup and a binary
+ * search regardless of the number and size of the CRLs. Only CRLs whose signature was verified, that are current at
+ * the validation date and whose issuing distribution point scope covers the certificate are used; a certificate is
+ * never found not revoked on the grounds of any other CRL. A checker is immutable and safe for concurrent use.
+ */
+public final class RevocationChecker
+{
+	/** Default number of threads checking chains; the "portecle.revocation.parallelism" system property if set */
+	private static final int DEFAULT_PARALLELISM =
+	    Integer.getInteger("portecle.revocation.parallelism", Runtime.getRuntime().availableProcessors());
+
+	/** Chains a single checking task handles without splitting further */
+	private static final int SPLIT_THRESHOLD = 256;
+
+	/** Usable CRLs by issuer, the latest one of each scope */
+	private final HashMap<X500Principal, List<ScopedCrl>> m_crls = new HashMap<>();
+
+	/**
+	 * Construct a new RevocationChecker. CRLs that are not usable for checking are left out: those whose signature was
+	 * not verified, that are not yet valid or past their next update date at the validation date, and indirect,
+	 * attribute certificate and reason partitioned CRLs. If there are several CRLs of one issuer with the same scope,
+	 * the one with the latest this update date is used.
+	 * 
+	 * @param crls The CRLs
+	 * @param date The validation date
+	 */
+	public RevocationChecker(Collection<X509CRLInfo> crls, Date date)
+	{
+		for (X509CRLInfo crl : crls)
+		{
+			ScopedCrl scoped = ScopedCrl.getInstance(crl, date);
+			if (scoped == null)
+			{
+				continue;
+			}
+
+			List<ScopedCrl> issuerCrls = m_crls.get(crl.getIssuerX500Principal());
+			if (issuerCrls == null)
+			{
+				issuerCrls = new ArrayList<>(1);
+				m_crls.put(crl.getIssuerX500Principal(), issuerCrls);
+			}
+			boolean bAdd = true;
+			for (int i = 0; i < issuerCrls.size() && bAdd; i++)
+			{
+				ScopedCrl previous = issuerCrls.get(i);
+				if (Arrays.equals(previous.m_bScope, scoped.m_bScope))
+				{
+					if (previous.m_crl.getThisUpdate().before(crl.getThisUpdate()))
+					{
+						issuerCrls.set(i, scoped);
+					}
+					bAdd = false;
+				}
+			}
+			if (bAdd)
+			{
+				issuerCrls.add(scoped);
+			}
+		}
+	}
+
+	/**
+	 * Get the number of issuers there are usable CRLs of.
+	 * 
+	 * @return The number of issuers
+	 */
+	public int getIssuerCount()
+	{
+		return m_crls.size();
+	}
+
+	/**
+	 * Check a certificate chain.
+	 * 
+	 * @param chain The chain, the certificate to check first
+	 * @return The revocation status of the first certificate
+	 */
+	public RevocationStatus check(X509Certificate[] chain)
+	{
+		RevocationStatus status = RevocationStatus.UNKNOWN;
+		for (int i = 0; i < chain.length; i++)
+		{
+			List<ScopedCrl> issuerCrls = m_crls.get(chain[i].getIssuerX500Principal());
+			if (issuerCrls == null)
+			{
+				continue;
+			}
+			boolean bCovered = false;
+			for (ScopedCrl crl : issuerCrls)
+			{
+				if (!crl.covers(chain[i]))
+				{
+					continue;
+				}
+				if (crl.m_crl.getRevocationIndex().isRevoked(chain[i].getSerialNumber()))
+				{
+					return (i == 0) ? RevocationStatus.REVOKED : RevocationStatus.ISSUER_REVOKED;
+				}
+				bCovered = true;
+			}
+			if (i == 0 && bCovered)
+			{
+				status = RevocationStatus.GOOD;
+			}
+		}
+		return status;
+	}
+
+	/**
+	 * Check certificate chains, in parallel if there are many of them.
+	 * 
+	 * @param chains The chains
+	 * @return The revocation statuses, in the order of the chains
+	 */
+	public RevocationStatus[] check(List<X509Certificate[]> chains)
+	{
+		X509Certificate[][] chainArray = chains.toArray(new X509Certificate[chains.size()][]);
+		RevocationStatus[] statuses = new RevocationStatus[chainArray.length];
+
+		if (DEFAULT_PARALLELISM <= 1 || chainArray.length <= SPLIT_THRESHOLD)
+		{
+			new CheckTask(chainArray, statuses, 0, chainArray.length).compute();
+			return statuses;
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(DEFAULT_PARALLELISM);
+		try
+		{
+			pool.invoke(new CheckTask(chainArray, statuses, 0, chainArray.length));
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+		return statuses;
+	}
+
+	/**
+	 * Fork/join task checking a range of chains, splitting the range in halves until it is small.
+	 */
+	private final class CheckTask
+	    extends RecursiveAction
+	{
+		/** The chains */
+		private final X509Certificate[][] m_chains;
+
+		/** The statuses of the chains */
+		private final RevocationStatus[] m_statuses;
+
+		/** Start of the range, inclusive */
+		private final int m_iFrom;
+
+		/** End of the range, exclusive */
+		private final int m_iTo;
+
+		/**
+		 * Construct a CheckTask.
+		 * 
+		 * @param chains The chains
+		 * @param statuses The statuses of the chains
+		 * @param iFrom Start of the range, inclusive
+		 * @param iTo End of the range, exclusive
+		 */
+		private CheckTask(X509Certificate[][] chains, RevocationStatus[] statuses, int iFrom, int iTo)
+		{
+			m_chains = chains;
+			m_statuses = statuses;
+			m_iFrom = iFrom;
+			m_iTo = iTo;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (m_iTo - m_iFrom <= SPLIT_THRESHOLD)
+			{
+				for (int i = m_iFrom; i < m_iTo; i++)
+				{
+					m_statuses[i] = check(m_chains[i]);
+				}
+			}
+			else
+			{
+				int iMid = (m_iFrom + m_iTo) >>> 1;
+				invokeAll(new CheckTask(m_chains, m_statuses, m_iFrom, iMid),
+				    new CheckTask(m_chains, m_statuses, iMid, m_iTo));
+			}
+		}
+	}
+
+	/**
+	 * A CRL with its issuing distribution point extension decoded.
+	 */
+	private static final class ScopedCrl
+	{
+		/** The CRL */
+		private final X509CRLInfo m_crl;
+
+		/** The issuing distribution point, null if none */
+		private final IssuingDistributionPoint m_idp;
+
+		/** Encoding of the issuing distribution point, empty if none */
+		private final byte[] m_bScope;
+
+		/**
+		 * Construct a ScopedCrl.
+		 * 
+		 * @param crl The CRL
+		 * @param idp The issuing distribution point, null if none
+		 * @param bScope Encoding of the issuing distribution point, empty if none
+		 */
+		private ScopedCrl(X509CRLInfo crl, IssuingDistributionPoint idp, byte[] bScope)
+		{
+			m_crl = crl;
+			m_idp = idp;
+			m_bScope = bScope;
+		}
+
+		/**
+		 * Get a ScopedCrl for a CRL if the CRL is usable for checking.
+		 * 
+		 * @param crl The CRL
+		 * @param date The validation date
+		 * @return The ScopedCrl, null if the CRL is not usable
+		 */
+		static ScopedCrl getInstance(X509CRLInfo crl, Date date)
+		{
+			Date nextUpdate = crl.getNextUpdate();
+			if (!crl.isSignatureVerified() || crl.getThisUpdate().after(date) ||
+			    (nextUpdate != null && nextUpdate.before(date)))
+			{
+				return null;
+			}
+
+			byte[] bValue = crl.getExtensions().getExtensionValue(Extension.issuingDistributionPoint.getId());
+			if (bValue == null)
+			{
+				return new ScopedCrl(crl, null, new byte[0]);
+			}
+			try
+			{
+				byte[] bScope = ASN1OctetString.getInstance(bValue).getOctets();
+				IssuingDistributionPoint idp = IssuingDistributionPoint.getInstance(bScope);
+				if (idp.isIndirectCRL() || idp.onlyContainsAttributeCerts() || idp.getOnlySomeReasons() != null)
+				{
+					return null;
+				}
+				return new ScopedCrl(crl, idp, bScope);
+			}
+			catch (IllegalArgumentException ex)
+			{
+				// Malformed scope, the CRL cannot be relied on
+				return null;
+			}
+		}
+
+		/**
+		 * Is a certificate within the scope of the CRL?
+		 * 
+		 * @param cert The certificate, issued by the CRL's issuer
+		 * @return True if it is, false otherwise
+		 */
+		boolean covers(X509Certificate cert)
+		{
+			if (m_idp == null)
+			{
+				return true;
+			}
+
+			boolean bCa = cert.getBasicConstraints() != -1;
+			if ((m_idp.onlyContainsUserCerts() && bCa) || (m_idp.onlyContainsCACerts() && !bCa))
+			{
+				return false;
+			}
+
+			// A CRL for a distribution point covers only the certificates naming that distribution point
+			DistributionPointName scope = m_idp.getDistributionPoint();
+			if (scope == null)
+			{
+				return true;
+			}
+			for (DistributionPoint point : X509CertUtil.getCrlDistributionPoints(cert))
+			{
+				if (matches(scope, point.getDistributionPoint()))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Do two distribution point names match? Full names match if they have a general name in common.
+		 * 
+		 * @param name1 The first name
+		 * @param name2 The second name, may be null
+		 * @return True if they match, false otherwise
+		 */
+		private static boolean matches(DistributionPointName name1, DistributionPointName name2)
+		{
+			if (name2 == null || name1.getType() != name2.getType())
+			{
+				return false;
+			}
+			if (name1.getType() != DistributionPointName.FULL_NAME)
+			{
+				return name1.equals(name2);
+			}
+			try
+			{
+				List<GeneralName> names = Arrays.asList(GeneralNames.getInstance(name2.getName()).getNames());
+				for (GeneralName name : GeneralNames.getInstance(name1.getName()).getNames())
+				{
+					if (names.contains(name))
+					{
+						return true;
+					}
+				}
+			}
+			catch (IllegalArgumentException ex)
+			{
+				// Malformed, no match
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,566 @@
+/*
+ * RevocationIndex.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Compact index of the revoked certificates of a CRL, sorted by serial number. Serial numbers are stored in a single
+ * long array if they all fit in one, otherwise packed one after another in a byte array; revocation times are stored
+ * in a long array, and entry extensions, if any, are kept in their DER encoding. Serial numbers, dates and extensions
+ * are only turned into objects when asked for, which makes the index suitable for backing tables of CRLs with millions
+ * of entries.
+ */
+public final class RevocationIndex
+{
+	/** Number of entries */
+	private final int m_iSize;
+
+	/** Serial numbers if they all fit in a non-negative long, null otherwise */
+	private final long[] m_longSerials;
+
+	/** Minimal two's complement big-endian encodings of the serial numbers, null if m_longSerials is used */
+	private final byte[] m_serialBytes;
+
+	/** Offsets of the serial number encodings in m_serialBytes, one more than there are entries */
+	private final int[] m_serialOffsets;
+
+	/** Revocation times, in milliseconds since the epoch */
+	private final long[] m_times;
+
+	/** DER encodings of the entry extensions, null if no entry has extensions */
+	private final byte[] m_extensionBytes;
+
+	/** Offsets of the entry extension encodings in m_extensionBytes, null if no entry has extensions */
+	private final int[] m_extensionOffsets;
+
+	/**
+	 * Construct a RevocationIndex from the entries added to a builder.
+	 * 
+	 * @param builder The builder
+	 */
+	private RevocationIndex(final Builder builder)
+	{
+		m_iSize = builder.m_iSize;
+
+		// Sort the entries by serial number
+		int[] order = identity(m_iSize);
+		if (builder.m_bLongs)
+		{
+			final long[] values = new long[m_iSize];
+			for (int i = 0; i < m_iSize; i++)
+			{
+				values[i] = builder.getLong(i);
+			}
+			sort(order, new IndexComparator()
+			{
+				@Override
+				public int compare(int i1, int i2)
+				{
+					return Long.compare(values[i1], values[i2]);
+				}
+			});
+
+			m_longSerials = new long[m_iSize];
+			for (int i = 0; i < m_iSize; i++)
+			{
+				m_longSerials[i] = values[order[i]];
+			}
+			m_serialBytes = null;
+			m_serialOffsets = null;
+		}
+		else
+		{
+			final byte[] bytes = builder.m_serialBytes;
+			final int[] offsets = builder.m_serialOffsets;
+			sort(order, new IndexComparator()
+			{
+				@Override
+				public int compare(int i1, int i2)
+				{
+					return compareSerials(bytes, offsets[i1], offsets[i1 + 1], bytes, offsets[i2], offsets[i2 + 1]);
+				}
+			});
+
+			m_longSerials = null;
+			m_serialBytes = new byte[builder.m_serialOffsets[m_iSize]];
+			m_serialOffsets = new int[m_iSize + 1];
+			int iPos = 0;
+			for (int i = 0; i < m_iSize; i++)
+			{
+				int iStart = builder.m_serialOffsets[order[i]];
+				int iLen = builder.m_serialOffsets[order[i] + 1] - iStart;
+				System.arraycopy(builder.m_serialBytes, iStart, m_serialBytes, iPos, iLen);
+				m_serialOffsets[i] = iPos;
+				iPos += iLen;
+			}
+			m_serialOffsets[m_iSize] = iPos;
+		}
+
+		m_times = new long[m_iSize];
+		for (int i = 0; i < m_iSize; i++)
+		{
+			m_times[i] = builder.m_times[order[i]];
+		}
+
+		if (builder.m_extensionOffsets == null)
+		{
+			m_extensionBytes = null;
+			m_extensionOffsets = null;
+		}
+		else
+		{
+			m_extensionBytes = new byte[builder.m_extensionOffsets[m_iSize]];
+			m_extensionOffsets = new int[m_iSize + 1];
+			int iPos = 0;
+			for (int i = 0; i < m_iSize; i++)
+			{
+				int iStart = builder.m_extensionOffsets[order[i]];
+				int iLen = builder.m_extensionOffsets[order[i] + 1] - iStart;
+				System.arraycopy(builder.m_extensionBytes, iStart, m_extensionBytes, iPos, iLen);
+				m_extensionOffsets[i] = iPos;
+				iPos += iLen;
+			}
+			m_extensionOffsets[m_iSize] = iPos;
+		}
+	}
+
+	/**
+	 * Get the number of entries.
+	 * 
+	 * @return The number of entries
+	 */
+	public int size()
+	{
+		return m_iSize;
+	}
+
+	/**
+	 * Get the serial number of an entry.
+	 * 
+	 * @param iIndex Index of the entry, in serial number order
+	 * @return The serial number
+	 */
+	public BigInteger getSerialNumber(int iIndex)
+	{
+		if (m_longSerials != null)
+		{
+			return BigInteger.valueOf(m_longSerials[iIndex]);
+		}
+		return new BigInteger(Arrays.copyOfRange(m_serialBytes, m_serialOffsets[iIndex], m_serialOffsets[iIndex + 1]));
+	}
+
+	/**
+	 * Get the revocation time of an entry.
+	 * 
+	 * @param iIndex Index of the entry, in serial number order
+	 * @return The revocation time, in milliseconds since the epoch
+	 */
+	public long getRevocationTime(int iIndex)
+	{
+		return m_times[iIndex];
+	}
+
+	/**
+	 * Get the revocation date of an entry.
+	 * 
+	 * @param iIndex Index of the entry, in serial number order
+	 * @return The revocation date
+	 */
+	public Date getRevocationDate(int iIndex)
+	{
+		return new Date(m_times[iIndex]);
+	}
+
+	/**
+	 * Does an entry have extensions?
+	 * 
+	 * @param iIndex Index of the entry, in serial number order
+	 * @return True if it does, false otherwise
+	 */
+	public boolean hasExtensions(int iIndex)
+	{
+		return m_extensionOffsets != null && m_extensionOffsets[iIndex + 1] > m_extensionOffsets[iIndex];
+	}
+
+	/**
+	 * Get the extensions of an entry.
+	 * 
+	 * @param iIndex Index of the entry, in serial number order
+	 * @return The extensions, null if the entry has none
+	 * @throws IOException If the extensions are not validly encoded
+	 */
+	public EncodedExtensions getExtensions(int iIndex)
+	    throws IOException
+	{
+		if (!hasExtensions(iIndex))
+		{
+			return null;
+		}
+		return new EncodedExtensions(
+		    Arrays.copyOfRange(m_extensionBytes, m_extensionOffsets[iIndex], m_extensionOffsets[iIndex + 1]));
+	}
+
+	/**
+	 * Find the entry for a serial number.
+	 * 
+	 * @param serialNumber The serial number
+	 * @return The index of the entry, or a negative value if the serial number is not in the index
+	 */
+	public int indexOf(BigInteger serialNumber)
+	{
+		if (m_longSerials != null)
+		{
+			if (serialNumber.signum() < 0 || serialNumber.bitLength() > 63)
+			{
+				return -1;
+			}
+			return Math.max(Arrays.binarySearch(m_longSerials, serialNumber.longValue()), -1);
+		}
+
+		byte[] bSerial = serialNumber.toByteArray();
+		int iLow = 0;
+		int iHigh = m_iSize - 1;
+		while (iLow <= iHigh)
+		{
+			int iMid = (iLow + iHigh) >>> 1;
+			int iCmp = compareSerials(m_serialBytes, m_serialOffsets[iMid], m_serialOffsets[iMid + 1], bSerial, 0,
+			    bSerial.length);
+			if (iCmp < 0)
+			{
+				iLow = iMid + 1;
+			}
+			else if (iCmp > 0)
+			{
+				iHigh = iMid - 1;
+			}
+			else
+			{
+				return iMid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Check whether a serial number is in the index.
+	 * 
+	 * @param serialNumber The serial number
+	 * @return True if it is, false otherwise
+	 */
+	public boolean isRevoked(BigInteger serialNumber)
+	{
+		return indexOf(serialNumber) >= 0;
+	}
+
+	/**
+	 * Get the entries in revocation time order, entries revoked at the same time in serial number order.
+	 * 
+	 * @return Indexes of the entries, earliest revocation first
+	 */
+	public int[] getRevocationTimeOrder()
+	{
+		int[] order = identity(m_iSize);
+		sort(order, new IndexComparator()
+		{
+			@Override
+			public int compare(int i1, int i2)
+			{
+				int iCmp = Long.compare(m_times[i1], m_times[i2]);
+				return (iCmp != 0) ? iCmp : Integer.compare(i1, i2);
+			}
+		});
+		return order;
+	}
+
+	/**
+	 * Compare two minimal two's complement big-endian integer encodings.
+	 * 
+	 * @param b1 Array holding the first integer
+	 * @param iStart1 Start of the first integer
+	 * @param iEnd1 End of the first integer, exclusive
+	 * @param b2 Array holding the second integer
+	 * @param iStart2 Start of the second integer
+	 * @param iEnd2 End of the second integer, exclusive
+	 * @return Negative, zero or positive as the first integer is less than, equal to or greater than the second
+	 */
+	private static int compareSerials(byte[] b1, int iStart1, int iEnd1, byte[] b2, int iStart2, int iEnd2)
+	{
+		boolean bNegative1 = b1[iStart1] < 0;
+		boolean bNegative2 = b2[iStart2] < 0;
+		if (bNegative1 != bNegative2)
+		{
+			return bNegative1 ? -1 : 1;
+		}
+
+		// Same sign: a longer encoding has a greater magnitude
+		int iLen1 = iEnd1 - iStart1;
+		int iLen2 = iEnd2 - iStart2;
+		if (iLen1 != iLen2)
+		{
+			return ((iLen1 < iLen2) != bNegative1) ? -1 : 1;
+		}
+
+		// Same length: two's complement encodings compare as unsigned bytes
+		for (int i = 0; i < iLen1; i++)
+		{
+			int iCmp = (b1[iStart1 + i] & 0xFF) - (b2[iStart2 + i] & 0xFF);
+			if (iCmp != 0)
+			{
+				return iCmp;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Create the identity permutation.
+	 * 
+	 * @param iSize The size of the permutation
+	 * @return The permutation
+	 */
+	private static int[] identity(int iSize)
+	{
+		int[] order = new int[iSize];
+		for (int i = 0; i < iSize; i++)
+		{
+			order[i] = i;
+		}
+		return order;
+	}
+
+	/**
+	 * Sort indexes with a merge sort, without boxing them.
+	 * 
+	 * @param order The indexes to sort
+	 * @param comparator The comparator of the indexes
+	 */
+	private static void sort(int[] order, IndexComparator comparator)
+	{
+		int[] src = order;
+		int[] dst = new int[order.length];
+		for (int iWidth = 1; iWidth < order.length; iWidth *= 2)
+		{
+			for (int iLow = 0; iLow < order.length; iLow += 2 * iWidth)
+			{
+				int iMid = Math.min(iLow + iWidth, order.length);
+				int iHigh = Math.min(iLow + 2 * iWidth, order.length);
+				int i = iLow;
+				int j = iMid;
+				int k = iLow;
+				while (i < iMid && j < iHigh)
+				{
+					dst[k++] = (comparator.compare(src[j], src[i]) < 0) ? src[j++] : src[i++];
+				}
+				while (i < iMid)
+				{
+					dst[k++] = src[i++];
+				}
+				while (j < iHigh)
+				{
+					dst[k++] = src[j++];
+				}
+			}
+			int[] tmp = src;
+			src = dst;
+			dst = tmp;
+		}
+		if (src != order)
+		{
+			System.arraycopy(src, 0, order, 0, order.length);
+		}
+	}
+
+	/**
+	 * Comparator of entry indexes.
+	 */
+	private interface IndexComparator
+	{
+		/**
+		 * Compare two entries.
+		 * 
+		 * @param i1 Index of the first entry
+		 * @param i2 Index of the second entry
+		 * @return Negative, zero or positive as the first entry sorts before, with or after the second
+		 */
+		int compare(int i1, int i2);
+	}
+
+	/**
+	 * Collects revoked certificates, in any order, for building a {@link RevocationIndex}. A builder is used to build
+	 * one index only.
+	 */
+	public static final class Builder
+	{
+		/** Number of entries */
+		private int m_iSize;
+
+		/** Minimal two's complement big-endian encodings of the serial numbers */
+		private byte[] m_serialBytes = new byte[1024];
+
+		/** Offsets of the serial number encodings, one more than there are entries */
+		private int[] m_serialOffsets = new int[65];
+
+		/** Revocation times */
+		private long[] m_times = new long[64];
+
+		/** Do all serial numbers so far fit in a non-negative long? */
+		private boolean m_bLongs = true;
+
+		/** DER encodings of the entry extensions, null until an entry with extensions is added */
+		private byte[] m_extensionBytes;
+
+		/** Offsets of the entry extension encodings, null until an entry with extensions is added */
+		private int[] m_extensionOffsets;
+
+		/**
+		 * Add a revoked certificate.
+		 * 
+		 * @param serialNumber The serial number
+		 * @param lRevocationTime The revocation time, in milliseconds since the epoch
+		 */
+		public void add(BigInteger serialNumber, long lRevocationTime)
+		{
+			byte[] bSerial = serialNumber.toByteArray();
+			add(bSerial, 0, bSerial.length, lRevocationTime, null);
+		}
+
+		/**
+		 * Add a revoked certificate by the contents octets of its DER encoded serial number.
+		 * 
+		 * @param bSerial Array holding the serial number, big-endian two's complement
+		 * @param iOffset Offset of the serial number
+		 * @param iLength Length of the serial number, at least 1
+		 * @param lRevocationTime The revocation time, in milliseconds since the epoch
+		 * @param bExtensions DER encoding of the entry's Extensions sequence, null if it has none
+		 */
+		public void add(byte[] bSerial, int iOffset, int iLength, long lRevocationTime, byte[] bExtensions)
+		{
+			if (iLength < 1)
+			{
+				throw new IllegalArgumentException("Serial number length must be >= 1");
+			}
+
+			// Drop redundant leading octets so equal numbers always have equal encodings
+			while (iLength > 1 && ((bSerial[iOffset] == 0 && bSerial[iOffset + 1] >= 0) ||
+			    (bSerial[iOffset] == -1 && bSerial[iOffset + 1] < 0)))
+			{
+				iOffset++;
+				iLength--;
+			}
+
+			if (m_iSize == m_times.length)
+			{
+				int iCapacity = m_times.length * 2;
+				m_times = Arrays.copyOf(m_times, iCapacity);
+				m_serialOffsets = Arrays.copyOf(m_serialOffsets, iCapacity + 1);
+				if (m_extensionOffsets != null)
+				{
+					m_extensionOffsets = Arrays.copyOf(m_extensionOffsets, iCapacity + 1);
+				}
+			}
+			int iPos = m_serialOffsets[m_iSize];
+			if (iPos + iLength > m_serialBytes.length)
+			{
+				m_serialBytes = Arrays.copyOf(m_serialBytes, Math.max(m_serialBytes.length * 2, iPos + iLength));
+			}
+
+			System.arraycopy(bSerial, iOffset, m_serialBytes, iPos, iLength);
+			m_serialOffsets[m_iSize + 1] = iPos + iLength;
+			m_times[m_iSize] = lRevocationTime;
+			m_bLongs &= bSerial[iOffset] >= 0 && iLength <= 8;
+			addExtensions(bExtensions);
+			m_iSize++;
+		}
+
+		/**
+		 * Store the extensions of the entry being added.
+		 * 
+		 * @param bExtensions DER encoding of the extensions, null if none
+		 */
+		private void addExtensions(byte[] bExtensions)
+		{
+			if (bExtensions == null || bExtensions.length == 0)
+			{
+				if (m_extensionOffsets != null)
+				{
+					m_extensionOffsets[m_iSize + 1] = m_extensionOffsets[m_iSize];
+				}
+				return;
+			}
+
+			if (m_extensionOffsets == null)
+			{
+				// Entries added so far have empty ranges at offset 0
+				m_extensionOffsets = new int[m_times.length + 1];
+				m_extensionBytes = new byte[Math.max(1024, bExtensions.length)];
+			}
+			int iPos = m_extensionOffsets[m_iSize];
+			if (iPos + bExtensions.length > m_extensionBytes.length)
+			{
+				m_extensionBytes =
+				    Arrays.copyOf(m_extensionBytes, Math.max(m_extensionBytes.length * 2, iPos + bExtensions.length));
+			}
+			System.arraycopy(bExtensions, 0, m_extensionBytes, iPos, bExtensions.length);
+			m_extensionOffsets[m_iSize + 1] = iPos + bExtensions.length;
+		}
+
+		/**
+		 * Get the number of entries added so far.
+		 * 
+		 * @return The number of entries
+		 */
+		public int size()
+		{
+			return m_iSize;
+		}
+
+		/**
+		 * Build the index.
+		 * 
+		 * @return The index
+		 */
+		public RevocationIndex build()
+		{
+			return new RevocationIndex(this);
+		}
+
+		/**
+		 * Get a serial number as a long; only valid if all serial numbers fit in one.
+		 * 
+		 * @param iIndex Index of the entry, in insertion order
+		 * @return The serial number
+		 */
+		private long getLong(int iIndex)
+		{
+			long lValue = 0;
+			for (int i = m_serialOffsets[iIndex]; i < m_serialOffsets[iIndex + 1]; i++)
+			{
+				lValue = (lValue << 8) | (m_serialBytes[i] & 0xFF);
+			}
+			return lValue;
+		}
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * RevocationStatus.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+/**
+ * Revocation status of a certificate chain as determined by {@link RevocationChecker}.
+ */
+public enum RevocationStatus
+{
+	/** A usable CRL of the certificate's issuer covers it, and neither it nor a CA in the chain is revoked */
+	GOOD,
+	/** The certificate is revoked */
+	REVOKED,
+	/** A CA certificate in the chain is revoked */
+	ISSUER_REVOKED,
+	/** No usable CRL of the certificate's issuer covering it was available */
+	UNKNOWN
+}
@@ -0,0 +1,169 @@
+/*
+ * SignatureVerificationCache.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded least recently used cache of certificate signature verification results, shared by everything that
+ * verifies certificates against candidate issuers. Results are keyed by the SHA-256 digests of the signed certificate's
+ * whole encoding, which covers its TBSCertificate, signature algorithm and signature value, and of the signing
+ * certificate's SubjectPublicKeyInfo, so a result never applies to a certificate with a different signature. Both
+ * successful and failed verifications are remembered. The cache is softly referenced so it may be dropped under memory
+ * pressure.
+ */
+public final class SignatureVerificationCache
+{
+	/** Maximum number of cached results */
+	private static final int MAX_ENTRIES = 8192;
+
+	/** The cache */
+	private static SoftReference<Map<ByteBuffer, Boolean>> s_cache = new SoftReference<>(null);
+
+	/** Number of lookups that found a result */
+	private static final AtomicLong HITS = new AtomicLong();
+
+	/** Number of lookups that did not find a result */
+	private static final AtomicLong MISSES = new AtomicLong();
+
+	/**
+	 * Private to prevent construction.
+	 */
+	private SignatureVerificationCache()
+	{
+		// Nothing to do
+	}
+
+	/**
+	 * Get the number of lookups that found a cached result.
+	 * 
+	 * @return The hit count
+	 */
+	public static long getHitCount()
+	{
+		return HITS.get();
+	}
+
+	/**
+	 * Get the number of lookups that did not find a cached result.
+	 * 
+	 * @return The miss count
+	 */
+	public static long getMissCount()
+	{
+		return MISSES.get();
+	}
+
+	/**
+	 * Remove all cached results and reset the counters.
+	 */
+	public static synchronized void clear()
+	{
+		s_cache = new SoftReference<>(null);
+		HITS.set(0);
+		MISSES.set(0);
+	}
+
+	/**
+	 * Get the cache key for a signed certificate and a signing certificate.
+	 * 
+	 * @param signedCert The signed certificate
+	 * @param signingCert The signing certificate
+	 * @return The key, null if the certificates cannot be encoded
+	 * @throws CryptoException If there was a problem generating the digests
+	 */
+	static ByteBuffer getKey(X509Certificate signedCert, X509Certificate signingCert)
+	    throws CryptoException
+	{
+		byte[] bSigned;
+		try
+		{
+			bSigned = signedCert.getEncoded();
+		}
+		catch (CertificateEncodingException ex)
+		{
+			return null;
+		}
+		byte[] bSpki = signingCert.getPublicKey().getEncoded();
+		if (bSpki == null)
+		{
+			return null;
+		}
+
+		ByteBuffer key = ByteBuffer.allocate(64);
+		key.put(DigestUtil.getSha256Digest(bSigned));
+		key.put(DigestUtil.getSha256Digest(bSpki));
+		key.flip();
+		return key;
+	}
+
+	/**
+	 * Look up a verification result.
+	 * 
+	 * @param key The cache key
+	 * @return The result, null if not cached
+	 */
+	static synchronized Boolean get(ByteBuffer key)
+	{
+		Map<ByteBuffer, Boolean> cache = s_cache.get();
+		Boolean bVerified = (cache == null) ? null : cache.get(key);
+		if (bVerified == null)
+		{
+			MISSES.incrementAndGet();
+		}
+		else
+		{
+			HITS.incrementAndGet();
+		}
+		return bVerified;
+	}
+
+	/**
+	 * Store a verification result.
+	 * 
+	 * @param key The cache key
+	 * @param bVerified The result
+	 */
+	static synchronized void put(ByteBuffer key, boolean bVerified)
+	{
+		Map<ByteBuffer, Boolean> cache = s_cache.get();
+		if (cache == null)
+		{
+			cache = new LinkedHashMap<ByteBuffer, Boolean>(16, 0.75f, true)
+			{
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Boolean> eldest)
+				{
+					return size() > MAX_ENTRIES;
+				}
+			};
+			s_cache = new SoftReference<>(cache);
+		}
+		cache.put(key, bVerified);
+	}
+}
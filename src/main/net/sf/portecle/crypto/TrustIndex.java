@@ -0,0 +1,391 @@
+/*
+ * TrustIndex.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import static net.sf.portecle.FPortecle.RB;
+
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.security.auth.x500.X500Principal;
+
+/**
+ * Index of the trusted certificates of a set of keystores for establishing trust paths. Candidate issuers of a
+ * certificate are looked up by issuer name and authority key identifier instead of comparing against every trusted
+ * certificate, and paths found are remembered. Signature verification results are cached by
+ * {@link SignatureVerificationCache}. An index reflects the keystores at the time it was built; changed entries can
+ * be brought up to date with {@link #update(KeyStore, String)}, other changes need a new index.
+ */
+public final class TrustIndex
+{
+	/** The indexed keystores */
+	private final KeyStore[] m_keyStores;
+
+	/** Trusted certificates by subject */
+	private final HashMap<X500Principal, List<X509Certificate>> m_bySubject = new HashMap<>();
+
+	/** Trusted certificates by subject key identifier */
+	private final HashMap<ByteBuffer, List<X509Certificate>> m_byKeyId = new HashMap<>();
+
+	/** Trusted certificates by alias, for each indexed keystore */
+	private final IdentityHashMap<KeyStore, HashMap<String, X509Certificate>> m_entries = new IdentityHashMap<>();
+
+	/** Trust paths found from trusted certificates; null values for certificates known to have none */
+	private final HashMap<X509Certificate, X509Certificate[]> m_paths = new HashMap<>();
+
+	/**
+	 * Construct a TrustIndex of the trusted certificates in the supplied keystores.
+	 * 
+	 * @param keyStores The keystores
+	 * @throws CryptoException If a problem is encountered extracting the certificates
+	 */
+	public TrustIndex(KeyStore... keyStores)
+	    throws CryptoException
+	{
+		m_keyStores = keyStores.clone();
+		for (KeyStore keyStore : keyStores)
+		{
+			m_entries.put(keyStore, new HashMap<String, X509Certificate>());
+			try
+			{
+				for (Enumeration<String> en = keyStore.aliases(); en.hasMoreElements();)
+				{
+					update(keyStore, en.nextElement());
+				}
+			}
+			catch (KeyStoreException ex)
+			{
+				throw new CryptoException(RB.getString("NoExtractCertificates.exception.message"), ex);
+			}
+		}
+	}
+
+	/**
+	 * Construct a TrustIndex as a copy of another one, for adding trusted certificates to without affecting the
+	 * original. The copy is not for any keystores as far as {@link #isFor(KeyStore...)} is concerned.
+	 * 
+	 * @param trustIndex The index to copy
+	 */
+	public TrustIndex(TrustIndex trustIndex)
+	{
+		m_keyStores = new KeyStore[0];
+		synchronized (trustIndex)
+		{
+			for (List<X509Certificate> certs : trustIndex.m_bySubject.values())
+			{
+				m_bySubject.put(certs.get(0).getSubjectX500Principal(), new ArrayList<>(certs));
+			}
+			for (Map.Entry<ByteBuffer, List<X509Certificate>> entry : trustIndex.m_byKeyId.entrySet())
+			{
+				m_byKeyId.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+			}
+			m_paths.putAll(trustIndex.m_paths);
+		}
+	}
+
+	/**
+	 * Add a certificate to the trusted certificates of the index. Certificates earlier found to have no trust path are
+	 * checked again on request, as the added certificate may provide one.
+	 * 
+	 * @param cert The certificate
+	 */
+	public synchronized void addTrustedCertificate(X509Certificate cert)
+	{
+		index(cert);
+		m_paths.values().removeAll(Collections.singleton(null));
+	}
+
+	/**
+	 * Bring the index up to date for an alias of an indexed keystore after the entry with it was added, removed or
+	 * replaced. After renaming an entry, call this for both the old and the new alias. Trust paths through a
+	 * certificate no longer in the index are forgotten.
+	 * 
+	 * @param keyStore The keystore, one of those the index was built for
+	 * @param sAlias The alias
+	 * @throws CryptoException If a problem is encountered reading the keystore
+	 */
+	public synchronized void update(KeyStore keyStore, String sAlias)
+	    throws CryptoException
+	{
+		HashMap<String, X509Certificate> entries = m_entries.get(keyStore);
+		if (entries == null)
+		{
+			throw new IllegalArgumentException("Keystore not indexed");
+		}
+
+		X509Certificate oldCert = entries.remove(sAlias);
+		if (oldCert != null)
+		{
+			unindex(oldCert);
+		}
+
+		try
+		{
+			if (keyStore.isCertificateEntry(sAlias))
+			{
+				X509Certificate cert = X509CertUtil.convertCertificate(keyStore.getCertificate(sAlias));
+				entries.put(sAlias, cert);
+				index(cert);
+				m_paths.values().removeAll(Collections.singleton(null));
+			}
+		}
+		catch (KeyStoreException ex)
+		{
+			throw new CryptoException(RB.getString("NoExtractCertificates.exception.message"), ex);
+		}
+	}
+
+	/**
+	 * Index a trusted certificate by its subject and subject key identifier.
+	 * 
+	 * @param cert The certificate
+	 */
+	private void index(X509Certificate cert)
+	{
+		add(m_bySubject, cert.getSubjectX500Principal(), cert);
+		byte[] keyId = X509CertUtil.getSubjectKeyIdentifier(cert);
+		if (keyId != null)
+		{
+			add(m_byKeyId, ByteBuffer.wrap(keyId), cert);
+		}
+	}
+
+	/**
+	 * Remove one occurrence of a trusted certificate from the index. If that was the last one, the trust paths from
+	 * and through the certificate are forgotten.
+	 * 
+	 * @param cert The certificate
+	 */
+	private void unindex(X509Certificate cert)
+	{
+		byte[] keyId = X509CertUtil.getSubjectKeyIdentifier(cert);
+		if (keyId != null)
+		{
+			remove(m_byKeyId, ByteBuffer.wrap(keyId), cert);
+		}
+		if (remove(m_bySubject, cert.getSubjectX500Principal(), cert))
+		{
+			return;
+		}
+
+		m_paths.remove(cert);
+		for (Iterator<X509Certificate[]> it = m_paths.values().iterator(); it.hasNext();)
+		{
+			X509Certificate[] path = it.next();
+			if (path != null && Arrays.asList(path).contains(cert))
+			{
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Check whether the index was built for the supplied keystores, i.e. the same keystore instances in the same order.
+	 * 
+	 * @param keyStores The keystores
+	 * @return True if the index is for the keystores, false otherwise
+	 */
+	public boolean isFor(KeyStore... keyStores)
+	{
+		if (keyStores.length != m_keyStores.length)
+		{
+			return false;
+		}
+		for (int i = 0; i < keyStores.length; i++)
+		{
+			if (keyStores[i] != m_keyStores[i])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Check whether or not a trust path exists between the supplied X.509 certificate and the indexed trusted
+	 * certificates, i.e. that a chain of trust exists between the supplied certificate and a self-signed trusted
+	 * certificate in the index.
+	 * 
+	 * @return The trust chain, or null if trust could not be established
+	 * @param cert The certificate
+	 * @throws CryptoException If there is a problem establishing trust
+	 */
+	public synchronized X509Certificate[] establishTrust(X509Certificate cert)
+	    throws CryptoException
+	{
+		X509Certificate[] path = findPath(cert, new HashSet<X509Certificate>(), new boolean[1]);
+		if (path == null)
+		{
+			return null;
+		}
+		X509Certificate[] trustChain = new X509Certificate[path.length + 1];
+		trustChain[0] = cert;
+		System.arraycopy(path, 0, trustChain, 1, path.length);
+		return trustChain;
+	}
+
+	/**
+	 * Find a path of trusted certificates from the issuer of a certificate to a self-signed trusted certificate.
+	 * 
+	 * @param cert The certificate
+	 * @param onPath Trusted certificates on the path being built, skipped as issuers to avoid cycles
+	 * @param bCut Set to true if a candidate issuer was skipped because it is on the path
+	 * @return The path starting with the issuer of the certificate, null if there is none
+	 * @throws CryptoException If there is a problem verifying signatures
+	 */
+	private X509Certificate[] findPath(X509Certificate cert, HashSet<X509Certificate> onPath, boolean[] bCut)
+	    throws CryptoException
+	{
+		for (X509Certificate issuer : getCandidateIssuers(cert))
+		{
+			if (onPath.contains(issuer))
+			{
+				bCut[0] = true;
+				continue;
+			}
+			if (!X509CertUtil.verifyCertificate(cert, issuer))
+			{
+				continue;
+			}
+
+			// If the trusted certificate is self-signed then a chain of trust exists
+			if (issuer.getSubjectX500Principal().equals(issuer.getIssuerX500Principal()))
+			{
+				return new X509Certificate[] { issuer };
+			}
+
+			// Otherwise try and establish a chain of trust for the trusted certificate, remembering the result
+			X509Certificate[] issuerPath;
+			if (m_paths.containsKey(issuer))
+			{
+				issuerPath = m_paths.get(issuer);
+			}
+			else
+			{
+				boolean[] bIssuerCut = new boolean[1];
+				onPath.add(issuer);
+				issuerPath = findPath(issuer, onPath, bIssuerCut);
+				onPath.remove(issuer);
+
+				// A dead end caused by the cycle guard may be a path from elsewhere, do not remember it
+				if (issuerPath != null || !bIssuerCut[0])
+				{
+					m_paths.put(issuer, issuerPath);
+				}
+				bCut[0] |= bIssuerCut[0];
+			}
+
+			if (issuerPath != null)
+			{
+				X509Certificate[] path = new X509Certificate[issuerPath.length + 1];
+				path[0] = issuer;
+				System.arraycopy(issuerPath, 0, path, 1, issuerPath.length);
+				return path;
+			}
+		}
+
+		// No chain of trust
+		return null;
+	}
+
+	/**
+	 * Get the trusted certificates that may have issued a certificate: those whose subject key identifier matches the
+	 * certificate's authority key identifier, followed by those whose subject matches the certificate's issuer.
+	 * 
+	 * @param cert The certificate
+	 * @return The candidate issuers
+	 */
+	private LinkedHashSet<X509Certificate> getCandidateIssuers(X509Certificate cert)
+	{
+		LinkedHashSet<X509Certificate> candidates = new LinkedHashSet<>();
+		byte[] keyId = X509CertUtil.getAuthorityKeyIdentifier(cert);
+		if (keyId != null)
+		{
+			List<X509Certificate> byKeyId = m_byKeyId.get(ByteBuffer.wrap(keyId));
+			if (byKeyId != null)
+			{
+				candidates.addAll(byKeyId);
+			}
+		}
+		List<X509Certificate> bySubject = m_bySubject.get(cert.getIssuerX500Principal());
+		if (bySubject != null)
+		{
+			candidates.addAll(bySubject);
+		}
+		return candidates;
+	}
+
+	/**
+	 * Add a value to a multi-valued map.
+	 * 
+	 * @param map The map
+	 * @param key The key
+	 * @param value The value
+	 */
+	private static <K, V> void add(HashMap<K, List<V>> map, K key, V value)
+	{
+		List<V> values = map.get(key);
+		if (values == null)
+		{
+			values = new ArrayList<>(1);
+			map.put(key, values);
+		}
+		values.add(value);
+	}
+
+	/**
+	 * Remove one occurrence of a value from a multi-valued map.
+	 * 
+	 * @param map The map
+	 * @param key The key
+	 * @param value The value
+	 * @return True if the value is still in the map for the key, false otherwise
+	 */
+	private static <K, V> boolean remove(HashMap<K, List<V>> map, K key, V value)
+	{
+		List<V> values = map.get(key);
+		if (values == null)
+		{
+			return false;
+		}
+		values.remove(value);
+		if (values.isEmpty())
+		{
+			map.remove(key);
+			return false;
+		}
+		return values.contains(value);
+	}
+}
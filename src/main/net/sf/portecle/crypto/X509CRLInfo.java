@@ -0,0 +1,178 @@
+/*
+ * X509CRLInfo.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import java.util.Date;
+
+import javax.security.auth.x500.X500Principal;
+
+/**
+ * Immutable details of an X.509 CRL read with {@link X509CertUtil#readCRL}: the CRL's metadata and a
+ * {@link RevocationIndex} of its revoked certificates, in place of the per-entry objects of an
+ * {@link java.security.cert.X509CRL}.
+ */
+public final class X509CRLInfo
+{
+	/** Version */
+	private final int m_iVersion;
+
+	/** Issuer */
+	private final X500Principal m_issuer;
+
+	/** This update time */
+	private final long m_lThisUpdate;
+
+	/** Next update time, null if none */
+	private final Date m_nextUpdate;
+
+	/** Signature algorithm OID */
+	private final String m_sSigAlgOid;
+
+	/** Signature algorithm name */
+	private final String m_sSigAlgName;
+
+	/** CRL extensions */
+	private final EncodedExtensions m_extensions;
+
+	/** Revoked certificates */
+	private final RevocationIndex m_revocationIndex;
+
+	/** Was the signature verified? */
+	private final boolean m_bSignatureVerified;
+
+	/**
+	 * Construct a new X509CRLInfo.
+	 * 
+	 * @param iVersion Version
+	 * @param issuer Issuer
+	 * @param lThisUpdate This update time, in milliseconds since the epoch
+	 * @param nextUpdate Next update time, null if none
+	 * @param sSigAlgOid Signature algorithm OID
+	 * @param sSigAlgName Signature algorithm name
+	 * @param extensions CRL extensions
+	 * @param revocationIndex Revoked certificates
+	 * @param bSignatureVerified Was the signature verified?
+	 */
+	X509CRLInfo(int iVersion, X500Principal issuer, long lThisUpdate, Date nextUpdate, String sSigAlgOid,
+	    String sSigAlgName, EncodedExtensions extensions, RevocationIndex revocationIndex, boolean bSignatureVerified)
+	{
+		m_iVersion = iVersion;
+		m_issuer = issuer;
+		m_lThisUpdate = lThisUpdate;
+		m_nextUpdate = (nextUpdate == null) ? null : (Date) nextUpdate.clone();
+		m_sSigAlgOid = sSigAlgOid;
+		m_sSigAlgName = sSigAlgName;
+		m_extensions = extensions;
+		m_revocationIndex = revocationIndex;
+		m_bSignatureVerified = bSignatureVerified;
+	}
+
+	/**
+	 * Get the version.
+	 * 
+	 * @return The version, 1 or 2
+	 */
+	public int getVersion()
+	{
+		return m_iVersion;
+	}
+
+	/**
+	 * Get the issuer.
+	 * 
+	 * @return The issuer
+	 */
+	public X500Principal getIssuerX500Principal()
+	{
+		return m_issuer;
+	}
+
+	/**
+	 * Get the this update date.
+	 * 
+	 * @return The date
+	 */
+	public Date getThisUpdate()
+	{
+		return new Date(m_lThisUpdate);
+	}
+
+	/**
+	 * Get the next update date.
+	 * 
+	 * @return The date, null if the CRL has none
+	 */
+	public Date getNextUpdate()
+	{
+		return (m_nextUpdate == null) ? null : (Date) m_nextUpdate.clone();
+	}
+
+	/**
+	 * Get the signature algorithm OID.
+	 * 
+	 * @return The OID
+	 */
+	public String getSigAlgOID()
+	{
+		return m_sSigAlgOid;
+	}
+
+	/**
+	 * Get the signature algorithm name.
+	 * 
+	 * @return The name, the OID if the algorithm is not known
+	 */
+	public String getSigAlgName()
+	{
+		return m_sSigAlgName;
+	}
+
+	/**
+	 * Get the CRL extensions.
+	 * 
+	 * @return The extensions, empty if the CRL has none
+	 */
+	public EncodedExtensions getExtensions()
+	{
+		return m_extensions;
+	}
+
+	/**
+	 * Get the revoked certificates.
+	 * 
+	 * @return The revoked certificates
+	 */
+	public RevocationIndex getRevocationIndex()
+	{
+		return m_revocationIndex;
+	}
+
+	/**
+	 * Was the CRL's signature verified while reading it?
+	 * 
+	 * @return True if it was, false if no verification key was given
+	 */
+	public boolean isSignatureVerified()
+	{
+		return m_bSignatureVerified;
+	}
+}
@@ -0,0 +1,859 @@
+/*
+ * X509CRLReader.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.crypto;
+
+import static net.sf.portecle.FPortecle.RB;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.security.cert.X509Certificate;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.operator.ContentVerifier;
+import org.bouncycastle.operator.DefaultAlgorithmNameFinder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.RuntimeOperatorException;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
+import org.bouncycastle.util.io.pem.PemObject;
+import org.bouncycastle.util.io.pem.PemReader;
+
+/**
+ * Streaming reader of DER encoded X.509 CRLs (RFC 5280 CertificateList). Revoked certificates are added to a
+ * {@link RevocationIndex} as they are read, without creating an object per entry, and the signature is verified with
+ * the bytes of the TBSCertList as they go by, so the CRL is read exactly once and never held in memory as a whole.
+ */
+final class X509CRLReader
+{
+	/** SEQUENCE tag */
+	private static final int TAG_SEQUENCE = 0x30;
+
+	/** INTEGER tag */
+	private static final int TAG_INTEGER = 0x02;
+
+	/** BIT STRING tag */
+	private static final int TAG_BIT_STRING = 0x03;
+
+	/** UTCTime tag */
+	private static final int TAG_UTC_TIME = 0x17;
+
+	/** GeneralizedTime tag */
+	private static final int TAG_GENERALIZED_TIME = 0x18;
+
+	/** Tag of the crlExtensions field, [0] EXPLICIT */
+	private static final int TAG_CRL_EXTENSIONS = 0xA0;
+
+	/** Maximum length of any element that is read into memory in one piece */
+	private static final int MAX_ELEMENT_LENGTH = 1 << 24;
+
+	/** Return value of parseTime for times not in the canonical DER form */
+	private static final long NOT_CANONICAL = Long.MIN_VALUE;
+
+	/** The input */
+	private final InputStream m_in;
+
+	/** Number of bytes read so far */
+	private long m_lPosition;
+
+	/** Stream receiving the bytes read, null if none */
+	private OutputStream m_tee;
+
+	/** Buffer for serial numbers */
+	private byte[] m_serialBuffer = new byte[64];
+
+	/** Buffer for times */
+	private final byte[] m_timeBuffer = new byte[64];
+
+	/**
+	 * Construct a new X509CRLReader.
+	 * 
+	 * @param in The DER encoded CRL
+	 */
+	private X509CRLReader(InputStream in)
+	{
+		m_in = in;
+	}
+
+	/**
+	 * Read a DER or PEM encoded CRL. PEM encoded CRLs are decoded into memory before reading them.
+	 * 
+	 * @param in The input stream to read from; it is not closed
+	 * @param verificationKey Public key to verify the CRL's signature with, null not to verify it
+	 * @return The CRL
+	 * @throws CryptoException If the CRL is not validly encoded or its signature does not verify
+	 * @throws IOException An I/O error occurred
+	 */
+	static X509CRLInfo read(InputStream in, PublicKey verificationKey)
+	    throws CryptoException, IOException
+	{
+		return read(in, verificationKey, null);
+	}
+
+	/**
+	 * Read a DER or PEM encoded CRL, verifying its signature with the public key of its issuer.
+	 * 
+	 * @param in The input stream to read from; it is not closed
+	 * @param issuerKeys Candidate issuer certificates to verify CRLs with
+	 * @return The CRL
+	 * @throws CryptoException If the CRL is not validly encoded, there is no candidate certificate for its issuer, or
+	 *             its signature does not verify with any of them
+	 * @throws IOException An I/O error occurred
+	 */
+	static X509CRLInfo read(InputStream in, CrlIssuerKeys issuerKeys)
+	    throws CryptoException, IOException
+	{
+		return read(in, null, issuerKeys);
+	}
+
+	/**
+	 * Read a DER or PEM encoded CRL.
+	 * 
+	 * @param in The input stream to read from; it is not closed
+	 * @param verificationKey Public key to verify the CRL's signature with, null to look it up from issuerKeys
+	 * @param issuerKeys Candidate issuer certificates to verify CRLs with; null not to verify the CRL unless
+	 *            verificationKey is given
+	 * @return The CRL
+	 * @throws CryptoException If the CRL is not validly encoded or its signature cannot be verified
+	 * @throws IOException An I/O error occurred
+	 */
+	private static X509CRLInfo read(InputStream in, PublicKey verificationKey, CrlIssuerKeys issuerKeys)
+	    throws CryptoException, IOException
+	{
+		BufferedInputStream bin = new BufferedInputStream(in, 64 * 1024);
+		bin.mark(1);
+		int iFirst = bin.read();
+		bin.reset();
+
+		InputStream der = bin;
+		if (iFirst != TAG_SEQUENCE)
+		{
+			PemObject pem = new PemReader(new InputStreamReader(bin, StandardCharsets.US_ASCII)).readPemObject();
+			if (pem == null)
+			{
+				throw new CryptoException(RB.getString("NoLoadCrl.exception.message"));
+			}
+			der = new ByteArrayInputStream(pem.getContent());
+		}
+
+		return new X509CRLReader(der).readCertificateList(verificationKey, issuerKeys);
+	}
+
+	/**
+	 * Read a CertificateList.
+	 * 
+	 * @param verificationKey Public key to verify the signature with, null to look it up from issuerKeys
+	 * @param issuerKeys Candidate issuer certificates to verify CRLs with; null not to verify the CRL unless
+	 *            verificationKey is given
+	 * @return The CRL
+	 * @throws CryptoException If the CRL is not validly encoded or its signature cannot be verified
+	 * @throws IOException An I/O error occurred
+	 */
+	private X509CRLInfo readCertificateList(PublicKey verificationKey, CrlIssuerKeys issuerKeys)
+	    throws CryptoException, IOException
+	{
+		long lEnd = readHeader(TAG_SEQUENCE);
+
+		// Hold on to the TBSCertList bytes until the signature algorithm and the issuer are known
+		ByteArrayOutputStream pending = new ByteArrayOutputStream();
+		m_tee = pending;
+		long lTbsEnd = readHeader(TAG_SEQUENCE);
+
+		int iTag = readTag();
+		int iVersion = 1;
+		if (iTag == TAG_INTEGER)
+		{
+			byte[] bVersion = readContents();
+			if (bVersion.length == 0)
+			{
+				throw invalidEncoding();
+			}
+			iVersion = new BigInteger(bVersion).intValue() + 1;
+			iTag = readTag();
+		}
+
+		expectTag(iTag, TAG_SEQUENCE);
+		AlgorithmIdentifier tbsSigAlg = AlgorithmIdentifier.getInstance(decode(iTag, readContents()));
+
+		// Issuer
+		expectTag(readTag(), TAG_SEQUENCE);
+		X500Principal issuer;
+		try
+		{
+			issuer = new X500Principal(encode(TAG_SEQUENCE, readContents()));
+		}
+		catch (IllegalArgumentException ex)
+		{
+			throw new CryptoException(RB.getString("NoLoadCrl.exception.message"), ex);
+		}
+
+		// Keys to verify the signature with, and the subject key identifiers of their certificates where known
+		ArrayList<PublicKey> keys = new ArrayList<>();
+		ArrayList<byte[]> keyIds = new ArrayList<>();
+		if (verificationKey != null)
+		{
+			keys.add(verificationKey);
+			keyIds.add(null);
+		}
+		else if (issuerKeys != null)
+		{
+			for (X509Certificate issuerCert : issuerKeys.getCandidates(issuer))
+			{
+				keys.add(issuerCert.getPublicKey());
+				keyIds.add(X509CertUtil.getSubjectKeyIdentifier(issuerCert));
+			}
+			if (keys.isEmpty())
+			{
+				throw new CryptoException(
+				    MessageFormat.format(RB.getString("NoCrlIssuerKey.exception.message"), issuer.getName()));
+			}
+		}
+
+		// One verifier per key, all fed the TBSCertList as it goes by; keys not usable with the algorithm are skipped
+		ContentVerifier[] verifiers = new ContentVerifier[keys.size()];
+		if (!keys.isEmpty())
+		{
+			OutputStream[] outs = new OutputStream[keys.size()];
+			OperatorCreationException lastException = null;
+			boolean bAny = false;
+			for (int i = 0; i < keys.size(); i++)
+			{
+				try
+				{
+					verifiers[i] = new JcaContentVerifierProviderBuilder().build(keys.get(i)).get(tbsSigAlg);
+					outs[i] = verifiers[i].getOutputStream();
+					bAny = true;
+				}
+				catch (OperatorCreationException ex)
+				{
+					lastException = ex;
+				}
+			}
+			if (!bAny)
+			{
+				throw new CryptoException(RB.getString("NoVerifyCrl.exception.message"), lastException);
+			}
+			m_tee = new BufferedOutputStream(new FanOutOutputStream(outs), 8 * 1024);
+			pending.writeTo(m_tee);
+		}
+		else
+		{
+			m_tee = null;
+		}
+
+		long lThisUpdate = readTime(readTag());
+
+		// Optional fields, each distinguished by its tag
+		iTag = (m_lPosition < lTbsEnd) ? readTag() : -1;
+		Date nextUpdate = null;
+		if (iTag == TAG_UTC_TIME || iTag == TAG_GENERALIZED_TIME)
+		{
+			nextUpdate = new Date(readTime(iTag));
+			iTag = (m_lPosition < lTbsEnd) ? readTag() : -1;
+		}
+
+		RevocationIndex.Builder builder = new RevocationIndex.Builder();
+		if (iTag == TAG_SEQUENCE)
+		{
+			long lEntriesLength = readLength();
+			long lEntriesEnd = m_lPosition + lEntriesLength;
+			while (m_lPosition < lEntriesEnd)
+			{
+				readEntry(builder);
+			}
+			expectPosition(lEntriesEnd);
+			iTag = (m_lPosition < lTbsEnd) ? readTag() : -1;
+		}
+
+		EncodedExtensions extensions = new EncodedExtensions(new Extensions(new Extension[0]));
+		if (iTag == TAG_CRL_EXTENSIONS)
+		{
+			byte[] bExtensions = readContents();
+			try
+			{
+				extensions = new EncodedExtensions(bExtensions);
+			}
+			catch (IOException ex)
+			{
+				throw new CryptoException(RB.getString("NoLoadCrl.exception.message"), ex);
+			}
+			iTag = (m_lPosition < lTbsEnd) ? readTag() : -1;
+		}
+
+		if (iTag != -1)
+		{
+			throw invalidEncoding();
+		}
+		expectPosition(lTbsEnd);
+
+		if (m_tee != null)
+		{
+			m_tee.flush();
+			m_tee = null;
+		}
+
+		// Signature
+		expectTag(readTag(), TAG_SEQUENCE);
+		AlgorithmIdentifier sigAlg = AlgorithmIdentifier.getInstance(decode(TAG_SEQUENCE, readContents()));
+		if (!sigAlg.equals(tbsSigAlg))
+		{
+			throw invalidEncoding();
+		}
+
+		expectTag(readTag(), TAG_BIT_STRING);
+		byte[] bSignature = readContents();
+		if (bSignature.length == 0 || bSignature[0] != 0)
+		{
+			throw invalidEncoding();
+		}
+		expectPosition(lEnd);
+
+		if (verifiers.length != 0)
+		{
+			verify(verifiers, keyIds, getAuthorityKeyIdentifier(extensions),
+			    Arrays.copyOfRange(bSignature, 1, bSignature.length));
+		}
+
+		String sSigAlgOid = sigAlg.getAlgorithm().getId();
+		SignatureType sigType = SignatureType.valueOfOid(sSigAlgOid);
+		String sSigAlgName =
+		    (sigType != null) ? sigType.toString() : new DefaultAlgorithmNameFinder().getAlgorithmName(sigAlg);
+
+		return new X509CRLInfo(iVersion, issuer, lThisUpdate, nextUpdate, sSigAlgOid, sSigAlgName, extensions,
+		    builder.build(), verifiers.length != 0);
+	}
+
+	/**
+	 * Verify a signature with any of a number of verifiers. If the CRL identifies the key it was signed with and some
+	 * of the verifiers' keys have that identifier, only those are used.
+	 * 
+	 * @param verifiers The verifiers, null for keys that could not be used
+	 * @param keyIds Subject key identifiers of the verifiers' keys, null where not known
+	 * @param bAuthorityKeyId The CRL's authority key identifier, null if none
+	 * @param bSignature The signature
+	 * @throws CryptoException If the signature does not verify with any of the verifiers
+	 */
+	private static void verify(ContentVerifier[] verifiers, List<byte[]> keyIds, byte[] bAuthorityKeyId,
+	    byte[] bSignature)
+	    throws CryptoException
+	{
+		boolean bKeyIdMatch = false;
+		if (bAuthorityKeyId != null)
+		{
+			for (int i = 0; i < verifiers.length && !bKeyIdMatch; i++)
+			{
+				bKeyIdMatch = verifiers[i] != null && Arrays.equals(bAuthorityKeyId, keyIds.get(i));
+			}
+		}
+
+		RuntimeOperatorException lastException = null;
+		for (int i = 0; i < verifiers.length; i++)
+		{
+			if (verifiers[i] == null || (bKeyIdMatch && !Arrays.equals(bAuthorityKeyId, keyIds.get(i))))
+			{
+				continue;
+			}
+			try
+			{
+				if (verifiers[i].verify(bSignature))
+				{
+					return;
+				}
+			}
+			catch (RuntimeOperatorException ex)
+			{
+				lastException = ex;
+			}
+		}
+		throw (lastException == null) ? new CryptoException(RB.getString("NoVerifyCrl.exception.message"))
+		    : new CryptoException(RB.getString("NoVerifyCrl.exception.message"), lastException);
+	}
+
+	/**
+	 * Get the key identifier from a CRL's authority key identifier extension.
+	 * 
+	 * @param extensions The CRL's extensions
+	 * @return The key identifier, null if the extension or the key identifier in it is absent or malformed
+	 */
+	private static byte[] getAuthorityKeyIdentifier(EncodedExtensions extensions)
+	{
+		byte[] bValue = extensions.getExtensionValue(Extension.authorityKeyIdentifier.getId());
+		if (bValue == null)
+		{
+			return null;
+		}
+		try
+		{
+			ASN1OctetString value = ASN1OctetString.getInstance(bValue);
+			return AuthorityKeyIdentifier.getInstance(value.getOctets()).getKeyIdentifier();
+		}
+		catch (IllegalArgumentException ex)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Read a revokedCertificates entry and add it to an index.
+	 * 
+	 * @param builder The index builder
+	 * @throws CryptoException If the entry is not validly encoded
+	 * @throws IOException An I/O error occurred
+	 */
+	private void readEntry(RevocationIndex.Builder builder)
+	    throws CryptoException, IOException
+	{
+		long lEntryEnd = readHeader(TAG_SEQUENCE);
+
+		expectTag(readTag(), TAG_INTEGER);
+		long lSerialLength = readLength();
+		if (lSerialLength == 0 || lSerialLength > MAX_ELEMENT_LENGTH)
+		{
+			throw invalidEncoding();
+		}
+		int iSerialLength = (int) lSerialLength;
+		if (iSerialLength > m_serialBuffer.length)
+		{
+			m_serialBuffer = new byte[iSerialLength];
+		}
+		readFully(m_serialBuffer, iSerialLength);
+
+		long lRevocationTime = readTime(readTag());
+
+		byte[] bExtensions = null;
+		if (m_lPosition < lEntryEnd)
+		{
+			expectTag(readTag(), TAG_SEQUENCE);
+			bExtensions = encode(TAG_SEQUENCE, readContents());
+		}
+		expectPosition(lEntryEnd);
+
+		builder.add(m_serialBuffer, 0, iSerialLength, lRevocationTime, bExtensions);
+	}
+
+	/**
+	 * Read a UTCTime or GeneralizedTime.
+	 * 
+	 * @param iTag The tag of the time, already read
+	 * @return The time, in milliseconds since the epoch
+	 * @throws CryptoException If the time is not validly encoded
+	 * @throws IOException An I/O error occurred
+	 */
+	private long readTime(int iTag)
+	    throws CryptoException, IOException
+	{
+		if (iTag != TAG_UTC_TIME && iTag != TAG_GENERALIZED_TIME)
+		{
+			throw invalidEncoding();
+		}
+		long lLength = readLength();
+		if (lLength > m_timeBuffer.length)
+		{
+			throw invalidEncoding();
+		}
+		int iLength = (int) lLength;
+		readFully(m_timeBuffer, iLength);
+
+		long lTime = parseTime(m_timeBuffer, iLength, iTag == TAG_UTC_TIME);
+		if (lTime != NOT_CANONICAL)
+		{
+			return lTime;
+		}
+
+		// Not in the form RFC 5280 requires, leave it to Bouncy Castle
+		try
+		{
+			return Time.getInstance(decode(iTag, Arrays.copyOf(m_timeBuffer, iLength))).getDate().getTime();
+		}
+		catch (IllegalArgumentException | IllegalStateException ex)
+		{
+			throw new CryptoException(RB.getString("NoLoadCrl.exception.message"), ex);
+		}
+	}
+
+	/**
+	 * Parse a time in the canonical form of RFC 5280: YYMMDDHHMMSSZ for UTCTime, YYYYMMDDHHMMSSZ for GeneralizedTime.
+	 * 
+	 * @param bTime The time
+	 * @param iLength Length of the time
+	 * @param bUtcTime Is the time a UTCTime?
+	 * @return The time, in milliseconds since the epoch, or NOT_CANONICAL if it is not in the canonical form
+	 */
+	private static long parseTime(byte[] bTime, int iLength, boolean bUtcTime)
+	{
+		int iYearLength = bUtcTime ? 2 : 4;
+		if (iLength != iYearLength + 11 || bTime[iLength - 1] != 'Z')
+		{
+			return NOT_CANONICAL;
+		}
+		for (int i = 0; i < iLength - 1; i++)
+		{
+			if (bTime[i] < '0' || bTime[i] > '9')
+			{
+				return NOT_CANONICAL;
+			}
+		}
+
+		int iYear = parseDigits(bTime, 0, iYearLength);
+		if (bUtcTime)
+		{
+			iYear += (iYear < 50) ? 2000 : 1900;
+		}
+		int iMonth = parseDigits(bTime, iYearLength, 2);
+		int iDay = parseDigits(bTime, iYearLength + 2, 2);
+		int iHour = parseDigits(bTime, iYearLength + 4, 2);
+		int iMinute = parseDigits(bTime, iYearLength + 6, 2);
+		int iSecond = parseDigits(bTime, iYearLength + 8, 2);
+		if (iMonth < 1 || iMonth > 12 || iDay < 1 || iDay > 31 || iHour > 23 || iMinute > 59 || iSecond > 59)
+		{
+			return NOT_CANONICAL;
+		}
+
+		// Days since the epoch in the proleptic Gregorian calendar, counting years from March
+		int iYearOfEra = (iMonth <= 2) ? iYear - 1 : iYear;
+		int iEra = ((iYearOfEra >= 0) ? iYearOfEra : iYearOfEra - 399) / 400;
+		iYearOfEra -= iEra * 400;
+		int iDayOfYear = (153 * (iMonth + ((iMonth > 2) ? -3 : 9)) + 2) / 5 + iDay - 1;
+		long lDays = iEra * 146097L + iYearOfEra * 365 + iYearOfEra / 4 - iYearOfEra / 100 + iDayOfYear - 719468;
+
+		return ((lDays * 24 + iHour) * 60 + iMinute) * 60000L + iSecond * 1000L;
+	}
+
+	/**
+	 * Parse decimal digits.
+	 * 
+	 * @param b Array holding the digits
+	 * @param iOffset Offset of the first digit
+	 * @param iLength Number of digits
+	 * @return The value
+	 */
+	private static int parseDigits(byte[] b, int iOffset, int iLength)
+	{
+		int iValue = 0;
+		for (int i = iOffset; i < iOffset + iLength; i++)
+		{
+			iValue = iValue * 10 + (b[i] - '0');
+		}
+		return iValue;
+	}
+
+	/**
+	 * Read the header of an element and check its tag.
+	 * 
+	 * @param iExpectedTag The expected tag
+	 * @return The position of the end of the element
+	 * @throws CryptoException If the header is not validly encoded or the tag is not the expected one
+	 * @throws IOException An I/O error occurred
+	 */
+	private long readHeader(int iExpectedTag)
+	    throws CryptoException, IOException
+	{
+		expectTag(readTag(), iExpectedTag);
+		long lLength = readLength();
+		return m_lPosition + lLength;
+	}
+
+	/**
+	 * Read a tag. Only tags that fit in one octet are supported, which covers everything in a CRL.
+	 * 
+	 * @return The tag
+	 * @throws CryptoException If the tag is not supported
+	 * @throws IOException An I/O error occurred
+	 */
+	private int readTag()
+	    throws CryptoException, IOException
+	{
+		int iTag = readByte();
+		if ((iTag & 0x1F) == 0x1F)
+		{
+			throw invalidEncoding();
+		}
+		return iTag;
+	}
+
+	/**
+	 * Read a definite length.
+	 * 
+	 * @return The length
+	 * @throws CryptoException If the length is not validly encoded
+	 * @throws IOException An I/O error occurred
+	 */
+	private long readLength()
+	    throws CryptoException, IOException
+	{
+		int iFirst = readByte();
+		if (iFirst < 0x80)
+		{
+			return iFirst;
+		}
+
+		// Indefinite lengths (0x80) are not allowed in DER
+		int iOctets = iFirst & 0x7F;
+		if (iOctets == 0 || iOctets > 7)
+		{
+			throw invalidEncoding();
+		}
+		long lLength = 0;
+		for (int i = 0; i < iOctets; i++)
+		{
+			lLength = (lLength << 8) | readByte();
+		}
+		return lLength;
+	}
+
+	/**
+	 * Read the length and contents octets of an element into a new array.
+	 * 
+	 * @return The contents
+	 * @throws CryptoException If the element is not validly encoded or too long
+	 * @throws IOException An I/O error occurred
+	 */
+	private byte[] readContents()
+	    throws CryptoException, IOException
+	{
+		long lLength = readLength();
+		if (lLength > MAX_ELEMENT_LENGTH)
+		{
+			throw invalidEncoding();
+		}
+		byte[] bContents = new byte[(int) lLength];
+		readFully(bContents, bContents.length);
+		return bContents;
+	}
+
+	/**
+	 * Read one byte.
+	 * 
+	 * @return The byte, 0-255
+	 * @throws CryptoException If the end of the input has been reached
+	 * @throws IOException An I/O error occurred
+	 */
+	private int readByte()
+	    throws CryptoException, IOException
+	{
+		int iByte = m_in.read();
+		if (iByte < 0)
+		{
+			throw invalidEncoding();
+		}
+		if (m_tee != null)
+		{
+			m_tee.write(iByte);
+		}
+		m_lPosition++;
+		return iByte;
+	}
+
+	/**
+	 * Read bytes.
+	 * 
+	 * @param b The array to read into, from offset 0
+	 * @param iLength Number of bytes to read
+	 * @throws CryptoException If the end of the input is reached before all bytes have been read
+	 * @throws IOException An I/O error occurred
+	 */
+	private void readFully(byte[] b, int iLength)
+	    throws CryptoException, IOException
+	{
+		int iRead = 0;
+		while (iRead < iLength)
+		{
+			int iCount = m_in.read(b, iRead, iLength - iRead);
+			if (iCount < 0)
+			{
+				throw invalidEncoding();
+			}
+			iRead += iCount;
+		}
+		if (m_tee != null)
+		{
+			m_tee.write(b, 0, iLength);
+		}
+		m_lPosition += iLength;
+	}
+
+	/**
+	 * Check a tag.
+	 * 
+	 * @param iTag The tag
+	 * @param iExpectedTag The expected tag
+	 * @throws CryptoException If the tags differ
+	 */
+	private void expectTag(int iTag, int iExpectedTag)
+	    throws CryptoException
+	{
+		if (iTag != iExpectedTag)
+		{
+			throw invalidEncoding();
+		}
+	}
+
+	/**
+	 * Check that an element ended where its length said it would.
+	 * 
+	 * @param lExpectedPosition The expected position
+	 * @throws CryptoException If the current position is not the expected one
+	 */
+	private void expectPosition(long lExpectedPosition)
+	    throws CryptoException
+	{
+		if (m_lPosition != lExpectedPosition)
+		{
+			throw invalidEncoding();
+		}
+	}
+
+	/**
+	 * Create an exception for an invalid encoding at the current position.
+	 * 
+	 * @return The exception
+	 */
+	private CryptoException invalidEncoding()
+	{
+		return new CryptoException(
+		    MessageFormat.format(RB.getString("InvalidCrlEncoding.exception.message"), m_lPosition));
+	}
+
+	/**
+	 * Decode an element with Bouncy Castle.
+	 * 
+	 * @param iTag The tag of the element
+	 * @param bContents The contents of the element
+	 * @return The decoded element
+	 * @throws CryptoException If the element is not validly encoded
+	 */
+	private ASN1Primitive decode(int iTag, byte[] bContents)
+	    throws CryptoException
+	{
+		try
+		{
+			return ASN1Primitive.fromByteArray(encode(iTag, bContents));
+		}
+		catch (IOException ex)
+		{
+			throw new CryptoException(RB.getString("NoLoadCrl.exception.message"), ex);
+		}
+	}
+
+	/**
+	 * DER encode an element.
+	 * 
+	 * @param iTag The tag of the element
+	 * @param bContents The contents of the element
+	 * @return The encoding
+	 */
+	private static byte[] encode(int iTag, byte[] bContents)
+	{
+		int iLength = bContents.length;
+		int iLengthOctets = 0;
+		if (iLength >= 0x80)
+		{
+			for (int i = iLength; i != 0; i >>>= 8)
+			{
+				iLengthOctets++;
+			}
+		}
+
+		byte[] bEncoded = new byte[2 + iLengthOctets + iLength];
+		bEncoded[0] = (byte) iTag;
+		if (iLengthOctets == 0)
+		{
+			bEncoded[1] = (byte) iLength;
+		}
+		else
+		{
+			bEncoded[1] = (byte) (0x80 | iLengthOctets);
+			for (int i = 0; i < iLengthOctets; i++)
+			{
+				bEncoded[2 + i] = (byte) (iLength >>> (8 * (iLengthOctets - 1 - i)));
+			}
+		}
+		System.arraycopy(bContents, 0, bEncoded, 2 + iLengthOctets, iLength);
+		return bEncoded;
+	}
+
+	/**
+	 * Output stream writing everything written to it to a number of other streams.
+	 */
+	private static final class FanOutOutputStream
+	    extends OutputStream
+	{
+		/** The streams to write to, null entries are skipped */
+		private final OutputStream[] m_outs;
+
+		/**
+		 * Construct a FanOutOutputStream.
+		 * 
+		 * @param outs The streams to write to, null entries are skipped
+		 */
+		private FanOutOutputStream(OutputStream[] outs)
+		{
+			m_outs = outs;
+		}
+
+		@Override
+		public void write(int b)
+		    throws IOException
+		{
+			for (OutputStream out : m_outs)
+			{
+				if (out != null)
+				{
+					out.write(b);
+				}
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len)
+		    throws IOException
+		{
+			for (OutputStream out : m_outs)
+			{
+				if (out != null)
+				{
+					out.write(b, off, len);
+				}
+			}
+		}
+	}
+}
@@ -31,10 +31,10 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.math.BigInteger;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.KeyStore;
-import java.security.KeyStoreException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.security.SignatureException;
@@ -48,14 +48,25 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
-import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
 import javax.security.auth.x500.X500Principal;
 
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.DERIA5String;
 import org.bouncycastle.asn1.x500.X500Name;
 import org.bouncycastle.asn1.x500.X500NameBuilder;
 import org.bouncycastle.asn1.x500.style.BCStyle;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.CRLDistPoint;
+import org.bouncycastle.asn1.x509.DistributionPoint;
+import org.bouncycastle.asn1.x509.DistributionPointName;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.asn1.x509.GeneralNames;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.cert.jcajce.JcaX509v1CertificateBuilder;
@@ -237,6 +248,49 @@ public final class X509CertUtil
 		}
 	}
 
+	/**
+	 * Read a CRL from the specified URL without creating an object for each of its entries. Use this instead of
+	 * {@link #loadCRL(URL)} for CRLs that may be large.
+	 * 
+	 * @param url The URL to read CRL from
+	 * @param verificationKey Public key to verify the CRL's signature with, null not to verify it
+	 * @return The CRL
+	 * @throws CryptoException Problem encountered while reading the CRL, or its signature does not verify
+	 * @throws FileNotFoundException If the CRL file does not exist, is a directory rather than a regular file, or for
+	 *             some other reason cannot be opened for reading
+	 * @throws IOException An I/O error occurred
+	 */
+	public static X509CRLInfo readCRL(URL url, PublicKey verificationKey)
+	    throws CryptoException, IOException
+	{
+		try (InputStream in = NetUtil.openGetStream(url))
+		{
+			return X509CRLReader.read(in, verificationKey);
+		}
+	}
+
+	/**
+	 * Read a CRL from the specified URL like {@link #readCRL(URL, PublicKey)}, verifying its signature with the public
+	 * key of its issuer.
+	 * 
+	 * @param url The URL to read CRL from
+	 * @param issuerKeys Candidate issuer certificates to verify CRLs with
+	 * @return The CRL
+	 * @throws CryptoException Problem encountered while reading the CRL, there is no candidate certificate for its
+	 *             issuer, or its signature does not verify with any of them
+	 * @throws FileNotFoundException If the CRL file does not exist, is a directory rather than a regular file, or for
+	 *             some other reason cannot be opened for reading
+	 * @throws IOException An I/O error occurred
+	 */
+	public static X509CRLInfo readVerifiedCRL(URL url, CrlIssuerKeys issuerKeys)
+	    throws CryptoException, IOException
+	{
+		try (InputStream in = NetUtil.openGetStream(url))
+		{
+			return X509CRLReader.read(in, issuerKeys);
+		}
+	}
+
 	/**
 	 * Load a CSR from the specified URL.
 	 * 
@@ -312,73 +366,199 @@ public final class X509CertUtil
 	}
 
 	/**
-	 * Attempt to order the supplied array of X.509 certificates in issued to to issued from order.
+	 * Attempt to order the supplied array of X.509 certificates in issued to to issued from order. The chain starts
+	 * from the certificate that has not issued any of the others and has the longest path of issuers in the array, the
+	 * first such one if there are several. The issuer of each certificate is looked up by name, preferring the first
+	 * certificate whose subject key identifier matches the authority key identifier. The chain ends with a self-signed
+	 * root or the last certificate whose issuer is not in the array. Certificates not on the chain are left out; use
+	 * {@link #orderX509CertChain(X509Certificate[], Collection)} to find out which.
 	 * 
 	 * @param certs The X.509 certificates in order
 	 * @return The ordered X.509 certificates
 	 */
 	public static X509Certificate[] orderX509CertChain(X509Certificate[] certs)
 	{
-		int iOrdered = 0;
-		X509Certificate[] tmpCerts = certs.clone();
-		X509Certificate[] orderedCerts = new X509Certificate[certs.length];
+		return orderX509CertChain(certs, null);
+	}
 
-		X509Certificate issuerCert = null;
+	/**
+	 * Attempt to order the supplied array of X.509 certificates in issued to to issued from order as
+	 * {@link #orderX509CertChain(X509Certificate[])} does, reporting the certificates left out of the chain.
+	 * 
+	 * @param certs The X.509 certificates in order
+	 * @param leftOut Collection where the certificates not on the chain will be added in their original order, null
+	 *            if not interested
+	 * @return The ordered X.509 certificates
+	 */
+	public static X509Certificate[] orderX509CertChain(X509Certificate[] certs, Collection<X509Certificate> leftOut)
+	{
+		int iCount = certs.length;
+		if (iCount < 2)
+		{
+			return certs;
+		}
 
-		// Find the root issuer (i.e. certificate where issuer is the same as subject)
-		for (X509Certificate aCert : tmpCerts)
+		// Index the certificates by subject and subject key identifier in one pass
+		HashMap<X500Principal, List<Integer>> bySubject = new HashMap<>();
+		HashMap<ByteBuffer, List<Integer>> byKeyId = new HashMap<>();
+		for (int iCnt = 0; iCnt < iCount; iCnt++)
 		{
-			if (aCert.getIssuerDN().equals(aCert.getSubjectDN()))
+			addIndex(bySubject, certs[iCnt].getSubjectX500Principal(), iCnt);
+			byte[] keyId = getSubjectKeyIdentifier(certs[iCnt]);
+			if (keyId != null)
 			{
-				issuerCert = aCert;
-				orderedCerts[iOrdered] = issuerCert;
-				iOrdered++;
+				addIndex(byKeyId, ByteBuffer.wrap(keyId), iCnt);
 			}
 		}
 
-		// Couldn't find a root issuer so just return the unordered array
-		if (issuerCert == null)
+		// Find the issuer of each certificate in the array, -1 for roots and certificates with issuer not in the array
+		int[] issuers = new int[iCount];
+		boolean[] bIssuer = new boolean[iCount];
+		for (int iCnt = 0; iCnt < iCount; iCnt++)
 		{
-			return certs;
+			issuers[iCnt] = findIssuer(certs, iCnt, bySubject, byKeyId);
+			if (issuers[iCnt] >= 0)
+			{
+				bIssuer[issuers[iCnt]] = true;
+			}
 		}
 
-		// Keep making passes through the array of certificates looking for the next certificate in the chain
-		// until the links run out
-		while (true)
+		// Pick the certificate that issued none of the others with the longest path of issuers
+		int[] pathLengths = new int[iCount];
+		int iStart = -1;
+		for (int iCnt = 0; iCnt < iCount; iCnt++)
 		{
-			boolean bFoundNext = false;
-			for (X509Certificate aCert : tmpCerts)
+			if (!bIssuer[iCnt] && (getPathLength(iCnt, issuers, pathLengths) > (iStart < 0 ? 0 : pathLengths[iStart])))
 			{
-				// Is this certificate the next in the chain?
-				if (aCert.getIssuerDN().equals(issuerCert.getSubjectDN()) && aCert != issuerCert)
+				iStart = iCnt;
+			}
+		}
+		if (iStart < 0)
+		{
+			// Every certificate issued another one, i.e. they form a loop
+			iStart = 0;
+		}
+
+		// Walk from the start to the root
+		ArrayList<X509Certificate> orderedCerts = new ArrayList<>();
+		boolean[] bVisited = new boolean[iCount];
+		for (int iCnt = iStart; iCnt >= 0 && !bVisited[iCnt]; iCnt = issuers[iCnt])
+		{
+			bVisited[iCnt] = true;
+			orderedCerts.add(certs[iCnt]);
+		}
+
+		if (leftOut != null)
+		{
+			for (int iCnt = 0; iCnt < iCount; iCnt++)
+			{
+				if (!bVisited[iCnt])
 				{
-					// Yes
-					issuerCert = aCert;
-					orderedCerts[iOrdered] = issuerCert;
-					iOrdered++;
-					bFoundNext = true;
-					break;
+					leftOut.add(certs[iCnt]);
 				}
 			}
-			if (!bFoundNext)
+		}
+
+		return orderedCerts.toArray(new X509Certificate[orderedCerts.size()]);
+	}
+
+	/**
+	 * Find the issuer of a certificate in an array of certificates.
+	 * 
+	 * @param certs The certificates
+	 * @param iCert Index of the certificate
+	 * @param bySubject Certificate indexes by subject
+	 * @param byKeyId Certificate indexes by subject key identifier
+	 * @return Index of the issuer, -1 if the certificate is self-signed or its issuer is not in the array
+	 */
+	private static int findIssuer(X509Certificate[] certs, int iCert, HashMap<X500Principal, List<Integer>> bySubject,
+	    HashMap<ByteBuffer, List<Integer>> byKeyId)
+	{
+		X509Certificate cert = certs[iCert];
+		X500Principal issuer = cert.getIssuerX500Principal();
+		if (issuer.equals(cert.getSubjectX500Principal()))
+		{
+			return -1;
+		}
+
+		List<Integer> sameName = bySubject.get(issuer);
+		if (sameName == null)
+		{
+			return -1;
+		}
+
+		// Prefer a certificate with the matching key identifier, there may be several with the issuer's name
+		byte[] keyId = getAuthorityKeyIdentifier(cert);
+		if (keyId != null)
+		{
+			List<Integer> sameKeyId = byKeyId.get(ByteBuffer.wrap(keyId));
+			if (sameKeyId != null)
 			{
-				break;
+				for (int iCnt : sameKeyId)
+				{
+					if (iCnt != iCert && sameName.contains(iCnt))
+					{
+						return iCnt;
+					}
+				}
 			}
 		}
 
-		// Resize array
-		tmpCerts = new X509Certificate[iOrdered];
-		System.arraycopy(orderedCerts, 0, tmpCerts, 0, iOrdered);
+		for (int iCnt : sameName)
+		{
+			if (iCnt != iCert)
+			{
+				return iCnt;
+			}
+		}
+		return -1;
+	}
 
-		// Reverse the order of the array
-		orderedCerts = new X509Certificate[iOrdered];
+	/**
+	 * Get the number of certificates on the path from a certificate to its root, computing and storing it for the
+	 * certificates on the path that do not have it yet.
+	 * 
+	 * @param iCert Index of the certificate
+	 * @param issuers Issuer index of each certificate
+	 * @param pathLengths Path length of each certificate, 0 if not computed yet
+	 * @return The path length
+	 */
+	private static int getPathLength(int iCert, int[] issuers, int[] pathLengths)
+	{
+		// Walk up until a certificate with known path length, the root, or a loop
+		ArrayList<Integer> path = new ArrayList<>();
+		HashSet<Integer> onPath = new HashSet<>();
+		int iCnt = iCert;
+		while (iCnt >= 0 && pathLengths[iCnt] == 0 && onPath.add(iCnt))
+		{
+			path.add(iCnt);
+			iCnt = issuers[iCnt];
+		}
 
-		for (int iCnt = 0; iCnt < iOrdered; iCnt++)
+		int iLength = (iCnt >= 0) ? pathLengths[iCnt] : 0;
+		for (int i = path.size() - 1; i >= 0; i--)
 		{
-			orderedCerts[iCnt] = tmpCerts[tmpCerts.length - 1 - iCnt];
+			pathLengths[path.get(i)] = ++iLength;
 		}
+		return pathLengths[iCert];
+	}
 
-		return orderedCerts;
+	/**
+	 * Add a certificate index to a multi-valued map.
+	 * 
+	 * @param map The map
+	 * @param key The key
+	 * @param iCert The certificate index
+	 */
+	private static <K> void addIndex(HashMap<K, List<Integer>> map, K key, int iCert)
+	{
+		List<Integer> indexes = map.get(key);
+		if (indexes == null)
+		{
+			indexes = new ArrayList<>(1);
+			map.put(key, indexes);
+		}
+		indexes.add(iCert);
 	}
 
 	/**
@@ -648,24 +828,42 @@ public final class X509CertUtil
 	 * @param signingCert The signing certificate
 	 * @throws CryptoException If there was a problem verifying the signature.
 	 */
-	private static boolean verifyCertificate(X509Certificate signedCert, X509Certificate signingCert)
+	static boolean verifyCertificate(X509Certificate signedCert, X509Certificate signingCert)
 	    throws CryptoException
 	{
+		// Results are cached, the same pairs get verified again on every import
+		ByteBuffer key = SignatureVerificationCache.getKey(signedCert, signingCert);
+		if (key != null)
+		{
+			Boolean bVerified = SignatureVerificationCache.get(key);
+			if (bVerified != null)
+			{
+				return bVerified;
+			}
+		}
+
+		boolean bVerified;
 		try
 		{
 			signedCert.verify(signingCert.getPublicKey());
+			bVerified = true;
 		}
 		// Verification failed
 		catch (InvalidKeyException | SignatureException ex)
 		{
-			return false;
+			bVerified = false;
 		}
 		// Problem verifying
 		catch (GeneralSecurityException ex)
 		{
 			throw new CryptoException(RB.getString("NoVerifyCertificate.exception.message"), ex);
 		}
-		return true;
+
+		if (key != null)
+		{
+			SignatureVerificationCache.put(key, bVerified);
+		}
+		return bVerified;
 	}
 
 	/**
@@ -681,126 +879,111 @@ public final class X509CertUtil
 	public static X509Certificate[] establishTrust(KeyStore[] keyStores, X509Certificate cert)
 	    throws CryptoException
 	{
-		// Extract all certificates from the Keystores creating
-		ArrayList<X509Certificate> ksCerts = new ArrayList<>();
-		for (KeyStore ks : keyStores)
+		return new TrustIndex(keyStores).establishTrust(cert);
+	}
+
+	/**
+	 * Get the key identifier from a certificate's subject key identifier extension.
+	 * 
+	 * @param cert The certificate
+	 * @return The key identifier, null if the extension is absent or malformed
+	 */
+	static byte[] getSubjectKeyIdentifier(X509Certificate cert)
+	{
+		byte[] bValue = cert.getExtensionValue(Extension.subjectKeyIdentifier.getId());
+		if (bValue == null)
 		{
-			ksCerts.addAll(extractCertificates(ks));
+			return null;
+		}
+		try
+		{
+			return SubjectKeyIdentifier.getInstance(ASN1OctetString.getInstance(bValue).getOctets()).getKeyIdentifier();
+		}
+		catch (IllegalArgumentException ex)
+		{
+			return null;
 		}
-
-		// Try and establish trust against the set of all certificates
-		return establishTrust(ksCerts, cert);
 	}
 
 	/**
-	 * Check whether or not a trust path exists between the supplied X.509 certificate and and the supplied comparison
-	 * certificates based on the trusted certificates contained therein, i.e. that a chain of trust exists between the
-	 * supplied certificate and a self-signed trusted certificate in the comparison set.
+	 * Get the key identifier from a certificate's authority key identifier extension.
 	 * 
-	 * @return The trust chain, or null if trust could not be established
 	 * @param cert The certificate
-	 * @param vCompCerts The comparison set of certificates
-	 * @throws CryptoException If there is a problem establishing trust
+	 * @return The key identifier, null if the extension or the key identifier in it is absent or malformed
 	 */
-	private static X509Certificate[] establishTrust(List<X509Certificate> vCompCerts, X509Certificate cert)
-	    throws CryptoException
+	static byte[] getAuthorityKeyIdentifier(X509Certificate cert)
 	{
-		// For each comparison certificate...
-		for (X509Certificate compCert : vCompCerts)
+		byte[] bValue = cert.getExtensionValue(Extension.authorityKeyIdentifier.getId());
+		if (bValue == null)
 		{
-			// Check if the Comparison certificate's subject is the same as the certificate's issuer
-			if (cert.getIssuerDN().equals(compCert.getSubjectDN()))
-			{
-				// If so verify with the comparison certificate's corresponding private key was used to sign
-				// the certificate
-				if (X509CertUtil.verifyCertificate(cert, compCert))
-				{
-					// If the keystore certificate is self-signed then a chain of trust exists
-					if (compCert.getSubjectDN().equals(compCert.getIssuerDN()))
-					{
-						return new X509Certificate[] { cert, compCert };
-					}
-					// Otherwise try and establish a chain of trust for the comparison certificate against the
-					// other comparison certificates
-					X509Certificate[] tmpChain = establishTrust(vCompCerts, compCert);
-					if (tmpChain != null)
-					{
-						X509Certificate[] trustChain = new X509Certificate[tmpChain.length + 1];
-						trustChain[0] = cert;
-						System.arraycopy(tmpChain, 0, trustChain, 1, tmpChain.length);
-						return trustChain;
-					}
-				}
-			}
+			return null;
+		}
+		try
+		{
+			return AuthorityKeyIdentifier.getInstance(ASN1OctetString.getInstance(bValue).getOctets()).getKeyIdentifier();
+		}
+		catch (IllegalArgumentException ex)
+		{
+			return null;
 		}
-
-		// No chain of trust
-		return null;
 	}
 
 	/**
-	 * Extract a copy of all trusted certificates contained within the supplied keystore.
+	 * Get the distribution points in a certificate's CRL distribution points extension.
 	 * 
-	 * @param keyStore The keystore
-	 * @return The extracted certificates
-	 * @throws CryptoException If a problem is encountered extracting the certificates
+	 * @param cert The certificate
+	 * @return The distribution points, empty if the extension is absent or malformed
 	 */
-	private static Collection<X509Certificate> extractCertificates(KeyStore keyStore)
-	    throws CryptoException
+	static DistributionPoint[] getCrlDistributionPoints(X509Certificate cert)
 	{
+		byte[] bValue = cert.getExtensionValue(Extension.cRLDistributionPoints.getId());
+		if (bValue == null)
+		{
+			return new DistributionPoint[0];
+		}
 		try
 		{
-			ArrayList<X509Certificate> vCerts = new ArrayList<>();
-
-			for (Enumeration<String> en = keyStore.aliases(); en.hasMoreElements();)
-			{
-				String sAlias = en.nextElement();
-				if (keyStore.isCertificateEntry(sAlias))
-				{
-					vCerts.add(X509CertUtil.convertCertificate(keyStore.getCertificate(sAlias)));
-				}
-			}
-
-			return vCerts;
+			return CRLDistPoint.getInstance(ASN1OctetString.getInstance(bValue).getOctets()).getDistributionPoints();
 		}
-		catch (KeyStoreException ex)
+		catch (IllegalArgumentException ex)
 		{
-			throw new CryptoException(RB.getString("NoExtractCertificates.exception.message"), ex);
+			// Malformed, treat as absent
+			return new DistributionPoint[0];
 		}
 	}
 
 	/**
-	 * Check whether or not a trusted certificate in the supplied keystore matches the the supplied X.509 certificate.
+	 * Get the URIs of the full name distribution points in a certificate's CRL distribution points extension.
 	 * 
-	 * @return The alias of the matching certificate in the keystore or null if there is no match
 	 * @param cert The certificate
-	 * @param keyStore The keystore
-	 * @throws CryptoException If there is a problem establishing trust
+	 * @return The URIs, empty if the extension is absent or malformed
 	 */
-	public static String matchCertificate(KeyStore keyStore, X509Certificate cert)
-	    throws CryptoException
+	public static List<String> getCrlDistributionPointUris(X509Certificate cert)
 	{
+		ArrayList<String> uris = new ArrayList<>();
 		try
 		{
-			for (Enumeration<String> en = keyStore.aliases(); en.hasMoreElements();)
+			for (DistributionPoint point : getCrlDistributionPoints(cert))
 			{
-				String sAlias = en.nextElement();
-				if (keyStore.isCertificateEntry(sAlias))
+				DistributionPointName dpn = point.getDistributionPoint();
+				if (dpn == null || dpn.getType() != DistributionPointName.FULL_NAME)
 				{
-					X509Certificate compCert = X509CertUtil.convertCertificate(keyStore.getCertificate(sAlias));
-
-					if (cert.equals(compCert))
+					continue;
+				}
+				for (GeneralName name : GeneralNames.getInstance(dpn.getName()).getNames())
+				{
+					if (name.getTagNo() == GeneralName.uniformResourceIdentifier)
 					{
-						return sAlias;
+						uris.add(DERIA5String.getInstance(name.getName()).getString());
 					}
 				}
 			}
-			return null;
 		}
-		catch (KeyStoreException ex)
+		catch (IllegalArgumentException ex)
 		{
-			throw new CryptoException(RB.getString("NoMatchCertificate.exception.message"), ex);
+			// Malformed, treat as absent
 		}
+		return uris;
 	}
 
 	/**
@@ -29,13 +29,23 @@ import java.io.IOException;
 import java.lang.reflect.Method;
 import java.math.BigInteger;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
 import java.text.DateFormat;
 import java.text.MessageFormat;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -209,6 +219,43 @@ public class X509Ext
 		return bValue;
 	}
 
+	/**
+	 * Get the contents of the extension value octet string, without copying them.
+	 * 
+	 * @return Read-only buffer holding the octets
+	 * @throws IOException If the extension value is not a DER encoded octet string
+	 */
+	public ByteBuffer getOctets()
+	    throws IOException
+	{
+		// Parse just the identifier and length octets of the value
+		if (m_bValue.length < 2 || m_bValue[0] != 0x04)
+		{
+			throw new IOException(RB.getString("NoExtensionOctetString.exception.message"));
+		}
+		int iPos = 1;
+		long lLength = m_bValue[iPos++] & 0xFF;
+		if (lLength > 0x7F)
+		{
+			int iOctets = (int) lLength & 0x7F;
+			if (iOctets == 0 || iOctets > 4 || iPos + iOctets > m_bValue.length)
+			{
+				throw new IOException(RB.getString("NoExtensionOctetString.exception.message"));
+			}
+			lLength = 0;
+			for (int i = 0; i < iOctets; i++)
+			{
+				lLength = (lLength << 8) | (m_bValue[iPos++] & 0xFF);
+			}
+		}
+		if (lLength != m_bValue.length - iPos)
+		{
+			throw new IOException(RB.getString("NoExtensionOctetString.exception.message"));
+		}
+
+		return ByteBuffer.wrap(m_bValue, iPos, (int) lLength).slice().asReadOnlyBuffer();
+	}
+
 	/**
 	 * Is extension critical?
 	 * 
@@ -242,157 +289,440 @@ public class X509Ext
 		// Get octet string from extension
 		byte[] bOctets = ((ASN1OctetString) ASN1Primitive.fromByteArray(m_bValue)).getOctets();
 
-		// Octet string processed differently depending on extension type
-		if (m_Oid.equals(X509ObjectIdentifiers.commonName))
+		ExtensionDecoder decoder = Decoders.REGISTRY.get(m_Oid);
+		if (decoder != null)
 		{
-			return getCommonNameStringValue(bOctets);
+			return decoder.decode(this, bOctets);
 		}
-		else if (m_Oid.equals(Extension.subjectKeyIdentifier))
+
+		// TODO:
+		// - CERTIFICATE_POLICIES_OLD_OID
+		// - AUTHORITY_KEY_IDENTIFIER_OLD_OID
+		// - BASIC_CONSTRAINTS_OLD_0_OID
+
+		// Don't know how to process the extension
+		// and clear text
+		return getUnknownOidStringValue(bOctets);
+	}
+
+	/**
+	 * Holder of the extension decoder registry, built on first use.
+	 */
+	private static final class Decoders
+	{
+		/** Extension decoders by extension OID; not modified after construction */
+		static final Map<ASN1ObjectIdentifier, ExtensionDecoder> REGISTRY = load();
+
+		/**
+		 * Build the registry from the built-in decoders and the decoders available through {@link ServiceLoader}.
+		 * Plug-in decoders replace built-in ones for the same OID; plug-ins that fail to load are logged and skipped.
+		 * 
+		 * @return The registry
+		 */
+		private static Map<ASN1ObjectIdentifier, ExtensionDecoder> load()
 		{
-			return getSubjectKeyIdentifierStringValue(bOctets);
+			Map<ASN1ObjectIdentifier, ExtensionDecoder> registry = new HashMap<>();
+			for (BuiltinDecoder decoder : BuiltinDecoder.values())
+			{
+				register(registry, decoder);
+			}
+
+			Iterator<ExtensionDecoder> plugins = ServiceLoader.load(ExtensionDecoder.class).iterator();
+			while (true)
+			{
+				try
+				{
+					if (!plugins.hasNext())
+					{
+						break;
+					}
+					ExtensionDecoder decoder = plugins.next();
+					LOG.log(Level.CONFIG, "Loaded extension decoder {0}", decoder.getClass().getName());
+					register(registry, decoder);
+				}
+				catch (ServiceConfigurationError e)
+				{
+					LOG.log(Level.WARNING, "Could not load extension decoder", e);
+				}
+			}
+			return registry;
 		}
-		else if (m_Oid.equals(Extension.keyUsage))
+
+		/**
+		 * Register a decoder for all of its OIDs.
+		 * 
+		 * @param registry The registry
+		 * @param decoder The decoder
+		 */
+		private static void register(Map<ASN1ObjectIdentifier, ExtensionDecoder> registry, ExtensionDecoder decoder)
 		{
-			return getKeyUsageStringValue(bOctets);
+			for (ASN1ObjectIdentifier oid : decoder.getOids())
+			{
+				registry.put(oid, decoder);
+			}
 		}
-		else if (m_Oid.equals(Extension.privateKeyUsagePeriod))
+	}
+
+	/**
+	 * Built-in extension decoders.
+	 */
+	private static enum BuiltinDecoder
+	    implements ExtensionDecoder
+	{
+		COMMON_NAME(X509ObjectIdentifiers.commonName)
 		{
-			return getPrivateKeyUsagePeriod(bOctets);
-		}
-		else if (m_Oid.equals(Extension.issuerAlternativeName) || m_Oid.equals(Extension.subjectAlternativeName))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getCommonNameStringValue(bOctets);
+			}
+		},
+
+		SUBJECT_KEY_IDENTIFIER(Extension.subjectKeyIdentifier)
 		{
-			return getAlternativeName(bOctets);
-		}
-		else if (m_Oid.equals(Extension.basicConstraints))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getSubjectKeyIdentifierStringValue(bOctets);
+			}
+		},
+
+		KEY_USAGE(Extension.keyUsage)
 		{
-			return getBasicConstraintsStringValue(bOctets);
-		}
-		else if (m_Oid.equals(Extension.cRLNumber))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getKeyUsageStringValue(bOctets);
+			}
+		},
+
+		PRIVATE_KEY_USAGE_PERIOD(Extension.privateKeyUsagePeriod)
 		{
-			return getCrlNumberStringValue(bOctets);
-		}
-		else if (m_Oid.equals(Extension.reasonCode))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException, ParseException
+			{
+				return ext.getPrivateKeyUsagePeriod(bOctets);
+			}
+		},
+
+		ALTERNATIVE_NAME(Extension.issuerAlternativeName, Extension.subjectAlternativeName)
 		{
-			return getReasonCodeStringValue(bOctets);
-		}
-		else if (m_Oid.equals(Extension.instructionCode))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getAlternativeName(bOctets);
+			}
+		},
+
+		BASIC_CONSTRAINTS(Extension.basicConstraints)
 		{
-			return getHoldInstructionCodeStringValue(bOctets);
-		}
-		else if (m_Oid.equals(Extension.invalidityDate))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getBasicConstraintsStringValue(bOctets);
+			}
+		},
+
+		CRL_NUMBER(Extension.cRLNumber)
 		{
-			return getInvalidityDateStringValue(bOctets);
-		}
-		else if (m_Oid.equals(Extension.deltaCRLIndicator))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getCrlNumberStringValue(bOctets);
+			}
+		},
+
+		REASON_CODE(Extension.reasonCode)
 		{
-			return getDeltaCrlIndicatorStringValue(bOctets);
-		}
-		else if (m_Oid.equals(Extension.certificateIssuer))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getReasonCodeStringValue(bOctets);
+			}
+		},
+
+		HOLD_INSTRUCTION_CODE(Extension.instructionCode)
 		{
-			return getCertificateIssuerStringValue(bOctets);
-		}
-		else if (m_Oid.equals(Extension.policyMappings))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getHoldInstructionCodeStringValue(bOctets);
+			}
+		},
+
+		INVALIDITY_DATE(Extension.invalidityDate)
 		{
-			return getPolicyMappingsStringValue(bOctets);
-		}
-		else if (m_Oid.equals(Extension.authorityKeyIdentifier))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException, ParseException
+			{
+				return ext.getInvalidityDateStringValue(bOctets);
+			}
+		},
+
+		DELTA_CRL_INDICATOR(Extension.deltaCRLIndicator)
 		{
-			return getAuthorityKeyIdentifierStringValue(bOctets);
-		}
-		else if (m_Oid.equals(Extension.policyConstraints))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getDeltaCrlIndicatorStringValue(bOctets);
+			}
+		},
+
+		CERTIFICATE_ISSUER(Extension.certificateIssuer)
 		{
-			return getPolicyConstraintsStringValue(bOctets);
-		}
-		else if (m_Oid.equals(Extension.extendedKeyUsage))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getCertificateIssuerStringValue(bOctets);
+			}
+		},
+
+		POLICY_MAPPINGS(Extension.policyMappings)
 		{
-			return getExtendedKeyUsageStringValue(bOctets);
-		}
-		else if (m_Oid.equals(Extension.inhibitAnyPolicy))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getPolicyMappingsStringValue(bOctets);
+			}
+		},
+
+		AUTHORITY_KEY_IDENTIFIER(Extension.authorityKeyIdentifier)
 		{
-			return getInhibitAnyPolicyStringValue(bOctets);
-		}
-		else if (m_Oid.equals(MiscObjectIdentifiers.entrustVersionExtension))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getAuthorityKeyIdentifierStringValue(bOctets);
+			}
+		},
+
+		POLICY_CONSTRAINTS(Extension.policyConstraints)
 		{
-			return getEntrustVersionExtensionStringValue(bOctets);
-		}
-		else if (m_Oid.equals(PKCSObjectIdentifiers.pkcs_9_at_smimeCapabilities))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getPolicyConstraintsStringValue(bOctets);
+			}
+		},
+
+		EXTENDED_KEY_USAGE(Extension.extendedKeyUsage)
 		{
-			return getSmimeCapabilitiesStringValue(bOctets);
-		}
-		else if (m_Oid.equals(MicrosoftObjectIdentifiers.microsoftCaVersion))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getExtendedKeyUsageStringValue(bOctets);
+			}
+		},
+
+		INHIBIT_ANY_POLICY(Extension.inhibitAnyPolicy)
 		{
-			return getMicrosoftCAVersionStringValue(bOctets);
-		}
-		else if (m_Oid.equals(MicrosoftObjectIdentifiers.microsoftPrevCaCertHash))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getInhibitAnyPolicyStringValue(bOctets);
+			}
+		},
+
+		ENTRUST_VERSION(MiscObjectIdentifiers.entrustVersionExtension)
 		{
-			return getMicrosoftPreviousCACertificateHashStringValue(bOctets);
-		}
-		else if (m_Oid.equals(MicrosoftObjectIdentifiers.microsoftCertTemplateV2))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getEntrustVersionExtensionStringValue(bOctets);
+			}
+		},
+
+		SMIME_CAPABILITIES(PKCSObjectIdentifiers.pkcs_9_at_smimeCapabilities)
 		{
-			return getMicrosoftCertificateTemplateV2StringValue(bOctets);
-		}
-		else if (m_Oid.equals(MicrosoftObjectIdentifiers.microsoftAppPolicies))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getSmimeCapabilitiesStringValue(bOctets);
+			}
+		},
+
+		MICROSOFT_CA_VERSION(MicrosoftObjectIdentifiers.microsoftCaVersion)
 		{
-			return getUnknownOidStringValue(bOctets); // TODO
-		}
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getMicrosoftCAVersionStringValue(bOctets);
+			}
+		},
+
+		MICROSOFT_PREVIOUS_CA_CERTIFICATE_HASH(MicrosoftObjectIdentifiers.microsoftPrevCaCertHash)
+		{
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getMicrosoftPreviousCACertificateHashStringValue(bOctets);
+			}
+		},
+
+		MICROSOFT_CERTIFICATE_TEMPLATE_V2(MicrosoftObjectIdentifiers.microsoftCertTemplateV2)
+		{
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getMicrosoftCertificateTemplateV2StringValue(bOctets);
+			}
+		},
+
+		MICROSOFT_APPLICATION_POLICIES(MicrosoftObjectIdentifiers.microsoftAppPolicies)
+		{
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getUnknownOidStringValue(bOctets); // TODO
+			}
+		},
 		// TODO: https://github.com/bcgit/bc-java/pull/92
-		else if (m_Oid.toString().equals("1.3.6.1.4.1.311.21.4"))
+
+		MICROSOFT_CRL_NEXT_PUBLISH(new ASN1ObjectIdentifier("1.3.6.1.4.1.311.21.4"))
 		{
-			return getMicrosoftCrlNextPublish(bOctets);
-		}
-		else if (m_Oid.equals(Extension.authorityInfoAccess) || m_Oid.equals(Extension.subjectInfoAccess))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getMicrosoftCrlNextPublish(bOctets);
+			}
+		},
+
+		INFORMATION_ACCESS(Extension.authorityInfoAccess, Extension.subjectInfoAccess)
 		{
-			return getInformationAccessStringValue(bOctets);
-		}
-		else if (m_Oid.equals(Extension.logoType))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getInformationAccessStringValue(bOctets);
+			}
+		},
+
+		LOGOTYPE(Extension.logoType)
 		{
-			return getLogotypeStringValue(bOctets);
-		}
-		else if (m_Oid.equals(MiscObjectIdentifiers.novellSecurityAttribs))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getLogotypeStringValue(bOctets);
+			}
+		},
+
+		NOVELL_SECURITY_ATTRIBUTES(MiscObjectIdentifiers.novellSecurityAttribs)
 		{
-			return getNovellSecurityAttributesStringValue(bOctets);
-		}
-		else if (m_Oid.equals(MiscObjectIdentifiers.netscapeCertType))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getNovellSecurityAttributesStringValue(bOctets);
+			}
+		},
+
+		NETSCAPE_CERTIFICATE_TYPE(MiscObjectIdentifiers.netscapeCertType)
 		{
-			return getNetscapeCertificateTypeStringValue(bOctets);
-		}
-		else if (m_Oid.equals(MiscObjectIdentifiers.netscapeSSLServerName) ||
-		    m_Oid.equals(MiscObjectIdentifiers.netscapeCertComment) ||
-		    m_Oid.equals(MiscObjectIdentifiers.verisignDnbDunsNumber) ||
-		    m_Oid.equals(MicrosoftObjectIdentifiers.microsoftCertTemplateV1))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getNetscapeCertificateTypeStringValue(bOctets);
+			}
+		},
+
+		ASN1_OBJECT_STRING(MiscObjectIdentifiers.netscapeSSLServerName,
+		    MiscObjectIdentifiers.netscapeCertComment,
+		    MiscObjectIdentifiers.verisignDnbDunsNumber,
+		    MicrosoftObjectIdentifiers.microsoftCertTemplateV1)
 		{
-			return getASN1ObjectString(bOctets);
-		}
-		else if (m_Oid.equals(MiscObjectIdentifiers.netscapeCApolicyURL))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getASN1ObjectString(bOctets);
+			}
+		},
+
+		NETSCAPE_BROWSER_URL(MiscObjectIdentifiers.netscapeCApolicyURL)
 		{
-			return getNetscapeExtensionURLValue(bOctets, LinkClass.BROWSER);
-		}
-		else if (m_Oid.equals(MiscObjectIdentifiers.netscapeBaseURL) ||
-		    m_Oid.equals(MiscObjectIdentifiers.netscapeRenewalURL) ||
-		    m_Oid.equals(MiscObjectIdentifiers.netscapeRevocationURL) ||
-		    m_Oid.equals(MiscObjectIdentifiers.netscapeCARevocationURL))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getNetscapeExtensionURLValue(bOctets, LinkClass.BROWSER);
+			}
+		},
+
+		NETSCAPE_CRL_URL(MiscObjectIdentifiers.netscapeBaseURL,
+		    MiscObjectIdentifiers.netscapeRenewalURL,
+		    MiscObjectIdentifiers.netscapeRevocationURL,
+		    MiscObjectIdentifiers.netscapeCARevocationURL)
 		{
-			return getNetscapeExtensionURLValue(bOctets, LinkClass.CRL);
-		}
-		else if (m_Oid.equals(Extension.cRLDistributionPoints))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getNetscapeExtensionURLValue(bOctets, LinkClass.CRL);
+			}
+		},
+
+		CRL_DISTRIBUTION_POINTS(Extension.cRLDistributionPoints)
 		{
-			return getCrlDistributionPointsStringValue(bOctets);
-		}
-		else if (m_Oid.equals(Extension.certificatePolicies))
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getCrlDistributionPointsStringValue(bOctets);
+			}
+		},
+
+		CERTIFICATE_POLICIES(Extension.certificatePolicies)
 		{
-			return getCertificatePoliciesStringValue(bOctets);
-		}
+			@Override
+			public String decode(X509Ext ext, byte[] bOctets)
+			    throws IOException
+			{
+				return ext.getCertificatePoliciesStringValue(bOctets);
+			}
+		};
 
-		// TODO:
-		// - CERTIFICATE_POLICIES_OLD_OID
-		// - AUTHORITY_KEY_IDENTIFIER_OLD_OID
-		// - BASIC_CONSTRAINTS_OLD_0_OID
+		/** OIDs of the extensions handled by the decoder */
+		private final List<ASN1ObjectIdentifier> m_oids;
 
-		// Don't know how to process the extension
-		// and clear text
-		else
+		/**
+		 * Construct a BuiltinDecoder.
+		 * 
+		 * @param oids OIDs of the extensions handled by the decoder
+		 */
+		private BuiltinDecoder(ASN1ObjectIdentifier... oids)
+		{
+			m_oids = Collections.unmodifiableList(Arrays.asList(oids));
+		}
+
+		@Override
+		public Collection<ASN1ObjectIdentifier> getOids()
 		{
-			return getUnknownOidStringValue(bOctets);
+			return m_oids;
 		}
 	}
 
@@ -0,0 +1,262 @@
+/*
+ * BackgroundTask.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.gui;
+
+import java.awt.Window;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.swing.JOptionPane;
+import javax.swing.RootPaneContainer;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+import net.sf.portecle.gui.error.DThrowable;
+import net.sf.portecle.gui.statusbar.StatusBar;
+
+/**
+ * Runs crypto and I/O work off the event dispatch thread while the calling code on the event dispatch thread waits for
+ * its result. Status messages published by the task are shown in a status bar, the parent window shows a busy cursor
+ * while the task runs, and a progress dialog allowing cancellation is shown if the task does not complete quickly.
+ * 
+ * @param <T> The result type of the task
+ */
+public abstract class BackgroundTask<T>
+    extends SwingWorker<T, String>
+{
+	/** Time in milliseconds to wait for the task to complete before showing the progress dialog */
+	private static final long PROGRESS_DELAY = 250;
+
+	/** Parent window */
+	private final Window m_parent;
+
+	/** Status bar to show status messages in, may be null */
+	private final StatusBar m_statusBar;
+
+	/** Message describing the task */
+	private final String m_sMessage;
+
+	/** Progress dialog, null if not shown */
+	private DTaskProgress m_dProgress;
+
+	/**
+	 * Construct a BackgroundTask.
+	 * 
+	 * @param parent Parent window
+	 * @param statusBar Status bar to show status messages in, may be null
+	 * @param sMessage Message describing the task, shown in the status bar and the progress dialog
+	 */
+	protected BackgroundTask(Window parent, StatusBar statusBar, String sMessage)
+	{
+		m_parent = parent;
+		m_statusBar = statusBar;
+		m_sMessage = sMessage;
+
+		addPropertyChangeListener(new PropertyChangeListener()
+		{
+			@Override
+			public void propertyChange(PropertyChangeEvent evt)
+			{
+				if ("progress".equals(evt.getPropertyName()) && m_dProgress != null)
+				{
+					m_dProgress.setProgress((Integer) evt.getNewValue());
+				}
+			}
+		});
+	}
+
+	/**
+	 * Run the task in the background and wait for it to complete. Must be called on the event dispatch thread, which
+	 * keeps processing events while the progress dialog is shown.
+	 * 
+	 * @return The result of the task
+	 * @throws CancellationException If the user cancelled the task
+	 * @throws Exception The exception the task failed with
+	 */
+	public T runAndWait()
+	    throws Exception
+	{
+		boolean bSetBusy = false;
+		if (m_parent instanceof RootPaneContainer && !SwingHelper.isCursorBusy((RootPaneContainer) m_parent))
+		{
+			SwingHelper.setCursorBusy((RootPaneContainer) m_parent);
+			bSetBusy = true;
+		}
+		if (m_statusBar != null)
+		{
+			m_statusBar.setStatusBarText(m_sMessage);
+		}
+
+		execute();
+
+		try
+		{
+			try
+			{
+				return get(PROGRESS_DELAY, TimeUnit.MILLISECONDS);
+			}
+			catch (TimeoutException e)
+			{
+				// Taking a while - show the progress dialog until done() or the user closes it
+				m_dProgress = new DTaskProgress(m_parent, this, m_sMessage);
+				m_dProgress.setLocationRelativeTo(m_parent);
+				SwingHelper.showAndWait(m_dProgress);
+				if (!isDone())
+				{
+					cancel(true);
+				}
+				return get();
+			}
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception)
+			{
+				throw (Exception) cause;
+			}
+			if (cause instanceof Error)
+			{
+				throw (Error) cause;
+			}
+			throw e;
+		}
+		finally
+		{
+			m_dProgress = null;
+			if (m_statusBar != null)
+			{
+				m_statusBar.setDefaultStatusBarText();
+			}
+			if (bSetBusy)
+			{
+				SwingHelper.setCursorFree((RootPaneContainer) m_parent);
+			}
+		}
+	}
+
+	/**
+	 * Run the task in the background and wait for it to complete, showing errors to the user.
+	 * 
+	 * @return The result of the task, null if it was cancelled or failed
+	 */
+	public T runAndShowErrors()
+	{
+		try
+		{
+			return runAndWait();
+		}
+		catch (CancellationException e)
+		{
+			return null;
+		}
+		catch (Exception e)
+		{
+			DThrowable.showAndWait(m_parent, null, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Can the user cancel the task? Tasks whose work continues regardless of cancellation, for example writing files,
+	 * should return false.
+	 * 
+	 * @return true if the task is cancellable, false otherwise
+	 */
+	public boolean isCancellable()
+	{
+		return true;
+	}
+
+	/**
+	 * Show a status message in the status bar. May be called from the background thread.
+	 * 
+	 * @param sStatus The status message
+	 */
+	protected void setStatus(String sStatus)
+	{
+		publish(sStatus);
+	}
+
+	/**
+	 * Ask the user a yes/no question. May be called from the background thread, which waits for the answer.
+	 * 
+	 * @param sMessage The question
+	 * @param sTitle The dialog title
+	 * @return The selected option, see {@link JOptionPane#showConfirmDialog(java.awt.Component, Object, String, int)}
+	 * @throws InterruptedException If interrupted while waiting for the answer
+	 */
+	protected int showConfirmDialog(final String sMessage, final String sTitle)
+	    throws InterruptedException
+	{
+		final int[] iSelected = { JOptionPane.CLOSED_OPTION };
+		Runnable ask = new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				Window parent = (m_dProgress != null) ? m_dProgress : m_parent;
+				iSelected[0] = JOptionPane.showConfirmDialog(parent, sMessage, sTitle, JOptionPane.YES_NO_OPTION);
+			}
+		};
+		if (SwingUtilities.isEventDispatchThread())
+		{
+			ask.run();
+		}
+		else
+		{
+			try
+			{
+				SwingUtilities.invokeAndWait(ask);
+			}
+			catch (InvocationTargetException e)
+			{
+				throw new RuntimeException(e.getCause());
+			}
+		}
+		return iSelected[0];
+	}
+
+	@Override
+	protected void process(List<String> statuses)
+	{
+		if (m_statusBar != null && !isDone())
+		{
+			m_statusBar.setStatusBarText(statuses.get(statuses.size() - 1));
+		}
+	}
+
+	@Override
+	protected void done()
+	{
+		if (m_dProgress != null)
+		{
+			m_dProgress.dispose();
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * DTaskProgress.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.gui;
+
+import static net.sf.portecle.FPortecle.RB;
+
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Window;
+
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.border.EmptyBorder;
+
+import net.sf.portecle.PortecleJDialog;
+
+/**
+ * Modal dialog showing the progress of a background task. If the task is cancellable, the user may cancel it at any time
+ * by pressing the cancel button.
+ */
+class DTaskProgress
+    extends PortecleJDialog
+{
+	/** The task */
+	private final BackgroundTask<?> m_task;
+
+	/** Progress bar */
+	private JProgressBar m_jpbProgress;
+
+	/**
+	 * Creates new DTaskProgress dialog.
+	 * 
+	 * @param parent The parent window
+	 * @param task The task
+	 * @param sMessage Message describing the task
+	 */
+	public DTaskProgress(Window parent, BackgroundTask<?> task, String sMessage)
+	{
+		super(parent, true);
+		m_task = task;
+		initComponents(sMessage);
+	}
+
+	/**
+	 * Initialize the dialog's GUI components.
+	 * 
+	 * @param sMessage Message describing the task
+	 */
+	private void initComponents(String sMessage)
+	{
+		// Message label
+		JLabel jlMessage = new JLabel(sMessage);
+		JPanel jpMessage = new JPanel(new FlowLayout(FlowLayout.CENTER));
+		jpMessage.add(jlMessage);
+		jpMessage.setBorder(new EmptyBorder(5, 5, 0, 5));
+
+		// Progress bar
+		m_jpbProgress = new JProgressBar(0, 100);
+		m_jpbProgress.setIndeterminate(true);
+		JPanel jpProgress = new JPanel(new BorderLayout());
+		jpProgress.add(m_jpbProgress, BorderLayout.CENTER);
+		jpProgress.setBorder(new EmptyBorder(5, 5, 5, 5));
+
+		getContentPane().add(jpMessage, BorderLayout.NORTH);
+		getContentPane().add(jpProgress, BorderLayout.CENTER);
+
+		// Cancel button
+		if (m_task.isCancellable())
+		{
+			JButton jbCancel = getCancelButton();
+			JPanel jpCancel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+			jpCancel.add(jbCancel);
+			getContentPane().add(jpCancel, BorderLayout.SOUTH);
+		}
+
+		setTitle(RB.getString("DTaskProgress.Title"));
+
+		initDialog();
+	}
+
+	/**
+	 * Set the progress to show.
+	 * 
+	 * @param iProgress Progress percentage, 0-100
+	 */
+	public void setProgress(int iProgress)
+	{
+		m_jpbProgress.setIndeterminate(false);
+		m_jpbProgress.setValue(iProgress);
+	}
+
+	/**
+	 * Cancel button pressed or otherwise activated - cancel the task.
+	 */
+	@Override
+	protected void cancelPressed()
+	{
+		m_task.cancel(true);
+		super.cancelPressed();
+	}
+
+	/**
+	 * Closes the dialog, unless the task is still running and cannot be cancelled.
+	 */
+	@Override
+	protected void closeDialog()
+	{
+		if (m_task.isCancellable() || m_task.isDone())
+		{
+			super.closeDialog();
+		}
+	}
+}
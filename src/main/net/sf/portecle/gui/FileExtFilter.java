@@ -62,6 +62,16 @@ public class FileExtFilter
 		m_sDescription = sDescription;
 	}
 
+	/**
+	 * Get the default extension of the filter.
+	 * 
+	 * @return The first of the filter's extensions
+	 */
+	public String getDefaultExtension()
+	{
+		return m_sExts[0];
+	}
+
 	/**
 	 * Does the supplied file match the filter?
 	 * 
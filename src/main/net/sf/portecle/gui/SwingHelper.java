@@ -24,13 +24,16 @@ package net.sf.portecle.gui;
 import static net.sf.portecle.FPortecle.LOG;
 
 import java.awt.Component;
+import java.awt.Cursor;
 import java.awt.Window;
+import java.awt.event.MouseAdapter;
 import java.lang.reflect.InvocationTargetException;
 import java.util.logging.Level;
 
 import javax.swing.JComboBox;
 import javax.swing.JComponent;
 import javax.swing.JOptionPane;
+import javax.swing.RootPaneContainer;
 import javax.swing.SwingUtilities;
 import javax.swing.text.JTextComponent;
 
@@ -76,6 +79,51 @@ public final class SwingHelper
 		}
 	}
 
+	/**
+	 * Set cursor to busy and disable input in a window. This can be reversed by a subsequent call to setCursorFree.
+	 * 
+	 * @param window The window
+	 */
+	public static void setCursorBusy(RootPaneContainer window)
+	{
+		// Block all mouse events using glass pane
+		Component glassPane = window.getRootPane().getGlassPane();
+		glassPane.addMouseListener(new MouseAdapter()
+		{
+			// Nothing
+		});
+		glassPane.setVisible(true);
+
+		// Set cursor to busy
+		glassPane.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+	}
+
+	/**
+	 * Set cursor to free and enable input in a window. Called after a call to setCursorBusy.
+	 * 
+	 * @param window The window
+	 */
+	public static void setCursorFree(RootPaneContainer window)
+	{
+		// Accept mouse events
+		Component glassPane = window.getRootPane().getGlassPane();
+		glassPane.setVisible(false);
+
+		// Revert cursor to default
+		glassPane.setCursor(Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR));
+	}
+
+	/**
+	 * Check whether a window is set busy by setCursorBusy.
+	 * 
+	 * @param window The window
+	 * @return true if the window is busy, false otherwise
+	 */
+	public static boolean isCursorBusy(RootPaneContainer window)
+	{
+		return window.getRootPane().getGlassPane().isVisible();
+	}
+
 	/**
 	 * Select all text in a text component and focus it.
 	 * 
@@ -0,0 +1,553 @@
+/*
+ * Asn1TreeModel.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.gui.crypto;
+
+import static net.sf.portecle.FPortecle.RB;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+
+/**
+ * Tree model of the DER encoded ASN.1 structure of some bytes. Only the identifier and length octets of the elements
+ * are parsed, and the elements inside a constructed element are parsed only when the tree asks for them, so the cost
+ * of showing the tree depends on the elements shown rather than on the size of the data. Element values are shown as
+ * a short preview; invalid encodings end up in an error node covering the rest of the enclosing element.
+ */
+class Asn1TreeModel
+    implements TreeModel
+{
+	/** Names of the universal class tags, null where there is none */
+	private static final String[] UNIVERSAL_TAGS = { "EOC", "BOOLEAN", "INTEGER", "BIT STRING", "OCTET STRING",
+	    "NULL", "OBJECT IDENTIFIER", "ObjectDescriptor", "EXTERNAL", "REAL", "ENUMERATED", "EMBEDDED PDV",
+	    "UTF8String", "RELATIVE-OID", "TIME", null, "SEQUENCE", "SET", "NumericString", "PrintableString",
+	    "T61String", "VideotexString", "IA5String", "UTCTime", "GeneralizedTime", "GraphicString", "VisibleString",
+	    "GeneralString", "UniversalString", "CHARACTER STRING", "BMPString" };
+
+	/** Tag class: universal */
+	private static final int UNIVERSAL = 0x00;
+
+	/** Tag class: context specific */
+	private static final int CONTEXT_SPECIFIC = 0x80;
+
+	/** Tag class: application */
+	private static final int APPLICATION = 0x40;
+
+	/** Constructed bit of the identifier octet */
+	private static final int CONSTRUCTED = 0x20;
+
+	/** Maximum number of value bytes included in node previews */
+	private static final int PREVIEW_BYTES = 32;
+
+	/** Hex digits */
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	/** Node name format */
+	private final MessageFormat m_nodeFormat = new MessageFormat(RB.getString("DViewBytes.Node"));
+
+	/** Node name format with value preview */
+	private final MessageFormat m_nodeValueFormat = new MessageFormat(RB.getString("DViewBytes.NodeValue"));
+
+	/** The bytes, from position 0 to the limit */
+	private final ByteBuffer m_data;
+
+	/** Root node */
+	private final Node m_root;
+
+	/**
+	 * Construct a new Asn1TreeModel.
+	 * 
+	 * @param data The bytes to display, from the buffer's position to its limit; the buffer is not modified
+	 */
+	public Asn1TreeModel(ByteBuffer data)
+	{
+		m_data = data.slice();
+
+		// A single top level element is the root; otherwise a node covering all the data holds the elements
+		Node root = new Node(0, m_data.limit());
+		if (root.getChildren().size() == 1 && root.getChildren().get(0).m_sError == null)
+		{
+			root = root.getChildren().get(0);
+		}
+		m_root = root;
+	}
+
+	@Override
+	public Object getRoot()
+	{
+		return m_root;
+	}
+
+	@Override
+	public Object getChild(Object parent, int iIndex)
+	{
+		return ((Node) parent).getChildren().get(iIndex);
+	}
+
+	@Override
+	public int getChildCount(Object parent)
+	{
+		return ((Node) parent).getChildren().size();
+	}
+
+	@Override
+	public boolean isLeaf(Object node)
+	{
+		return !((Node) node).hasChildren();
+	}
+
+	@Override
+	public int getIndexOfChild(Object parent, Object child)
+	{
+		if (parent == null || child == null)
+		{
+			return -1;
+		}
+		return ((Node) parent).getChildren().indexOf(child);
+	}
+
+	@Override
+	public void valueForPathChanged(TreePath path, Object newValue)
+	{
+		// Not editable
+	}
+
+	@Override
+	public void addTreeModelListener(TreeModelListener listener)
+	{
+		// The model never changes
+	}
+
+	@Override
+	public void removeTreeModelListener(TreeModelListener listener)
+	{
+		// The model never changes
+	}
+
+	/**
+	 * Parse the elements in a range of the data.
+	 * 
+	 * @param iStart Start offset of the range
+	 * @param iEnd End offset of the range, exclusive
+	 * @return The elements; the last one is an error node if the range does not consist of valid elements
+	 */
+	private List<Node> parseElements(int iStart, int iEnd)
+	{
+		List<Node> elements = new ArrayList<>();
+		int iPos = iStart;
+		while (iPos < iEnd)
+		{
+			Node element = parseElement(iPos, iEnd);
+			elements.add(element);
+			if (element.m_sError != null)
+			{
+				break;
+			}
+			iPos = element.getEnd();
+		}
+		return elements;
+	}
+
+	/**
+	 * Parse the identifier and length octets of an element.
+	 * 
+	 * @param iOffset Offset of the element
+	 * @param iEnd End offset of the enclosing range, exclusive
+	 * @return The element, or an error node covering the rest of the range if the element is not validly encoded
+	 */
+	private Node parseElement(int iOffset, int iEnd)
+	{
+		int iPos = iOffset;
+
+		// Identifier octets
+		int iIdentifier = m_data.get(iPos++) & 0xFF;
+		int iTagNumber = iIdentifier & 0x1F;
+		if (iTagNumber == 0x1F)
+		{
+			// High tag number form
+			iTagNumber = 0;
+			int b;
+			do
+			{
+				if (iPos >= iEnd || iTagNumber > (Integer.MAX_VALUE >> 7))
+				{
+					return new Node(iOffset, iEnd, RB.getString("DViewBytes.InvalidTag"));
+				}
+				b = m_data.get(iPos++) & 0xFF;
+				iTagNumber = (iTagNumber << 7) | (b & 0x7F);
+			}
+			while ((b & 0x80) != 0);
+		}
+
+		// Length octets
+		if (iPos >= iEnd)
+		{
+			return new Node(iOffset, iEnd, RB.getString("DViewBytes.InvalidLength"));
+		}
+		int iLength = m_data.get(iPos++) & 0xFF;
+		if (iLength > 0x7F)
+		{
+			// Long form; the indefinite form (0x80) is not allowed in DER
+			int iOctets = iLength & 0x7F;
+			if (iOctets == 0 || iOctets > 4 || iPos + iOctets > iEnd)
+			{
+				return new Node(iOffset, iEnd, RB.getString("DViewBytes.InvalidLength"));
+			}
+			long lLength = 0;
+			for (int i = 0; i < iOctets; i++)
+			{
+				lLength = (lLength << 8) | (m_data.get(iPos++) & 0xFF);
+			}
+			if (lLength > iEnd - iPos)
+			{
+				return new Node(iOffset, iEnd, RB.getString("DViewBytes.InvalidLength"));
+			}
+			iLength = (int) lLength;
+		}
+		else if (iLength > iEnd - iPos)
+		{
+			return new Node(iOffset, iEnd, RB.getString("DViewBytes.InvalidLength"));
+		}
+
+		return new Node(iOffset, iPos - iOffset, iLength, iIdentifier, iTagNumber);
+	}
+
+	/**
+	 * An element of the tree.
+	 */
+	class Node
+	{
+		/** Offset of the element */
+		private final int m_iOffset;
+
+		/** Length of the identifier and length octets */
+		private final int m_iHeaderLength;
+
+		/** Length of the contents octets */
+		private final int m_iLength;
+
+		/** Identifier octet, -1 for nodes that are not elements */
+		private final int m_iIdentifier;
+
+		/** Tag number */
+		private final int m_iTagNumber;
+
+		/** Error message for nodes covering invalid encodings, null otherwise */
+		private final String m_sError;
+
+		/** Child nodes, null if not parsed yet */
+		private List<Node> m_children;
+
+		/** Node name, null if not formatted yet */
+		private String m_sName;
+
+		/**
+		 * Construct an element node.
+		 * 
+		 * @param iOffset Offset of the element
+		 * @param iHeaderLength Length of the identifier and length octets
+		 * @param iLength Length of the contents octets
+		 * @param iIdentifier Identifier octet
+		 * @param iTagNumber Tag number
+		 */
+		private Node(int iOffset, int iHeaderLength, int iLength, int iIdentifier, int iTagNumber)
+		{
+			m_iOffset = iOffset;
+			m_iHeaderLength = iHeaderLength;
+			m_iLength = iLength;
+			m_iIdentifier = iIdentifier;
+			m_iTagNumber = iTagNumber;
+			m_sError = null;
+		}
+
+		/**
+		 * Construct a node holding the elements in a range of the data.
+		 * 
+		 * @param iOffset Start offset of the range
+		 * @param iLength Length of the range
+		 */
+		private Node(int iOffset, int iLength)
+		{
+			this(iOffset, 0, iLength, -1, 0);
+		}
+
+		/**
+		 * Construct an error node.
+		 * 
+		 * @param iOffset Offset of the invalid encoding
+		 * @param iEnd End offset of the invalid encoding, exclusive
+		 * @param sError Error message
+		 */
+		private Node(int iOffset, int iEnd, String sError)
+		{
+			m_iOffset = iOffset;
+			m_iHeaderLength = 0;
+			m_iLength = iEnd - iOffset;
+			m_iIdentifier = -1;
+			m_iTagNumber = 0;
+			m_sError = sError;
+			m_children = Collections.emptyList();
+		}
+
+		/**
+		 * Get the offset of the element.
+		 * 
+		 * @return The offset
+		 */
+		public int getOffset()
+		{
+			return m_iOffset;
+		}
+
+		/**
+		 * Get the end offset of the element.
+		 * 
+		 * @return The end offset, exclusive
+		 */
+		public int getEnd()
+		{
+			return m_iOffset + m_iHeaderLength + m_iLength;
+		}
+
+		/**
+		 * Can the node have child nodes? Answered without parsing the contents.
+		 * 
+		 * @return True if the node is constructed and not empty, false otherwise
+		 */
+		private boolean hasChildren()
+		{
+			if (m_children != null)
+			{
+				return !m_children.isEmpty();
+			}
+			return m_iLength != 0 && (m_iIdentifier == -1 || (m_iIdentifier & CONSTRUCTED) != 0);
+		}
+
+		/**
+		 * Get the child nodes, parsing them on first call.
+		 * 
+		 * @return The child nodes
+		 */
+		private List<Node> getChildren()
+		{
+			if (m_children == null)
+			{
+				if (hasChildren())
+				{
+					int iStart = m_iOffset + m_iHeaderLength;
+					m_children = parseElements(iStart, iStart + m_iLength);
+				}
+				else
+				{
+					m_children = Collections.emptyList();
+				}
+			}
+			return m_children;
+		}
+
+		/**
+		 * Get the name of the node, showing the element's tag, length and a preview of its value.
+		 * 
+		 * @return The name
+		 */
+		@Override
+		public String toString()
+		{
+			if (m_sName == null)
+			{
+				if (m_sError != null)
+				{
+					m_sName = m_nodeFormat.format(new Object[] { m_sError, m_iLength });
+				}
+				else if (m_iIdentifier == -1)
+				{
+					m_sName = MessageFormat.format(RB.getString("DViewBytes.Data"), m_iLength);
+				}
+				else
+				{
+					String sPreview = getPreview();
+					if (sPreview == null)
+					{
+						m_sName = m_nodeFormat.format(new Object[] { getTagName(), m_iLength });
+					}
+					else
+					{
+						m_sName = m_nodeValueFormat.format(new Object[] { getTagName(), m_iLength, sPreview });
+					}
+				}
+			}
+			return m_sName;
+		}
+
+		/**
+		 * Get the name of the element's tag.
+		 * 
+		 * @return The tag name
+		 */
+		private String getTagName()
+		{
+			switch (m_iIdentifier & 0xC0)
+			{
+				case UNIVERSAL:
+					if (m_iTagNumber < UNIVERSAL_TAGS.length && UNIVERSAL_TAGS[m_iTagNumber] != null)
+					{
+						return UNIVERSAL_TAGS[m_iTagNumber];
+					}
+					return "[UNIVERSAL " + m_iTagNumber + "]";
+				case CONTEXT_SPECIFIC:
+					return "[" + m_iTagNumber + "]";
+				case APPLICATION:
+					return "[APPLICATION " + m_iTagNumber + "]";
+				default:
+					return "[PRIVATE " + m_iTagNumber + "]";
+			}
+		}
+
+		/**
+		 * Get a preview of the element's value, decoding at most {@link #PREVIEW_BYTES} bytes of it.
+		 * 
+		 * @return The preview, null if the element is constructed or empty
+		 */
+		private String getPreview()
+		{
+			if ((m_iIdentifier & CONSTRUCTED) != 0 || m_iLength == 0)
+			{
+				return null;
+			}
+
+			int iStart = m_iOffset + m_iHeaderLength;
+			int iLen = Math.min(m_iLength, PREVIEW_BYTES);
+			String sPreview = null;
+
+			if ((m_iIdentifier & 0xC0) == UNIVERSAL)
+			{
+				switch (m_iTagNumber)
+				{
+					case 1: // BOOLEAN
+						sPreview = (m_data.get(iStart) == 0) ? "FALSE" : "TRUE";
+						break;
+					case 6: // OBJECT IDENTIFIER
+						if (m_iLength <= PREVIEW_BYTES)
+						{
+							sPreview = getOid(iStart, m_iLength);
+						}
+						break;
+					case 12: // UTF8String
+						sPreview = getString(iStart, iLen, StandardCharsets.UTF_8);
+						break;
+					case 18: // NumericString
+					case 19: // PrintableString
+					case 22: // IA5String
+					case 23: // UTCTime
+					case 24: // GeneralizedTime
+					case 26: // VisibleString
+						sPreview = getString(iStart, iLen, StandardCharsets.US_ASCII);
+						break;
+					case 30: // BMPString
+						sPreview = getString(iStart, iLen & ~1, StandardCharsets.UTF_16BE);
+						break;
+				}
+			}
+
+			if (sPreview == null)
+			{
+				char[] hex = new char[iLen * 2];
+				for (int i = 0; i < iLen; i++)
+				{
+					byte b = m_data.get(iStart + i);
+					hex[i * 2] = HEX_DIGITS[(b >> 4) & 0xF];
+					hex[i * 2 + 1] = HEX_DIGITS[b & 0xF];
+				}
+				sPreview = new String(hex);
+			}
+			if (iLen < m_iLength)
+			{
+				sPreview += "…";
+			}
+			return sPreview;
+		}
+
+		/**
+		 * Decode a string.
+		 * 
+		 * @param iStart Offset of the string
+		 * @param iLen Length of the string in bytes
+		 * @param charset Character set of the string
+		 * @return The string
+		 */
+		private String getString(int iStart, int iLen, Charset charset)
+		{
+			ByteBuffer bytes = m_data.duplicate();
+			bytes.limit(iStart + iLen).position(iStart);
+			return '"' + charset.decode(bytes).toString() + '"';
+		}
+
+		/**
+		 * Decode an object identifier.
+		 * 
+		 * @param iStart Offset of the contents octets
+		 * @param iLen Length of the contents octets
+		 * @return The object identifier in dotted form, null if it is not validly encoded
+		 */
+		private String getOid(int iStart, int iLen)
+		{
+			StringBuilder sb = new StringBuilder();
+			long lArc = 0;
+			for (int i = 0; i < iLen; i++)
+			{
+				int b = m_data.get(iStart + i) & 0xFF;
+				if (lArc > (Long.MAX_VALUE >> 7))
+				{
+					return null;
+				}
+				lArc = (lArc << 7) | (b & 0x7F);
+				if ((b & 0x80) == 0)
+				{
+					if (sb.length() == 0)
+					{
+						// First subidentifier holds the first two arcs
+						int iFirst = (int) Math.min(lArc / 40, 2);
+						sb.append(iFirst).append('.').append(lArc - iFirst * 40);
+					}
+					else
+					{
+						sb.append('.').append(lArc);
+					}
+					lArc = 0;
+				}
+				else if (i == iLen - 1)
+				{
+					return null;
+				}
+			}
+			return sb.toString();
+		}
+	}
+}
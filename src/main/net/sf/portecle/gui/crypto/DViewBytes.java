@@ -0,0 +1,175 @@
+/*
+ * DViewBytes.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.gui.crypto;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Window;
+import java.nio.ByteBuffer;
+
+import javax.swing.JButton;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTable;
+import javax.swing.JTree;
+import javax.swing.ListSelectionModel;
+import javax.swing.ScrollPaneConstants;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.TreeSelectionEvent;
+import javax.swing.event.TreeSelectionListener;
+import javax.swing.tree.TreeSelectionModel;
+
+import net.sf.portecle.PortecleJDialog;
+
+/**
+ * Modal dialog to display bytes as an ASN.1 tree and a hex dump. Both views are virtualized: tree nodes are parsed as
+ * they are expanded and hex rows are formatted as they are shown, reading straight from the given buffer, so large
+ * values display as quickly as small ones. Selecting a tree node selects its bytes in the hex dump.
+ */
+public class DViewBytes
+    extends PortecleJDialog
+{
+	/** The bytes to display */
+	private final ByteBuffer m_data;
+
+	/** ASN.1 tree */
+	private JTree m_jtrAsn1;
+
+	/** Hex dump table */
+	private JTable m_jtHex;
+
+	/**
+	 * Creates new DViewBytes dialog.
+	 * 
+	 * @param parent Parent window
+	 * @param sTitle The dialog title
+	 * @param data The bytes to display, from the buffer's position to its limit; the buffer is not modified
+	 */
+	public DViewBytes(Window parent, String sTitle, ByteBuffer data)
+	{
+		super(parent, sTitle, true);
+		m_data = data.slice();
+		initComponents();
+	}
+
+	/**
+	 * Initialize the dialog's GUI components.
+	 */
+	private void initComponents()
+	{
+		// ASN.1 tree
+		m_jtrAsn1 = new JTree(new Asn1TreeModel(m_data));
+		m_jtrAsn1.setLargeModel(true);
+		m_jtrAsn1.setRowHeight(18);
+		m_jtrAsn1.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
+		m_jtrAsn1.expandRow(0);
+
+		m_jtrAsn1.addTreeSelectionListener(new TreeSelectionListener()
+		{
+			@Override
+			public void valueChanged(TreeSelectionEvent evt)
+			{
+				selectionChanged();
+			}
+		});
+
+		JScrollPane jspAsn1 = new JScrollPane(m_jtrAsn1, ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED,
+		    ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+		jspAsn1.setPreferredSize(new Dimension(600, 200));
+
+		// Hex dump table
+		m_jtHex = new JTable(new HexTableModel(m_data));
+		m_jtHex.setFont(new Font(Font.MONOSPACED, Font.PLAIN, m_jtHex.getFont().getSize()));
+		m_jtHex.setShowGrid(false);
+		m_jtHex.setRowMargin(0);
+		m_jtHex.getColumnModel().setColumnMargin(0);
+		m_jtHex.getTableHeader().setReorderingAllowed(false);
+		m_jtHex.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_INTERVAL_SELECTION);
+		m_jtHex.setAutoResizeMode(JTable.AUTO_RESIZE_LAST_COLUMN);
+
+		// Size the columns to fit their contents
+		FontMetrics fm = m_jtHex.getFontMetrics(m_jtHex.getFont());
+		int iCharWidth = fm.charWidth('0');
+		int[] iColumnChars = { 8, HexTableModel.BYTES_PER_ROW * 3 - 1, HexTableModel.BYTES_PER_ROW };
+		for (int iCnt = 0; iCnt < iColumnChars.length; iCnt++)
+		{
+			m_jtHex.getColumnModel().getColumn(iCnt).setPreferredWidth((iColumnChars[iCnt] + 2) * iCharWidth);
+		}
+		m_jtHex.setRowHeight(Math.max(m_jtHex.getRowHeight(), fm.getHeight()));
+
+		JScrollPane jspHex = new JScrollPane(m_jtHex, ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS,
+		    ScrollPaneConstants.HORIZONTAL_SCROLLBAR_AS_NEEDED);
+		jspHex.getViewport().setBackground(m_jtHex.getBackground());
+		jspHex.setPreferredSize(new Dimension(600, 250));
+
+		JSplitPane jspBytes = new JSplitPane(JSplitPane.VERTICAL_SPLIT, jspAsn1, jspHex);
+		jspBytes.setResizeWeight(0.5);
+
+		JPanel jpBytes = new JPanel(new BorderLayout());
+		jpBytes.setBorder(new EmptyBorder(5, 5, 5, 5));
+		jpBytes.add(jspBytes, BorderLayout.CENTER);
+
+		// OK button
+		JPanel jpOK = new JPanel(new FlowLayout(FlowLayout.CENTER));
+		JButton jbOK = getOkButton(true);
+		jpOK.add(jbOK);
+
+		getContentPane().add(jpBytes, BorderLayout.CENTER);
+		getContentPane().add(jpOK, BorderLayout.SOUTH);
+
+		getRootPane().setDefaultButton(jbOK);
+
+		initDialog();
+
+		setResizable(true);
+		jbOK.requestFocusInWindow();
+	}
+
+	/**
+	 * Select the bytes of the selected tree node in the hex dump.
+	 */
+	private void selectionChanged()
+	{
+		Object selected = m_jtrAsn1.getLastSelectedPathComponent();
+		if (!(selected instanceof Asn1TreeModel.Node))
+		{
+			m_jtHex.clearSelection();
+			return;
+		}
+
+		Asn1TreeModel.Node node = (Asn1TreeModel.Node) selected;
+		int iFirstRow = HexTableModel.getRow(node.getOffset());
+		int iLastRow = HexTableModel.getRow(Math.max(node.getEnd() - 1, node.getOffset()));
+		if (iFirstRow >= m_jtHex.getRowCount())
+		{
+			m_jtHex.clearSelection();
+			return;
+		}
+
+		m_jtHex.setRowSelectionInterval(iFirstRow, iLastRow);
+		m_jtHex.scrollRectToVisible(m_jtHex.getCellRect(iFirstRow, 0, true));
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * HexTableModel.java
+ * This file is part of Portecle, a multipurpose keystore and certificate tool.
+ *
+ * Copyright © 2026 Ville Skyttä, ville.skytta@iki.fi
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package net.sf.portecle.gui.crypto;
+
+import static net.sf.portecle.FPortecle.RB;
+
+import java.nio.ByteBuffer;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * The table model used to display bytes as a hex and clear text dump, one row per {@link #BYTES_PER_ROW} bytes. Cell
+ * values are formatted from the buffer only when requested, so only the rows the table actually shows are formatted.
+ */
+class HexTableModel
+    extends AbstractTableModel
+{
+	/** Number of bytes shown per row */
+	static final int BYTES_PER_ROW = 16;
+
+	/** Column names */
+	private static final String[] COLUMN_NAMES = { RB.getString("DViewBytes.OffsetColumn"),
+	    RB.getString("DViewBytes.HexColumn"), RB.getString("DViewBytes.TextColumn") };
+
+	/** Hex digits */
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	/** The bytes, from position 0 to the limit */
+	private final ByteBuffer m_data;
+
+	/**
+	 * Construct a new HexTableModel.
+	 * 
+	 * @param data The bytes to display, from the buffer's position to its limit; the buffer is not modified
+	 */
+	public HexTableModel(ByteBuffer data)
+	{
+		m_data = data.slice();
+	}
+
+	/**
+	 * Get the row showing a byte.
+	 * 
+	 * @param iOffset Offset of the byte
+	 * @return The row
+	 */
+	public static int getRow(int iOffset)
+	{
+		return iOffset / BYTES_PER_ROW;
+	}
+
+	/**
+	 * Get the number of columns in the table.
+	 * 
+	 * @return The number of columns
+	 */
+	@Override
+	public int getColumnCount()
+	{
+		return COLUMN_NAMES.length;
+	}
+
+	/**
+	 * Get the number of rows in the table.
+	 * 
+	 * @return The number of rows
+	 */
+	@Override
+	public int getRowCount()
+	{
+		return (m_data.limit() + BYTES_PER_ROW - 1) / BYTES_PER_ROW;
+	}
+
+	/**
+	 * Get the name of the column at the given position.
+	 * 
+	 * @param iCol The column position
+	 * @return The column name
+	 */
+	@Override
+	public String getColumnName(int iCol)
+	{
+		return COLUMN_NAMES[iCol];
+	}
+
+	/**
+	 * Get the class at of the cells at the given column position.
+	 * 
+	 * @param iCol The column position
+	 * @return The column cells' class
+	 */
+	@Override
+	public Class<?> getColumnClass(int iCol)
+	{
+		return String.class;
+	}
+
+	/**
+	 * Get the cell value at the given row and column position.
+	 * 
+	 * @param iRow The row position
+	 * @param iCol The column position
+	 * @return The cell value
+	 */
+	@Override
+	public Object getValueAt(int iRow, int iCol)
+	{
+		int iStart = iRow * BYTES_PER_ROW;
+		int iEnd = Math.min(iStart + BYTES_PER_ROW, m_data.limit());
+
+		switch (iCol)
+		{
+			case 0:
+			{
+				char[] offset = new char[8];
+				for (int i = offset.length - 1, iValue = iStart; i >= 0; i--, iValue >>>= 4)
+				{
+					offset[i] = HEX_DIGITS[iValue & 0xF];
+				}
+				return new String(offset);
+			}
+			case 1:
+			{
+				char[] hex = new char[BYTES_PER_ROW * 3 - 1];
+				int iPos = 0;
+				for (int i = iStart; i < iEnd; i++)
+				{
+					if (i != iStart)
+					{
+						hex[iPos++] = ' ';
+					}
+					byte b = m_data.get(i);
+					hex[iPos++] = HEX_DIGITS[(b >> 4) & 0xF];
+					hex[iPos++] = HEX_DIGITS[b & 0xF];
+				}
+				return new String(hex, 0, iPos);
+			}
+			default:
+			{
+				char[] clear = new char[iEnd - iStart];
+				for (int i = iStart; i < iEnd; i++)
+				{
+					char c = (char) (m_data.get(i) & 0xFF);
+					if (Character.isISOControl(c) || !Character.isDefined(c))
+					{
+						c = '.';
+					}
+					clear[i - iStart] = c;
+				}
+				return new String(clear);
+			}
+		}
+	}
+}